@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, in memory hand-off of a stream from one thread to another: the writer blocks when the reader falls
+ * {@code capacity} chunks behind, so nothing is buffered whole and nothing is written to disk. The writer fails
+ * instead of blocking forever when the reader is closed or when the whole copy takes longer than {@code timeout}.
+ */
+public class BytePipe {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final byte[] END = new byte[0];
+    private static final byte[] FAILED = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks;
+    private final Duration timeout;
+    private final InputStream inputStream = new PipeInputStream();
+    private volatile boolean readerClosed;
+    private volatile Exception failure;
+
+    public BytePipe(int capacity, Duration timeout) {
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+        this.timeout = timeout;
+    }
+
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Passes whole stream to the reader, fails when it is longer than {@code maxBytes}, when the reader is closed
+     * before reaching its end or when the timeout passes. Returns when the reader has received all but the last
+     * {@code capacity} chunks.
+     *
+     * @return number of passed bytes
+     */
+    public long copyFrom(InputStream source, long maxBytes) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        long copied = 0;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            int read;
+            while ((read = source.read(buffer)) >= 0) {
+                copied += read;
+                if (copied > maxBytes) {
+                    throw new IOException("Content is bigger than " + maxBytes + " bytes");
+                }
+                if (read > 0) {
+                    put(Arrays.copyOf(buffer, read), deadline);
+                }
+            }
+            put(END, deadline);
+            return copied;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+            chunks.clear();
+            chunks.offer(FAILED);
+            throw e;
+        }
+    }
+
+    private void put(byte[] chunk, long deadline) throws IOException {
+        try {
+            while (true) {
+                if (readerClosed) {
+                    throw new IOException("Reader of the pipe has been closed");
+                }
+                if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IOException("Reader has not received the content within " + timeout);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while passing data to the reader");
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+        private byte[] current = new byte[0];
+        private int position;
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (position == current.length) {
+                if (ended) {
+                    return -1;
+                }
+                nextChunk();
+            }
+            int read = Math.min(length, current.length - position);
+            System.arraycopy(current, position, bytes, offset, read);
+            position += read;
+            return read;
+        }
+
+        private void nextChunk() throws IOException {
+            byte[] chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for data");
+            }
+            if (chunk == FAILED) {
+                throw new IOException("Writing to the pipe failed", failure);
+            }
+            ended = chunk == END;
+            current = chunk;
+            position = 0;
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            chunks.clear();
+        }
+    }
+}
@@ -46,18 +46,28 @@ public class InputUtils {
             String overrideName) throws IOException {
         File firstFile = files.get(0);
         if (files.size() == 1) {
-            if (Z7LogsSource.supports(firstFile)) {
+            if (DirectoryLogsSource.supports(firstFile)) {
+                return new DirectoryLogsSource<>(firstFile, null, extractCompareObject, true);
+            } else if (Z7LogsSource.supports(firstFile)) {
                 return new Z7LogsSource<>(firstFile, extractCompareObject);
             } else if (ZipLogsSource.supports(firstFile)) {
                 return new ZipLogsSource<>(firstFile, extractCompareObject);
+            } else if (TarLogsSource.supports(firstFile)) {
+                return new TarLogsSource<>(firstFile, extractCompareObject);
             } else if (XZSource.supports(firstFile)) {
                 return new XZSource(firstFile);
             } else if (GZipInputSource.supports(firstFile)) {
                 return new GZipInputSource(firstFile);
+            } else if (ZstdSource.supports(firstFile)) {
+                return new ZstdSource(firstFile);
+            } else if (Lz4Source.supports(firstFile)) {
+                return new Lz4Source(firstFile);
+            } else if (BZip2Source.supports(firstFile)) {
+                return new BZip2Source(firstFile);
             }
         }
 
         String name = overrideName != null ? overrideName : firstFile.getName();
-        return new RegularFilesSource<>(name, files, extractCompareObject);
+        return new RegularFilesSource<>(name, files, extractCompareObject, true);
     }
 }
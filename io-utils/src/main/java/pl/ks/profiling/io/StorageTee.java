@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.io;
+
+import java.io.*;
+
+/**
+ * Copies a stream (e.g. a request body) to storage while readers follow the copy as it grows, so the content can be
+ * processed before the whole stream has been received. Readers block until more data is written and reach the end
+ * of the stream only after the copy has completed.
+ */
+public class StorageTee {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final Object lock = new Object();
+    private long written;
+    private boolean completed;
+    private Exception failure;
+
+    StorageTee(File file) throws IOException {
+        this.file = file;
+        if (!file.createNewFile()) {
+            throw new IOException("File " + file + " already exists");
+        }
+    }
+
+    public String getSavedLocation() {
+        return file.getPath();
+    }
+
+    /**
+     * Copies whole stream to storage, fails when it is longer than {@code maxBytes}. A partial copy is deleted when
+     * copying fails.
+     *
+     * @return number of copied bytes
+     */
+    public long copyFrom(InputStream inputStream, long maxBytes) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                if (written + read > maxBytes) {
+                    throw new IOException("Content is bigger than " + maxBytes + " bytes");
+                }
+                outputStream.write(buffer, 0, read);
+                synchronized (lock) {
+                    written += read;
+                    lock.notifyAll();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            completed = true;
+            lock.notifyAll();
+            return written;
+        }
+    }
+
+    public InputStream newReader() {
+        return new FollowingInputStream();
+    }
+
+    private long awaitData(long position) throws IOException {
+        synchronized (lock) {
+            while (written <= position && !completed && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for data of " + file.getName());
+                }
+            }
+            if (failure != null) {
+                throw new IOException("Copying to " + file.getName() + " failed", failure);
+            }
+            return written - position;
+        }
+    }
+
+    private class FollowingInputStream extends InputStream {
+        private InputStream inputStream;
+        private long position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            long available = awaitData(position);
+            if (available == 0) {
+                return -1;
+            }
+            if (inputStream == null) {
+                inputStream = new FileInputStream(file);
+            }
+            int read = inputStream.read(bytes, offset, (int) Math.min(length, available));
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inputStream != null) {
+                inputStream.close();
+            }
+        }
+    }
+}
@@ -19,7 +19,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
 import java.util.UUID;
 import lombok.experimental.UtilityClass;
 import org.apache.poi.util.IOUtils;
@@ -34,6 +33,15 @@ public class StorageUtils {
         return savedFileName;
     }
 
+    /**
+     * Starts a copy which can be read while it is being written, see {@link StorageTee}.
+     */
+    public StorageTee startCopy(String dir, String originalFilename) throws IOException {
+        String directoryPath = withTrailingSlash(dir);
+        makeSureDirectoryExists(directoryPath);
+        return new StorageTee(new File(directoryPath + UUID.randomUUID().toString() + originalFilename));
+    }
+
     private void makeSureDirectoryExists(String directoryPath) {
         File directory = new File(directoryPath);
         if (!directory.exists()) {
@@ -47,12 +55,4 @@ public class StorageUtils {
         }
         return path + "/";
     }
-
-    public String savePlainText(String dir, String text) throws IOException {
-        String savedFileName = dir + "/" + UUID.randomUUID().toString() + "plain-text.log";
-        try (PrintWriter out = new PrintWriter(savedFileName)) {
-            out.println(text);
-        }
-        return savedFileName;
-    }
 }
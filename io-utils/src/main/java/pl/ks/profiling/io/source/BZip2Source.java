@@ -0,0 +1,18 @@
+package pl.ks.profiling.io.source;
+
+import java.io.*;
+
+public class BZip2Source extends CompressedFileSource {
+    public BZip2Source(File file) {
+        super(file);
+    }
+
+    public static boolean supports(File file) {
+        return Compression.BZIP2.matches(file.getName()) && !TarLogsSource.supports(file);
+    }
+
+    @Override
+    protected InputStream decompress(InputStream compressed) throws IOException {
+        return Compression.BZIP2.decompress(compressed);
+    }
+}
@@ -0,0 +1,11 @@
+package pl.ks.profiling.io.source;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Source which can be split into {@link LogChunk}s, in the order of its files, to be parsed in parallel.
+ */
+public interface ChunkedLogsSource extends LogsSource {
+    List<LogChunk> getChunks() throws IOException;
+}
@@ -0,0 +1,38 @@
+package pl.ks.profiling.io.source;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Single compressed log file. Content is decompressed incrementally while it is read, so memory usage does not
+ * depend on the size of the file.
+ */
+public abstract class CompressedFileSource extends LogsSourceBase {
+    static final int INPUT_BUFFER_SIZE = 64 * 1024;
+
+    protected final File file;
+
+    protected CompressedFileSource(File file) {
+        this.file = file;
+        this.totalNumberOfFiles = 1;
+        this.files = List.of(new LogSourceFile(file.getName(), LogSourceFile.NO_SUBFILES));
+        this.inputStreams = List.of(new LazyInputStream(this::openDecompressed, this::startNextFileProcessing));
+    }
+
+    protected InputStream openDecompressed() throws IOException {
+        InputStream compressed = new BufferedInputStream(new FileInputStream(file), INPUT_BUFFER_SIZE);
+        try {
+            return decompress(compressed);
+        } catch (IOException | RuntimeException e) {
+            compressed.close();
+            throw e;
+        }
+    }
+
+    protected abstract InputStream decompress(InputStream compressed) throws IOException;
+
+    @Override
+    public String getName() {
+        return file.getName();
+    }
+}
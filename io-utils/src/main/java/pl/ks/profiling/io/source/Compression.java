@@ -0,0 +1,96 @@
+package pl.ks.profiling.io.source;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.tukaani.xz.XZInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Stream compression formats recognized by file name. All of them decompress incrementally, concatenated
+ * streams (members, frames) are read as one.
+ */
+public enum Compression {
+    NONE() {
+        @Override
+        public InputStream decompress(InputStream compressed) {
+            return compressed;
+        }
+    },
+    GZIP(".gz", ".gzip") {
+        @Override
+        public InputStream decompress(InputStream compressed) throws IOException {
+            return new GZIPInputStream(compressed, CompressedFileSource.INPUT_BUFFER_SIZE);
+        }
+    },
+    XZ(".xz") {
+        @Override
+        public InputStream decompress(InputStream compressed) throws IOException {
+            return new XZInputStream(buffered(compressed));
+        }
+    },
+    ZSTD(".zst", ".zstd") {
+        @Override
+        public InputStream decompress(InputStream compressed) throws IOException {
+            return new ZstdCompressorInputStream(buffered(compressed));
+        }
+    },
+    LZ4(".lz4") {
+        @Override
+        public InputStream decompress(InputStream compressed) throws IOException {
+            return new FramedLZ4CompressorInputStream(buffered(compressed), true);
+        }
+    },
+    BZIP2(".bz2") {
+        @Override
+        public InputStream decompress(InputStream compressed) throws IOException {
+            return new BZip2CompressorInputStream(buffered(compressed), true);
+        }
+    };
+
+    private final String[] extensions;
+
+    Compression(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    public abstract InputStream decompress(InputStream compressed) throws IOException;
+
+    public static Compression of(String fileName) {
+        for (Compression compression : values()) {
+            if (compression.matches(fileName)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    public boolean matches(String fileName) {
+        for (String extension : extensions) {
+            if (fileName.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return file name without extension of this compression
+     */
+    public String strip(String fileName) {
+        for (String extension : extensions) {
+            if (fileName.endsWith(extension)) {
+                return fileName.substring(0, fileName.length() - extension.length());
+            }
+        }
+        return fileName;
+    }
+
+    private static InputStream buffered(InputStream inputStream) {
+        return inputStream instanceof BufferedInputStream ? inputStream : new BufferedInputStream(inputStream, CompressedFileSource.INPUT_BUFFER_SIZE);
+    }
+}
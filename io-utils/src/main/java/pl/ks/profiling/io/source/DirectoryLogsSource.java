@@ -0,0 +1,94 @@
+package pl.ks.profiling.io.source;
+
+import lombok.Value;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Rotation set of a directory: files written by the JVM with -Xlog file rotation (gc.log, gc.log.0 ... gc.log.N) or
+ * with the JDK 8 rotation (gc.log.0 ... gc.log.N.current). Files are ordered by their first lines read from a small
+ * header block, empty files and files whose first line cannot be ordered (truncated) are skipped.
+ */
+public class DirectoryLogsSource<U extends Comparable<? super U>> extends RegularFilesSource<U> {
+    private static final Pattern ROTATED_FILE = Pattern.compile("(?<base>.+?)(\\.\\d+)?(\\.current)?");
+
+    private final File directory;
+
+    /**
+     * @param baseName name of the rotation set (like gc.log), when {@code null} the biggest set of the directory is used
+     */
+    public DirectoryLogsSource(File directory, String baseName, Function<String, U> extractCompareObject, boolean mapped) {
+        super(directory.getName(), orderedRotationSet(directory, baseName, extractCompareObject), mapped);
+        this.directory = directory;
+    }
+
+    public static boolean supports(File file) {
+        return file.isDirectory();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    static <U extends Comparable<? super U>> List<File> orderedRotationSet(File directory, String baseName, Function<String, U> extractCompareObject) {
+        List<File> rotationSet = findRotationSet(directory, baseName);
+        List<OrderedFile<U>> orderedFiles = new ArrayList<>(rotationSet.size());
+        for (File file : rotationSet) {
+            String firstLine = RegularFilesSource.readFirstLine(file);
+            if (firstLine.isBlank()) {
+                continue;
+            }
+            if (extractCompareObject == null) {
+                orderedFiles.add(new OrderedFile<>(file, null));
+                continue;
+            }
+            try {
+                orderedFiles.add(new OrderedFile<>(file, extractCompareObject.apply(firstLine)));
+            } catch (RuntimeException truncated) {
+                // first line cut in the middle, nothing to order the file by
+            }
+        }
+        if (extractCompareObject != null) {
+            orderedFiles.sort(Comparator.comparing(OrderedFile::getOrder));
+        }
+        return orderedFiles.stream().map(OrderedFile::getFile).collect(Collectors.toList());
+    }
+
+    static List<File> findRotationSet(File directory, String baseName) {
+        File[] candidates = directory.listFiles(file -> file.isFile() && file.length() > 0 && !file.getName().startsWith("."));
+        if (candidates == null) {
+            throw new IllegalArgumentException("Cannot list files of " + directory);
+        }
+        Map<String, List<File>> rotationSets = new TreeMap<>();
+        for (File candidate : candidates) {
+            Matcher matcher = ROTATED_FILE.matcher(candidate.getName());
+            String base = matcher.matches() ? matcher.group("base") : candidate.getName();
+            rotationSets.computeIfAbsent(base, key -> new ArrayList<>()).add(candidate);
+        }
+        if (baseName != null) {
+            return rotationSets.getOrDefault(baseName, List.of());
+        }
+        return rotationSets.values().stream()
+                .max(Comparator.comparingLong(DirectoryLogsSource::size))
+                .orElse(List.of());
+    }
+
+    private static long size(List<File> files) {
+        return files.stream().mapToLong(File::length).sum();
+    }
+
+    @Value
+    private static class OrderedFile<U> {
+        File file;
+        U order;
+    }
+}
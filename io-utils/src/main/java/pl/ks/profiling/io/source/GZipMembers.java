@@ -0,0 +1,221 @@
+package pl.ks.profiling.io.source;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Members of a concatenated (multi-member) gzip file. Candidates are found by scanning for member headers while the
+ * file is read, never further than {@link #MAX_SCAN} bytes ahead of the previous member. Each candidate reserves the
+ * size written in the trailer preceding the next candidate and is validated by decompressing it and checking its CRC.
+ */
+class GZipMembers implements ParallelDecompressionInputStream.Blocks {
+    static final int MAX_SCAN = 2 * ParallelDecompressionInputStream.MAX_BLOCK_SIZE;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int RESERVED_FLAGS = 0xe0;
+    private static final int HEADER_SIZE = 10;
+    private static final int MIN_MEMBER_SIZE = 18;
+    private static final int NOT_FOUND = -1;
+    private static final int TOO_BIG = -1;
+
+    private final File file;
+    private final ByteBuffer content;
+    private int nextStart;
+
+    private GZipMembers(File file, ByteBuffer content) {
+        this.file = file;
+        this.content = content;
+    }
+
+    /**
+     * @return members of the file or {@code null} if the file should be decompressed sequentially, which is when
+     * there is no second member close enough to the first one
+     */
+    static GZipMembers find(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            GZipMembers gZipMembers = new GZipMembers(file, content);
+            if (size < MIN_MEMBER_SIZE || !gZipMembers.isHeader(0)) {
+                return null;
+            }
+            int second = gZipMembers.findCandidate(MIN_MEMBER_SIZE);
+            if (second == NOT_FOUND || second == content.limit()) {
+                return null;
+            }
+            return gZipMembers;
+        }
+    }
+
+    @Override
+    public Member next() {
+        if (nextStart == NOT_FOUND) {
+            return null;
+        }
+        int start = nextStart;
+        int end = findCandidate(start + MIN_MEMBER_SIZE);
+        if (end == NOT_FOUND) {
+            nextStart = NOT_FOUND;
+            return new Member(start, TOO_BIG);
+        }
+        nextStart = end < content.limit() ? end : NOT_FOUND;
+        long trailerSize = Integer.reverseBytes(content.getInt(end - 4)) & 0xffffffffL;
+        return new Member(start, (int) Math.min(trailerSize, ParallelDecompressionInputStream.MAX_BLOCK_SIZE));
+    }
+
+    /**
+     * @return start of the first candidate at or after {@code from}, the file size when there is none until the end
+     * of the file, {@link #NOT_FOUND} when there is none within {@link #MAX_SCAN} bytes
+     */
+    private int findCandidate(int from) {
+        int lastCandidate = content.limit() - HEADER_SIZE;
+        int scanEnd = (int) Math.min((long) from + MAX_SCAN, (long) lastCandidate + 1);
+        for (int i = from; i < scanEnd; i++) {
+            if (isHeader(i)) {
+                return i;
+            }
+        }
+        return scanEnd > lastCandidate ? content.limit() : NOT_FOUND;
+    }
+
+    private boolean isHeader(int position) {
+        return content.get(position) == 0x1f && content.get(position + 1) == (byte) 0x8b && content.get(position + 2) == 8
+                && (content.get(position + 3) & RESERVED_FLAGS) == 0;
+    }
+
+    @Override
+    public InputStream openSequentially(long start) throws IOException {
+        InputStream compressed = new BufferedInputStream(new FileInputStream(file), CompressedFileSource.INPUT_BUFFER_SIZE);
+        try {
+            compressed.skipNBytes(start);
+            return new GZIPInputStream(compressed, CompressedFileSource.INPUT_BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            compressed.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @RequiredArgsConstructor
+    class Member implements ParallelDecompressionInputStream.Block {
+        private final int start;
+        private final int expectedSize;
+
+        @Override
+        public long getStart() {
+            return start;
+        }
+
+        @Override
+        public int getReservedSize() {
+            return expectedSize == TOO_BIG ? 0 : expectedSize;
+        }
+
+        @Override
+        public ParallelDecompressionInputStream.Decompressed decompress() throws IOException {
+            if (expectedSize == TOO_BIG) {
+                return ParallelDecompressionInputStream.Decompressed.tooBig();
+            }
+            ByteBuffer input = content.slice(start, content.limit() - start).order(ByteOrder.LITTLE_ENDIAN);
+            skipHeader(input);
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(input);
+                byte[] output = new byte[Math.min(expectedSize, 1024 * 1024)];
+                int length = 0;
+                while (!inflater.finished()) {
+                    if (length == output.length) {
+                        if (output.length == expectedSize) {
+                            if (!finishesWithoutOutput(inflater)) {
+                                return ParallelDecompressionInputStream.Decompressed.tooBig();
+                            }
+                            break;
+                        }
+                        output = Arrays.copyOf(output, (int) Math.min(output.length * 2L, expectedSize));
+                    }
+                    int inflated = inflater.inflate(output, length, output.length - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new EOFException("Unexpected end of gzip member at " + start);
+                    }
+                    length += inflated;
+                }
+                verifyTrailer(input, output, length);
+                return new ParallelDecompressionInputStream.Decompressed(output, length, start + (long) input.position());
+            } catch (DataFormatException e) {
+                throw new ZipException("Invalid gzip member at " + start + ": " + e.getMessage());
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private boolean finishesWithoutOutput(Inflater inflater) throws IOException, DataFormatException {
+            byte[] probe = new byte[1];
+            while (!inflater.finished()) {
+                if (inflater.inflate(probe) > 0) {
+                    return false;
+                }
+                if (inflater.needsInput() || inflater.needsDictionary()) {
+                    throw new EOFException("Unexpected end of gzip member at " + start);
+                }
+            }
+            return true;
+        }
+
+        private void skipHeader(ByteBuffer input) throws IOException {
+            input.position(3);
+            int flags = input.get() & 0xff;
+            input.position(10);
+            if ((flags & FEXTRA) != 0) {
+                int extraLength = input.getShort() & 0xffff;
+                input.position(input.position() + extraLength);
+            }
+            if ((flags & FNAME) != 0) {
+                skipZeroTerminated(input);
+            }
+            if ((flags & FCOMMENT) != 0) {
+                skipZeroTerminated(input);
+            }
+            if ((flags & FHCRC) != 0) {
+                input.position(input.position() + 2);
+            }
+        }
+
+        private void skipZeroTerminated(ByteBuffer input) {
+            while (input.get() != 0) {
+            }
+        }
+
+        private void verifyTrailer(ByteBuffer input, byte[] output, int length) throws IOException {
+            if (input.remaining() < 8) {
+                throw new EOFException("Missing trailer of gzip member at " + start);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(output, 0, length);
+            long expectedCrc = input.getInt() & 0xffffffffL;
+            long expectedLength = input.getInt() & 0xffffffffL;
+            if (crc.getValue() != expectedCrc || (length & 0xffffffffL) != expectedLength) {
+                throw new ZipException("Corrupted gzip member at " + start);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package pl.ks.profiling.io.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * First line of a log file, taken from a small header block so ordering files never requires reading them whole.
+ */
+class HeaderLine {
+    static final int HEADER_SIZE = 8 * 1024;
+
+    static String read(InputStream inputStream) throws IOException {
+        byte[] header = inputStream.readNBytes(HEADER_SIZE);
+        return firstLine(header, header.length);
+    }
+
+    static String firstLine(byte[] header, int length) {
+        int end = 0;
+        while (end < length && header[end] != '\n') {
+            end++;
+        }
+        if (end > 0 && header[end - 1] == '\r') {
+            end--;
+        }
+        return new String(header, 0, end, StandardCharsets.UTF_8);
+    }
+}
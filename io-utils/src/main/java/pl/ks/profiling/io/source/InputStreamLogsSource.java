@@ -0,0 +1,29 @@
+package pl.ks.profiling.io.source;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Single log read from a stream, possibly still being received. Compression is recognized by the name, archives
+ * (zip, 7z, tar) need random access and cannot be read this way.
+ */
+public class InputStreamLogsSource extends LogsSourceBase {
+    private final String name;
+
+    public InputStreamLogsSource(String name, InputStream inputStream) {
+        this.name = name;
+        this.totalNumberOfFiles = 1;
+        this.files = List.of(new LogSourceFile(name, LogSourceFile.NO_SUBFILES));
+        this.inputStreams = List.of(new LazyInputStream(() -> Compression.of(name).decompress(inputStream), this::startNextFileProcessing, inputStream));
+    }
+
+    public static boolean supports(String name) {
+        File file = new File(name);
+        return !ZipLogsSource.supports(file) && !Z7LogsSource.supports(file) && !TarLogsSource.supports(file);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,67 @@
+package pl.ks.profiling.io.source;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+class LazyInputStream extends InputStream {
+    private final StreamOpener opener;
+    private final Runnable notifyStart;
+    private final Closeable source;
+    private InputStream innerInputStream;
+    private boolean closed;
+
+    LazyInputStream(StreamOpener opener, Runnable notifyStart) {
+        this(opener, notifyStart, null);
+    }
+
+    /**
+     * @param source already open resource the stream is opened from, closed with the stream even if it has never been
+     *               opened
+     */
+    LazyInputStream(StreamOpener opener, Runnable notifyStart, Closeable source) {
+        this.opener = opener;
+        this.notifyStart = notifyStart;
+        this.source = source;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return inner().read();
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        return inner().read(bytes, offset, length);
+    }
+
+    private InputStream inner() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        if (innerInputStream == null) {
+            innerInputStream = opener.open();
+            notifyStart.run();
+        }
+        return innerInputStream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            if (innerInputStream != null) {
+                innerInputStream.close();
+            }
+        } finally {
+            if (source != null) {
+                source.close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+}
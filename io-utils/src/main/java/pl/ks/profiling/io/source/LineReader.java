@@ -0,0 +1,11 @@
+package pl.ks.profiling.io.source;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface LineReader extends Closeable {
+    /**
+     * @return next line or {@code null} when there are no more lines, returned view is valid until the next call
+     */
+    LogLine readLine() throws IOException;
+}
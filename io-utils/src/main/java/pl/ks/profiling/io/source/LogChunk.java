@@ -0,0 +1,76 @@
+package pl.ks.profiling.io.source;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Part of a log file starting at the beginning of a line and ending after a new line character (or at the end of
+ * the file). Chunks of one file share its mapping, they can be consumed independently and in parallel.
+ */
+public class LogChunk {
+    private final ByteBuffer buffer;
+    private final int fileNumber;
+    private final long offset;
+
+    LogChunk(ByteBuffer buffer, int fileNumber, long offset) {
+        this.buffer = buffer;
+        this.fileNumber = fileNumber;
+        this.offset = offset;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public int getFileNumber() {
+        return fileNumber;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getSize() {
+        return buffer.limit();
+    }
+
+    public LineReader lineReader() {
+        return new ChunkLineReader(this);
+    }
+
+    /**
+     * Lines point at the mapped bytes of the chunk, they are never copied.
+     */
+    private static class ChunkLineReader implements LineReader {
+        private final LogChunk chunk;
+        private final LogLine line = new LogLine();
+        private int position;
+
+        private ChunkLineReader(LogChunk chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public LogLine readLine() {
+            ByteBuffer buffer = chunk.buffer;
+            int limit = buffer.limit();
+            if (position >= limit) {
+                return null;
+            }
+            int end = position;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int next = end + 1;
+            if (end > position && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            line.set(buffer, position, end - position, chunk.fileNumber, chunk.offset + position);
+            position = next;
+            return line;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package pl.ks.profiling.io.source;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * View of a single UTF-8 line held in a {@link LineReader} buffer, either an array or a mapped file. The view is
+ * reused and is valid only until the next line is read, {@link #toString()} materialises (and caches) a String when
+ * one is really needed.
+ * <p>
+ * Characters and indexes are always those of {@link #toString()}. A line of ASCII bytes only, checked once per line,
+ * is read byte by byte without decoding, any other line is decoded and its methods delegate to the String.
+ */
+public final class LogLine implements CharSequence {
+    private byte[] buffer;
+    private ByteBuffer mapped;
+    private int start;
+    private int length;
+    private int fileNumber;
+    private long offset;
+    private String string;
+    private Boolean ascii;
+
+    void set(byte[] buffer, int start, int length, int fileNumber, long offset) {
+        this.buffer = buffer;
+        this.mapped = null;
+        this.start = start;
+        this.length = length;
+        this.fileNumber = fileNumber;
+        this.offset = offset;
+        this.string = null;
+        this.ascii = null;
+    }
+
+    /**
+     * Points the view at bytes of a buffer without copying them, buffer positions are not used.
+     */
+    void set(ByteBuffer mapped, int start, int length, int fileNumber, long offset) {
+        this.buffer = null;
+        this.mapped = mapped;
+        this.start = start;
+        this.length = length;
+        this.fileNumber = fileNumber;
+        this.offset = offset;
+        this.string = null;
+        this.ascii = null;
+    }
+
+    @Override
+    public int length() {
+        return isAscii() ? length : toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (!isAscii()) {
+            return toString().charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException("Index: " + index + ", length: " + length);
+        }
+        return (char) byteAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (!isAscii()) {
+            return toString().substring(start, end);
+        }
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException("Begin: " + start + ", end: " + end + ", length: " + length);
+        }
+        return decode(this.start + start, end - start);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * @return true when the line has ASCII characters only, so each byte is one character
+     */
+    public boolean isAscii() {
+        if (ascii == null) {
+            boolean onlyAscii = true;
+            for (int i = 0; i < length && onlyAscii; i++) {
+                onlyAscii = byteAt(i) >= 0;
+            }
+            ascii = onlyAscii;
+        }
+        return ascii;
+    }
+
+    public boolean startsWith(String prefix) {
+        if (!isAscii()) {
+            return toString().startsWith(prefix);
+        }
+        return prefix.length() <= length && regionMatches(0, prefix);
+    }
+
+    public boolean contains(String token) {
+        return indexOf(token, 0) >= 0;
+    }
+
+    public int indexOf(String token, int fromIndex) {
+        if (!isAscii()) {
+            return toString().indexOf(token, fromIndex);
+        }
+        int last = length - token.length();
+        if (token.isEmpty()) {
+            return Math.min(Math.max(fromIndex, 0), length);
+        }
+        byte first = (byte) token.charAt(0);
+        for (int i = Math.max(fromIndex, 0); i <= last; i++) {
+            if (byteAt(i) == first && regionMatches(i, token)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(char character, int fromIndex) {
+        if (!isAscii()) {
+            return toString().indexOf(character, fromIndex);
+        }
+        if (character > 0x7f) {
+            return -1;
+        }
+        byte searched = (byte) character;
+        for (int i = Math.max(fromIndex, 0); i < length; i++) {
+            if (byteAt(i) == searched) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private byte byteAt(int index) {
+        return buffer != null ? buffer[start + index] : mapped.get(start + index);
+    }
+
+    private String decode(int from, int count) {
+        if (buffer != null) {
+            return new String(buffer, from, count, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[count];
+        mapped.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean regionMatches(int from, String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (token.charAt(i) > 0x7f || byteAt(from + i) != (byte) token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number (starting with 1) of the file of the source this line comes from.
+     */
+    public int getFileNumber() {
+        return fileNumber;
+    }
+
+    /**
+     * Offset in bytes of the beginning of this line within its file.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        if (string == null) {
+            string = decode(start, length);
+        }
+        return string;
+    }
+}
@@ -5,6 +5,10 @@ import java.io.InputStream;
 import java.util.List;
 
 public interface LogsSource extends AutoCloseable {
+    /**
+     * Bytes of all files, for consumers reading raw content. Files are read once, so a source is read either through
+     * this stream or line by line, never both.
+     */
     InputStream getInputStream();
     String getName();
 
@@ -14,6 +18,13 @@ public interface LogsSource extends AutoCloseable {
 
     String readLine() throws IOException;
 
+    /**
+     * Reads next line without decoding it to a String. Returned view is reused, it is valid until the next read.
+     *
+     * @throws IllegalStateException when the source is already read through {@link #getInputStream()}
+     */
+    LogLine readLogLine() throws IOException;
+
     int getTotalNumberOfFiles();
 
     int getNumberOfFile();
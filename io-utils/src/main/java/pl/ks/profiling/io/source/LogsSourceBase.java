@@ -7,19 +7,69 @@ public abstract class LogsSourceBase implements LogsSource {
     protected int lineNumber = 0;
     protected int totalNumberOfFiles;
     protected int currentFileNumber = 0;
-    protected InputStream inputStream;
-    protected BufferedReader reader;
+    protected List<InputStream> inputStreams;
     protected List<LogSourceFile> files;
+    private InputStream inputStream;
+    private LineReader lineReader;
 
     @Override
     public InputStream getInputStream() {
+        if (this.lineReader != null) {
+            throw new IllegalStateException("Lines of " + getName() + " are already being read");
+        }
+        if (this.inputStream == null) {
+            try {
+                this.inputStream = SourceCommons.mergeIntertwined(getInputStreams());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         return this.inputStream;
     }
 
     @Override
     public String readLine() throws IOException {
-        this.lineNumber++;
-        return reader.readLine();
+        LogLine line = readLogLine();
+        return line == null ? null : line.toString();
+    }
+
+    @Override
+    public LogLine readLogLine() throws IOException {
+        if (this.inputStream != null) {
+            throw new IllegalStateException("Input stream of " + getName() + " is already being read");
+        }
+        if (this.lineReader == null) {
+            this.lineReader = createLineReader();
+        }
+        LogLine line = lineReader.readLine();
+        if (line != null) {
+            this.lineNumber++;
+        }
+        return line;
+    }
+
+    protected LineReader createLineReader() throws IOException {
+        return new StreamLineReader(getInputStreams());
+    }
+
+    /**
+     * @return streams of consecutive files, overridden by sources which find their files only when they are read
+     */
+    protected List<InputStream> getInputStreams() throws IOException {
+        return inputStreams;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.lineReader != null) {
+            this.lineReader.close();
+        } else if (this.inputStream != null) {
+            this.inputStream.close();
+        } else if (this.inputStreams != null) {
+            for (InputStream stream : this.inputStreams) {
+                stream.close();
+            }
+        }
     }
 
     @Override
@@ -41,4 +91,8 @@ public abstract class LogsSourceBase implements LogsSource {
     public List<LogSourceFile> getFiles() {
         return this.files;
     }
+
+    protected void startNextFileProcessing() {
+        this.currentFileNumber++;
+    }
 }
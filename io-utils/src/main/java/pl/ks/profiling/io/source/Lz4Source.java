@@ -0,0 +1,18 @@
+package pl.ks.profiling.io.source;
+
+import java.io.*;
+
+public class Lz4Source extends CompressedFileSource {
+    public Lz4Source(File file) {
+        super(file);
+    }
+
+    public static boolean supports(File file) {
+        return Compression.LZ4.matches(file.getName()) && !TarLogsSource.supports(file);
+    }
+
+    @Override
+    protected InputStream decompress(InputStream compressed) throws IOException {
+        return Compression.LZ4.decompress(compressed);
+    }
+}
@@ -0,0 +1,68 @@
+package pl.ks.profiling.io.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps a log file into memory and splits it into new line aligned {@link LogChunk}s. A single mapping cannot exceed
+ * 2 GB, so bigger files are mapped with consecutive windows, each of them starting with a new line.
+ */
+public class MappedLogFile {
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024 * 1024;
+    static final long MAX_WINDOW_SIZE = 1024 * 1024 * 1024;
+
+    public static List<LogChunk> split(File file, int fileNumber, int chunkSize) throws IOException {
+        return split(file, fileNumber, chunkSize, MAX_WINDOW_SIZE);
+    }
+
+    static List<LogChunk> split(File file, int fileNumber, int chunkSize, long maxWindowSize) throws IOException {
+        List<LogChunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long windowStart = 0;
+            while (windowStart < size) {
+                int windowSize = (int) Math.min(size - windowStart, maxWindowSize);
+                boolean lastWindow = windowStart + windowSize == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+                int chunkStart = 0;
+                while (chunkStart < windowSize) {
+                    int chunkEnd = findChunkEnd(window, chunkStart, chunkSize, lastWindow);
+                    if (chunkEnd <= chunkStart) {
+                        break;
+                    }
+                    chunks.add(new LogChunk(window.slice(chunkStart, chunkEnd - chunkStart), fileNumber, windowStart + chunkStart));
+                    chunkStart = chunkEnd;
+                }
+                if (chunkStart == 0) {
+                    throw new IOException("Line longer than " + maxWindowSize + " bytes in file " + file.getName());
+                }
+                windowStart += chunkStart;
+            }
+        }
+        return chunks;
+    }
+
+    private static int findChunkEnd(MappedByteBuffer window, int chunkStart, int chunkSize, boolean lastWindow) {
+        int windowSize = window.limit();
+        int from = (int) Math.min((long) chunkStart + chunkSize, windowSize) - 1;
+        for (int i = from; i < windowSize; i++) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        if (lastWindow) {
+            return windowSize;
+        }
+        for (int i = from - 1; i >= chunkStart; i--) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return chunkStart;
+    }
+}
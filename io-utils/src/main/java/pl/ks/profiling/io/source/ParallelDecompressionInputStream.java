@@ -0,0 +1,224 @@
+package pl.ks.profiling.io.source;
+
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decompresses independent blocks of a compressed file on a worker pool and returns their content in order.
+ * Blocks are chained by offsets: the block following a decompressed one is the block starting where it ended,
+ * candidates starting elsewhere are dropped (gzip member headers are found by scanning, so a candidate may be a
+ * false positive inside compressed data). Blocks are found while reading, each one reserves its expected
+ * decompressed size and new blocks are submitted only while reserved bytes, including the block being read, stay
+ * within {@link #MAX_BYTES_IN_FLIGHT}.
+ */
+class ParallelDecompressionInputStream extends InputStream {
+    static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    static final int WINDOW = PARALLELISM + 1;
+    static final int MAX_BLOCK_SIZE = 32 * 1024 * 1024;
+    static final long MAX_BYTES_IN_FLIGHT = 4L * MAX_BLOCK_SIZE;
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PARALLELISM, new DecompressionThreadFactory());
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Blocks blocks;
+    private final Deque<PendingBlock> pending = new ArrayDeque<>();
+    private Block nextToSubmit;
+    private long bytesInFlight;
+    private long currentReserved;
+    private long expectedStart;
+    private byte[] current = EMPTY;
+    private int position;
+    private int limit;
+    private InputStream sequential;
+    private boolean finished;
+
+    ParallelDecompressionInputStream(Blocks blocks) throws IOException {
+        this.blocks = blocks;
+        this.nextToSubmit = blocks.next();
+        this.expectedStart = nextToSubmit == null ? 0 : nextToSubmit.getStart();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (position == limit) {
+            if (sequential != null) {
+                return sequential.read(bytes, offset, length);
+            }
+            if (finished || !nextBlock()) {
+                return -1;
+            }
+        }
+        int read = Math.min(length, limit - position);
+        System.arraycopy(current, position, bytes, offset, read);
+        position += read;
+        return read;
+    }
+
+    private boolean nextBlock() throws IOException {
+        current = EMPTY;
+        position = 0;
+        limit = 0;
+        bytesInFlight -= currentReserved;
+        currentReserved = 0;
+        while (true) {
+            submitBlocks();
+            PendingBlock next = pending.pollFirst();
+            if (next == null) {
+                finished = true;
+                return false;
+            }
+            long start = next.getBlock().getStart();
+            if (start < expectedStart) {
+                cancel(next);
+                continue;
+            }
+            if (start > expectedStart) {
+                cancel(next);
+                switchToSequential();
+                return true;
+            }
+            currentReserved = next.getBlock().getReservedSize();
+            Decompressed decompressed = await(next.getFuture());
+            if (decompressed.getData() == null) {
+                switchToSequential();
+                return true;
+            }
+            current = decompressed.getData();
+            limit = decompressed.getLength();
+            expectedStart = decompressed.getEnd();
+            return true;
+        }
+    }
+
+    private void submitBlocks() throws IOException {
+        while (pending.size() < WINDOW && nextToSubmit != null
+                && bytesInFlight + nextToSubmit.getReservedSize() <= MAX_BYTES_IN_FLIGHT) {
+            Block block = nextToSubmit;
+            nextToSubmit = blocks.next();
+            if (block.getStart() >= expectedStart) {
+                bytesInFlight += block.getReservedSize();
+                pending.addLast(new PendingBlock(block, EXECUTOR.submit(block::decompress)));
+            }
+        }
+    }
+
+    private void cancel(PendingBlock pendingBlock) {
+        pendingBlock.getFuture().cancel(true);
+        bytesInFlight -= pendingBlock.getBlock().getReservedSize();
+    }
+
+    private void switchToSequential() throws IOException {
+        cancelPending();
+        sequential = blocks.openSequentially(expectedStart);
+    }
+
+    private static Decompressed await(Future<Decompressed> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompressed block");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Cannot decompress block", e.getCause());
+        }
+    }
+
+    private void cancelPending() {
+        for (PendingBlock pendingBlock : pending) {
+            cancel(pendingBlock);
+        }
+        pending.clear();
+        nextToSubmit = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        cancelPending();
+        try {
+            if (sequential != null) {
+                sequential.close();
+            }
+        } finally {
+            blocks.close();
+        }
+    }
+
+    interface Blocks extends Closeable {
+        /**
+         * @return next candidate block, starting after the previously returned one, {@code null} when there are no
+         * more candidates
+         */
+        Block next() throws IOException;
+
+        /**
+         * Fallback for data which cannot be decompressed in blocks (too big block, unrecognized data).
+         */
+        InputStream openSequentially(long start) throws IOException;
+    }
+
+    interface Block {
+        long getStart();
+
+        /**
+         * @return bytes reserved while the block is decompressed and read, at most {@link #MAX_BLOCK_SIZE}, a block
+         * decompressing to more bytes is {@link Decompressed#tooBig() too big}
+         */
+        int getReservedSize();
+
+        Decompressed decompress() throws IOException;
+    }
+
+    @Value
+    static class Decompressed {
+        private static final Decompressed TOO_BIG = new Decompressed(null, 0, 0);
+
+        byte[] data;
+        int length;
+        long end;
+
+        static Decompressed tooBig() {
+            return TOO_BIG;
+        }
+    }
+
+    @Value
+    private static class PendingBlock {
+        Block block;
+        Future<Decompressed> future;
+    }
+
+    private static class DecompressionThreadFactory implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "decompression-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -3,21 +3,35 @@ package pl.ks.profiling.io.source;
 import pl.ks.profiling.io.FilesConcatenation;
 
 import java.io.*;
-import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-public class RegularFilesSource<U extends Comparable<? super U>> extends LogsSourceBase {
+public class RegularFilesSource<U extends Comparable<? super U>> extends LogsSourceBase implements ChunkedLogsSource {
     private final String name;
+    private final List<File> orderedFiles;
+    private final boolean mapped;
 
     public RegularFilesSource(String name, List<File> files, Function<String, U> extractCompareObject) {
+        this(name, files, extractCompareObject, false);
+    }
+
+    /**
+     * @param mapped when set lines are read from memory mapped chunks of files instead of streams
+     */
+    public RegularFilesSource(String name, List<File> files, Function<String, U> extractCompareObject, boolean mapped) {
+        this(name, FilesConcatenation.sortBy(files, file -> firstLineExtractor(file, extractCompareObject)), mapped);
+    }
+
+    protected RegularFilesSource(String name, List<File> orderedFiles, boolean mapped) {
         this.name = name;
-        this.totalNumberOfFiles = files.size();
-        List<File> orderedFiles = FilesConcatenation.sortBy(files, file -> firstLineExtractor(file, extractCompareObject));
+        this.mapped = mapped;
+        this.totalNumberOfFiles = orderedFiles.size();
+        this.orderedFiles = orderedFiles;
         this.files = orderedFiles.stream().map(f -> new LogSourceFile(f.getName(), LogSourceFile.NO_SUBFILES)).collect(Collectors.toList());
-        this.inputStream = SourceCommons.mergeIntertwined(toStreams(orderedFiles));
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+        this.inputStreams = toStreams(orderedFiles);
     }
 
     @Override
@@ -25,44 +39,70 @@ public class RegularFilesSource<U extends Comparable<? super U>> extends LogsSou
         return this.name;
     }
 
-    private List<InputStream> toStreams(List<File> files) {
-        return files.stream().map(f -> new LazyFileInputStream(f, this::startNextFileProcessing)).collect(Collectors.toList());
+    @Override
+    public List<LogChunk> getChunks() throws IOException {
+        List<LogChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < orderedFiles.size(); i++) {
+            chunks.addAll(MappedLogFile.split(orderedFiles.get(i), i + 1, MappedLogFile.DEFAULT_CHUNK_SIZE));
+        }
+        return chunks;
     }
 
-    private void startNextFileProcessing() {
-        this.currentFileNumber++;
+    @Override
+    protected LineReader createLineReader() throws IOException {
+        return mapped ? new MappedFilesLineReader() : super.createLineReader();
     }
 
-    static class LazyFileInputStream extends InputStream {
-        private final File file;
-        private InputStream innerInputStream;
-        private final Runnable notifyStart;
+    private List<InputStream> toStreams(List<File> files) {
+        return files.stream()
+                .map(f -> new LazyInputStream(() -> new FileInputStream(f), this::startNextFileProcessing))
+                .collect(Collectors.toList());
+    }
 
-        public LazyFileInputStream(File file, Runnable notifyStart) {
-            this.file = file;
-            this.notifyStart = notifyStart;
+    static String readFirstLine(File file) {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return HeaderLine.read(inputStream);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
         }
+    }
+
+    private static <U> U firstLineExtractor(File file, Function<String, U> extractCompareObject) {
+        return extractCompareObject.apply(readFirstLine(file));
+    }
+
+    private class MappedFilesLineReader implements LineReader {
+        private int fileIndex = 0;
+        private Iterator<LogChunk> chunks = List.<LogChunk>of().iterator();
+        private LineReader chunkReader;
 
         @Override
-        public int read() throws IOException {
-            if (innerInputStream == null) {
-                innerInputStream = new FileInputStream(file);
-                notifyStart.run();
+        public LogLine readLine() throws IOException {
+            while (true) {
+                if (chunkReader != null) {
+                    LogLine line = chunkReader.readLine();
+                    if (line != null) {
+                        return line;
+                    }
+                    chunkReader = null;
+                }
+                while (!chunks.hasNext()) {
+                    if (fileIndex == orderedFiles.size()) {
+                        return null;
+                    }
+                    chunks = MappedLogFile.split(orderedFiles.get(fileIndex), fileIndex + 1, MappedLogFile.DEFAULT_CHUNK_SIZE).iterator();
+                    fileIndex++;
+                    startNextFileProcessing();
+                }
+                chunkReader = chunks.next().lineReader();
             }
-            return innerInputStream.read();
         }
 
         @Override
-        public void close() throws IOException {
-            this.innerInputStream.close();
-        }
-    }
-
-    private U firstLineExtractor(File file, Function<String, U> extractCompareObject) {
-        try {
-            return Files.lines(file.toPath()).map(extractCompareObject).findFirst().get();
-        } catch (IOException exception) {
-            throw new RuntimeException(exception);
+        public void close() {
+            chunks = List.<LogChunk>of().iterator();
+            chunkReader = null;
+            fileIndex = orderedFiles.size();
         }
     }
 }
@@ -0,0 +1,176 @@
+package pl.ks.profiling.io.source;
+
+import lombok.Value;
+import pl.ks.profiling.io.FilesConcatenation;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Entries of an archive which can be read efficiently only in the archive order, like a solid 7z or a tar, presented
+ * in the order of their first lines. Nothing is read before the entries are needed. Then a first pass over the archive
+ * captures the first line of each entry and a second pass reads the entries: the entry needed next is streamed
+ * directly from the archive, an entry passed before it is needed is copied to a temporary file, deleted as soon as
+ * it has been read or when the entries are closed.
+ */
+class SequentialEntries<U extends Comparable<? super U>> implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ArchiveOpener opener;
+    private final Function<String, U> extractCompareObject;
+    private final Map<Integer, File> spooled = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+
+    private List<Entry> entries;
+    private Archive secondPass;
+    private int secondPassIndex;
+    private int spooledCount;
+
+    SequentialEntries(ArchiveOpener opener, Function<String, U> extractCompareObject) {
+        this.opener = opener;
+        this.extractCompareObject = extractCompareObject;
+    }
+
+    /**
+     * @return non-empty entries in the reading order, the archive is scanned on the first call
+     */
+    List<Entry> getEntries() throws IOException {
+        if (entries == null) {
+            List<Entry> nonEmpty = readFirstLines();
+            entries = extractCompareObject == null ? nonEmpty : FilesConcatenation.sortBy(nonEmpty, e -> extractCompareObject.apply(e.getFirstLine()));
+            entries.forEach(entry -> pending.add(entry.getIndex()));
+        }
+        return entries;
+    }
+
+    List<InputStream> getInputStreams(Runnable notifyStart) throws IOException {
+        return getEntries().stream()
+                .map(entry -> new LazyInputStream(() -> open(entry), notifyStart))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return number of entries copied to temporary files so far
+     */
+    int getSpooledCount() {
+        return spooledCount;
+    }
+
+    private List<Entry> readFirstLines() throws IOException {
+        List<Entry> nonEmpty = new ArrayList<>();
+        try (Archive archive = opener.open()) {
+            String name;
+            for (int index = 0; (name = archive.nextEntry()) != null; index++) {
+                byte[] header = archive.content().readNBytes(HeaderLine.HEADER_SIZE);
+                if (header.length > 0) {
+                    nonEmpty.add(new Entry(index, name, HeaderLine.firstLine(header, header.length)));
+                }
+            }
+        }
+        return nonEmpty;
+    }
+
+    private InputStream open(Entry entry) throws IOException {
+        if (!pending.remove(entry.getIndex())) {
+            throw new IllegalStateException("Entry " + entry.getName() + " is already opened");
+        }
+        File file = spooled.remove(entry.getIndex());
+        if (file != null) {
+            return new SpooledInputStream(file);
+        }
+        if (secondPass == null) {
+            secondPass = opener.open();
+        }
+        while (secondPass.nextEntry() != null) {
+            int index = secondPassIndex++;
+            if (index == entry.getIndex()) {
+                return new FilterInputStream(secondPass.content()) {
+                    @Override
+                    public void close() {
+                        // the archive is closed with the entries
+                    }
+                };
+            }
+            if (pending.contains(index)) {
+                spooled.put(index, spool(secondPass.content()));
+                spooledCount++;
+            }
+        }
+        throw new EOFException("Entry " + entry.getName() + " is missing in the second pass over the archive");
+    }
+
+    private static File spool(InputStream content) throws IOException {
+        File file = File.createTempFile("jvm-gc-logs-analyzer-", ".entry");
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            content.transferTo(outputStream);
+        } catch (IOException | RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (secondPass != null) {
+                secondPass.close();
+            }
+        } finally {
+            spooled.values().forEach(File::delete);
+            spooled.clear();
+        }
+    }
+
+    @Value
+    static class Entry {
+        int index;
+        String name;
+        String firstLine;
+    }
+
+    /**
+     * One pass over the file entries of an archive.
+     */
+    interface Archive extends Closeable {
+        /**
+         * @return name of the next file entry or null at the end of the archive
+         */
+        String nextEntry() throws IOException;
+
+        /**
+         * @return content of the current entry
+         */
+        InputStream content();
+    }
+
+    @FunctionalInterface
+    interface ArchiveOpener {
+        Archive open() throws IOException;
+    }
+
+    private static class SpooledInputStream extends FileInputStream {
+        private final File file;
+
+        SpooledInputStream(File file) throws FileNotFoundException {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                file.delete();
+            }
+        }
+    }
+}
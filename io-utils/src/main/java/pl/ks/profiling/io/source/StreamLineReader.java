@@ -0,0 +1,122 @@
+package pl.ks.profiling.io.source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads lines of consecutive input streams (one stream per file) with a single, reusable byte buffer. Lines are not
+ * decoded up front, {@link LogLine} decodes only lines which are not pure ASCII. A file not ending with a new line
+ * character is treated as if it did, so lines of different files are never glued together.
+ */
+public class StreamLineReader implements LineReader {
+    static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final Iterator<InputStream> inputStreams;
+    private final LogLine line = new LogLine();
+    private InputStream current;
+    private byte[] buffer;
+    private int position;
+    private int scanned;
+    private int limit;
+    private boolean endOfStream;
+    private int fileNumber;
+    private long bufferOffset;
+
+    public StreamLineReader(List<InputStream> inputStreams) {
+        this(inputStreams, DEFAULT_BUFFER_SIZE);
+    }
+
+    StreamLineReader(List<InputStream> inputStreams, int bufferSize) {
+        this.inputStreams = inputStreams.iterator();
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public LogLine readLine() throws IOException {
+        while (true) {
+            if (current == null && !nextStream()) {
+                return null;
+            }
+            int newLine = indexOfNewLine();
+            if (newLine >= 0) {
+                return emit(newLine, newLine + 1);
+            }
+            if (endOfStream) {
+                if (position < limit) {
+                    return emit(limit, limit);
+                }
+                current.close();
+                current = null;
+                continue;
+            }
+            fill();
+        }
+    }
+
+    private boolean nextStream() {
+        if (!inputStreams.hasNext()) {
+            return false;
+        }
+        current = inputStreams.next();
+        fileNumber++;
+        position = 0;
+        scanned = 0;
+        limit = 0;
+        bufferOffset = 0;
+        endOfStream = false;
+        return true;
+    }
+
+    private int indexOfNewLine() {
+        byte[] buffer = this.buffer;
+        for (int i = scanned; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        scanned = limit;
+        return -1;
+    }
+
+    private LogLine emit(int end, int next) {
+        int lineEnd = end > position && buffer[end - 1] == '\r' ? end - 1 : end;
+        line.set(buffer, position, lineEnd - position, fileNumber, bufferOffset + position);
+        position = next;
+        scanned = next;
+        return line;
+    }
+
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            bufferOffset += position;
+            limit -= position;
+            scanned -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            byte[] bigger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, bigger, 0, limit);
+            buffer = bigger;
+        }
+        int read = current.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            endOfStream = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        while (inputStreams.hasNext()) {
+            inputStreams.next().close();
+        }
+    }
+}
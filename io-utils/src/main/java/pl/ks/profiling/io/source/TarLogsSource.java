@@ -0,0 +1,108 @@
+package pl.ks.profiling.io.source;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+import java.io.*;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Entries of tar archives, plain or compressed as a whole, can only be read in the archive order. They are read as
+ * {@link SequentialEntries} when the source is read, not when it is created, and ordered by their first lines like
+ * the ones of zip archives.
+ */
+public class TarLogsSource<U extends Comparable<? super U>> extends LogsSourceBase {
+    private static final List<String> SHORT_EXTENSIONS = List.of(".tgz", ".txz", ".tzst", ".tbz2", ".tbz");
+
+    private final File file;
+    private final SequentialEntries<U> sequentialEntries;
+
+    /**
+     * Entries are found only when the source is read, until then there are no subfiles.
+     */
+    public TarLogsSource(File file, Function<String, U> extractCompareObject) {
+        this.file = file;
+        this.files = List.of(new LogSourceFile(file.getName(), List.of()));
+        this.sequentialEntries = new SequentialEntries<>(() -> new TarArchive(file), extractCompareObject);
+    }
+
+    public static boolean supports(File file) {
+        String name = file.getName();
+        return SHORT_EXTENSIONS.stream().anyMatch(name::endsWith) || Compression.of(name).strip(name).endsWith(".tar");
+    }
+
+    @Override
+    public String getName() {
+        return file.getName();
+    }
+
+    @Override
+    protected List<InputStream> getInputStreams() throws IOException {
+        if (inputStreams == null) {
+            inputStreams = sequentialEntries.getInputStreams(this::startNextFileProcessing);
+            List<SequentialEntries.Entry> ordered = sequentialEntries.getEntries();
+            totalNumberOfFiles = ordered.size();
+            files = List.of(new LogSourceFile(file.getName(), ordered.stream().map(e -> new LogSourceSubfile(e.getName())).collect(Collectors.toList())));
+        }
+        return inputStreams;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            sequentialEntries.close();
+        }
+    }
+
+    private static Compression compression(String name) {
+        if (name.endsWith(".tgz")) {
+            return Compression.GZIP;
+        } else if (name.endsWith(".txz")) {
+            return Compression.XZ;
+        } else if (name.endsWith(".tzst")) {
+            return Compression.ZSTD;
+        } else if (name.endsWith(".tbz2") || name.endsWith(".tbz")) {
+            return Compression.BZIP2;
+        }
+        return Compression.of(name);
+    }
+
+    private static class TarArchive implements SequentialEntries.Archive {
+        private final TarArchiveInputStream tar;
+
+        TarArchive(File file) throws IOException {
+            InputStream compressed = new BufferedInputStream(new FileInputStream(file), CompressedFileSource.INPUT_BUFFER_SIZE);
+            try {
+                this.tar = new TarArchiveInputStream(compression(file.getName()).decompress(compressed));
+            } catch (IOException | RuntimeException e) {
+                compressed.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public String nextEntry() throws IOException {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                if (entry.isFile()) {
+                    return entry.getName();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream content() {
+            return tar;
+        }
+
+        @Override
+        public void close() throws IOException {
+            tar.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package pl.ks.profiling.io.source;
+
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Blocks of an xz file, found with the index stored at the end of the file. Blocks are numbered, the start of
+ * a block is its number.
+ */
+class XZBlocks implements ParallelDecompressionInputStream.Blocks {
+    private final File file;
+    private final List<XZBlock> blocks = new ArrayList<>();
+    private int nextBlock;
+    private final Queue<SeekableXZInputStream> idleReaders = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    private XZBlocks(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return blocks of the file or {@code null} if the file should be decompressed sequentially
+     */
+    static XZBlocks find(File file) throws IOException {
+        XZBlocks xzBlocks = new XZBlocks(file);
+        SeekableXZInputStream reader = xzBlocks.openReader();
+        int blockCount = reader.getBlockCount();
+        if (blockCount < 2) {
+            reader.close();
+            return null;
+        }
+        for (int i = 0; i < blockCount; i++) {
+            xzBlocks.blocks.add(xzBlocks.new XZBlock(i, reader.getBlockSize(i)));
+        }
+        xzBlocks.idleReaders.add(reader);
+        return xzBlocks;
+    }
+
+    private void release(SeekableXZInputStream reader) throws IOException {
+        idleReaders.add(reader);
+        if (closed) {
+            close();
+        }
+    }
+
+    private SeekableXZInputStream openReader() throws IOException {
+        SeekableFileInputStream input = new SeekableFileInputStream(file);
+        try {
+            return new SeekableXZInputStream(input);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public XZBlock next() {
+        return nextBlock < blocks.size() ? blocks.get(nextBlock++) : null;
+    }
+
+    @Override
+    public InputStream openSequentially(long start) throws IOException {
+        SeekableXZInputStream reader = openReader();
+        if (start < blocks.size()) {
+            reader.seekToBlock((int) start);
+        } else {
+            reader.seek(reader.length());
+        }
+        return reader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        SeekableXZInputStream reader;
+        while ((reader = idleReaders.poll()) != null) {
+            reader.close();
+        }
+    }
+
+    class XZBlock implements ParallelDecompressionInputStream.Block {
+        private final int number;
+        private final long size;
+
+        XZBlock(int number, long size) {
+            this.number = number;
+            this.size = size;
+        }
+
+        @Override
+        public long getStart() {
+            return number;
+        }
+
+        @Override
+        public int getReservedSize() {
+            return size > ParallelDecompressionInputStream.MAX_BLOCK_SIZE ? 0 : (int) size;
+        }
+
+        @Override
+        public ParallelDecompressionInputStream.Decompressed decompress() throws IOException {
+            if (size > ParallelDecompressionInputStream.MAX_BLOCK_SIZE) {
+                return ParallelDecompressionInputStream.Decompressed.tooBig();
+            }
+            SeekableXZInputStream reader = idleReaders.poll();
+            if (reader == null) {
+                reader = openReader();
+            }
+            try {
+                reader.seekToBlock(number);
+                byte[] data = reader.readNBytes((int) size);
+                if (data.length != size) {
+                    throw new EOFException("Unexpected end of xz block " + number);
+                }
+                release(reader);
+                return new ParallelDecompressionInputStream.Decompressed(data, data.length, number + 1);
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+        }
+    }
+}
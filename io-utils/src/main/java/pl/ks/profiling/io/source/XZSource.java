@@ -1,41 +1,24 @@
 package pl.ks.profiling.io.source;
 
-import org.apache.commons.compress.utils.IOUtils;
-import org.tukaani.xz.XZInputStream;
-
 import java.io.*;
-import java.util.List;
-
-public class XZSource extends LogsSourceBase {
-    private final ByteArrayOutputStream byteArrayOutputStream;
-    private final File file;
 
-    public XZSource(File file) throws IOException {
-        this.file = file;
-        this.files = List.of(new LogSourceFile(file.getName(), LogSourceFile.NO_SUBFILES));
-        this.totalNumberOfFiles = 1;
-        XZInputStream xzInputStream = new XZInputStream(new FileInputStream(file));
-        this.byteArrayOutputStream = new ByteArrayOutputStream();
-        IOUtils.copy(xzInputStream, byteArrayOutputStream);
-        xzInputStream.close();
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+public class XZSource extends CompressedFileSource {
+    public XZSource(File file) {
+        super(file);
     }
 
     public static boolean supports(File file) {
-        return file.getName().endsWith(".xz");
+        return Compression.XZ.matches(file.getName()) && !TarLogsSource.supports(file);
     }
 
     @Override
-    public InputStream getInputStream() {
-        if (this.inputStream == null) {
-            this.inputStream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-            currentFileNumber++;
-        }
-        return this.inputStream;
+    protected InputStream openDecompressed() throws IOException {
+        XZBlocks blocks = XZBlocks.find(file);
+        return blocks == null ? super.openDecompressed() : new ParallelDecompressionInputStream(blocks);
     }
 
     @Override
-    public String getName() {
-        return file.getName();
+    protected InputStream decompress(InputStream compressed) throws IOException {
+        return Compression.XZ.decompress(compressed);
     }
 }
@@ -2,29 +2,39 @@ package pl.ks.profiling.io.source;
 
 import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
 import org.apache.commons.compress.archivers.sevenz.SevenZFile;
-import pl.ks.profiling.io.FilesConcatenation;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Scanner;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
+/**
+ * Entries of 7z archives (usually solid) can be efficiently read only in the archive order. When there is more
+ * than one entry they are read as {@link SequentialEntries}, ordered by their first lines and spooled to temporary
+ * files only when passed before they are needed.
+ */
 public class Z7LogsSource<U extends Comparable<? super U>> extends LogsSourceBase {
     private final File file;
+    private final SevenZFile archiveFile;
+    private final List<SevenZArchiveEntry> entries;
+    private final SequentialEntries<U> sequentialEntries;
 
     public Z7LogsSource(File file, Function<String, U> extractCompareObject) throws IOException {
         this.file = file;
-        SevenZFile archiveFile = new SevenZFile(file);
-        List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) (archiveFile.getEntries());
+        this.archiveFile = new SevenZFile(file);
+        this.entries = StreamSupport.stream(archiveFile.getEntries().spliterator(), false)
+                .filter(e -> e.hasStream() && e.getSize() > 0)
+                .collect(Collectors.toList());
         this.totalNumberOfFiles = entries.size();
-        this.files = getFiles(file, entries);
-        this.inputStream = SourceCommons.mergeIntertwined(getSortedEntriesInputStreams(archiveFile, extractCompareObject));
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+        this.files = getFiles(entries.stream().map(SevenZArchiveEntry::getName).collect(Collectors.toList()));
+        this.sequentialEntries = new SequentialEntries<>(() -> new Z7Archive(new SevenZFile(file)), extractCompareObject);
     }
 
-    private List<LogSourceFile> getFiles(File file, List<SevenZArchiveEntry> entries) {
-        return List.of(new LogSourceFile(file.getName(), entries.stream().map(e -> new LogSourceSubfile(e.getName())).collect(Collectors.toList())));
+    private List<LogSourceFile> getFiles(List<String> names) {
+        return List.of(new LogSourceFile(file.getName(), names.stream().map(LogSourceSubfile::new).collect(Collectors.toList())));
     }
 
     public static boolean supports(File file) {
@@ -36,50 +46,68 @@ public class Z7LogsSource<U extends Comparable<? super U>> extends LogsSourceBas
         return this.file.getName();
     }
 
-    private List<InputStream> getSortedEntriesInputStreams(SevenZFile archiveFile, Function<String, U> extractCompareObject) {
-        List<SevenZArchiveEntry> entries = (List<SevenZArchiveEntry>) (archiveFile.getEntries());
-        if (entries.size() == 1) {
-            return List.of(new Z7LogsSource.LazySevenZInputStream(archiveFile, entries.get(0), this::startNextFileProcessing));
+    @Override
+    protected List<InputStream> getInputStreams() throws IOException {
+        if (inputStreams == null) {
+            if (entries.size() == 1) {
+                inputStreams = List.of(new LazyInputStream(() -> archiveFile.getInputStream(entries.get(0)), this::startNextFileProcessing));
+            } else {
+                inputStreams = sequentialEntries.getInputStreams(this::startNextFileProcessing);
+                List<SequentialEntries.Entry> ordered = sequentialEntries.getEntries();
+                totalNumberOfFiles = ordered.size();
+                files = getFiles(ordered.stream().map(SequentialEntries.Entry::getName).collect(Collectors.toList()));
+            }
         }
-        List<SevenZArchiveEntry> sorted = FilesConcatenation.sortBy(entries, e -> extractCompareObject.apply(readFirstLine(archiveFile, e)));
-        return sorted.stream().map(e -> new Z7LogsSource.LazySevenZInputStream(archiveFile, e, this::startNextFileProcessing)).collect(Collectors.toList());
-    }
-
-    private void startNextFileProcessing() {
-        this.currentFileNumber++;
+        return inputStreams;
     }
 
-    private static String readFirstLine(SevenZFile sevenZFile, SevenZArchiveEntry entry) {
+    @Override
+    public void close() throws IOException {
         try {
-            return readFirstLine(sevenZFile.getInputStream(entry));
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
+            super.close();
+            archiveFile.close();
+        } finally {
+            sequentialEntries.close();
         }
     }
 
-    private static String readFirstLine(InputStream inputStream) {
-        return new Scanner(inputStream).nextLine();
-    }
+    private static class Z7Archive implements SequentialEntries.Archive {
+        private final SevenZFile archiveFile;
+        private final InputStream content = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return archiveFile.read();
+            }
 
-    static class LazySevenZInputStream extends InputStream {
-        private final SevenZArchiveEntry entry;
-        private final SevenZFile file;
-        private InputStream innerInputStream;
-        private final Runnable notifyStart;
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                return archiveFile.read(bytes, offset, length);
+            }
+        };
 
-        public LazySevenZInputStream(SevenZFile file, SevenZArchiveEntry entry, Runnable notifyStart) {
-            this.entry = entry;
-            this.file = file;
-            this.notifyStart = notifyStart;
+        Z7Archive(SevenZFile archiveFile) {
+            this.archiveFile = archiveFile;
         }
 
         @Override
-        public int read() throws IOException {
-            if (innerInputStream == null) {
-                innerInputStream = file.getInputStream(entry);
-                notifyStart.run();
+        public String nextEntry() throws IOException {
+            SevenZArchiveEntry entry;
+            while ((entry = archiveFile.getNextEntry()) != null) {
+                if (entry.hasStream()) {
+                    return entry.getName();
+                }
             }
-            return innerInputStream.read();
+            return null;
+        }
+
+        @Override
+        public InputStream content() {
+            return content;
+        }
+
+        @Override
+        public void close() throws IOException {
+            archiveFile.close();
         }
     }
 }
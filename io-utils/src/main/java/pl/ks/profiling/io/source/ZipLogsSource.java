@@ -7,21 +7,22 @@ import pl.ks.profiling.io.FilesConcatenation;
 import java.io.*;
 import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class ZipLogsSource<U extends Comparable<? super U>> extends LogsSourceBase {
     private final File file;
+    private final ZipFile archiveFile;
 
     public ZipLogsSource(File file, Function<String, U> extractCompareObject) throws IOException {
         this.file = file;
-        ZipFile archiveFile = new ZipFile(file);
-        List<ZipArchiveEntry> entries = Collections.list(archiveFile.getEntries());
+        this.archiveFile = new ZipFile(file);
+        List<ZipArchiveEntry> entries = Collections.list(archiveFile.getEntries()).stream()
+                .filter(e -> !e.isDirectory())
+                .collect(Collectors.toList());
         this.files = getFiles(file, entries);
         this.totalNumberOfFiles = entries.size();
-        this.inputStream = SourceCommons.mergeIntertwined(getSortedEntriesInputStreams(archiveFile, extractCompareObject));
-        this.reader = new BufferedReader(new InputStreamReader(getInputStream()));
+        this.inputStreams = getSortedEntriesInputStreams(entries, extractCompareObject);
     }
 
     public static boolean supports(File file) {
@@ -33,52 +34,29 @@ public class ZipLogsSource<U extends Comparable<? super U>> extends LogsSourceBa
         return file.getName();
     }
 
-    private List<LogSourceFile> getFiles(File file, List<ZipArchiveEntry> entries) {
-        return List.of(new LogSourceFile(file.getName(), entries.stream().map(e -> new LogSourceSubfile(e.getName())).collect(Collectors.toList())));
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            archiveFile.close();
+        }
     }
 
-    private List<InputStream> getSortedEntriesInputStreams(ZipFile archiveFile, Function<String, U> extractCompareObject) {
-        List<ZipArchiveEntry> entries = Collections.list(archiveFile.getEntries());
-        List<ZipArchiveEntry> sorted = FilesConcatenation.sortBy(entries, e -> extractCompareObject.apply(readFirstLine(archiveFile, e)));
-        return sorted.stream().map(e -> new ZipLogsSource.LazyZipInputStream(archiveFile, e, this::startNextFileProcessing)).collect(Collectors.toList());
+    private List<LogSourceFile> getFiles(File file, List<ZipArchiveEntry> entries) {
+        return List.of(new LogSourceFile(file.getName(), entries.stream().map(e -> new LogSourceSubfile(e.getName())).collect(Collectors.toList())));
     }
 
-    private void startNextFileProcessing() {
-        this.currentFileNumber++;
+    private List<InputStream> getSortedEntriesInputStreams(List<ZipArchiveEntry> entries, Function<String, U> extractCompareObject) {
+        List<ZipArchiveEntry> sorted = entries.size() == 1 ? entries : FilesConcatenation.sortBy(entries, e -> extractCompareObject.apply(readFirstLine(e)));
+        return sorted.stream().map(e -> new LazyInputStream(() -> archiveFile.getInputStream(e), this::startNextFileProcessing)).collect(Collectors.toList());
     }
 
-    static class LazyZipInputStream extends InputStream {
-        private final ZipArchiveEntry entry;
-        private final ZipFile file;
-        private InputStream innerInputStream;
-        private final Runnable notifyStart;
-
-        public LazyZipInputStream(ZipFile file, ZipArchiveEntry entry, Runnable notifyStart) {
-            this.entry = entry;
-            this.file = file;
-            this.notifyStart = notifyStart;
+    private String readFirstLine(ZipArchiveEntry entry) {
+        try (InputStream inputStream = archiveFile.getInputStream(entry)) {
+            return HeaderLine.read(inputStream);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
-
-        @Override
-        public int read() throws IOException {
-            if (innerInputStream == null) {
-                innerInputStream = file.getInputStream(entry);
-                notifyStart.run();
-            }
-            return innerInputStream.read();
-        }
-    }
-
-    private static String readFirstLine(ZipFile archive, ZipArchiveEntry entry) {
-        try {
-            return readFirstLine(archive.getInputStream(entry));
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
-        }
-    }
-
-    private static String readFirstLine(InputStream inputStream) {
-        return new Scanner(inputStream).nextLine();
     }
-
 }
@@ -0,0 +1,18 @@
+package pl.ks.profiling.io.source;
+
+import java.io.*;
+
+public class ZstdSource extends CompressedFileSource {
+    public ZstdSource(File file) {
+        super(file);
+    }
+
+    public static boolean supports(File file) {
+        return Compression.ZSTD.matches(file.getName()) && !TarLogsSource.supports(file);
+    }
+
+    @Override
+    protected InputStream decompress(InputStream compressed) throws IOException {
+        return Compression.ZSTD.decompress(compressed);
+    }
+}
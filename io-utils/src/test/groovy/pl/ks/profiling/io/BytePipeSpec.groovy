@@ -0,0 +1,89 @@
+package pl.ks.profiling.io
+
+import pl.ks.profiling.io.source.InputStreamLogsSource
+import pl.ks.profiling.io.source.LogsSource
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+class BytePipeSpec extends Specification {
+    def "should pass stream to reader through bounded buffer"() {
+        given:
+        String content = (1..20000).collect { "[${it}.000s][info][safepoint] line ${it}" }.join("\n")
+        BytePipe bytePipe = new BytePipe(2, Duration.ofMinutes(1))
+        LogsSource source = new InputStreamLogsSource("plain-text.log", bytePipe.inputStream)
+        CompletableFuture<List<String>> lines = CompletableFuture.supplyAsync { readAll(source) }
+
+        when:
+        long passed = bytePipe.copyFrom(new ByteArrayInputStream(content.bytes), Long.MAX_VALUE)
+
+        then:
+        passed == content.length()
+        lines.get() == content.readLines()
+    }
+
+    def "should fail reader when stream is too big"() {
+        given:
+        BytePipe bytePipe = new BytePipe(2, Duration.ofMinutes(1))
+
+        when:
+        bytePipe.copyFrom(new ByteArrayInputStream(new byte[100]), 10)
+
+        then:
+        thrown(IOException)
+
+        when:
+        bytePipe.inputStream.read()
+
+        then:
+        thrown(IOException)
+    }
+
+    def "should fail writer when source is closed before its first read"() {
+        given:
+        BytePipe bytePipe = new BytePipe(2, Duration.ofMinutes(1))
+        LogsSource source = new InputStreamLogsSource("plain-text.log", bytePipe.inputStream)
+        CompletableFuture<Long> copy = CompletableFuture.supplyAsync {
+            bytePipe.copyFrom(new ByteArrayInputStream(new byte[1024 * 1024]), Long.MAX_VALUE)
+        }
+
+        when:
+        source.close()
+        copy.get(10, TimeUnit.SECONDS)
+
+        then:
+        ExecutionException e = thrown()
+        e.cause.cause instanceof IOException
+        e.cause.cause.message == "Reader of the pipe has been closed"
+    }
+
+    def "should fail writer when reader does not receive content in time"() {
+        given:
+        BytePipe bytePipe = new BytePipe(2, Duration.ofMillis(200))
+
+        when:
+        bytePipe.copyFrom(new ByteArrayInputStream(new byte[1024 * 1024]), Long.MAX_VALUE)
+
+        then:
+        IOException e = thrown()
+        e.message.startsWith("Reader has not received the content within")
+
+        when:
+        bytePipe.inputStream.read()
+
+        then:
+        thrown(IOException)
+    }
+
+    private static List<String> readAll(LogsSource source) {
+        List<String> lines = []
+        String line
+        while ((line = source.readLine()) != null) {
+            lines << line
+        }
+        return lines
+    }
+}
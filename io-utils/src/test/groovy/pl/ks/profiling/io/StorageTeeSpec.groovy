@@ -0,0 +1,69 @@
+package pl.ks.profiling.io
+
+import pl.ks.profiling.io.source.InputStreamLogsSource
+import pl.ks.profiling.io.source.LogsSource
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.SynchronousQueue
+import java.util.concurrent.TimeUnit
+
+class StorageTeeSpec extends Specification {
+    @TempDir
+    Path directory
+
+    def "should let reader follow the copy while it is written"() {
+        given:
+        SynchronousQueue<String> chunks = new SynchronousQueue<>()
+        InputStream slowBody = new InputStream() {
+            @Override
+            int read() {
+                throw new UnsupportedOperationException()
+            }
+
+            @Override
+            int read(byte[] bytes, int offset, int length) {
+                byte[] next = chunks.take().bytes
+                System.arraycopy(next, 0, bytes, offset, next.length)
+                return next.length == 0 ? -1 : next.length
+            }
+        }
+        StorageTee storageTee = StorageUtils.startCopy(directory.toString(), "gc.log")
+        LogsSource source = new InputStreamLogsSource("gc.log", storageTee.newReader())
+        CompletableFuture<Long> copy = CompletableFuture.supplyAsync { storageTee.copyFrom(slowBody, 1000) }
+
+        when:
+        chunks.put("[0.100s] first line\n")
+        String first = CompletableFuture.supplyAsync { source.readLine() }.get(10, TimeUnit.SECONDS)
+        chunks.put("[0.200s] second line\n")
+        chunks.put("")
+
+        then:
+        first == "[0.100s] first line"
+        source.readLine() == "[0.200s] second line"
+        source.readLine() == null
+        copy.get() == 41
+        new File(storageTee.savedLocation).text == "[0.100s] first line\n[0.200s] second line\n"
+    }
+
+    def "should fail readers and delete partial copy when copy fails"() {
+        given:
+        StorageTee storageTee = StorageUtils.startCopy(directory.toString(), "gc.log")
+        InputStream reader = storageTee.newReader()
+
+        when:
+        storageTee.copyFrom(new ByteArrayInputStream(new byte[100]), 10)
+
+        then:
+        thrown(IOException)
+        !new File(storageTee.savedLocation).exists()
+
+        when:
+        reader.read(new byte[10])
+
+        then:
+        thrown(IOException)
+    }
+}
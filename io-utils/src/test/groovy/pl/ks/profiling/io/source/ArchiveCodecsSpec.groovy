@@ -0,0 +1,153 @@
+package pl.ks.profiling.io.source
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream
+import org.tukaani.xz.LZMA2Options
+import org.tukaani.xz.XZOutputStream
+import pl.ks.profiling.io.InputUtils
+import pl.ks.profiling.io.TimestampTestUtils
+import spock.lang.Specification
+import spock.lang.TempDir
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+
+class ArchiveCodecsSpec extends Specification {
+    private static final Map<String, Closure<OutputStream>> COMPRESSORS = [
+            "gz" : { OutputStream out -> new GzipCompressorOutputStream(out) },
+            "xz" : { OutputStream out -> new XZOutputStream(out, new LZMA2Options()) },
+            "zst": { OutputStream out -> new ZstdCompressorOutputStream(out) },
+            "lz4": { OutputStream out -> new FramedLZ4CompressorOutputStream(out) },
+            "bz2": { OutputStream out -> new BZip2CompressorOutputStream(out) },
+            "tar": { OutputStream out -> out },
+    ]
+
+    @TempDir
+    Path directory
+
+    @Unroll
+    def "should read #name decompressing incrementally"() {
+        given:
+        File file = directory.resolve(name).toFile()
+        compress(file, "[1.000s] first\n[2.000s] second\n".getBytes(StandardCharsets.ISO_8859_1))
+
+        when:
+        LogsSource source = InputUtils.getLogsSource([file], TimestampTestUtils.&getTimeStamp)
+
+        then:
+        sourceClass.isInstance(source)
+        readAll(source) == ["[1.000s] first", "[2.000s] second"]
+
+        cleanup:
+        source?.close()
+
+        where:
+        name          || sourceClass
+        "gc.log.zst"  || ZstdSource
+        "gc.log.lz4"  || Lz4Source
+        "gc.log.bz2"  || BZip2Source
+    }
+
+    @Unroll
+    def "should order entries of #name by first line"() {
+        given:
+        File file = directory.resolve(name).toFile()
+        writeTar(file, [
+                "gc.log.1": "[20.000s] second\n",
+                "empty"   : "",
+                "gc.log.0": "[10.000s] first\n",
+                "gc.log"  : "[30.000s] third",
+        ])
+
+        when:
+        LogsSource source = InputUtils.getLogsSource([file], TimestampTestUtils.&getTimeStamp)
+        List<String> lines = readAll(source)
+
+        then:
+        source instanceof TarLogsSource
+        lines == ["[10.000s] first", "[20.000s] second", "[30.000s] third"]
+        source.files[0].subfiles*.name == ["gc.log.0", "gc.log.1", "gc.log"]
+        source.numberOfFile == 3
+
+        cleanup:
+        source?.close()
+
+        where:
+        name << ["gc.tar", "gc.tar.gz", "gc.tgz", "gc.tar.xz", "gc.tar.zst", "gc.tar.lz4", "gc.tar.bz2"]
+    }
+
+    def "should open tar entries only when lines are read"() {
+        given:
+        File file = directory.resolve("gc.tar.gz").toFile()
+
+        when:
+        LogsSource source = new TarLogsSource<>(file, TimestampTestUtils.&getTimeStamp)
+
+        then:
+        source.totalNumberOfFiles == 0
+        source.files[0].subfiles.isEmpty()
+
+        when:
+        writeTar(file, ["gc.log.1": "[20.000s] second\n", "gc.log.0": "[10.000s] first\n"])
+        List<String> lines = readAll(source)
+
+        then:
+        lines == ["[10.000s] first", "[20.000s] second"]
+        source.totalNumberOfFiles == 2
+
+        cleanup:
+        source?.close()
+    }
+
+    def "should recognize compression by name"() {
+        expect:
+        Compression.of(name) == compression
+        Compression.of(name).strip(name) == stripped
+
+        where:
+        name             || compression       | stripped
+        "gc.log"         || Compression.NONE  | "gc.log"
+        "gc.log.gzip"    || Compression.GZIP  | "gc.log"
+        "gc.log.zstd"    || Compression.ZSTD  | "gc.log"
+        "logs.tar.bz2"   || Compression.BZIP2 | "logs.tar"
+    }
+
+    private void compress(File file, byte[] content) {
+        String extension = file.name.substring(file.name.lastIndexOf('.') + 1)
+        file.withOutputStream { OutputStream out ->
+            OutputStream compressed = COMPRESSORS[extension](out)
+            compressed.write(content)
+            compressed.close()
+        }
+    }
+
+    private void writeTar(File file, Map<String, String> entries) {
+        String compression = file.name.endsWith(".tgz") ? "gz" : file.name.substring(file.name.lastIndexOf('.') + 1)
+        file.withOutputStream { OutputStream out ->
+            TarArchiveOutputStream tar = new TarArchiveOutputStream(COMPRESSORS[compression](out))
+            entries.each { String name, String content ->
+                byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1)
+                TarArchiveEntry entry = new TarArchiveEntry(name)
+                entry.size = bytes.length
+                tar.putArchiveEntry(entry)
+                tar.write(bytes)
+                tar.closeArchiveEntry()
+            }
+            tar.close()
+        }
+    }
+
+    private static List<String> readAll(LogsSource source) {
+        List<String> lines = []
+        String line
+        while ((line = source.readLine()) != null) {
+            lines << line
+        }
+        return lines
+    }
+}
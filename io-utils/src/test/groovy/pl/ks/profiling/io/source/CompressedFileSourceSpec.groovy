@@ -0,0 +1,147 @@
+package pl.ks.profiling.io.source
+
+import pl.ks.profiling.io.InputUtils
+import pl.ks.profiling.io.TimestampTestUtils
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import static pl.ks.profiling.io.TestFileUtils.getFile
+
+class CompressedFileSourceSpec extends Specification {
+    private List<String> expectedLines = getFile("compressed/gc.log").readLines()
+
+    def "should decompress file while reading it"() {
+        given:
+        LogsSource source = InputUtils.getLogsSource([getFile(fileName)], TimestampTestUtils.&getTimeStamp)
+
+        when:
+        List<String> lines = readAll(source)
+        source.close()
+
+        then:
+        sourceClass.isInstance(source)
+        lines == expectedLines
+        source.numberOfFile == 1
+        source.totalNumberOfFiles == 1
+        source.name == fileName.substring(fileName.indexOf('/') + 1)
+
+        where:
+        fileName               || sourceClass
+        "compressed/gc.log.gz" || GZipInputSource
+        "compressed/gc.log.xz" || XZSource
+    }
+
+    def "should decompress blocks in parallel and return them in order"() {
+        given:
+        File file = getFile(fileName)
+
+        when:
+        InputStream stream = new ParallelDecompressionInputStream(findBlocks(file))
+        List<String> lines = new String(stream.readAllBytes(), "ISO-8859-1").readLines()
+        stream.close()
+
+        then:
+        lines == expectedLines
+
+        where:
+        fileName                            || findBlocks
+        "compressed/gc.multi-member.log.gz" || GZipMembers.&find
+        "compressed/gc.multi-block.log.xz"  || XZBlocks.&find
+    }
+
+    def "should skip member header candidates found inside compressed data"() {
+        given:
+        File file = getFile("compressed/gc.fake-header.log.gz")
+        List<String> expected = new java.util.zip.GZIPInputStream(new FileInputStream(file)).withCloseable {
+            new String(it.readAllBytes(), "UTF-8").readLines()
+        }
+
+        when:
+        GZipMembers members = GZipMembers.find(file)
+        List<String> lines = readAll(new GZipInputSource(file))
+
+        then:
+        candidates(members) == 3
+        lines == expected
+        lines.size() == expectedLines.size() + 1
+    }
+
+    def "should keep reserved bytes of blocks ahead of the reader within the limit"() {
+        given:
+        AtomicInteger pulled = new AtomicInteger()
+        ParallelDecompressionInputStream.Blocks blocks = new ParallelDecompressionInputStream.Blocks() {
+            @Override
+            ParallelDecompressionInputStream.Block next() {
+                int number = pulled.get()
+                return number < 20 ? new FixedBlock(pulled.getAndIncrement()) : null
+            }
+
+            @Override
+            InputStream openSequentially(long start) {
+                throw new UnsupportedOperationException()
+            }
+
+            @Override
+            void close() {
+            }
+        }
+
+        when:
+        InputStream stream = new ParallelDecompressionInputStream(blocks)
+        stream.read()
+        int pulledBeforeFirstByte = pulled.get()
+        String rest = new String(stream.readAllBytes(), "UTF-8")
+
+        then:
+        pulledBeforeFirstByte <= ParallelDecompressionInputStream.MAX_BYTES_IN_FLIGHT / ParallelDecompressionInputStream.MAX_BLOCK_SIZE + 1
+        "0" + rest == (0..<20).collect { "$it\n" }.join()
+    }
+
+    def "should decompress single block files sequentially"() {
+        expect:
+        GZipMembers.find(getFile("compressed/gc.log.gz")) == null
+        XZBlocks.find(getFile("compressed/gc.log.xz")) == null
+    }
+
+    private static int candidates(ParallelDecompressionInputStream.Blocks blocks) {
+        int count = 0
+        while (blocks.next() != null) {
+            count++
+        }
+        return count
+    }
+
+    private static class FixedBlock implements ParallelDecompressionInputStream.Block {
+        private final int number
+
+        FixedBlock(int number) {
+            this.number = number
+        }
+
+        @Override
+        long getStart() {
+            return number
+        }
+
+        @Override
+        int getReservedSize() {
+            return ParallelDecompressionInputStream.MAX_BLOCK_SIZE
+        }
+
+        @Override
+        ParallelDecompressionInputStream.Decompressed decompress() {
+            byte[] data = "$number\n".getBytes("UTF-8")
+            return new ParallelDecompressionInputStream.Decompressed(data, data.length, number + 1)
+        }
+    }
+
+    private static List<String> readAll(LogsSource source) {
+        List<String> lines = []
+        String line
+        while ((line = source.readLine()) != null) {
+            lines << line
+        }
+        return lines
+    }
+}
@@ -0,0 +1,62 @@
+package pl.ks.profiling.io.source
+
+import pl.ks.profiling.io.InputUtils
+import pl.ks.profiling.io.TimestampTestUtils
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Path
+
+class DirectoryLogsSourceSpec extends Specification {
+    @TempDir
+    Path directory
+
+    def "should find and order rotation set skipping empty and truncated files"() {
+        given:
+        write("gc.log", "[40.000s][info][gc] current\n")
+        write("gc.log.0", "[20.000s][info][gc] rotated second\n")
+        write("gc.log.1", "[10.000s][info][gc] rotated first\n")
+        write("gc.log.2", "[30.000s][info][gc] rotated third")
+        write("gc.log.3", "")
+        write("gc.log.4", "[50.0")
+        write("safepoint.log", "[5.000s][info][safepoint] other set\n")
+
+        when:
+        LogsSource source = InputUtils.getLogsSource([directory.toFile()], TimestampTestUtils.&getTimeStamp)
+        List<String> lines = readAll(source)
+
+        then:
+        source instanceof DirectoryLogsSource
+        source.files*.name == ["gc.log.1", "gc.log.0", "gc.log.2", "gc.log"]
+        lines == ["[10.000s][info][gc] rotated first", "[20.000s][info][gc] rotated second", "[30.000s][info][gc] rotated third", "[40.000s][info][gc] current"]
+        source.numberOfFile == 4
+    }
+
+    def "should find jdk 8 rotation set by base name"() {
+        given:
+        write("gc.log.0", "[20.000s] second\n")
+        write("gc.log.1.current", "[30.000s] current\n")
+        write("gc.log.2", "[10.000s] first\n")
+        write("app.log", "[1.000s] application log, bigger than the rotation set\n")
+
+        when:
+        LogsSource source = new DirectoryLogsSource(directory.toFile(), "gc.log", TimestampTestUtils.&getTimeStamp, false)
+
+        then:
+        source.files*.name == ["gc.log.2", "gc.log.0", "gc.log.1.current"]
+        readAll(source) == ["[10.000s] first", "[20.000s] second", "[30.000s] current"]
+    }
+
+    private void write(String name, String content) {
+        directory.resolve(name).toFile().text = content
+    }
+
+    private static List<String> readAll(LogsSource source) {
+        List<String> lines = []
+        String line
+        while ((line = source.readLine()) != null) {
+            lines << line
+        }
+        return lines
+    }
+}
@@ -0,0 +1,96 @@
+package pl.ks.profiling.io.source
+
+import pl.ks.profiling.io.TimestampTestUtils
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+import static pl.ks.profiling.io.TestFileUtils.createTemporaryFile
+import static pl.ks.profiling.io.TestFileUtils.getFile
+
+class MappedLogFileSpec extends Specification {
+    def "should split file into new line aligned chunks"() {
+        given:
+        File file = createTemporaryFile("mappedLogFileSpec")
+        file.text = content
+
+        when:
+        List<LogChunk> chunks = MappedLogFile.split(file, 1, chunkSize, windowSize)
+
+        then:
+        chunks.collect { toString(it) } == expectedChunks
+        chunks.collect { it.offset } == expectedChunks.inject([0L]) { offsets, chunk -> offsets << offsets.last() + chunk.length() }.dropRight(1)
+
+        where:
+        content                    | chunkSize | windowSize || expectedChunks
+        "aaa\nbbb\nccc\n"          | 1         | 100        || ["aaa\n", "bbb\n", "ccc\n"]
+        "aaa\nbbb\nccc"            | 5         | 100        || ["aaa\nbbb\n", "ccc"]
+        "aaa\nbbbbbbbb\nc\nd\n"    | 2         | 100        || ["aaa\n", "bbbbbbbb\n", "c\n", "d\n"]
+        "aaa\nbbbbbbbb\nc\nd\n"    | 100       | 10         || ["aaa\n", "bbbbbbbb\n", "c\nd\n"]
+        ""                         | 10        | 100        || []
+    }
+
+    def "should read the same lines from chunks and streams"() {
+        given:
+        List<File> files = [getFile("loading/file.log.0"), getFile("loading/file.log.1"), getFile("loading/file.log.2")]
+        RegularFilesSource mapped = new RegularFilesSource("test", files, TimestampTestUtils.&getTimeStamp, true)
+        List<String> streamed = readAll(new RegularFilesSource("test", files, TimestampTestUtils.&getTimeStamp, false))
+
+        expect:
+        readAll(mapped) == streamed
+        mapped.numberOfFile == 3
+        mapped.chunks.collect { it.fileNumber } == [1, 2, 3]
+        mapped.chunks.collect { chunk -> readAll(chunk.lineReader()) }.flatten() == streamed
+    }
+
+    def "should search and decode lines directly in the mapped chunk"() {
+        given:
+        File file = createTemporaryFile("mappedLogFileSpec")
+        file.setBytes("first\r\n[0.011s][info][gc] Using G1 – ok\n".getBytes(StandardCharsets.UTF_8))
+        LineReader reader = MappedLogFile.split(file, 1, 1024).collect { it.lineReader() }.head()
+
+        when:
+        LogLine first = reader.readLine()
+
+        then:
+        first.toString() == "first"
+        first.offset == 0
+
+        when:
+        LogLine second = reader.readLine()
+
+        then:
+        second.offset == 7
+        second.startsWith("[0.011s]")
+        second.indexOf("[info]", 0) == 8
+        second.indexOf(']' as char, 9) == 13
+        second.charAt(1) == '0' as char
+        second.subSequence(19, 27) == "Using G1"
+        second.toString() == "[0.011s][info][gc] Using G1 – ok"
+        reader.readLine() == null
+    }
+
+    private static String toString(LogChunk chunk) {
+        byte[] bytes = new byte[chunk.size]
+        chunk.buffer.get(bytes)
+        return new String(bytes, StandardCharsets.ISO_8859_1)
+    }
+
+    private static List<String> readAll(LogsSource source) {
+        List<String> lines = []
+        String line
+        while ((line = source.readLine()) != null) {
+            lines << line
+        }
+        return lines
+    }
+
+    private static List<String> readAll(LineReader reader) {
+        List<String> lines = []
+        LogLine line
+        while ((line = reader.readLine()) != null) {
+            lines << line.toString()
+        }
+        return lines
+    }
+}
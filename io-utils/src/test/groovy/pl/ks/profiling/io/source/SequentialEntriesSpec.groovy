@@ -0,0 +1,177 @@
+package pl.ks.profiling.io.source
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile
+import pl.ks.profiling.io.InputUtils
+import pl.ks.profiling.io.TimestampTestUtils
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+
+class SequentialEntriesSpec extends Specification {
+    private static final Map<String, String> ENTRIES = [
+            "gc.log.1": "[20.000s] second\n",
+            "empty"   : "",
+            "gc.log.0": "[10.000s] first\n",
+            "gc.log"  : "[30.000s] third",
+    ]
+
+    @TempDir
+    Path directory
+
+    def "should stream entries needed next and spool only entries passed before they are needed"() {
+        given:
+        FakeArchiveOpener opener = new FakeArchiveOpener(ENTRIES)
+        SequentialEntries<BigDecimal> entries = new SequentialEntries<>(opener, TimestampTestUtils.&getTimeStamp)
+
+        when:
+        List<InputStream> streams = entries.getInputStreams({})
+
+        then:
+        opener.opened == 1
+        entries.entries*.name == ["gc.log.0", "gc.log.1", "gc.log"]
+        entries.spooledCount == 0
+
+        when:
+        List<String> contents = streams.collect { InputStream stream -> readAndClose(stream) }
+
+        then:
+        contents == ["[10.000s] first\n", "[20.000s] second\n", "[30.000s] third"]
+        opener.opened == 2
+        entries.spooledCount == 1
+
+        cleanup:
+        entries.close()
+    }
+
+    def "should keep archive order without comparator and never spool"() {
+        given:
+        SequentialEntries<BigDecimal> entries = new SequentialEntries<>(new FakeArchiveOpener(ENTRIES), null)
+
+        when:
+        List<String> contents = entries.getInputStreams({}).collect { InputStream stream -> readAndClose(stream) }
+
+        then:
+        entries.entries*.name == ["gc.log.1", "gc.log.0", "gc.log"]
+        contents == ["[20.000s] second\n", "[10.000s] first\n", "[30.000s] third"]
+        entries.spooledCount == 0
+
+        cleanup:
+        entries.close()
+    }
+
+    def "should delete spooled entries once read or when closed"() {
+        given:
+        SequentialEntries<BigDecimal> entries = new SequentialEntries<>(new FakeArchiveOpener(ENTRIES), TimestampTestUtils.&getTimeStamp)
+        List<InputStream> streams = entries.getInputStreams({})
+
+        when:
+        readAndClose(streams[0])
+        File spooled = entries.spooled[0]
+
+        then:
+        spooled.exists()
+
+        when:
+        streams[1].read()
+        streams[1].close()
+
+        then:
+        !spooled.exists()
+
+        when:
+        SequentialEntries<BigDecimal> abandoned = new SequentialEntries<>(new FakeArchiveOpener(ENTRIES), TimestampTestUtils.&getTimeStamp)
+        readAndClose(abandoned.getInputStreams({})[0])
+        File leftOver = abandoned.spooled[0]
+        abandoned.close()
+
+        then:
+        !leftOver.exists()
+
+        cleanup:
+        entries.close()
+    }
+
+    def "should order 7z entries by first line counting only non-empty ones"() {
+        given:
+        File file = directory.resolve("gc.7z").toFile()
+        SevenZOutputFile archive = new SevenZOutputFile(file)
+        ENTRIES.each { String name, String content ->
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8)
+            archive.putArchiveEntry(new SevenZArchiveEntry(name: name))
+            archive.write(bytes)
+            archive.closeArchiveEntry()
+        }
+        archive.close()
+
+        when:
+        LogsSource source = InputUtils.getLogsSource([file], TimestampTestUtils.&getTimeStamp)
+
+        then:
+        source instanceof Z7LogsSource
+        source.totalNumberOfFiles == 3
+
+        when:
+        List<String> lines = []
+        String line
+        while ((line = source.readLine()) != null) {
+            lines << line
+        }
+
+        then:
+        lines == ["[10.000s] first", "[20.000s] second", "[30.000s] third"]
+        source.files[0].subfiles*.name == ["gc.log.0", "gc.log.1", "gc.log"]
+        source.totalNumberOfFiles == 3
+        source.numberOfFile == 3
+
+        cleanup:
+        source?.close()
+    }
+
+    private static String readAndClose(InputStream stream) {
+        try {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8)
+        } finally {
+            stream.close()
+        }
+    }
+
+    private static class FakeArchiveOpener implements SequentialEntries.ArchiveOpener {
+        private final Map<String, String> entries
+        int opened
+
+        FakeArchiveOpener(Map<String, String> entries) {
+            this.entries = entries
+        }
+
+        @Override
+        SequentialEntries.Archive open() {
+            opened++
+            Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator()
+            return new SequentialEntries.Archive() {
+                InputStream current
+
+                @Override
+                String nextEntry() {
+                    if (!iterator.hasNext()) {
+                        return null
+                    }
+                    Map.Entry<String, String> entry = iterator.next()
+                    current = new ByteArrayInputStream(entry.value.getBytes(StandardCharsets.UTF_8))
+                    return entry.key
+                }
+
+                @Override
+                InputStream content() {
+                    return current
+                }
+
+                @Override
+                void close() {
+                }
+            }
+        }
+    }
+}
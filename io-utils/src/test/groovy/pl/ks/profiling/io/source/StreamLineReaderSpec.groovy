@@ -0,0 +1,113 @@
+package pl.ks.profiling.io.source
+
+import pl.ks.profiling.io.InputUtils
+import pl.ks.profiling.io.TimestampTestUtils
+import spock.lang.Specification
+
+import static pl.ks.profiling.io.TestFileUtils.getFile
+
+class StreamLineReaderSpec extends Specification {
+    def "should read lines of consecutive streams tracking files and offsets"() {
+        given:
+        StreamLineReader reader = new StreamLineReader([stream("first\r\nsecond\n"), stream("third"), stream("fourth\n")], 4)
+
+        expect:
+        readAll(reader) == [
+                ["first", 1, 0],
+                ["second", 1, 7],
+                ["third", 2, 0],
+                ["fourth", 3, 0]]
+    }
+
+    def "should expose line as character sequence"() {
+        given:
+        StreamLineReader reader = new StreamLineReader([stream("[0.011s][info][gc] Using G1\n")])
+
+        when:
+        LogLine line = reader.readLine()
+
+        then:
+        line.length() == 27
+        line.charAt(1) == '0' as char
+        line.startsWith("[0.011s]")
+        line.contains("Using G1")
+        line.indexOf("[info]", 0) == 8
+        line.indexOf(']' as char, 9) == 13
+        line.subSequence(1, 7) == "0.011s"
+        reader.readLine() == null
+    }
+
+    def "should decode non-ASCII names as UTF-8 with indexes of the decoded text"() {
+        given:
+        String text = "[0.011s][info][os,thread] Thread started (name: Wątek-ü)"
+        StreamLineReader reader = new StreamLineReader([new ByteArrayInputStream((text + "\n[0.012s] ascii\n").getBytes("UTF-8"))])
+
+        when:
+        LogLine line = reader.readLine()
+        int nameStart = line.indexOf("name: ", 0) + 6
+
+        then:
+        !line.isAscii()
+        line.toString() == text
+        line.length() == text.length()
+        nameStart == text.indexOf("name: ") + 6
+        line.charAt(nameStart + 1) == ('ą' as char)
+        line.indexOf('ü' as char, 0) == text.indexOf('ü')
+        line.subSequence(nameStart, line.indexOf(')' as char, nameStart)) == "Wątek-ü"
+
+        when:
+        LogLine next = reader.readLine()
+
+        then:
+        next.isAscii()
+        next.length() == 14
+        next.indexOf('ü' as char, 0) == -1
+        next.indexOf("ü", 0) == -1
+    }
+
+    def "should not read the same source both as stream and as lines"() {
+        given:
+        LogsSource source = new InputStreamLogsSource("test.log", stream("first\n"))
+
+        when:
+        source.readLogLine()
+        source.getInputStream()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "should read sorted lines from all kinds of sources"() {
+        given:
+        LogsSource source = InputUtils.getLogsSource([getFile(fileName)], TimestampTestUtils.&getTimeStamp)
+
+        when:
+        List<String> lines = []
+        LogLine line
+        while ((line = source.readLogLine()) != null) {
+            lines << line.toString()
+        }
+        source.close()
+
+        then:
+        lines.collect { it.substring(it.lastIndexOf(' ') + 1) } == ["file.log.1", "file.log.2", "file.log.0"]
+        source.numberOfLine == 3
+        source.numberOfFile == 3
+
+        where:
+        fileName << ["loading/file.log.7z", "loading/file.log.zip"]
+    }
+
+    private static List<List<Object>> readAll(LineReader reader) {
+        List<List<Object>> result = []
+        LogLine line
+        while ((line = reader.readLine()) != null) {
+            result << [line.toString(), line.fileNumber, line.offset]
+        }
+        return result
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.bytes)
+    }
+}
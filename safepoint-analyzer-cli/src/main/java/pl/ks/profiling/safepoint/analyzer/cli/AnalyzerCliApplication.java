@@ -14,6 +14,7 @@ import pl.ks.profiling.io.InputUtils;
 import pl.ks.profiling.io.source.LogsSource;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.StatsService;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Subsystem;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.xchart.commons.PresentationFontProvider;
 import pl.ks.profiling.xchart.commons.XChartCreator;
@@ -27,11 +28,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @SpringBootApplication
 public class AnalyzerCliApplication {
     private static final String REPORT_DIR = "report";
+    private static final String SUBSYSTEMS_OPTION = "--subsystems=";
 
     private final PresentationFontProvider presentationFontProvider = new PresentationFontProviderCli();
     private final XChartCreator xChartCreator = new XChartCreator(presentationFontProvider);
@@ -47,8 +50,9 @@ public class AnalyzerCliApplication {
             throw new IllegalStateException("The report dir already exists");
         }
 
+        Set<Subsystem> subsystems = Subsystem.parse(args.length > 1 ? args[1].substring(SUBSYSTEMS_OPTION.length()) : null);
         LogsSource logsSource = InputUtils.getLogsSource(List.of(new File(args[0])), ParserUtils::getTimeStamp);
-        statsService.createAllStatsUnifiedLogger(logsSource, parsingProgress -> {
+        statsService.createAllStatsUnifiedLogger(logsSource, subsystems, parsingProgress -> {
         }, jvmLogFile -> {
             createReport(jvmLogFile, resultDir);
         });
@@ -155,12 +159,13 @@ public class AnalyzerCliApplication {
 
     private static void printInfo() {
         System.out.println("Proper usage:");
-        System.out.println("  java -jar analyzer-cli.jar <jvm log file>");
+        System.out.println("  java -jar analyzer-cli.jar <jvm log file> [" + SUBSYSTEMS_OPTION + "<subsystems>]");
+        System.out.println("Subsystems are comma separated, some of " + Subsystem.names() + ". All of them are analysed by default.");
         System.out.println("The report will be created in " + REPORT_DIR + " directory. If that directory exists the IllegalStateException is thrown.");
     }
 
     public static void main(String[] args) throws Exception {
-        if (args.length != 1) {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].startsWith(SUBSYSTEMS_OPTION))) {
             printInfo();
             return;
         }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons;
+
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
+
+/**
+ * Parser of unified logging (JDK 9+) lines. Lines are delivered with their decorators already decoded, only when
+ * the parser is interested in their tags, or when tags are not among the decorators at all.
+ */
+public interface UnifiedLogParser<T> extends FileParser<T> {
+    boolean isInterestedIn(LogTags tags);
+
+    void parseLine(String line, LineHeader header);
+
+    @Override
+    default void parseLine(String line) {
+        LineHeader header = LineHeader.decode(line);
+        if (header.getTags() == null || isInterestedIn(header.getTags())) {
+            parseLine(line, header);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * Counters growing with events, like loaded and unloaded compilations. Current values are kept in a primitive array,
+ * values over time are kept as one snapshot per time bucket of {@code resolution} nanoseconds: the state after the
+ * last event of the bucket, stamped with the time of that event. When the number of snapshots reaches its maximum the
+ * resolution is doubled and snapshots falling into the same wider bucket are merged, so memory is bounded whatever
+ * the number of events and the time span of the log.
+ */
+public class CumulativeCounters {
+    public static final int DEFAULT_MAX_SNAPSHOTS = 10_000;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int columns;
+    private final int maxSnapshots;
+    private final long[] current;
+
+    private long resolution;
+
+    private int size;
+    private long lastBucket;
+    private long[] timeStamps = new long[INITIAL_CAPACITY];
+    private long[] values;
+
+    public CumulativeCounters(int columns, long resolution) {
+        this(columns, resolution, DEFAULT_MAX_SNAPSHOTS);
+    }
+
+    /**
+     * @param resolution initial nanoseconds between snapshots
+     */
+    public CumulativeCounters(int columns, long resolution, int maxSnapshots) {
+        if (columns <= 0) {
+            throw new IllegalArgumentException("Number of counters must be positive: " + columns);
+        }
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        if (maxSnapshots < 2) {
+            throw new IllegalArgumentException("At least two snapshots are needed: " + maxSnapshots);
+        }
+        this.columns = columns;
+        this.resolution = resolution;
+        this.maxSnapshots = maxSnapshots;
+        this.current = new long[columns];
+        this.values = new long[INITIAL_CAPACITY * columns];
+    }
+
+    public void increment(long timeStamp, int column) {
+        current[column]++;
+        snapshot(timeStamp);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return current nanoseconds between snapshots, growing as snapshots are merged
+     */
+    public long getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @return number of snapshots
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimeStamp(int snapshot) {
+        return timeStamps[snapshot];
+    }
+
+    public long get(int snapshot, int column) {
+        return values[snapshot * columns + column];
+    }
+
+    /**
+     * @return value after the last event, equal to the value of the last snapshot
+     */
+    public long getCurrent(int column) {
+        return current[column];
+    }
+
+    /**
+     * @param view creates a value from the index of a snapshot
+     * @return list of snapshots, values are created with {@code view} when accessed
+     */
+    public <T> List<T> asList(IntFunction<T> view) {
+        return new Snapshots<>(view);
+    }
+
+    /**
+     * @param view creates a value from the index of a snapshot
+     * @return value of the last snapshot, equal to the current values, null when there was no event
+     */
+    public <T> T last(IntFunction<T> view) {
+        return size == 0 ? null : view.apply(size - 1);
+    }
+
+    private void snapshot(long timeStamp) {
+        long bucket = Math.floorDiv(timeStamp, resolution);
+        while (size >= maxSnapshots && bucket != lastBucket && resolution <= Long.MAX_VALUE / 2) {
+            coarsen();
+            bucket = Math.floorDiv(timeStamp, resolution);
+        }
+        if (size == 0 || bucket != lastBucket) {
+            if (size == timeStamps.length) {
+                timeStamps = Arrays.copyOf(timeStamps, size * 2);
+                values = Arrays.copyOf(values, size * 2 * columns);
+            }
+            size++;
+            lastBucket = bucket;
+        }
+        timeStamps[size - 1] = timeStamp;
+        System.arraycopy(current, 0, values, (size - 1) * columns, columns);
+    }
+
+    /**
+     * Doubles the resolution keeping the last snapshot of each wider bucket.
+     */
+    private void coarsen() {
+        resolution *= 2;
+        int kept = 0;
+        long keptBucket = 0;
+        for (int snapshot = 0; snapshot < size; snapshot++) {
+            long bucket = Math.floorDiv(timeStamps[snapshot], resolution);
+            if (kept == 0 || bucket != keptBucket) {
+                kept++;
+                keptBucket = bucket;
+            }
+            timeStamps[kept - 1] = timeStamps[snapshot];
+            System.arraycopy(values, snapshot * columns, values, (kept - 1) * columns, columns);
+        }
+        size = kept;
+        lastBucket = keptBucket;
+    }
+
+    private class Snapshots<T> extends AbstractList<T> implements RandomAccess {
+        private final IntFunction<T> view;
+
+        Snapshots(IntFunction<T> view) {
+            this.view = view;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return view.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order of decorators of unified logging lines, e.g. {@code [time][uptimenanos][level][tags]} for
+ * {@code -Xlog:gc*:file=gc.log:time,uptimenanos,level,tags}. The layout is sniffed once from the first lines of a
+ * file, afterwards headers are decoded by position: uptime, level and tags decorators are read, all the others are
+ * skipped to their closing bracket. Lines that do not follow the layout are decoded on their own.
+ */
+public final class DecoratorLayout {
+    public enum Decorator {
+        TIME, UTCTIME, UPTIME, TIMEMILLIS, UPTIMEMILLIS, TIMENANOS, UPTIMENANOS, HOSTNAME, PID, TID, LEVEL, TAGS
+    }
+
+    /**
+     * Number of characters at the beginning of a file the layout is sniffed from.
+     */
+    public static final int SAMPLE_CHARS = 4 * 1024;
+
+    private static final DecoratorLayout NONE = new DecoratorLayout(new Decorator[0]);
+    private static final Decorator[] DECORATORS = Decorator.values();
+    private static final LineHeader.Level[] LEVELS = LineHeader.Level.values();
+    private static final String[] LEVEL_NAMES = {"trace", "debug", "info", "warning", "error"};
+    // timemillis and timenanos are since the epoch, that is more than 30 years of uptime
+    private static final long EPOCH_NANOS_THRESHOLD = 1_000_000_000_000L * Nanos.PER_MILLI;
+
+    private final Decorator[] decorators;
+    private final int uptimeSlot;
+    private final long uptimeUnit;
+    private final int levelSlot;
+    private final int tagsSlot;
+
+    private DecoratorLayout(Decorator[] decorators) {
+        this.decorators = decorators;
+        int uptime = indexOf(decorators, Decorator.UPTIME);
+        long unit = Nanos.PER_SECOND;
+        if (uptime < 0) {
+            uptime = indexOf(decorators, Decorator.UPTIMEMILLIS);
+            unit = Nanos.PER_MILLI;
+        }
+        if (uptime < 0) {
+            uptime = indexOf(decorators, Decorator.UPTIMENANOS);
+            unit = 1;
+        }
+        this.uptimeSlot = uptime;
+        this.uptimeUnit = unit;
+        this.levelSlot = indexOf(decorators, Decorator.LEVEL);
+        this.tagsSlot = indexOf(decorators, Decorator.TAGS);
+    }
+
+    /**
+     * @return layout followed by most of decorated lines, null when none of lines is decorated
+     */
+    public static DecoratorLayout sniff(List<? extends CharSequence> lines) {
+        Map<List<Decorator>, DecoratorLayout> layouts = new HashMap<>();
+        Map<List<Decorator>, Integer> counts = new HashMap<>();
+        DecoratorLayout sniffed = null;
+        int sniffedCount = 0;
+        for (CharSequence line : lines) {
+            DecoratorLayout layout = of(line);
+            if (layout == NONE) {
+                continue;
+            }
+            List<Decorator> key = layout.getDecorators();
+            layouts.putIfAbsent(key, layout);
+            int count = counts.merge(key, 1, Integer::sum);
+            if (count > sniffedCount) {
+                sniffed = layouts.get(key);
+                sniffedCount = count;
+            }
+        }
+        return sniffed;
+    }
+
+    /**
+     * Classifies decorators of a single line. Decorators that cannot be told apart by their content are told apart
+     * by the order they are always printed in: time, utctime, uptime, timemillis, uptimemillis, timenanos,
+     * uptimenanos, hostname, pid, tid, level and tags.
+     */
+    public static DecoratorLayout of(CharSequence line) {
+        int length = line.length();
+        if (length == 0 || line.charAt(0) != '[') {
+            return NONE;
+        }
+        List<Decorator> found = new ArrayList<>();
+        int pos = 0;
+        while (pos < length && line.charAt(pos) == '[') {
+            int close = indexOf(line, ']', pos + 1);
+            if (close < 0) {
+                break;
+            }
+            int start = pos + 1;
+            Decorator decorator = classify(line, start, trimEnd(line, start, close));
+            found.add(decorator);
+            pos = close + 1;
+            if (decorator == Decorator.TAGS && found.size() > 1 && found.get(found.size() - 2) == Decorator.LEVEL) {
+                // tags right after the level are the last decorator, further brackets belong to the message
+                break;
+            }
+        }
+        Decorator[] decorators = found.toArray(new Decorator[0]);
+        // for repeated kinds only the last one is what it looks like
+        boolean[] seen = new boolean[DECORATORS.length];
+        for (int i = decorators.length - 1; i >= 0; i--) {
+            Decorator decorator = decorators[i];
+            if (seen[decorator.ordinal()]) {
+                decorators[i] = earlier(decorator);
+            }
+            seen[decorator.ordinal()] = true;
+        }
+        // time and utctime look alike, a single one is time
+        int utcTime = indexOf(decorators, Decorator.UTCTIME);
+        if (utcTime >= 0 && indexOf(decorators, Decorator.TIME) < 0) {
+            decorators[utcTime] = Decorator.TIME;
+        }
+        return new DecoratorLayout(decorators);
+    }
+
+    public List<Decorator> getDecorators() {
+        return List.of(decorators);
+    }
+
+    /**
+     * Decodes header of a line with this layout, falls back to {@link LineHeader#decode(CharSequence, LogTags.Table)}
+     * when the line does not follow it.
+     */
+    public LineHeader decode(CharSequence line, LogTags.Table tagsTable) {
+        LineHeader header = decodeSlots(line, tagsTable);
+        return header != null ? header : of(line).decodeSlots(line, tagsTable);
+    }
+
+    /**
+     * @return decoded header, null when line does not follow this layout
+     */
+    LineHeader decodeSlots(CharSequence line, LogTags.Table tagsTable) {
+        int length = line.length();
+        long uptimeNanos = -1;
+        LineHeader.Level level = null;
+        int tagsStart = -1;
+        int tagsEnd = -1;
+        int pos = 0;
+        for (int slot = 0; slot < decorators.length; slot++) {
+            if (pos >= length || line.charAt(pos) != '[') {
+                return null;
+            }
+            int close = indexOf(line, ']', pos + 1);
+            if (close < 0) {
+                return null;
+            }
+            int start = pos + 1;
+            if (slot == uptimeSlot) {
+                uptimeNanos = duration(line, start, trimEnd(line, start, close), uptimeUnit);
+                if (uptimeNanos < 0) {
+                    return null;
+                }
+            } else if (slot == levelSlot) {
+                level = level(line, start, trimEnd(line, start, close));
+                if (level == null) {
+                    return null;
+                }
+            } else if (slot == tagsSlot) {
+                tagsStart = start;
+                tagsEnd = trimEnd(line, start, close);
+            }
+            pos = close + 1;
+        }
+        boolean tagsAfterLevel = tagsSlot == decorators.length - 1 && levelSlot >= 0 && levelSlot == tagsSlot - 1;
+        if (!tagsAfterLevel && pos < length && line.charAt(pos) == '[' && indexOf(line, ']', pos + 1) >= 0) {
+            return null;
+        }
+        if (pos > 0 && pos < length && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        LogTags tags = null;
+        if (tagsStart >= 0) {
+            tags = tagsTable != null ? tagsTable.intern(line, tagsStart, tagsEnd) : LogTags.of(line.subSequence(tagsStart, tagsEnd).toString());
+        }
+        return new LineHeader(uptimeNanos, level, tags, pos);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(decorators);
+    }
+
+    private static Decorator classify(CharSequence line, int start, int end) {
+        long nanos = duration(line, start, end, Nanos.PER_SECOND);
+        if (nanos >= 0) {
+            return Decorator.UPTIME;
+        }
+        nanos = duration(line, start, end, Nanos.PER_MILLI);
+        if (nanos >= 0) {
+            return nanos >= EPOCH_NANOS_THRESHOLD ? Decorator.TIMEMILLIS : Decorator.UPTIMEMILLIS;
+        }
+        nanos = duration(line, start, end, 1);
+        if (nanos >= 0) {
+            return nanos >= EPOCH_NANOS_THRESHOLD ? Decorator.TIMENANOS : Decorator.UPTIMENANOS;
+        }
+        if (level(line, start, end) != null) {
+            return Decorator.LEVEL;
+        }
+        if (isTime(line, start, end)) {
+            return Decorator.UTCTIME;
+        }
+        if (isNumber(line, start, end)) {
+            return Decorator.TID;
+        }
+        if (isTagSet(line, start, end)) {
+            return Decorator.TAGS;
+        }
+        return Decorator.HOSTNAME;
+    }
+
+    private static Decorator earlier(Decorator decorator) {
+        switch (decorator) {
+            case UTCTIME:
+                return Decorator.TIME;
+            case UPTIMEMILLIS:
+                return Decorator.TIMEMILLIS;
+            case UPTIMENANOS:
+                return Decorator.TIMENANOS;
+            case TID:
+                return Decorator.PID;
+            case TAGS:
+                return Decorator.HOSTNAME;
+            default:
+                return decorator;
+        }
+    }
+
+    /**
+     * @return duration like {@code 1.234s}, {@code 1234ms} or {@code 1234ns} in nanoseconds, when it is written in
+     * the given unit, -1 otherwise
+     */
+    private static long duration(CharSequence line, int start, int end, long unit) {
+        int suffixLength = unit == Nanos.PER_SECOND ? 1 : 2;
+        int numberEnd = end - suffixLength;
+        if (numberEnd <= start || line.charAt(end - 1) != 's') {
+            return -1;
+        }
+        if (unit == Nanos.PER_MILLI && line.charAt(numberEnd) != 'm' || unit == 1 && line.charAt(numberEnd) != 'n') {
+            return -1;
+        }
+        long unscaled = 0;
+        int separator = -1;
+        for (int i = start; i < numberEnd; i++) {
+            char character = line.charAt(i);
+            if (character == '.' || character == ',') {
+                if (separator >= 0 || i == start) {
+                    return -1;
+                }
+                separator = i;
+            } else if (character >= '0' && character <= '9') {
+                unscaled = unscaled * 10 + character - '0';
+            } else {
+                return -1;
+            }
+        }
+        int scale = separator < 0 ? 0 : numberEnd - separator - 1;
+        return Nanos.of(unscaled, scale, unit);
+    }
+
+    private static LineHeader.Level level(CharSequence line, int start, int end) {
+        for (int i = 0; i < LEVEL_NAMES.length; i++) {
+            String name = LEVEL_NAMES[i];
+            if (name.length() == end - start && regionMatches(line, start, name)) {
+                return LEVELS[i];
+            }
+        }
+        return null;
+    }
+
+    // 2020-12-21T01:04:47.091+0000
+    private static boolean isTime(CharSequence line, int start, int end) {
+        return end - start > 10 && isNumber(line, start, start + 4) && line.charAt(start + 4) == '-' && line.charAt(start + 10) == 'T';
+    }
+
+    private static boolean isNumber(CharSequence line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char character = line.charAt(i);
+            if (character < '0' || character > '9') {
+                return false;
+            }
+        }
+        return end > start;
+    }
+
+    private static boolean isTagSet(CharSequence line, int start, int end) {
+        boolean letter = false;
+        for (int i = start; i < end; i++) {
+            char character = line.charAt(i);
+            if (character >= 'a' && character <= 'z') {
+                letter = true;
+            } else if (!(character >= '0' && character <= '9') && character != ',' && character != '_') {
+                return false;
+            }
+        }
+        return letter;
+    }
+
+    private static int indexOf(Decorator[] decorators, Decorator decorator) {
+        for (int i = 0; i < decorators.length; i++) {
+            if (decorators[i] == decorator) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence line, char character, int from) {
+        for (int i = from; i < line.length(); i++) {
+            if (line.charAt(i) == character) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int trimEnd(CharSequence line, int start, int end) {
+        while (end > start && line.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean regionMatches(CharSequence line, int start, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (line.charAt(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,7 +24,7 @@ import org.springframework.context.annotation.Configuration;
 @EnableAutoConfiguration
 public class KernelConfiguration {
     @Bean
-    StatsService statsService() {
-        return new StatsService();
+    StatsService statsService(@Value("${parsing.mode:PARALLEL}") ParsingMode parsingMode) {
+        return new StatsService(parsingMode);
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+/**
+ * Decorators of a unified logging line, e.g. {@code [2020-12-21T01:04:47.091+0000][1778483.410s][debug][gc,ergo ]},
+ * decoded once per line. Uptime (in seconds, milliseconds or nanoseconds), level and tags are recognized, other
+ * decorators are skipped. Header does not keep a reference to the line, so it stays valid when the line view is
+ * reused.
+ */
+public final class LineHeader {
+    public enum Level {
+        TRACE, DEBUG, INFO, WARNING, ERROR
+    }
+
+    private final long uptimeNanos;
+    private final Level level;
+    private final LogTags tags;
+    private final int messageStart;
+
+    LineHeader(long uptimeNanos, Level level, LogTags tags, int messageStart) {
+        this.uptimeNanos = uptimeNanos;
+        this.level = level;
+        this.tags = tags;
+        this.messageStart = messageStart;
+    }
+
+    public static LineHeader decode(CharSequence line) {
+        return decode(line, null);
+    }
+
+    /**
+     * Decodes a line on its own, classifying its decorators. Lines of a whole file are decoded by a {@link LineRouter}
+     * with a sniffed {@link DecoratorLayout}.
+     */
+    public static LineHeader decode(CharSequence line, LogTags.Table tagsTable) {
+        return DecoratorLayout.of(line).decodeSlots(line, tagsTable);
+    }
+
+    public boolean hasUptime() {
+        return uptimeNanos >= 0;
+    }
+
+    /**
+     * @return uptime decorator in nanoseconds, or -1 when line has no uptime decorator
+     */
+    public long getUptimeNanos() {
+        return uptimeNanos;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public boolean isLevel(Level level) {
+        return this.level == level;
+    }
+
+    public LogTags getTags() {
+        return tags;
+    }
+
+    /**
+     * @return true when line is tagged with all given tags; when there is no tags decorator, falls back to looking
+     * for the tags, comma separated, anywhere in the line
+     */
+    public boolean hasTags(String line, String... tags) {
+        return this.tags != null ? this.tags.hasAll(tags) : line.contains(String.join(",", tags));
+    }
+
+    /**
+     * @return index of the first character after decorators
+     */
+    public int getMessageStart() {
+        return messageStart;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import pl.ks.profiling.io.source.LogLine;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+
+/**
+ * Decodes the header of each unified logging line once and passes the line only to parsers interested in its
+ * tags. Subscribers are resolved once per distinct tag set. The line is converted to a String only when at least
+ * one parser receives it. Closing the router is the barrier after which results of parsers can be fetched.
+ * <p>
+ * Routing a whole file with {@link #routeAll(LineSource)} sniffs its {@link DecoratorLayout} first, so headers of
+ * the rest of the file are decoded by position. Lines routed one by one are decoded with the layout of the previous
+ * line, which every router keeps for itself, so routers parsing different files concurrently share no state.
+ */
+public class LineRouter implements AutoCloseable {
+    @FunctionalInterface
+    public interface LineSource {
+        /**
+         * @return next line, or null at the end; the line may be a view valid only until the next call
+         */
+        LogLine next() throws IOException;
+    }
+
+    private static final UnifiedLogParser<?>[] NO_PARSERS = new UnifiedLogParser<?>[0];
+
+    protected final UnifiedLogParser<?>[] parsers;
+    private final LogTags.Table tagsTable = new LogTags.Table();
+    private UnifiedLogParser<?>[][] subscribers = new UnifiedLogParser<?>[64][];
+    private DecoratorLayout layout;
+    // layout of the previous line, for lines routed without a sniffed layout
+    private DecoratorLayout lastLayout;
+
+    public LineRouter(List<? extends UnifiedLogParser<?>> parsers) {
+        this.parsers = parsers.toArray(NO_PARSERS);
+    }
+
+    /**
+     * Routes all lines of the source. First {@link DecoratorLayout#SAMPLE_CHARS} are read ahead to sniff the
+     * decorator layout, they are routed afterwards in the same order.
+     */
+    public void routeAll(LineSource lines) throws IOException {
+        List<String> sample = new ArrayList<>();
+        int sampledChars = 0;
+        LogLine line = lines.next();
+        while (line != null && sampledChars < DecoratorLayout.SAMPLE_CHARS) {
+            String text = line.toString();
+            sample.add(text);
+            sampledChars += text.length() + 1;
+            line = lines.next();
+        }
+        layout = DecoratorLayout.sniff(sample);
+        for (String sampled : sample) {
+            route(sampled);
+        }
+        while (line != null) {
+            route(line);
+            line = lines.next();
+        }
+    }
+
+    public void route(CharSequence line) {
+        LineHeader header = layout != null ? layout.decode(line, tagsTable) : decodeWithLastLayout(line);
+        UnifiedLogParser<?>[] receivers = header.getTags() == null ? parsers : subscribersOf(header.getTags());
+        if (receivers.length == 0) {
+            return;
+        }
+        deliver(receivers, line, header);
+    }
+
+    /**
+     * @param line may be a view valid only until the next line is routed
+     */
+    protected void deliver(UnifiedLogParser<?>[] receivers, CharSequence line, LineHeader header) {
+        String text = line.toString();
+        for (UnifiedLogParser<?> parser : receivers) {
+            parser.parseLine(text, header);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private LineHeader decodeWithLastLayout(CharSequence line) {
+        LineHeader header = lastLayout != null ? lastLayout.decodeSlots(line, tagsTable) : null;
+        if (header == null) {
+            lastLayout = DecoratorLayout.of(line);
+            header = lastLayout.decodeSlots(line, tagsTable);
+        }
+        return header;
+    }
+
+    private UnifiedLogParser<?>[] subscribersOf(LogTags tags) {
+        int id = tags.getId();
+        if (id >= subscribers.length) {
+            subscribers = Arrays.copyOf(subscribers, Math.max(id + 1, subscribers.length * 2));
+        }
+        UnifiedLogParser<?>[] resolved = subscribers[id];
+        if (resolved == null) {
+            resolved = Arrays.stream(parsers).filter(parser -> parser.isInterestedIn(tags)).toArray(UnifiedLogParser<?>[]::new);
+            subscribers[id] = resolved;
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non negative values with buckets growing with the value: values below {@link #SUB_BUCKETS} are
+ * counted exactly, every following power of two is split into {@link #SUB_BUCKETS} equal buckets, so a value is
+ * known with relative error below {@code 1 / SUB_BUCKETS}. There are at most a few thousands buckets whatever the
+ * number of recorded values, only the range between the lowest and the highest used bucket is allocated. Count,
+ * total, min and max are exact.
+ */
+public class LogLinearHistogram {
+    public static final int SUB_BUCKET_BITS = 6;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private long[] counts = new long[0];
+    private int offset;
+    private long count;
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        increment(index(value), 1);
+        count++;
+        total += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(LogLinearHistogram other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] > 0) {
+                increment(other.offset + i, other.counts[i]);
+            }
+        }
+        count += other.count;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @return middle of the bucket the value at the percentile falls into, bounded by min and max
+     */
+    public double getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (percentile >= 100) {
+            return max;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                int index = offset + i;
+                double middle = (lowestValue(index) + highestValue(index)) / 2.0;
+                return Math.min(max, Math.max(min, middle));
+            }
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + (shift << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) >>> SUB_BUCKET_BITS;
+        long subBucket = SUB_BUCKETS + ((index - SUB_BUCKETS) & (SUB_BUCKETS - 1));
+        return subBucket << shift;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) >>> SUB_BUCKET_BITS;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+
+    private void increment(int index, long by) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            offset = index;
+        } else if (index < offset) {
+            long[] grown = new long[counts.length + offset - index];
+            System.arraycopy(counts, 0, grown, offset - index, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, index - offset + 1);
+        }
+        counts[index - offset] += by;
+    }
+
+    @Override
+    public String toString() {
+        return "LogLinearHistogram(count=" + count + ", total=" + total + ", min=" + getMin() + ", max=" + max + ")";
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tag set of a unified logging line, like {@code gc,phases}. Instances are interned by a {@link Table}, so each
+ * distinct tag set is decoded once and identified by a small sequential id.
+ */
+public final class LogTags {
+    private final int id;
+    private final String name;
+    private final List<String> tags;
+
+    private LogTags(int id, String name) {
+        this.id = id;
+        this.name = name;
+        this.tags = Arrays.asList(name.split(","));
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean has(String tag) {
+        return tags.contains(tag);
+    }
+
+    public boolean hasAll(String... tags) {
+        for (String tag : tags) {
+            if (!has(tag)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasAny(String... tags) {
+        for (String tag : tags) {
+            if (has(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    static LogTags of(String name) {
+        return new LogTags(-1, name);
+    }
+
+    /**
+     * Symbol table of tag sets met in one log. Lookups compare characters in place, nothing is allocated for tag
+     * sets which were already seen.
+     */
+    public static final class Table {
+        private LogTags[] slots = new LogTags[64];
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        LogTags intern(CharSequence line, int start, int end) {
+            int hash = hash(line, start, end);
+            int mask = slots.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                LogTags tags = slots[i];
+                if (tags == null) {
+                    return add(line.subSequence(start, end).toString(), i);
+                } else if (matches(tags.name, line, start, end)) {
+                    return tags;
+                }
+            }
+        }
+
+        private LogTags add(String name, int slot) {
+            LogTags tags = new LogTags(size++, name);
+            slots[slot] = tags;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return tags;
+        }
+
+        private void rehash() {
+            LogTags[] old = slots;
+            slots = new LogTags[old.length * 2];
+            int mask = slots.length - 1;
+            for (LogTags tags : old) {
+                if (tags != null) {
+                    int i = hash(tags.name, 0, tags.name.length()) & mask;
+                    while (slots[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    slots[i] = tags;
+                }
+            }
+        }
+
+        private static int hash(CharSequence text, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + text.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean matches(String name, CharSequence line, int start, int end) {
+            if (name.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) != line.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
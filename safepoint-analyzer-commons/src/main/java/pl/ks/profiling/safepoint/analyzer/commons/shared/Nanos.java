@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Timestamps and durations are kept as long nanoseconds from parsing to statistics. Conversion to seconds or
+ * milliseconds is done only when values are presented.
+ */
+@UtilityClass
+public class Nanos {
+    public static final long PER_MICRO = 1_000L;
+    public static final long PER_MILLI = 1_000_000L;
+    public static final long PER_SECOND = 1_000_000_000L;
+
+    public static final int SECONDS_SCALE = 9;
+    public static final int MILLIS_SCALE = 6;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    /**
+     * @return value written with scale decimal places, like uptime decorator {@code 1.234s} decoded to unscaled 1234
+     * with scale 3, converted to nanoseconds of the given unit
+     */
+    public long of(long unscaled, int scale, long nanosPerUnit) {
+        if (scale <= 0) {
+            return unscaled * nanosPerUnit;
+        }
+        if (scale < POWERS_OF_TEN.length && nanosPerUnit % POWERS_OF_TEN[scale] == 0) {
+            return unscaled * (nanosPerUnit / POWERS_OF_TEN[scale]);
+        }
+        return BigDecimal.valueOf(unscaled, scale)
+                .multiply(BigDecimal.valueOf(nanosPerUnit))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    public double toSeconds(long nanos) {
+        return (double) nanos / PER_SECOND;
+    }
+
+    public double toMillis(long nanos) {
+        return (double) nanos / PER_MILLI;
+    }
+
+    /**
+     * @return seconds with millisecond precision, the precision of the default uptime decorator
+     */
+    public BigDecimal toSecondsDecimal(long nanos) {
+        return BigDecimal.valueOf(Math.round((double) nanos / PER_MILLI), 3);
+    }
+
+    public BigDecimal toMillisDecimal(long nanos, int scale) {
+        return BigDecimal.valueOf(nanos, MILLIS_SCALE).setScale(scale, RoundingMode.HALF_EVEN);
+    }
+}
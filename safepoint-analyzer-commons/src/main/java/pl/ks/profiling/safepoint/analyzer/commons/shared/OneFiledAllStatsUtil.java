@@ -39,4 +39,22 @@ public class OneFiledAllStatsUtil {
         stats.setCount(new BigDecimal(values.length));
         return stats;
     }
+
+    public static OneFiledAllStats create(LogLinearHistogram histogram) {
+        OneFiledAllStats stats = new OneFiledAllStats();
+        if (histogram.isEmpty()) {
+            return stats;
+        }
+        stats.setPercentile50(new BigDecimal(histogram.getValueAtPercentile(50)));
+        stats.setPercentile75(new BigDecimal(histogram.getValueAtPercentile(75)));
+        stats.setPercentile90(new BigDecimal(histogram.getValueAtPercentile(90)));
+        stats.setPercentile95(new BigDecimal(histogram.getValueAtPercentile(95)));
+        stats.setPercentile99(new BigDecimal(histogram.getValueAtPercentile(99)));
+        stats.setPercentile99and9(new BigDecimal(histogram.getValueAtPercentile(99.9)));
+        stats.setPercentile100(new BigDecimal(histogram.getMax()));
+        stats.setAverage(new BigDecimal(histogram.getAverage()));
+        stats.setTotal(new BigDecimal(histogram.getTotal()));
+        stats.setCount(new BigDecimal(histogram.getCount()));
+        return stats;
+    }
 }
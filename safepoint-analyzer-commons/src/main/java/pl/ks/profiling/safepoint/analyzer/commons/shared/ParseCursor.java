@@ -0,0 +1,368 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.math.BigDecimal;
+
+/**
+ * Forward-moving position over a single log line. Markers are located without regular expressions and numbers are
+ * read in place, so the only objects created are the values handed back to the caller. One cursor is meant to be
+ * kept per parser and {@link #reset(CharSequence) reset} for every line.
+ */
+public class ParseCursor {
+    private CharSequence line = "";
+    private int position;
+
+    public ParseCursor() {
+    }
+
+    public ParseCursor(CharSequence line) {
+        reset(line);
+    }
+
+    public ParseCursor reset(CharSequence line) {
+        this.line = line;
+        this.position = 0;
+        return this;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public ParseCursor setPosition(int position) {
+        this.position = Math.max(0, Math.min(position, line.length()));
+        return this;
+    }
+
+    public boolean hasRemaining() {
+        return position < line.length();
+    }
+
+    public char peek() {
+        return line.charAt(position);
+    }
+
+    /**
+     * @return index of the first occurrence of marker at or after the current position, -1 if absent
+     */
+    public int indexOf(CharSequence marker) {
+        return indexOf(marker, position);
+    }
+
+    public int indexOf(CharSequence marker, int from) {
+        int last = line.length() - marker.length();
+        for (int i = Math.max(from, 0); i <= last; i++) {
+            if (regionMatches(i, marker)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the last occurrence of marker at or after the current position, -1 if absent
+     */
+    public int lastIndexOf(CharSequence marker) {
+        for (int i = line.length() - marker.length(); i >= position; i--) {
+            if (regionMatches(i, marker)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(char character) {
+        for (int i = position; i < line.length(); i++) {
+            if (line.charAt(i) == character) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(char character) {
+        for (int i = line.length() - 1; i >= position; i--) {
+            if (line.charAt(i) == character) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(CharSequence marker) {
+        return indexOf(marker) >= 0;
+    }
+
+    /**
+     * Moves right after the first occurrence of marker. The position is left unchanged when there is no marker.
+     */
+    public boolean seek(CharSequence marker) {
+        return moveAfter(indexOf(marker), marker);
+    }
+
+    /**
+     * Moves right after the last occurrence of marker. The position is left unchanged when there is no marker.
+     */
+    public boolean seekLast(CharSequence marker) {
+        return moveAfter(lastIndexOf(marker), marker);
+    }
+
+    /**
+     * Moves to the first number (digits with an optional fraction) that is directly followed by suffix, like the
+     * {@code 12} in {@code 12M} or the {@code 1.5} in {@code 1.5ms}.
+     */
+    public boolean seekNumberFollowedBy(CharSequence suffix) {
+        int length = line.length();
+        int i = position;
+        while (i < length) {
+            if (!isDigit(i)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            i = skipDigits(i);
+            if (isFractionAt(i)) {
+                i = skipDigits(i + 1);
+            }
+            if (regionMatches(i, suffix)) {
+                position = start;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ParseCursor skipWhitespace() {
+        while (position < line.length() && line.charAt(position) <= ' ') {
+            position++;
+        }
+        return this;
+    }
+
+    /**
+     * Reads the next run of digits, skipping anything in front of it.
+     *
+     * @return parsed value or 0 when there are no more digits in the line
+     */
+    public long readLong() {
+        int i = skipToDigit();
+        if (i < 0) {
+            return 0;
+        }
+        long value = 0;
+        int length = line.length();
+        while (i < length && isDigit(i)) {
+            value = value * 10 + line.charAt(i) - '0';
+            i++;
+        }
+        position = i;
+        return value;
+    }
+
+    public long readLong(CharSequence marker) {
+        seek(marker);
+        return readLong();
+    }
+
+    public int readInt() {
+        return Math.toIntExact(readLong());
+    }
+
+    /**
+     * Reads the next decimal number, skipping anything in front of it. Both dot and comma are accepted as the decimal
+     * separator when followed by a digit, and the scale of the result follows the number of fraction digits.
+     *
+     * @return parsed value or {@link BigDecimal#ZERO} when there are no more digits in the line
+     */
+    public BigDecimal readDecimal() {
+        int i = skipToDigit();
+        if (i < 0) {
+            return BigDecimal.ZERO;
+        }
+        long unscaled = 0;
+        int scale = 0;
+        int length = line.length();
+        while (i < length && isDigit(i)) {
+            unscaled = unscaled * 10 + line.charAt(i) - '0';
+            i++;
+        }
+        if (isFractionAt(i)) {
+            i++;
+            while (i < length && isDigit(i)) {
+                unscaled = unscaled * 10 + line.charAt(i) - '0';
+                scale++;
+                i++;
+            }
+        }
+        position = i;
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    public BigDecimal readDecimal(CharSequence marker) {
+        seek(marker);
+        return readDecimal();
+    }
+
+    /**
+     * Reads the next decimal number as a fixed-point long with the given number of fraction digits, e.g. seconds
+     * with scale {@link Nanos#SECONDS_SCALE} give nanoseconds. Further fraction digits are rounded half up.
+     *
+     * @return parsed value or 0 when there are no more digits in the line
+     */
+    public long readFixed(int scale) {
+        int i = skipToDigit();
+        if (i < 0) {
+            return 0;
+        }
+        long value = 0;
+        int length = line.length();
+        while (i < length && isDigit(i)) {
+            value = value * 10 + line.charAt(i) - '0';
+            i++;
+        }
+        int digits = 0;
+        boolean roundUp = false;
+        if (isFractionAt(i)) {
+            i++;
+            while (i < length && isDigit(i)) {
+                if (digits < scale) {
+                    value = value * 10 + line.charAt(i) - '0';
+                } else if (digits == scale) {
+                    roundUp = line.charAt(i) >= '5';
+                }
+                digits++;
+                i++;
+            }
+        }
+        for (; digits < scale; digits++) {
+            value *= 10;
+        }
+        position = i;
+        return roundUp ? value + 1 : value;
+    }
+
+    public long readFixed(CharSequence marker, int scale) {
+        seek(marker);
+        return readFixed(scale);
+    }
+
+    /**
+     * Reads the next {@code 0x} prefixed hexadecimal number as written in the line.
+     *
+     * @return number with its prefix or null when there is none
+     */
+    public String readHexToken() {
+        int start = indexOf("0x");
+        if (start < 0) {
+            return null;
+        }
+        int i = start + 2;
+        while (i < line.length() && Character.digit(line.charAt(i), 16) >= 0) {
+            i++;
+        }
+        position = i;
+        return line.subSequence(start, i).toString();
+    }
+
+    /**
+     * Reads text up to (excluding) the first occurrence of terminator, or to the end of the line if there is none.
+     * Surrounding whitespace is not part of the result.
+     */
+    public String readUntil(CharSequence terminator) {
+        int end = indexOf(terminator);
+        return readTrimmed(end < 0 ? line.length() : end);
+    }
+
+    public String readUntil(char terminator) {
+        int end = indexOf(terminator);
+        return readTrimmed(end < 0 ? line.length() : end);
+    }
+
+    /**
+     * Reads text up to (excluding) the given index, without surrounding whitespace.
+     */
+    public String readTo(int end) {
+        return readTrimmed(Math.max(position, Math.min(end, line.length())));
+    }
+
+    public String readRemaining() {
+        return readTrimmed(line.length());
+    }
+
+    private String readTrimmed(int end) {
+        int start = position;
+        int stop = end;
+        while (start < stop && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (stop > start && line.charAt(stop - 1) <= ' ') {
+            stop--;
+        }
+        position = end;
+        return line.subSequence(start, stop).toString();
+    }
+
+    private boolean moveAfter(int index, CharSequence marker) {
+        if (index < 0) {
+            return false;
+        }
+        position = index + marker.length();
+        return true;
+    }
+
+    private boolean regionMatches(int offset, CharSequence marker) {
+        if (offset < 0 || offset + marker.length() > line.length()) {
+            return false;
+        }
+        for (int i = 0; i < marker.length(); i++) {
+            if (line.charAt(offset + i) != marker.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipToDigit() {
+        for (int i = position; i < line.length(); i++) {
+            if (isDigit(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int skipDigits(int from) {
+        int i = from;
+        while (i < line.length() && isDigit(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private boolean isFractionAt(int index) {
+        if (index + 1 >= line.length()) {
+            return false;
+        }
+        char separator = line.charAt(index);
+        return (separator == '.' || separator == ',') && isDigit(index + 1);
+    }
+
+    private boolean isDigit(int index) {
+        char character = line.charAt(index);
+        return character >= '0' && character <= '9';
+    }
+}
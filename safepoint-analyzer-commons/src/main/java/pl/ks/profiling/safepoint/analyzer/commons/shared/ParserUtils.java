@@ -22,34 +22,33 @@ import java.math.RoundingMode;
 
 @UtilityClass
 public class ParserUtils {
+    /**
+     * @return uptime of the line in seconds, 0 when there is none; used to order files by their first lines
+     */
     public BigDecimal getTimeStamp(String line) {
-        // JDK 8 - timestamp au format yyyy-mm-ddThh:mm:ss.SSS+0100: 2591798.694: (derniere partie big decimal)
-        if (line.indexOf(0) == '[') {  // JDK 9 - timestamp au format yyyy-mm-ddThh:mm:ss.SSS+0100: [2019-06-25T15:06:01.000+0100]
-            return new BigDecimal(denationalizeFloatString(getContentBetweenMarkers(line, "[", "s]")));
-        } else {
-            return new BigDecimal(denationalizeFloatString(getContentFromJdk8(line)));
-        }
+        return BigDecimal.valueOf(getUptimeNanos(line), Nanos.SECONDS_SCALE);
     }
 
-    private static String getContentBetweenMarkers(String line, String startMarker, String endMarker) {
-        int endMarkerIndex = line.indexOf(endMarker);
-        String lineUntilEndMarker = line.substring(0, endMarkerIndex);
-        int startMarkerIndex = lineUntilEndMarker.lastIndexOf(startMarker);
-        return line.substring(startMarkerIndex + 1, endMarkerIndex);
-    }
-
-    private static String getContentFromJdk8(String line) {
-        // tokenize with ": " separator the line
-        String[] tokens = line.split(": ");
-        // Si il n'y a pas 2 token, c'est une ligne informative
-        if (tokens.length < 2) {
-            return "0.0";
+    /**
+     * Uptime of a unified logging line, decorated with uptime, uptimemillis or uptimenanos, or of a JDK 8 line
+     * printed with {@code -XX:+PrintGCTimeStamps}, in nanoseconds.
+     *
+     * @return uptime or 0 when the line has none
+     */
+    public long getUptimeNanos(String line) {
+        if (!line.isEmpty() && line.charAt(0) == '[') {
+            LineHeader header = LineHeader.decode(line);
+            return header.hasUptime() ? header.getUptimeNanos() : 0;
+        }
+        ParseCursor cursor = new ParseCursor(line);
+        if (!cursor.seek(": ") || !cursor.hasRemaining() || !Character.isDigit(cursor.peek())) {
+            return 0;
         }
-        return tokens[1];
+        return cursor.readFixed(Nanos.SECONDS_SCALE);
     }
 
-    private static String denationalizeFloatString(String floatString) {
-        return floatString.replace(",", ".");
+    public long getUptimeNanos(LineHeader header, String line) {
+        return header.hasUptime() ? header.getUptimeNanos() : getUptimeNanos(line);
     }
 
     public long parseFirstNumber(String line, int pos) {
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+public enum ParsingMode {
+    /**
+     * All parsers run on the thread reading the logs.
+     */
+    SEQUENTIAL,
+    /**
+     * Each parser consumes its lines on its own thread, reading is not blocked by parsing.
+     */
+    PIPELINED,
+    /**
+     * Like {@link #PIPELINED}, additionally GC logs of sources which can be split into chunks are parsed by many
+     * threads, chunk by chunk.
+     */
+    PARALLEL
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+
+/**
+ * Router running each parser on its own thread. The reading thread collects lines into batches, one per parser,
+ * and hands full batches over through bounded queues, so memory usage does not depend on the speed difference
+ * between reading and parsing. Parsers do not share state, so each of them sees exactly the lines it would see
+ * with the sequential router, in the same order.
+ */
+public class PipelinedLineRouter extends LineRouter {
+    static final int BATCH_SIZE = 1024;
+    static final int QUEUE_CAPACITY = 16;
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ParserThreadFactory());
+
+    private final Map<UnifiedLogParser<?>, Consumer> consumers = new IdentityHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final CountDownLatch finished;
+    private boolean closed;
+
+    public PipelinedLineRouter(List<? extends UnifiedLogParser<?>> parsers) {
+        super(parsers);
+        this.finished = new CountDownLatch(this.parsers.length);
+        for (UnifiedLogParser<?> parser : this.parsers) {
+            Consumer consumer = new Consumer(parser);
+            consumers.put(parser, consumer);
+            EXECUTOR.execute(consumer);
+        }
+    }
+
+    @Override
+    protected void deliver(UnifiedLogParser<?>[] receivers, CharSequence line, LineHeader header) {
+        String text = line.toString();
+        for (UnifiedLogParser<?> parser : receivers) {
+            consumers.get(parser).add(text, header);
+        }
+    }
+
+    /**
+     * Passes remaining lines to parsers and waits until all of them are parsed.
+     *
+     * @throws IllegalStateException when any of parsers failed
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Consumer consumer : consumers.values()) {
+            consumer.flush();
+            consumer.put(Batch.END);
+        }
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parsers", e);
+        }
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() {
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throw new IllegalStateException("Parsing failed", throwable);
+        }
+    }
+
+    private class Consumer implements Runnable {
+        private final UnifiedLogParser<?> parser;
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private Batch current = new Batch();
+
+        Consumer(UnifiedLogParser<?> parser) {
+            this.parser = parser;
+        }
+
+        void add(String line, LineHeader header) {
+            current.add(line, header);
+            if (current.isFull()) {
+                rethrowFailure();
+                flush();
+            }
+        }
+
+        void flush() {
+            if (current.size > 0) {
+                put(current);
+                current = new Batch();
+            }
+        }
+
+        void put(Batch batch) {
+            try {
+                queue.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while passing lines to parsers", e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Batch batch;
+                while ((batch = queue.take()) != Batch.END) {
+                    // after a failure batches are only drained, so the reading thread never blocks
+                    if (failure.get() == null) {
+                        parse(batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        private void parse(Batch batch) {
+            try {
+                for (int i = 0; i < batch.size; i++) {
+                    parser.parseLine(batch.lines[i], batch.headers[i]);
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+
+    private static class Batch {
+        static final Batch END = new Batch();
+
+        final String[] lines = new String[BATCH_SIZE];
+        final LineHeader[] headers = new LineHeader[BATCH_SIZE];
+        int size;
+
+        void add(String line, LineHeader header) {
+            lines[size] = line;
+            headers[size] = header;
+            size++;
+        }
+
+        boolean isFull() {
+            return size == BATCH_SIZE;
+        }
+    }
+
+    private static class ParserThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "parser-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
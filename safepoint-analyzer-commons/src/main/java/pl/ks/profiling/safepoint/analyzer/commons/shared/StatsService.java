@@ -15,86 +15,66 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared;
 
-import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.collections4.CollectionUtils;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.io.source.ChunkedLogsSource;
+import pl.ks.profiling.io.source.LogChunk;
+import pl.ks.profiling.io.source.LogLine;
 import pl.ks.profiling.io.source.LogSourceSubfile;
 import pl.ks.profiling.io.source.LogsSource;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.page.ClassCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser.ClassLoaderLogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCAllocationRate;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCAllocationRateInTime;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCConcurrentEfficiency;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCHeapAfter;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCHeapBefore;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCHeapBeforeAfter;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCPhaseCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCPhaseTime;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionCountAfter;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionCountBefore;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionMax;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionSizeAfter;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCSubphaseStats;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCSurvivorAndTenuring;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCTableStats;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.ChunkedGCLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCJdk8LogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCodeCacheStats;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCodeCacheSweeperActivity;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCompilationCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitTieredCompilationCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser.JitLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.LogsFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.ParsingMetaData;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepoinOperationCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepoinOperationTime;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointApplicationTimeByTime;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointOperationTimeCharts;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointTableStats;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointTotalTimeInPhases;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointJdk8LogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointUnifiedLogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.page.StringDedupLast;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.page.StringDedupTotal;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.parser.StringDedupLogFileParser;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.summary.page.SummaryPageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.page.ThreadCount;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser.ThreadLogFileParser;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.page.TlabSummary;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.page.TlabThreadStats;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser.TlabLogFileParser;
 
 @RequiredArgsConstructor
 public class StatsService {
     private final static DecimalFormat decimalFormat = new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(Locale.US));
     private final static int PROGRESS_NOTIFICATION_THROTTLE = 1000;
 
+    private final ParsingMode parsingMode;
+
+    public StatsService() {
+        this(ParsingMode.SEQUENTIAL);
+    }
+
     public JvmLogFile createAllStatsJdk8(LogsSource ls, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
+        return createAllStatsJdk8(ls, Subsystem.all(), notificationConsumer, onComplete);
+    }
+
+    /**
+     * JDK 8 logs contain safepoints and GC only, other subsystems are ignored.
+     */
+    public JvmLogFile createAllStatsJdk8(LogsSource ls, Set<Subsystem> subsystems, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
         try (LogsSource logsSource = ls) {
-            SafepointJdk8LogFileParser safepointJdk8LogFileParser = new SafepointJdk8LogFileParser();
-            GCJdk8LogFileParser gcJdk8LogFileParser = new GCJdk8LogFileParser();
+            SafepointJdk8LogFileParser safepointJdk8LogFileParser = subsystems.contains(Subsystem.SAFEPOINT) ? new SafepointJdk8LogFileParser() : null;
+            GCJdk8LogFileParser gcJdk8LogFileParser = subsystems.contains(Subsystem.GC) ? new GCJdk8LogFileParser() : null;
 
             long startTimestamp = System.currentTimeMillis();
             String line = logsSource.readLine();
             while (line != null) {
-                safepointJdk8LogFileParser.parseLine(line);
-                gcJdk8LogFileParser.parseLine(line);
+                if (safepointJdk8LogFileParser != null) {
+                    safepointJdk8LogFileParser.parseLine(line);
+                }
+                if (gcJdk8LogFileParser != null) {
+                    gcJdk8LogFileParser.parseLine(line);
+                }
                 notifyProgress(logsSource, notificationConsumer, startTimestamp);
                 line = logsSource.readLine();
             }
-            // Close the last cycle
-            gcJdk8LogFileParser.endCycle();
-
-
 
             JvmLogFile jvmLogFile = new JvmLogFile();
             jvmLogFile.setParsing(new ParsingMetaData(
@@ -102,9 +82,15 @@ public class StatsService {
                     getFiles(logsSource),
                     logsSource.getNumberOfLine()
             ));
-            jvmLogFile.setSafepointLogFile(safepointJdk8LogFileParser.fetchData());
-            jvmLogFile.setGcLogFile(gcJdk8LogFileParser.fetchData());
-            addPages(jvmLogFile);
+            if (safepointJdk8LogFileParser != null) {
+                jvmLogFile.setSafepointLogFile(safepointJdk8LogFileParser.fetchData());
+            }
+            if (gcJdk8LogFileParser != null) {
+                // Close the last cycle
+                gcJdk8LogFileParser.endCycle();
+                jvmLogFile.setGcLogFile(gcJdk8LogFileParser.fetchData());
+            }
+            addPages(jvmLogFile, subsystems);
             onComplete.accept(jvmLogFile);
             notificationConsumer.accept(parsingProgress(logsSource, true, startTimestamp));
             return jvmLogFile;
@@ -132,203 +118,95 @@ public class StatsService {
     }
 
     private ParsingProgress parsingProgress(LogsSource logsSource, boolean completed, long startTimestamp) {
+        return parsingProgress(logsSource, logsSource.getNumberOfLine(), logsSource.getNumberOfFile(), completed, startTimestamp);
+    }
+
+    private ParsingProgress parsingProgress(LogsSource logsSource, long numberOfLine, int numberOfFile, boolean completed, long startTimestamp) {
         long durationInSeconds = (System.currentTimeMillis() - startTimestamp) / 1000;
-        long numberOfLine = logsSource.getNumberOfLine();
         long linesPerSecond = numberOfLine / (durationInSeconds + 1);
         return new ParsingProgress(
                 numberOfLine,
                 completed,
                 logsSource.getTotalNumberOfFiles(),
-                logsSource.getNumberOfFile(),
+                numberOfFile,
                 linesPerSecond);
     }
 
     public JvmLogFile createAllStatsUnifiedLogger(LogsSource ls, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
+        return createAllStatsUnifiedLogger(ls, Subsystem.all(), notificationConsumer, onComplete);
+    }
+
+    /**
+     * Only parsers and pages of given subsystems are created, lines with other tags are not parsed at all.
+     * <p>
+     * In {@link ParsingMode#PARALLEL} mode chunks of a {@link ChunkedLogsSource} are parsed for GC in parallel, and
+     * the other subsystems are fed off the same chunks in order, so the source is not read a second time.
+     */
+    public JvmLogFile createAllStatsUnifiedLogger(LogsSource ls, Set<Subsystem> subsystems, Consumer<ParsingProgress> notificationConsumer, Consumer<JvmLogFile> onComplete) {
         try (LogsSource logsSource = ls) {
-            SafepointUnifiedLogFileParser safepointUnifiedLogFileParser = new SafepointUnifiedLogFileParser();
-            GCUnifiedLogFileParser gcUnifiedLogFileParser = new GCUnifiedLogFileParser();
-            ThreadLogFileParser threadLogFileParser = new ThreadLogFileParser();
-            ClassLoaderLogFileParser classLoaderLogFileParser = new ClassLoaderLogFileParser();
-            JitLogFileParser jitLogFileParser = new JitLogFileParser();
-            TlabLogFileParser tlabLogFileParser = new TlabLogFileParser();
-            StringDedupLogFileParser stringDedupLogFileParser = new StringDedupLogFileParser();
+            boolean chunked = parsingMode == ParsingMode.PARALLEL && subsystems.contains(Subsystem.GC) && logsSource instanceof ChunkedLogsSource;
+            List<Subsystem.ParserBinding<?>> bindings = new ArrayList<>();
+            for (Subsystem subsystem : subsystems) {
+                if (!chunked || subsystem != Subsystem.GC) {
+                    bindings.add(subsystem.newParser());
+                }
+            }
+            List<UnifiedLogParser<?>> parsers = bindings.stream()
+                    .map(Subsystem.ParserBinding::getParser)
+                    .collect(Collectors.toList());
             long startTimestamp = System.currentTimeMillis();
 
-            String line = logsSource.readLine();
-            while (line != null) {
-                safepointUnifiedLogFileParser.parseLine(line);
-                gcUnifiedLogFileParser.parseLine(line);
-                threadLogFileParser.parseLine(line);
-                classLoaderLogFileParser.parseLine(line);
-                jitLogFileParser.parseLine(line);
-                tlabLogFileParser.parseLine(line);
-                stringDedupLogFileParser.parseLine(line);
-                line = logsSource.readLine();
-                notifyProgress(logsSource, notificationConsumer, startTimestamp);
+            JvmLogFile jvmLogFile = new JvmLogFile();
+            long numberOfLine;
+            if (chunked) {
+                List<LogChunk> chunks = ((ChunkedLogsSource) logsSource).getChunks();
+                ChunkedGCLogFileParser chunkedParser = new ChunkedGCLogFileParser(chunks, parsers);
+                jvmLogFile.setGcLogFile(chunkedParser.parse((chunk, lines) -> notificationConsumer.accept(
+                        parsingProgress(logsSource, lines, chunk.getFileNumber(), false, startTimestamp))));
+                numberOfLine = chunkedParser.getNumberOfLines();
+            } else {
+                // closing the router waits for all parsers, their results can be fetched afterwards
+                try (LineRouter lineRouter = createLineRouter(parsers)) {
+                    lineRouter.routeAll(() -> {
+                        LogLine line = logsSource.readLogLine();
+                        notifyProgress(logsSource, notificationConsumer, startTimestamp);
+                        return line;
+                    });
+                }
+                numberOfLine = logsSource.getNumberOfLine();
             }
 
-            JvmLogFile jvmLogFile = new JvmLogFile();
             jvmLogFile.setParsing(new ParsingMetaData(
                     logsSource.getName(),
                     getFiles(logsSource),
-                    logsSource.getNumberOfLine()
+                    numberOfLine
             ));
-            jvmLogFile.setSafepointLogFile(safepointUnifiedLogFileParser.fetchData());
-            jvmLogFile.setGcLogFile(gcUnifiedLogFileParser.fetchData());
-            jvmLogFile.setThreadLogFile(threadLogFileParser.fetchData());
-            jvmLogFile.setClassLoaderLogFile(classLoaderLogFileParser.fetchData());
-            jvmLogFile.setJitLogFile(jitLogFileParser.fetchData());
-            jvmLogFile.setTlabLogFile(tlabLogFileParser.fetchData());
-            jvmLogFile.setStringDedupLogFile(stringDedupLogFileParser.fetchData());
+            for (Subsystem.ParserBinding<?> binding : bindings) {
+                binding.fetchInto(jvmLogFile);
+            }
 
-            addPages(jvmLogFile);
+            addPages(jvmLogFile, subsystems);
             onComplete.accept(jvmLogFile);
-            notificationConsumer.accept(parsingProgress(logsSource, true, startTimestamp));
+            int numberOfFile = chunked ? logsSource.getTotalNumberOfFiles() : logsSource.getNumberOfFile();
+            notificationConsumer.accept(parsingProgress(logsSource, numberOfLine, numberOfFile, true, startTimestamp));
             return jvmLogFile;
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    private void addPages(JvmLogFile jvmLogFile) {
-        createOverviewPage(jvmLogFile);
-        createSafepointPages(jvmLogFile);
-        createGcPages(jvmLogFile);
-        createThreadPages(jvmLogFile);
-        createClassLoaderPages(jvmLogFile);
-        createJitPages(jvmLogFile);
-        createTlabPages(jvmLogFile);
-        createStringDedupPages(jvmLogFile);
+    private LineRouter createLineRouter(List<UnifiedLogParser<?>> parsers) {
+        return parsingMode == ParsingMode.PIPELINED ? new PipelinedLineRouter(parsers) : new LineRouter(parsers);
     }
 
-    private void createStringDedupPages(JvmLogFile jvmLogFile) {
-        if (jvmLogFile.getStringDedupLogFile() == null) {
-            return;
-        }
-
-        List<PageCreator> stringDedupPageCreators = new ArrayList<>();
-        if (!jvmLogFile.getStringDedupLogFile().getEntries().isEmpty()) {
-            stringDedupPageCreators.add(new StringDedupTotal());
-            stringDedupPageCreators.add(new StringDedupLast());
-        }
-
-        for (PageCreator stringDedupPageCreator : stringDedupPageCreators) {
-            Page page = stringDedupPageCreator.create(jvmLogFile, decimalFormat);
-            if (page != null) {
-                jvmLogFile.getPages().add(page);
-            }
-        }
-    }
-
-    private void createTlabPages(JvmLogFile jvmLogFile) {
-        if (jvmLogFile.getTlabLogFile() == null) {
-            return;
-        }
-
-        List<PageCreator> tlabPageCreators = new ArrayList<>();
-        if (!jvmLogFile.getTlabLogFile().getTlabSummaries().isEmpty()) {
-            tlabPageCreators.add(new TlabSummary());
-        }
-
-        if (!jvmLogFile.getTlabLogFile().getThreadTlabsBeforeGC().isEmpty()) {
-            tlabPageCreators.add(new TlabThreadStats());
-        }
-
-        for (PageCreator jitPageCreator : tlabPageCreators) {
-            Page page = jitPageCreator.create(jvmLogFile, decimalFormat);
-            if (page != null) {
-                jvmLogFile.getPages().add(page);
-            }
-        }
-    }
-
-    private void createJitPages(JvmLogFile jvmLogFile) {
-        if (jvmLogFile.getJitLogFile() == null) {
-            return;
-        }
-
-        List<PageCreator> jitPageCreators = new ArrayList<>();
-        if (jvmLogFile.getJitLogFile().getLastStatus() != null) {
-            jitPageCreators.add(new JitCompilationCount());
-            jitPageCreators.add(new JitTieredCompilationCount());
-        }
-
-        if (jvmLogFile.getJitLogFile().getCodeCacheStatuses().size() > 0) {
-            jitPageCreators.add(new JitCodeCacheStats());
-        }
-
-        if (jvmLogFile.getJitLogFile().getCodeCacheSweeperActivities().size() > 0) {
-            jitPageCreators.add(new JitCodeCacheSweeperActivity());
-        }
-
-        for (PageCreator jitPageCreator : jitPageCreators) {
-            Page page = jitPageCreator.create(jvmLogFile, decimalFormat);
-            if (page != null) {
-                jvmLogFile.getPages().add(page);
-            }
-        }
-    }
-
-    private void createClassLoaderPages(JvmLogFile jvmLogFile) {
-        if (jvmLogFile.getClassLoaderLogFile() == null || jvmLogFile.getClassLoaderLogFile().getLastStatus() == null) {
-            return;
-        }
-
-        List<PageCreator> classLoaderPageCreators = List.of(
-                new ClassCount()
-        );
-
-        for (PageCreator classLoaderPageCreator : classLoaderPageCreators) {
-            Page page = classLoaderPageCreator.create(jvmLogFile, decimalFormat);
-            if (page != null) {
-                jvmLogFile.getPages().add(page);
-            }
-        }
-    }
-
-    private void createThreadPages(JvmLogFile jvmLogFile) {
-        if (jvmLogFile.getThreadLogFile() == null || jvmLogFile.getThreadLogFile().getLastStatus() == null) {
-            return;
-        }
-
-        List<PageCreator> threadPageCreators = List.of(
-                new ThreadCount()
-        );
-
-        for (PageCreator threadPageCreator : threadPageCreators) {
-            Page page = threadPageCreator.create(jvmLogFile, decimalFormat);
-            if (page != null) {
-                jvmLogFile.getPages().add(page);
-            }
-        }
-    }
-
-    private void createGcPages(JvmLogFile jvmLogFile) {
-        if (CollectionUtils.isEmpty(jvmLogFile.getGcLogFile().getCycleEntries())) {
-            return;
-        }
-        List<PageCreator> gcPageCreators = List.of(
-                new GCTableStats(),
-                new GCSubphaseStats(),
-                new GCPhaseTime(),
-                new GCPhaseCount(),
-                new GCRegionCountBefore(),
-                new GCRegionCountAfter(),
-                new GCRegionMax(),
-                new GCRegionSizeAfter(),
-                new GCHeapBefore(),
-                new GCHeapAfter(),
-                new GCHeapBeforeAfter(),
-                new GCSurvivorAndTenuring(),
-                new GCAllocationRate(),
-                new GCAllocationRateInTime(new BigDecimal(10)),
-                new GCConcurrentEfficiency()
-        );
-
-        for (PageCreator safepointPageCreator : gcPageCreators) {
-            Page page = safepointPageCreator.create(jvmLogFile, decimalFormat);
-            if (page != null) {
-                jvmLogFile.getPages().add(page);
+    private void addPages(JvmLogFile jvmLogFile, Set<Subsystem> subsystems) {
+        createOverviewPage(jvmLogFile);
+        for (Subsystem subsystem : subsystems) {
+            for (PageCreator pageCreator : subsystem.pageCreators(jvmLogFile)) {
+                Page page = pageCreator.create(jvmLogFile, decimalFormat);
+                if (page != null) {
+                    jvmLogFile.getPages().add(page);
+                }
             }
         }
     }
@@ -337,23 +215,4 @@ public class StatsService {
         SummaryPageCreator summaryPageCreator = new SummaryPageCreator();
         jvmLogFile.getPages().add(summaryPageCreator.create(jvmLogFile, decimalFormat));
     }
-
-    private void createSafepointPages(JvmLogFile jvmLogFile) {
-        if (jvmLogFile.getSafepointLogFile() == null || CollectionUtils.isEmpty(jvmLogFile.getSafepointLogFile().getSafepoints())) {
-            return;
-        }
-
-        List<PageCreator> safepointPageCreators = List.of(
-                new SafepointTableStats(),
-                new SafepointTotalTimeInPhases(),
-                new SafepointApplicationTimeByTime(),
-                new SafepoinOperationCount(),
-                new SafepoinOperationTime(),
-                new SafepointOperationTimeCharts()
-        );
-
-        for (PageCreator safepointPageCreator : safepointPageCreators) {
-            jvmLogFile.getPages().add(safepointPageCreator.create(jvmLogFile, decimalFormat));
-        }
-    }
 }
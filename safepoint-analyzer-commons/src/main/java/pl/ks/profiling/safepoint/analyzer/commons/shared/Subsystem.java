@@ -0,0 +1,261 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.commons.collections4.CollectionUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.page.ClassCount;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser.ClassLoaderLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCAllocationRate;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCAllocationRateInTime;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCConcurrentEfficiency;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCHeapAfter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCHeapBefore;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCHeapBeforeAfter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCPhaseCount;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCPhaseTime;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionCountAfter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionCountBefore;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionMax;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCRegionSizeAfter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCSubphaseStats;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCSurvivorAndTenuring;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page.GCTableStats;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCodeCacheStats;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCodeCacheSweeperActivity;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitCompilationCount;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page.JitTieredCompilationCount;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser.JitLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepoinOperationCount;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepoinOperationTime;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointApplicationTimeByTime;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointOperationTimeCharts;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointTableStats;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page.SafepointTotalTimeInPhases;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointUnifiedLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.page.StringDedupLast;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.page.StringDedupTotal;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.parser.StringDedupLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.page.ThreadCount;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser.ThreadLogFileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.page.TlabSummary;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.page.TlabThreadStats;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser.TlabLogFileParser;
+
+/**
+ * Registry of analysed JVM subsystems. Each one pairs a unified logging parser, which declares the tags it is
+ * interested in, with the page creators presenting its results. Only parsers and pages of requested subsystems are
+ * ever created.
+ */
+public enum Subsystem {
+    SAFEPOINT(new Registration<>(SafepointUnifiedLogFileParser::new, JvmLogFile::setSafepointLogFile, Subsystem::safepointPages)),
+    GC(new Registration<>(GCUnifiedLogFileParser::new, JvmLogFile::setGcLogFile, Subsystem::gcPages)),
+    THREAD(new Registration<>(ThreadLogFileParser::new, JvmLogFile::setThreadLogFile, Subsystem::threadPages)),
+    CLASSLOADER(new Registration<>(ClassLoaderLogFileParser::new, JvmLogFile::setClassLoaderLogFile, Subsystem::classLoaderPages)),
+    JIT(new Registration<>(JitLogFileParser::new, JvmLogFile::setJitLogFile, Subsystem::jitPages)),
+    TLAB(new Registration<>(TlabLogFileParser::new, JvmLogFile::setTlabLogFile, Subsystem::tlabPages)),
+    STRINGDEDUP(new Registration<>(StringDedupLogFileParser::new, JvmLogFile::setStringDedupLogFile, Subsystem::stringDedupPages));
+
+    private final Registration<?> registration;
+
+    Subsystem(Registration<?> registration) {
+        this.registration = registration;
+    }
+
+    public static Set<Subsystem> all() {
+        return EnumSet.allOf(Subsystem.class);
+    }
+
+    /**
+     * @param names comma separated, case insensitive names like {@code gc,safepoint}
+     * @return requested subsystems, all of them when names are blank
+     */
+    public static Set<Subsystem> parse(String names) {
+        if (names == null || names.isBlank()) {
+            return all();
+        }
+        Set<Subsystem> subsystems = EnumSet.noneOf(Subsystem.class);
+        for (String name : names.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                subsystems.add(valueOf(trimmed.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown subsystem " + trimmed + ", expected some of " + names(), e);
+            }
+        }
+        return subsystems.isEmpty() ? all() : subsystems;
+    }
+
+    public static String names() {
+        return Arrays.stream(values())
+                .map(subsystem -> subsystem.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(","));
+    }
+
+    ParserBinding<?> newParser() {
+        return registration.newParser();
+    }
+
+    List<PageCreator> pageCreators(JvmLogFile jvmLogFile) {
+        return registration.pages.apply(jvmLogFile);
+    }
+
+    private static List<PageCreator> safepointPages(JvmLogFile jvmLogFile) {
+        if (jvmLogFile.getSafepointLogFile() == null || jvmLogFile.getSafepointLogFile().getSafepointTable().isEmpty()) {
+            return List.of();
+        }
+        return List.of(
+                new SafepointTableStats(),
+                new SafepointTotalTimeInPhases(),
+                new SafepointApplicationTimeByTime(),
+                new SafepoinOperationCount(),
+                new SafepoinOperationTime(),
+                new SafepointOperationTimeCharts()
+        );
+    }
+
+    private static List<PageCreator> gcPages(JvmLogFile jvmLogFile) {
+        if (jvmLogFile.getGcLogFile() == null || CollectionUtils.isEmpty(jvmLogFile.getGcLogFile().getCycleEntries())) {
+            return List.of();
+        }
+        return List.of(
+                new GCTableStats(),
+                new GCSubphaseStats(),
+                new GCPhaseTime(),
+                new GCPhaseCount(),
+                new GCRegionCountBefore(),
+                new GCRegionCountAfter(),
+                new GCRegionMax(),
+                new GCRegionSizeAfter(),
+                new GCHeapBefore(),
+                new GCHeapAfter(),
+                new GCHeapBeforeAfter(),
+                new GCSurvivorAndTenuring(),
+                new GCAllocationRate(),
+                new GCAllocationRateInTime(new BigDecimal(10)),
+                new GCConcurrentEfficiency()
+        );
+    }
+
+    private static List<PageCreator> threadPages(JvmLogFile jvmLogFile) {
+        if (jvmLogFile.getThreadLogFile() == null || jvmLogFile.getThreadLogFile().getLastStatus() == null) {
+            return List.of();
+        }
+        return List.of(new ThreadCount());
+    }
+
+    private static List<PageCreator> classLoaderPages(JvmLogFile jvmLogFile) {
+        if (jvmLogFile.getClassLoaderLogFile() == null || jvmLogFile.getClassLoaderLogFile().getLastStatus() == null) {
+            return List.of();
+        }
+        return List.of(new ClassCount());
+    }
+
+    private static List<PageCreator> jitPages(JvmLogFile jvmLogFile) {
+        if (jvmLogFile.getJitLogFile() == null) {
+            return List.of();
+        }
+        List<PageCreator> jitPageCreators = new ArrayList<>();
+        if (jvmLogFile.getJitLogFile().getLastStatus() != null) {
+            jitPageCreators.add(new JitCompilationCount());
+            jitPageCreators.add(new JitTieredCompilationCount());
+        }
+        if (jvmLogFile.getJitLogFile().getCodeCacheStatuses().size() > 0) {
+            jitPageCreators.add(new JitCodeCacheStats());
+        }
+        if (jvmLogFile.getJitLogFile().getCodeCacheSweeperActivities().size() > 0) {
+            jitPageCreators.add(new JitCodeCacheSweeperActivity());
+        }
+        return jitPageCreators;
+    }
+
+    private static List<PageCreator> tlabPages(JvmLogFile jvmLogFile) {
+        if (jvmLogFile.getTlabLogFile() == null) {
+            return List.of();
+        }
+        List<PageCreator> tlabPageCreators = new ArrayList<>();
+        if (!jvmLogFile.getTlabLogFile().getTlabSummaries().isEmpty()) {
+            tlabPageCreators.add(new TlabSummary());
+        }
+        if (!jvmLogFile.getTlabLogFile().getThreadTlabsBeforeGC().isEmpty()) {
+            tlabPageCreators.add(new TlabThreadStats());
+        }
+        return tlabPageCreators;
+    }
+
+    private static List<PageCreator> stringDedupPages(JvmLogFile jvmLogFile) {
+        if (jvmLogFile.getStringDedupLogFile() == null || jvmLogFile.getStringDedupLogFile().getEntries().isEmpty()) {
+            return List.of();
+        }
+        return List.of(
+                new StringDedupTotal(),
+                new StringDedupLast()
+        );
+    }
+
+    private static class Registration<T> {
+        private final Supplier<UnifiedLogParser<T>> parser;
+        private final BiConsumer<JvmLogFile, T> result;
+        private final Function<JvmLogFile, List<PageCreator>> pages;
+
+        Registration(Supplier<UnifiedLogParser<T>> parser, BiConsumer<JvmLogFile, T> result, Function<JvmLogFile, List<PageCreator>> pages) {
+            this.parser = parser;
+            this.result = result;
+            this.pages = pages;
+        }
+
+        ParserBinding<T> newParser() {
+            return new ParserBinding<>(parser.get(), result);
+        }
+    }
+
+    /**
+     * Parser created for one analysis, together with the place its result goes to.
+     */
+    static class ParserBinding<T> {
+        private final UnifiedLogParser<T> parser;
+        private final BiConsumer<JvmLogFile, T> result;
+
+        private ParserBinding(UnifiedLogParser<T> parser, BiConsumer<JvmLogFile, T> result) {
+            this.parser = parser;
+            this.result = result;
+        }
+
+        UnifiedLogParser<T> getParser() {
+            return parser;
+        }
+
+        void fetchInto(JvmLogFile jvmLogFile) {
+            result.accept(jvmLogFile, parser.fetchData());
+        }
+    }
+}
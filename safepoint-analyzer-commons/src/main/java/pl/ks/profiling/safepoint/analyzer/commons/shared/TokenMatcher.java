@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton finding which of up to 64 ASCII tokens occur in a line, in a single scan. The result is a
+ * bit mask, bit {@code i} is set when the token with index {@code i} occurs in the line.
+ */
+public class TokenMatcher {
+    public static final int MAX_TOKENS = Long.SIZE;
+    private static final int ALPHABET = 128;
+
+    private final List<String> tokens;
+    private final int[] transitions;
+    private final long[] outputs;
+
+    public TokenMatcher(List<String> tokens) {
+        if (tokens.size() > MAX_TOKENS) {
+            throw new IllegalArgumentException("At most " + MAX_TOKENS + " tokens are supported, got " + tokens.size());
+        }
+        this.tokens = List.copyOf(tokens);
+        List<int[]> gotoTable = new ArrayList<>();
+        List<Long> outputList = new ArrayList<>();
+        gotoTable.add(newState());
+        outputList.add(0L);
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.isEmpty()) {
+                throw new IllegalArgumentException("Empty token");
+            }
+            int state = 0;
+            for (int j = 0; j < token.length(); j++) {
+                char character = token.charAt(j);
+                if (character >= ALPHABET) {
+                    throw new IllegalArgumentException("Only ASCII tokens are supported: " + token);
+                }
+                if (gotoTable.get(state)[character] < 0) {
+                    gotoTable.get(state)[character] = gotoTable.size();
+                    gotoTable.add(newState());
+                    outputList.add(0L);
+                }
+                state = gotoTable.get(state)[character];
+            }
+            outputList.set(state, outputList.get(state) | (1L << i));
+        }
+
+        int states = gotoTable.size();
+        this.transitions = new int[states * ALPHABET];
+        this.outputs = new long[states];
+        int[] failure = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int character = 0; character < ALPHABET; character++) {
+            int next = gotoTable.get(0)[character];
+            transitions[character] = Math.max(next, 0);
+            if (next > 0) {
+                queue.add(next);
+            }
+        }
+        outputs[0] = outputList.get(0);
+        // breadth first, so failure state of every state is complete before its children are visited
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = outputList.get(state) | outputs[failure[state]];
+            for (int character = 0; character < ALPHABET; character++) {
+                int next = gotoTable.get(state)[character];
+                if (next > 0) {
+                    failure[next] = transitions[failure[state] * ALPHABET + character];
+                    transitions[state * ALPHABET + character] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * ALPHABET + character] = transitions[failure[state] * ALPHABET + character];
+                }
+            }
+        }
+    }
+
+    public static TokenMatcher of(String... tokens) {
+        return new TokenMatcher(Arrays.asList(tokens));
+    }
+
+    public long match(CharSequence line) {
+        long found = 0;
+        int state = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char character = line.charAt(i);
+            state = character < ALPHABET ? transitions[state * ALPHABET + character] : 0;
+            found |= outputs[state];
+        }
+        return found;
+    }
+
+    /**
+     * @return bit mask of given tokens, all of them must be known to this matcher
+     */
+    public long mask(List<String> tokens) {
+        long mask = 0;
+        for (String token : tokens) {
+            int index = this.tokens.indexOf(token);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown token: " + token);
+            }
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
@@ -17,6 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.page;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -59,7 +60,7 @@ public class ClassCount implements PageCreator {
             "Time",
             "Count");
     private static final List<Function<ClassStatus, Object>> currentCountChartExtractors = List.of(
-            ClassStatus::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             ClassStatus::getCurrentCount);
 
     private static Object[][] getCurrentCountChart(List<ClassStatus> entries) {
@@ -70,7 +71,7 @@ public class ClassCount implements PageCreator {
             "Time",
             "Used");
     private static final List<Function<ClassStatus, Object>> createdChartExtractors = List.of(
-            ClassStatus::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             ClassStatus::getLoadedCount);
 
     private static Object[][] getCreatedChart(List<ClassStatus> entries) {
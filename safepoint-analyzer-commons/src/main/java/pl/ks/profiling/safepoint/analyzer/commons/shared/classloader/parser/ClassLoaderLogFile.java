@@ -15,47 +15,57 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.CumulativeCounters;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 
 @Getter
 public class ClassLoaderLogFile {
-    private List<ClassStatus> classStatuses = new ArrayList<>();
-    private ClassStatus lastStatus = null;
-
-    void newClassLoaded(BigDecimal timeStamp) {
-        if (lastStatus == null) {
-            lastStatus = ClassStatus.builder()
-                    .loadedCount(1)
-                    .unloadedCount(0)
-                    .timeStamp(timeStamp)
-                    .build();
-        } else {
-            lastStatus = ClassStatus.builder()
-                    .loadedCount(lastStatus.getLoadedCount() + 1)
-                    .unloadedCount(lastStatus.getUnloadedCount())
-                    .timeStamp(timeStamp)
-                    .build();
-        }
-        classStatuses.add(lastStatus);
+    public static final long DEFAULT_RESOLUTION = 100 * Nanos.PER_MILLI;
+
+    private static final int LOADED = 0;
+    private static final int UNLOADED = 1;
+
+    private final CumulativeCounters classCounters;
+    private final List<ClassStatus> classStatuses;
+
+    public ClassLoaderLogFile() {
+        this(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution initial nanoseconds between class count snapshots
+     */
+    public ClassLoaderLogFile(long resolution) {
+        this(resolution, CumulativeCounters.DEFAULT_MAX_SNAPSHOTS);
+    }
+
+    ClassLoaderLogFile(long resolution, int maxSnapshots) {
+        this.classCounters = new CumulativeCounters(2, resolution, maxSnapshots);
+        this.classStatuses = classCounters.asList(this::toStatus);
+    }
+
+    /**
+     * @return counts after the last class event, null when there was none
+     */
+    public ClassStatus getLastStatus() {
+        return classCounters.last(this::toStatus);
+    }
+
+    void newClassLoaded(long timeStamp) {
+        classCounters.increment(timeStamp, LOADED);
+    }
+
+    void classUnloaded(long timeStamp) {
+        classCounters.increment(timeStamp, UNLOADED);
     }
 
-    void classUnloaded(BigDecimal timeStamp) {
-        if (lastStatus == null) {
-            lastStatus = ClassStatus.builder()
-                    .loadedCount(0)
-                    .unloadedCount(1)
-                    .timeStamp(timeStamp)
-                    .build();
-        } else {
-            lastStatus = ClassStatus.builder()
-                    .loadedCount(lastStatus.getLoadedCount())
-                    .unloadedCount(lastStatus.getUnloadedCount() + 1)
-                    .timeStamp(timeStamp)
-                    .build();
-        }
-        classStatuses.add(lastStatus);
+    private ClassStatus toStatus(int snapshot) {
+        return ClassStatus.builder()
+                .loadedCount(classCounters.get(snapshot, LOADED))
+                .unloadedCount(classCounters.get(snapshot, UNLOADED))
+                .timeStamp(classCounters.getTimeStamp(snapshot))
+                .build();
     }
 }
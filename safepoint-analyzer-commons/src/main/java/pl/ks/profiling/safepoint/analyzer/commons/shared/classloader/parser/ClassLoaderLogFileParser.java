@@ -15,18 +15,36 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 
-public class ClassLoaderLogFileParser implements FileParser<ClassLoaderLogFile> {
-    private final ClassLoaderLogFile classLoaderLogFile = new ClassLoaderLogFile();
+public class ClassLoaderLogFileParser implements UnifiedLogParser<ClassLoaderLogFile> {
+    private final ClassLoaderLogFile classLoaderLogFile;
+
+    public ClassLoaderLogFileParser() {
+        this(ClassLoaderLogFile.DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution initial nanoseconds between class count snapshots presented on charts
+     */
+    public ClassLoaderLogFileParser(long resolution) {
+        this.classLoaderLogFile = new ClassLoaderLogFile(resolution);
+    }
+
+    @Override
+    public boolean isInterestedIn(LogTags tags) {
+        return tags.has("class") && tags.hasAny("load", "unload");
+    }
 
     @Override
-    public void parseLine(String line) {
-        if (line.contains("class,load") && line.contains("info")) {
-            classLoaderLogFile.newClassLoaded(ParserUtils.getTimeStamp(line));
-        } else if (line.contains("class,unload") && line.contains("unloading class")) {
-            classLoaderLogFile.classUnloaded(ParserUtils.getTimeStamp(line));
+    public void parseLine(String line, LineHeader header) {
+        if (header.hasTags(line, "class", "load") && header.isLevel(LineHeader.Level.INFO)) {
+            classLoaderLogFile.newClassLoaded(ParserUtils.getUptimeNanos(header, line));
+        } else if (header.hasTags(line, "class", "unload") && line.contains("unloading class")) {
+            classLoaderLogFile.classUnloaded(ParserUtils.getUptimeNanos(header, line));
         }
     }
 
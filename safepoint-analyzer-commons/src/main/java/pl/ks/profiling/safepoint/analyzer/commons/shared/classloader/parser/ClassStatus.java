@@ -15,14 +15,13 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser;
 
-import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Value;
 
 @Value
 @Builder
 public class ClassStatus {
-    BigDecimal timeStamp;
+    long timeStamp;
     long loadedCount;
     long unloadedCount;
 
@@ -21,6 +21,7 @@ import java.text.DecimalFormat;
 import java.util.List;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
@@ -66,7 +67,7 @@ public class GCAllocationRate implements PageCreator {
             }
             // Catch ArithmeticException: / by zero
             try {
-                allocationRate[i++] = new BigDecimal(current.getHeapBeforeGCMb() - prev.getHeapAfterGCMb()).divide(current.getTimeStamp().subtract(prev.getTimeStamp()), 2, RoundingMode.HALF_EVEN);
+                allocationRate[i++] = new BigDecimal(current.getHeapBeforeGCMb() - prev.getHeapAfterGCMb()).divide(Nanos.toSecondsDecimal(current.getTimeStamp() - prev.getTimeStamp()), 2, RoundingMode.HALF_EVEN);
             } catch (ArithmeticException e) {
                 if (i < allocationRate.length) {
                     allocationRate[i++] = BigDecimal.ZERO;
@@ -83,7 +84,7 @@ public class GCAllocationRate implements PageCreator {
             if (j - 1 >= allocationRate.length) {
                 break;
             }
-            stats[j][0] = cycle.getTimeStamp();
+            stats[j][0] = Nanos.toSecondsDecimal(cycle.getTimeStamp());
             stats[j][1] = allocationRate[j - 1];
             j++;
         }
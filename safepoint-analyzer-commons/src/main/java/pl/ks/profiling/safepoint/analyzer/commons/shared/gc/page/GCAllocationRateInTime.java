@@ -25,6 +25,7 @@ import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
@@ -128,10 +129,10 @@ public class GCAllocationRateInTime implements PageCreator {
             }
 
             try {
-                BigDecimal rate = new BigDecimal(current.getHeapBeforeGCMb() - prev.getHeapAfterGCMb()).divide(current.getTimeStamp().subtract(prev.getTimeStamp()), 2, RoundingMode.HALF_EVEN);
+                BigDecimal rate = new BigDecimal(current.getHeapBeforeGCMb() - prev.getHeapAfterGCMb()).divide(Nanos.toSecondsDecimal(current.getTimeStamp() - prev.getTimeStamp()), 2, RoundingMode.HALF_EVEN);
 
-                long prevCycleMinute = prev.getTimeStamp().divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
-                long currentCycleMinute = current.getTimeStamp().divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
+                long prevCycleMinute = Nanos.toSecondsDecimal(prev.getTimeStamp()).divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
+                long currentCycleMinute = Nanos.toSecondsDecimal(current.getTimeStamp()).divide(fromSecondsToMinute, 2, RoundingMode.HALF_EVEN).longValue();
                 for (long j = prevCycleMinute; j <= currentCycleMinute; j++) {
                     byTimeMap.computeIfAbsent(j, minute -> new ArrayList<>()).add(rate);
                 }
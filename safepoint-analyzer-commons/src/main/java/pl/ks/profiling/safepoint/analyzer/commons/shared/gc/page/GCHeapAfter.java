@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.gui.commons.PageContent;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
@@ -97,7 +98,7 @@ public class GCHeapAfter implements PageCreator {
             "Heap size");
 
     private static final List<Function<GCLogCycleEntry, Object>> chartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             GCLogCycleEntry::getHeapAfterGCMb,
             GCLogCycleEntry::getHeapSizeMb);
 
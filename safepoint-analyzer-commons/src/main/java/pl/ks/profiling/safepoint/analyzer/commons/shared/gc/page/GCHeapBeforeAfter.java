@@ -21,6 +21,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
@@ -64,7 +65,7 @@ public class GCHeapBeforeAfter implements PageCreator {
             "Heap size");
 
     private static final List<Function<GCLogCycleEntry, Object>> heapSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             GCLogCycleEntry::getHeapBeforeGCMb,
             GCLogCycleEntry::getHeapAfterGCMb,
             GCLogCycleEntry::getHeapSizeMb);
@@ -87,7 +88,7 @@ public class GCHeapBeforeAfter implements PageCreator {
     private static final Function<GCLogCycleEntry, Object> reclaimedSpace = (GCLogCycleEntry gcCycleInfo) -> gcCycleInfo.getHeapBeforeGCMb() - gcCycleInfo.getHeapAfterGCMb();
 
     private static final List<Function<GCLogCycleEntry, Object>> reclaimedSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             reclaimedSpace);
 
     private static Object[][] getReclaimedSizeChart(JvmLogFile jvmLogFile) {
@@ -100,7 +101,7 @@ public class GCHeapBeforeAfter implements PageCreator {
             "Heap size");
 
     private static final List<Function<GCLogCycleEntry, Object>> heapBeforeGcSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             GCLogCycleEntry::getHeapBeforeGCMb,
             GCLogCycleEntry::getHeapSizeMb);
 
@@ -115,7 +116,7 @@ public class GCHeapBeforeAfter implements PageCreator {
             "Heap size");
 
     private static final List<Function<GCLogCycleEntry, Object>> heapAfterGcSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             GCLogCycleEntry::getHeapAfterGCMb,
             GCLogCycleEntry::getHeapSizeMb);
 
@@ -16,14 +16,13 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
-import org.apache.commons.collections4.CollectionUtils;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleTable;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 
@@ -34,14 +33,11 @@ public class GCRegionCountAfter implements PageCreator {
             return null;
         }
 
-        Set<String> regions = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsBeforeGC().keySet().stream())
-                .collect(Collectors.toSet());
-        if (CollectionUtils.isEmpty(regions)) {
+        GCCycleTable table = jvmLogFile.getGcLogFile().getCycleTable();
+        List<Integer> regionIds = table.getRegionIdsBeforeGC();
+        if (regionIds.isEmpty()) {
             return null;
         }
-        List<String> regionsSorted = new ArrayList<>(regions);
-        regionsSorted.sort(String::compareTo);
 
         return Page.builder()
                 .menuName("GC region stats - after GC")
@@ -49,11 +45,11 @@ public class GCRegionCountAfter implements PageCreator {
                 .info("Page presents charts with count of G1 regions after Garbage Collection.")
                 .icon(Page.Icon.CHART)
                 .pageContents(
-                            regionsSorted.stream()
-                                .map(regionName -> Chart.builder()
+                            regionIds.stream()
+                                .map(regionId -> Chart.builder()
                                         .chartType(Chart.ChartType.POINTS)
-                                        .title(regionName)
-                                        .data(getChart(regionName, jvmLogFile))
+                                        .title(table.getRegionNames().get(regionId))
+                                        .data(getChart(regionId, jvmLogFile))
                                         .xAxisLabel("Seconds since application start when collection happened")
                                         .yAxisLabel("Number of regions after collection")
                                         .build())
@@ -63,17 +59,17 @@ public class GCRegionCountAfter implements PageCreator {
                 .build();
     }
 
-    private static Object[][] getChart(String regionName, JvmLogFile jvmLogFile) {
+    private static Object[][] getChart(int regionId, JvmLogFile jvmLogFile) {
         List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries();
 
         Object[][] stats = new Object[cycles.size() + 1][2];
         stats[0][0] = "GC sequence";
-        stats[0][1] = regionName;
+        stats[0][1] = jvmLogFile.getGcLogFile().getCycleTable().getRegionNames().get(regionId);
 
         int j = 1;
         for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
-            stats[j][1] = cycle.getRegionsAfterGC().get(regionName);
+            stats[j][0] = Nanos.toSecondsDecimal(cycle.getTimeStamp());
+            stats[j][1] = cycle.getRegionAfterGC(regionId);
             j++;
         }
 
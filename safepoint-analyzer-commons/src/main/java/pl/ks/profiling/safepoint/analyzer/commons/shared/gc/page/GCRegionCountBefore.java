@@ -16,14 +16,13 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
-import org.apache.commons.collections4.CollectionUtils;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleTable;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 
@@ -33,25 +32,22 @@ public class GCRegionCountBefore implements PageCreator {
         if (jvmLogFile.getGcLogFile().getStats().getGcRegions().isEmpty()) {
             return null;
         }
-        Set<String> regions = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsBeforeGC().keySet().stream())
-                .collect(Collectors.toSet());
-        if (CollectionUtils.isEmpty(regions)) {
+        GCCycleTable table = jvmLogFile.getGcLogFile().getCycleTable();
+        List<Integer> regionIds = table.getRegionIdsBeforeGC();
+        if (regionIds.isEmpty()) {
             return null;
         }
-        List<String> regionsSorted = new ArrayList<>(regions);
-        regionsSorted.sort(String::compareTo);
         return Page.builder()
                 .menuName("GC region stats - before GC")
                 .fullName("Garbage Collector region stats - before GC")
                 .info("Page presents charts with count of G1 regions before Garbage Collection.")
                 .icon(Page.Icon.CHART)
                 .pageContents(
-                        regionsSorted.stream()
-                                .map(regionName -> Chart.builder()
+                        regionIds.stream()
+                                .map(regionId -> Chart.builder()
                                         .chartType(Chart.ChartType.POINTS)
-                                        .title(regionName)
-                                        .data(getChart(regionName, jvmLogFile))
+                                        .title(table.getRegionNames().get(regionId))
+                                        .data(getChart(regionId, jvmLogFile))
                                         .xAxisLabel("Seconds since application start when collection happened")
                                         .yAxisLabel("Number of regions before collection")
                                         .build())
@@ -61,17 +57,17 @@ public class GCRegionCountBefore implements PageCreator {
                 .build();
     }
 
-    private static Object[][] getChart(String regionName, JvmLogFile jvmLogFile) {
+    private static Object[][] getChart(int regionId, JvmLogFile jvmLogFile) {
         List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries();
 
         Object[][] stats = new Object[cycles.size() + 1][2];
         stats[0][0] = "GC sequence";
-        stats[0][1] = regionName;
+        stats[0][1] = jvmLogFile.getGcLogFile().getCycleTable().getRegionNames().get(regionId);
 
         int j = 1;
         for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
-            stats[j][1] = cycle.getRegionsBeforeGC().get(regionName);
+            stats[j][0] = Nanos.toSecondsDecimal(cycle.getTimeStamp());
+            stats[j][1] = cycle.getRegionBeforeGC(regionId);
             j++;
         }
 
@@ -18,11 +18,11 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
 import pl.ks.profiling.gui.commons.PageContent;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
@@ -57,12 +57,10 @@ public class GCRegionCountBeforeAndAfter implements PageCreator {
         List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries().stream()
                 .filter(gcCycleInfo -> aggregatedPhase.equals(gcCycleInfo.getAggregatedPhase()))
                 .collect(Collectors.toList());
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsBeforeGC().keySet().stream())
-                .collect(Collectors.toSet());
-        if (regions.size() == 0) {
+        if (cycles.stream().noneMatch(GCLogCycleEntry::hasRegionsBeforeGC)) {
             return null;
         }
+        int regionId = jvmLogFile.getGcLogFile().getCycleTable().getRegionId(region);
         Object[][] stats = new Object[cycles.size() + 1][3];
         stats[0][0] = "GC sequence";
         stats[0][1] = "Before";
@@ -71,9 +69,9 @@ public class GCRegionCountBeforeAndAfter implements PageCreator {
 
         int j = 1;
         for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
-            stats[j][1] = cycle.getRegionsBeforeGC().get(region);
-            stats[j][2] = cycle.getRegionsAfterGC().get(region);
+            stats[j][0] = Nanos.toSecondsDecimal(cycle.getTimeStamp());
+            stats[j][1] = cycle.getRegionBeforeGC(regionId);
+            stats[j][2] = cycle.getRegionAfterGC(regionId);
             j++;
         }
 
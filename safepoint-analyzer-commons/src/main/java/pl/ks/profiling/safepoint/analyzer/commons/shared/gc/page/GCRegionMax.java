@@ -16,14 +16,13 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleTable;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
 
 public class GCRegionMax implements PageCreator {
@@ -51,28 +50,25 @@ public class GCRegionMax implements PageCreator {
 
     private static Object[][] getChart(JvmLogFile jvmLogFile) {
         List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries();
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsMax().keySet().stream())
-                .collect(Collectors.toSet());
-        if (regions.size() == 0) {
+        GCCycleTable table = jvmLogFile.getGcLogFile().getCycleTable();
+        List<Integer> regionIds = table.getRegionIdsMax();
+        if (regionIds.size() == 0) {
             return null;
         }
-        List<String> regionsSorted = new ArrayList<>(regions);
-        regionsSorted.sort(String::compareTo);
-        Object[][] stats = new Object[cycles.size() + 1][regionsSorted.size() + 1];
+        Object[][] stats = new Object[cycles.size() + 1][regionIds.size() + 1];
         stats[0][0] = "GC sequence";
         int i = 1;
-        for (String region : regionsSorted) {
-            stats[0][i] = region;
+        for (int regionId : regionIds) {
+            stats[0][i] = table.getRegionNames().get(regionId);
             i++;
         }
 
         int j = 1;
         for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
+            stats[j][0] = Nanos.toSecondsDecimal(cycle.getTimeStamp());
             i = 1;
-            for (String region : regionsSorted) {
-                Integer maxRegion = cycle.getRegionsMax().get(region);
+            for (int regionId : regionIds) {
+                Integer maxRegion = cycle.getRegionMax(regionId);
                 if (maxRegion == null && j > 1) {
                     maxRegion = (Integer) stats[j - 1][i];
                 }
@@ -16,14 +16,14 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.page;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCCycleTable;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCLogCycleEntry;
 
 public class GCRegionSizeAfter implements PageCreator {
@@ -34,7 +34,7 @@ public class GCRegionSizeAfter implements PageCreator {
         }
 
         if (jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .allMatch(gcCycleInfo -> gcCycleInfo.getRegionsSizeAfterGC().isEmpty())) {
+                .noneMatch(GCLogCycleEntry::hasRegionsSizeAfterGC)) {
             return null;
         };
 
@@ -61,30 +61,27 @@ public class GCRegionSizeAfter implements PageCreator {
 
     private static Object[][] getUsedChart(JvmLogFile jvmLogFile) {
         List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .filter(gcCycleInfo -> !gcCycleInfo.getRegionsSizeAfterGC().isEmpty())
+                .filter(GCLogCycleEntry::hasRegionsSizeAfterGC)
                 .collect(Collectors.toList());
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsSizeAfterGC().keySet().stream())
-                .collect(Collectors.toSet());
-        if (regions.size() == 0) {
+        GCCycleTable table = jvmLogFile.getGcLogFile().getCycleTable();
+        List<Integer> regionIds = table.getRegionIdsSizeAfterGC();
+        if (regionIds.size() == 0) {
             return null;
         }
-        List<String> regionsSorted = new ArrayList<>(regions);
-        regionsSorted.sort(String::compareTo);
-        Object[][] stats = new Object[cycles.size() + 1][regionsSorted.size() + 1];
+        Object[][] stats = new Object[cycles.size() + 1][regionIds.size() + 1];
         stats[0][0] = "GC sequence";
         int i = 1;
-        for (String region : regionsSorted) {
-            stats[0][i] = region;
+        for (int regionId : regionIds) {
+            stats[0][i] = table.getRegionNames().get(regionId);
             i++;
         }
 
         int j = 1;
         for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
+            stats[j][0] = Nanos.toSecondsDecimal(cycle.getTimeStamp());
             i = 1;
-            for (String region : regionsSorted) {
-                stats[j][i] = cycle.getRegionsSizeAfterGC().get(region);
+            for (int regionId : regionIds) {
+                stats[j][i] = cycle.getRegionSizeAfterGC(regionId);
                 i++;
             }
             j++;
@@ -95,30 +92,27 @@ public class GCRegionSizeAfter implements PageCreator {
 
     private static Object[][] getWastedChart(JvmLogFile jvmLogFile) {
         List<GCLogCycleEntry> cycles = jvmLogFile.getGcLogFile().getCycleEntries().stream()
-                .filter(gcCycleInfo -> !gcCycleInfo.getRegionsWastedAfterGC().isEmpty())
+                .filter(GCLogCycleEntry::hasRegionsWastedAfterGC)
                 .collect(Collectors.toList());
-        Set<String> regions = cycles.stream()
-                .flatMap(gcCycleInfo -> gcCycleInfo.getRegionsWastedAfterGC().keySet().stream())
-                .collect(Collectors.toSet());
-        if (regions.size() == 0) {
+        GCCycleTable table = jvmLogFile.getGcLogFile().getCycleTable();
+        List<Integer> regionIds = table.getRegionIdsWastedAfterGC();
+        if (regionIds.size() == 0) {
             return null;
         }
-        List<String> regionsSorted = new ArrayList<>(regions);
-        regionsSorted.sort(String::compareTo);
-        Object[][] stats = new Object[cycles.size() + 1][regionsSorted.size() + 1];
+        Object[][] stats = new Object[cycles.size() + 1][regionIds.size() + 1];
         stats[0][0] = "GC sequence";
         int i = 1;
-        for (String region : regionsSorted) {
-            stats[0][i] = region;
+        for (int regionId : regionIds) {
+            stats[0][i] = table.getRegionNames().get(regionId);
             i++;
         }
 
         int j = 1;
         for (GCLogCycleEntry cycle : cycles) {
-            stats[j][0] = cycle.getTimeStamp();
+            stats[j][0] = Nanos.toSecondsDecimal(cycle.getTimeStamp());
             i = 1;
-            for (String region : regionsSorted) {
-                stats[j][i] = cycle.getRegionsWastedAfterGC().get(region);
+            for (int regionId : regionIds) {
+                stats[j][i] = cycle.getRegionWastedAfterGC(regionId);
                 i++;
             }
             j++;
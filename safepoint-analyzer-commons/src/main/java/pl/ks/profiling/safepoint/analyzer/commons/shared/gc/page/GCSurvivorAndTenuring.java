@@ -21,6 +21,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -65,7 +66,7 @@ public class GCSurvivorAndTenuring implements PageCreator {
             "Size");
 
     private static final List<Function<GCLogCycleEntry, Object>> desiredSurvivorSizeChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             GCLogCycleEntry::getDesiredSurvivorSize);
 
     private static Object[][] getDesiredSurvivorSize(JvmLogFile jvmLogFile) {
@@ -81,7 +82,7 @@ public class GCSurvivorAndTenuring implements PageCreator {
             "Calculated size");
 
     private static final List<Function<GCLogCycleEntry, Object>> tenuringThresholdChartExtractors = List.of(
-            GCLogCycleEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             GCLogCycleEntry::getNewTenuringThreshold);
 
     private static Object[][] getTenuringThreshold(JvmLogFile jvmLogFile) {
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import pl.ks.profiling.io.source.LineReader;
+import pl.ks.profiling.io.source.LogChunk;
+import pl.ks.profiling.io.source.LogLine;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineRouter;
+
+/**
+ * Parses GC logs of newline aligned chunks in parallel. Every chunk is parsed to a {@link GCEventBuffer} and the
+ * buffers are merged in chunk order into one {@link GCLogFile}: a cycle which started in an earlier chunk is pending
+ * under its GC(id), so its events at the start of the next chunk are merged into it, and concurrent cycles and mixed
+ * collections keep their order. Only a window of chunks is parsed ahead of the merge, which bounds memory usage for
+ * logs of any size.
+ * <p>
+ * Parsers of other subsystems keep state across lines, so they are fed in order, on the merging thread, in the same
+ * pass: while a chunk is parsed the indexes of lines they are interested in are noted, and only these lines are
+ * routed to them when the chunk is merged. Each line is read from the chunk once for GC and at most once more for
+ * the other parsers, lines of no interest are never decoded twice.
+ * <p>
+ * Chunks are parsed on a dedicated pool and merged on the calling thread, which must not be a thread of the pool, so
+ * waiting for a chunk cannot block the pool parsing it.
+ */
+public class ChunkedGCLogFileParser {
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService CHUNK_EXECUTOR = Executors.newFixedThreadPool(PARALLELISM, new ChunkParserThreadFactory("gc-chunk-parser-"));
+
+    private final List<LogChunk> chunks;
+    private final List<? extends UnifiedLogParser<?>> inOrderParsers;
+    private final ExecutorService executor;
+    private final int window;
+    private long numberOfLines;
+
+    public ChunkedGCLogFileParser(List<LogChunk> chunks) {
+        this(chunks, List.of());
+    }
+
+    /**
+     * @param inOrderParsers parsers of other subsystems, fed with lines of chunks in order
+     */
+    public ChunkedGCLogFileParser(List<LogChunk> chunks, List<? extends UnifiedLogParser<?>> inOrderParsers) {
+        this(chunks, inOrderParsers, CHUNK_EXECUTOR, PARALLELISM);
+    }
+
+    /**
+     * @param parallelism number of threads of the executor, one more chunk is parsed ahead of the merge
+     */
+    ChunkedGCLogFileParser(List<LogChunk> chunks, List<? extends UnifiedLogParser<?>> inOrderParsers, ExecutorService executor, int parallelism) {
+        this.chunks = chunks;
+        this.inOrderParsers = inOrderParsers;
+        this.executor = executor;
+        this.window = parallelism + 1;
+    }
+
+    public GCLogFile parse() {
+        return parse((chunk, lines) -> {
+        });
+    }
+
+    /**
+     * Must not be called on a thread of the executor parsing chunks.
+     *
+     * @param listener notified after each chunk is merged and its lines are passed to the other parsers
+     */
+    public GCLogFile parse(MergeListener listener) {
+        GCLogFile gcLogFile = new GCLogFile();
+        Deque<Future<ParsedChunk>> parsed = new ArrayDeque<>();
+        try (LineRouter inOrderRouter = new LineRouter(inOrderParsers)) {
+            for (LogChunk chunk : chunks) {
+                parsed.add(executor.submit(() -> parseChunk(chunk, inOrderParsers)));
+                if (parsed.size() >= window) {
+                    merge(await(parsed.poll()), gcLogFile, inOrderRouter, listener);
+                }
+            }
+            while (!parsed.isEmpty()) {
+                merge(await(parsed.poll()), gcLogFile, inOrderRouter, listener);
+            }
+        } finally {
+            parsed.forEach(task -> task.cancel(false));
+        }
+        gcLogFile.parsingCompleted();
+        return gcLogFile;
+    }
+
+    /**
+     * @return number of lines of merged chunks
+     */
+    public long getNumberOfLines() {
+        return numberOfLines;
+    }
+
+    private void merge(ParsedChunk parsedChunk, GCLogFile gcLogFile, LineRouter inOrderRouter, MergeListener listener) {
+        parsedChunk.events.applyTo(gcLogFile);
+        if (parsedChunk.inOrderCount > 0) {
+            try (LineReader lineReader = parsedChunk.chunk.lineReader()) {
+                inOrderRouter.routeAll(new NotedLines(lineReader, parsedChunk.inOrderLines, parsedChunk.inOrderCount));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        numberOfLines += parsedChunk.lines;
+        listener.merged(parsedChunk.chunk, numberOfLines);
+    }
+
+    static GCEventBuffer parseChunk(LogChunk chunk) {
+        return parseChunk(chunk, List.of()).events;
+    }
+
+    private static ParsedChunk parseChunk(LogChunk chunk, List<? extends UnifiedLogParser<?>> inOrderParsers) {
+        GCEventBuffer buffer = new GCEventBuffer();
+        GCUnifiedLogFileParser parser = new GCUnifiedLogFileParser(buffer);
+        ChunkRouter chunkRouter = new ChunkRouter(parser, inOrderParsers);
+        try (LineReader lineReader = chunk.lineReader()) {
+            chunkRouter.routeAll(lineReader::readLine);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ParsedChunk(chunk, buffer, chunkRouter.routed, chunkRouter.noted, chunkRouter.notedCount);
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a parsed chunk", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Parsing of a chunk failed", e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    public interface MergeListener {
+        /**
+         * @param lines number of lines of all chunks merged so far
+         */
+        void merged(LogChunk chunk, long lines);
+    }
+
+    private static class ParsedChunk {
+        final LogChunk chunk;
+        final GCEventBuffer events;
+        final long lines;
+        final int[] inOrderLines;
+        final int inOrderCount;
+
+        ParsedChunk(LogChunk chunk, GCEventBuffer events, long lines, int[] inOrderLines, int inOrderCount) {
+            this.chunk = chunk;
+            this.events = events;
+            this.lines = lines;
+            this.inOrderLines = inOrderLines;
+            this.inOrderCount = inOrderCount;
+        }
+    }
+
+    /**
+     * Decodes headers of a chunk once: GC lines are parsed right away, indexes of lines other parsers are interested
+     * in are noted to be routed to them in order.
+     */
+    private static class ChunkRouter extends LineRouter {
+        private final GCUnifiedLogFileParser gcParser;
+        private int routed;
+        private int[] noted = new int[256];
+        private int notedCount;
+
+        ChunkRouter(GCUnifiedLogFileParser gcParser, List<? extends UnifiedLogParser<?>> inOrderParsers) {
+            super(Stream.concat(Stream.of(gcParser), inOrderParsers.stream()).toList());
+            this.gcParser = gcParser;
+        }
+
+        @Override
+        public void route(CharSequence line) {
+            super.route(line);
+            routed++;
+        }
+
+        @Override
+        protected void deliver(UnifiedLogParser<?>[] receivers, CharSequence line, LineHeader header) {
+            boolean inOrder = false;
+            for (UnifiedLogParser<?> parser : receivers) {
+                if (parser == gcParser) {
+                    gcParser.parseLine(line.toString(), header);
+                } else {
+                    inOrder = true;
+                }
+            }
+            if (inOrder) {
+                if (notedCount == noted.length) {
+                    noted = Arrays.copyOf(noted, notedCount * 2);
+                }
+                noted[notedCount++] = routed;
+            }
+        }
+    }
+
+    /**
+     * Lines of a chunk with noted indexes, the other lines are skipped without decoding.
+     */
+    private static class NotedLines implements LineRouter.LineSource {
+        private final LineReader lineReader;
+        private final int[] indexes;
+        private final int count;
+        private int index;
+        private int next;
+
+        NotedLines(LineReader lineReader, int[] indexes, int count) {
+            this.lineReader = lineReader;
+            this.indexes = indexes;
+            this.count = count;
+        }
+
+        @Override
+        public LogLine next() throws IOException {
+            while (next < count) {
+                LogLine line = lineReader.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (index++ == indexes[next]) {
+                    next++;
+                    return line;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class ChunkParserThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        ChunkParserThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
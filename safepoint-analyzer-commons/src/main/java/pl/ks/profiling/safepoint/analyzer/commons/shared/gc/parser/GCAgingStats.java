@@ -27,5 +27,5 @@ import lombok.Setter;
 class GCAgingStats {
     private Map<Integer, BigDecimal> survivedRatio = new HashMap<>();
     private long sequenceId;
-    private BigDecimal timeStamp;
+    private long timeStamp;
 }
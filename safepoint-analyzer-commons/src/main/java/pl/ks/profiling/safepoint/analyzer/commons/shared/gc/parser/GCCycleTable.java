@@ -0,0 +1,580 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogLinearHistogram;
+
+/**
+ * Finished GC cycles stored column by column in primitive arrays, one row per cycle. Phases, sub-phases and region
+ * names are dictionary encoded, region, sub-phase and age columns are allocated only when the log contains them. Rows
+ * are appended when cycles finish, {@link #entries()} gives {@link GCLogCycleEntry} views of them.
+ */
+public class GCCycleTable {
+    static final int ABSENT = Integer.MIN_VALUE;
+    static final int UNKNOWN = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final String[] KNOWN_REGIONS = {
+            GCLogCycleEntry.REGIONS_EDEN, GCLogCycleEntry.REGIONS_SURVIVOR, GCLogCycleEntry.REGIONS_OLD, GCLogCycleEntry.REGIONS_HUMONGOUS
+    };
+
+    private int size;
+    private long[] sequenceIds = new long[INITIAL_CAPACITY];
+    private long[] timeStamps = new long[INITIAL_CAPACITY];
+    private long[] times = new long[INITIAL_CAPACITY];
+    private int[] phaseIds = new int[INITIAL_CAPACITY];
+    private int[] heapBeforeGCMb = new int[INITIAL_CAPACITY];
+    private int[] heapAfterGCMb = new int[INITIAL_CAPACITY];
+    private int[] heapSizeMb = new int[INITIAL_CAPACITY];
+    private long[] desiredSurvivorSizes = new long[INITIAL_CAPACITY];
+    private long[] newTenuringThresholds = new long[INITIAL_CAPACITY];
+    private long[] maxTenuringThresholds = new long[INITIAL_CAPACITY];
+    private boolean[] toSpaceExhausted = new boolean[INITIAL_CAPACITY];
+
+    // [region id][row], ABSENT when the cycle did not log the region
+    private int[][] regionsBeforeGC = new int[0][];
+    private int[][] regionsAfterGC = new int[0][];
+    private int[][] regionsMax = new int[0][];
+    private int[][] regionsSizeAfterGC = new int[0][];
+    private int[][] regionsWastedAfterGC = new int[0][];
+
+    // [age][row], -1 when the cycle did not log the age
+    private long[][] bytesInAges = new long[0][];
+
+    // [sub-phase id][row], -1 when the cycle did not log the sub-phase
+    private long[][] subPhaseTimes = new long[0][];
+    private int[] subPhaseCounts = new int[0];
+    private final SubPhaseDictionary subPhases = new SubPhaseDictionary();
+
+    // sparse, most of cycles have no humongous objects
+    private LogLinearHistogram[] liveHumongous = new LogLinearHistogram[INITIAL_CAPACITY];
+    private LogLinearHistogram[] deadHumongous = new LogLinearHistogram[INITIAL_CAPACITY];
+    private final LogLinearHistogram allLiveHumongous = new LogLinearHistogram();
+    private final LogLinearHistogram allDeadHumongous = new LogLinearHistogram();
+
+    private final List<Phase> phases = new ArrayList<>();
+    private final Map<String, Integer> phasesByName = new HashMap<>();
+    private final List<String> regionNames = new ArrayList<>();
+    private final Map<String, Integer> regionsByName = new HashMap<>();
+
+    public GCCycleTable() {
+        for (String region : KNOWN_REGIONS) {
+            regionId(region);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return views of rows, created when accessed
+     */
+    public List<GCLogCycleEntry> entries() {
+        return new Entries();
+    }
+
+    public long getSequenceId(int row) {
+        return sequenceIds[row];
+    }
+
+    public long getTimeStamp(int row) {
+        return timeStamps[row];
+    }
+
+    /**
+     * @return pause time in nanoseconds, -1 when unknown
+     */
+    public long getTime(int row) {
+        return times[row];
+    }
+
+    public int getHeapBeforeGCMb(int row) {
+        return heapBeforeGCMb[row];
+    }
+
+    public int getHeapAfterGCMb(int row) {
+        return heapAfterGCMb[row];
+    }
+
+    public int getHeapSizeMb(int row) {
+        return heapSizeMb[row];
+    }
+
+    public long getDesiredSurvivorSize(int row) {
+        return desiredSurvivorSizes[row];
+    }
+
+    public long getNewTenuringThreshold(int row) {
+        return newTenuringThresholds[row];
+    }
+
+    public long getMaxTenuringThreshold(int row) {
+        return maxTenuringThresholds[row];
+    }
+
+    public boolean isToSpaceExhausted(int row) {
+        return toSpaceExhausted[row];
+    }
+
+    public int getPhaseId(int row) {
+        return phaseIds[row];
+    }
+
+    public String getPhase(int row) {
+        return phases.get(phaseIds[row]).name;
+    }
+
+    public String getAggregatedPhase(int row) {
+        return phases.get(phaseIds[row]).aggregatedPhase;
+    }
+
+    public String getCause(int row) {
+        return phases.get(phaseIds[row]).cause;
+    }
+
+    public boolean isGenuineCollection(int row) {
+        return phases.get(phaseIds[row]).genuineCollection;
+    }
+
+    /**
+     * @return sizes in bytes of live humongous objects of the cycle
+     */
+    public LogLinearHistogram getLiveHumongous(int row) {
+        return liveHumongous[row] == null ? new LogLinearHistogram() : liveHumongous[row];
+    }
+
+    /**
+     * @return sizes in bytes of dead humongous objects of the cycle
+     */
+    public LogLinearHistogram getDeadHumongous(int row) {
+        return deadHumongous[row] == null ? new LogLinearHistogram() : deadHumongous[row];
+    }
+
+    /**
+     * @return sizes in bytes of live humongous objects of all cycles
+     */
+    public LogLinearHistogram getLiveHumongous() {
+        return allLiveHumongous;
+    }
+
+    /**
+     * @return sizes in bytes of dead humongous objects of all cycles
+     */
+    public LogLinearHistogram getDeadHumongous() {
+        return allDeadHumongous;
+    }
+
+    public List<String> getRegionNames() {
+        return regionNames;
+    }
+
+    public SubPhaseDictionary getSubPhases() {
+        return subPhases;
+    }
+
+    /**
+     * @return number of cycles the sub-phase was logged in
+     */
+    public int getSubPhaseCount(int subPhaseId) {
+        return subPhaseId < subPhaseCounts.length ? subPhaseCounts[subPhaseId] : 0;
+    }
+
+    /**
+     * @return sub-phase time in nanoseconds, -1 when the cycle did not log the sub-phase
+     */
+    public long getSubPhaseTime(int row, int subPhaseId) {
+        if (subPhaseId >= subPhaseTimes.length || subPhaseTimes[subPhaseId] == null) {
+            return -1;
+        }
+        return subPhaseTimes[subPhaseId][row];
+    }
+
+    int phaseId(String phase) {
+        Integer id = phasesByName.get(phase);
+        if (id == null) {
+            id = phases.size();
+            phases.add(new Phase(phase));
+            phasesByName.put(phase, id);
+        }
+        return id;
+    }
+
+    boolean isMixed(int phaseId) {
+        return GCLogCycleEntry.MIXED_COLLECTION.equals(phases.get(phaseId).aggregatedPhase);
+    }
+
+    boolean isRemark(int phaseId) {
+        return phases.get(phaseId).remark;
+    }
+
+    int regionId(String region) {
+        Integer id = regionsByName.get(region);
+        if (id == null) {
+            id = regionNames.size();
+            regionNames.add(region);
+            regionsByName.put(region, id);
+        }
+        return id;
+    }
+
+    void append(PendingGCCycle cycle) {
+        ensureCapacity(size + 1);
+        int row = size;
+        sequenceIds[row] = cycle.sequenceId;
+        timeStamps[row] = cycle.timeStamp;
+        times[row] = cycle.time;
+        phaseIds[row] = cycle.phaseId;
+        heapBeforeGCMb[row] = cycle.heapBeforeGCMb;
+        heapAfterGCMb[row] = cycle.heapAfterGCMb;
+        heapSizeMb[row] = cycle.heapSizeMb;
+        desiredSurvivorSizes[row] = cycle.desiredSurvivorSize;
+        newTenuringThresholds[row] = cycle.newTenuringThreshold;
+        maxTenuringThresholds[row] = cycle.maxTenuringThreshold;
+        toSpaceExhausted[row] = cycle.toSpaceExhausted;
+
+        regionsBeforeGC = setRegions(regionsBeforeGC, row, cycle.regionsBeforeGC);
+        regionsAfterGC = setRegions(regionsAfterGC, row, cycle.regionsAfterGC);
+        regionsMax = setRegions(regionsMax, row, cycle.regionsMax);
+        regionsSizeAfterGC = setRegions(regionsSizeAfterGC, row, cycle.regionsSizeAfterGC);
+        regionsWastedAfterGC = setRegions(regionsWastedAfterGC, row, cycle.regionsWastedAfterGC);
+        setAges(row, cycle.bytesInAges);
+
+        setSubPhases(row, cycle.subPhaseTimes);
+
+        liveHumongous[row] = cycle.liveHumongous;
+        deadHumongous[row] = cycle.deadHumongous;
+        if (cycle.liveHumongous != null) {
+            allLiveHumongous.merge(cycle.liveHumongous);
+        }
+        if (cycle.deadHumongous != null) {
+            allDeadHumongous.merge(cycle.deadHumongous);
+        }
+        size++;
+    }
+
+    Map<String, Long> getSubPhasesTime(int row) {
+        Map<String, Long> subPhasesTime = new LinkedHashMap<>();
+        for (int subPhaseId : subPhases.hierarchyOrder()) {
+            long time = getSubPhaseTime(row, subPhaseId);
+            if (time >= 0) {
+                subPhasesTime.put(subPhases.getName(subPhaseId), time);
+            }
+        }
+        return subPhasesTime;
+    }
+
+    /**
+     * @return id of the region in {@link #getRegionNames()}, -1 when no cycle logged it
+     */
+    public int getRegionId(String region) {
+        Integer id = regionsByName.get(region);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return ids of regions which count before GC was logged by any cycle, in the order of region names
+     */
+    public List<Integer> getRegionIdsBeforeGC() {
+        return loggedRegionIds(regionsBeforeGC);
+    }
+
+    public List<Integer> getRegionIdsMax() {
+        return loggedRegionIds(regionsMax);
+    }
+
+    public List<Integer> getRegionIdsSizeAfterGC() {
+        return loggedRegionIds(regionsSizeAfterGC);
+    }
+
+    public List<Integer> getRegionIdsWastedAfterGC() {
+        return loggedRegionIds(regionsWastedAfterGC);
+    }
+
+    /**
+     * @return number of regions before GC, null when the cycle did not log it or it is unknown
+     */
+    public Integer getRegionBeforeGC(int row, int regionId) {
+        return region(regionsBeforeGC, row, regionId);
+    }
+
+    public Integer getRegionAfterGC(int row, int regionId) {
+        return region(regionsAfterGC, row, regionId);
+    }
+
+    public Integer getRegionMax(int row, int regionId) {
+        return region(regionsMax, row, regionId);
+    }
+
+    public Integer getRegionSizeAfterGC(int row, int regionId) {
+        return region(regionsSizeAfterGC, row, regionId);
+    }
+
+    public Integer getRegionWastedAfterGC(int row, int regionId) {
+        return region(regionsWastedAfterGC, row, regionId);
+    }
+
+    /**
+     * @return true when the cycle logged count before GC of any region
+     */
+    public boolean hasRegionsBeforeGC(int row) {
+        return anyRegion(regionsBeforeGC, row);
+    }
+
+    public boolean hasRegionsSizeAfterGC(int row) {
+        return anyRegion(regionsSizeAfterGC, row);
+    }
+
+    public boolean hasRegionsWastedAfterGC(int row) {
+        return anyRegion(regionsWastedAfterGC, row);
+    }
+
+    Map<Integer, Long> getBytesInAges(int row) {
+        Map<Integer, Long> ages = new HashMap<>();
+        for (int age = 0; age < bytesInAges.length; age++) {
+            if (bytesInAges[age] != null && bytesInAges[age][row] >= 0) {
+                ages.put(age, bytesInAges[age][row]);
+            }
+        }
+        return ages;
+    }
+
+    int getMaxAge(int row) {
+        for (int age = bytesInAges.length - 1; age > 0; age--) {
+            if (bytesInAges[age] != null && bytesInAges[age][row] >= 0) {
+                return age;
+            }
+        }
+        return 0;
+    }
+
+    private List<Integer> loggedRegionIds(int[][] columns) {
+        List<Integer> ids = new ArrayList<>();
+        for (int region = 0; region < columns.length; region++) {
+            if (columns[region] != null) {
+                ids.add(region);
+            }
+        }
+        ids.sort(Comparator.comparing(regionNames::get));
+        return ids;
+    }
+
+    private static Integer region(int[][] columns, int row, int regionId) {
+        if (regionId < 0 || regionId >= columns.length || columns[regionId] == null) {
+            return null;
+        }
+        int value = columns[regionId][row];
+        return value == ABSENT || value == UNKNOWN ? null : value;
+    }
+
+    private static boolean anyRegion(int[][] columns, int row) {
+        for (int[] column : columns) {
+            if (column != null && column[row] != ABSENT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[][] setRegions(int[][] columns, int row, int[] values) {
+        if (values.length > columns.length) {
+            columns = Arrays.copyOf(columns, values.length);
+        }
+        for (int region = 0; region < values.length; region++) {
+            if (values[region] == ABSENT) {
+                if (columns[region] != null) {
+                    columns[region][row] = ABSENT;
+                }
+                continue;
+            }
+            if (columns[region] == null) {
+                columns[region] = filled(new int[sequenceIds.length], ABSENT);
+            }
+            columns[region][row] = values[region];
+        }
+        for (int region = values.length; region < columns.length; region++) {
+            if (columns[region] != null) {
+                columns[region][row] = ABSENT;
+            }
+        }
+        return columns;
+    }
+
+    private void setAges(int row, long[] values) {
+        bytesInAges = setOptional(bytesInAges, row, values);
+    }
+
+    private void setSubPhases(int row, long[] values) {
+        subPhaseTimes = setOptional(subPhaseTimes, row, values);
+        if (values.length > subPhaseCounts.length) {
+            subPhaseCounts = Arrays.copyOf(subPhaseCounts, values.length);
+        }
+        for (int subPhaseId = 0; subPhaseId < values.length; subPhaseId++) {
+            if (values[subPhaseId] >= 0) {
+                subPhaseCounts[subPhaseId]++;
+            }
+        }
+    }
+
+    private long[][] setOptional(long[][] columns, int row, long[] values) {
+        if (values.length > columns.length) {
+            columns = Arrays.copyOf(columns, values.length);
+        }
+        for (int column = 0; column < columns.length; column++) {
+            long value = column < values.length ? values[column] : -1;
+            if (value >= 0 && columns[column] == null) {
+                columns[column] = new long[sequenceIds.length];
+                Arrays.fill(columns[column], -1);
+            }
+            if (columns[column] != null) {
+                columns[column][row] = value;
+            }
+        }
+        return columns;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= sequenceIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, sequenceIds.length * 2);
+        sequenceIds = Arrays.copyOf(sequenceIds, newCapacity);
+        timeStamps = Arrays.copyOf(timeStamps, newCapacity);
+        times = Arrays.copyOf(times, newCapacity);
+        phaseIds = Arrays.copyOf(phaseIds, newCapacity);
+        heapBeforeGCMb = Arrays.copyOf(heapBeforeGCMb, newCapacity);
+        heapAfterGCMb = Arrays.copyOf(heapAfterGCMb, newCapacity);
+        heapSizeMb = Arrays.copyOf(heapSizeMb, newCapacity);
+        desiredSurvivorSizes = Arrays.copyOf(desiredSurvivorSizes, newCapacity);
+        newTenuringThresholds = Arrays.copyOf(newTenuringThresholds, newCapacity);
+        maxTenuringThresholds = Arrays.copyOf(maxTenuringThresholds, newCapacity);
+        toSpaceExhausted = Arrays.copyOf(toSpaceExhausted, newCapacity);
+        liveHumongous = Arrays.copyOf(liveHumongous, newCapacity);
+        deadHumongous = Arrays.copyOf(deadHumongous, newCapacity);
+        growRegions(regionsBeforeGC, newCapacity);
+        growRegions(regionsAfterGC, newCapacity);
+        growRegions(regionsMax, newCapacity);
+        growRegions(regionsSizeAfterGC, newCapacity);
+        growRegions(regionsWastedAfterGC, newCapacity);
+        growOptional(bytesInAges, newCapacity);
+        growOptional(subPhaseTimes, newCapacity);
+    }
+
+    private static void growOptional(long[][] columns, int newCapacity) {
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column] != null) {
+                int oldCapacity = columns[column].length;
+                columns[column] = Arrays.copyOf(columns[column], newCapacity);
+                Arrays.fill(columns[column], oldCapacity, newCapacity, -1);
+            }
+        }
+    }
+
+    private static void growRegions(int[][] columns, int newCapacity) {
+        for (int region = 0; region < columns.length; region++) {
+            if (columns[region] != null) {
+                int oldCapacity = columns[region].length;
+                columns[region] = Arrays.copyOf(columns[region], newCapacity);
+                Arrays.fill(columns[region], oldCapacity, newCapacity, ABSENT);
+            }
+        }
+    }
+
+    private static int[] filled(int[] array, int value) {
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    private class Entries extends AbstractList<GCLogCycleEntry> implements RandomAccess {
+        @Override
+        public GCLogCycleEntry get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return new GCLogCycleEntry(GCCycleTable.this, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Everything that follows from the phase name alone, computed once per distinct phase.
+     */
+    private static class Phase {
+        final String name;
+        final String aggregatedPhase;
+        final String cause;
+        final boolean genuineCollection;
+        final boolean remark;
+
+        Phase(String phase) {
+            this.name = phase;
+            String aggregated;
+            boolean genuine = false;
+            if (phase.contains("Pause Young")) {
+                if (phase.contains("(Mixed)")) {
+                    aggregated = GCLogCycleEntry.MIXED_COLLECTION;
+                    genuine = true;
+                } else if (phase.contains("(Allocation Failure)")) {
+                    aggregated = GCLogCycleEntry.YOUNG_COLLECTION;
+                    genuine = true;
+                } else if (phase.contains("(Normal)")) {
+                    aggregated = GCLogCycleEntry.YOUNG_COLLECTION;
+                    genuine = true;
+                } else {
+                    aggregated = "Young collection - piggybacks";
+                }
+            } else if (phase.contains("Pause Full")) {
+                aggregated = GCLogCycleEntry.FULL_COLLECTION;
+                genuine = true;
+            } else if (phase.startsWith("(G1") || phase.startsWith("(GC") || phase.startsWith("(Meta")) {
+                if (phase.contains("(mixed)")) {
+                    aggregated = GCLogCycleEntry.MIXED_COLLECTION;
+                    genuine = true;
+                } else if (phase.endsWith("(young)") && !phase.contains("G1 Humongous Allocation")) {
+                    aggregated = GCLogCycleEntry.YOUNG_COLLECTION;
+                    genuine = true;
+                } else {
+                    aggregated = "Young collection - piggybacks";
+                }
+            } else if (phase.contains("Full")) {
+                aggregated = GCLogCycleEntry.FULL_COLLECTION;
+                genuine = true;
+            } else {
+                aggregated = phase;
+            }
+            this.aggregatedPhase = aggregated;
+            this.genuineCollection = genuine;
+            this.remark = phase.toLowerCase().contains(GCLogCycleEntry.REMARK_COLLECTION);
+
+            int start = phase.lastIndexOf('(');
+            int end = phase.lastIndexOf(')');
+            this.cause = start >= 0 && end >= 0 ? phase.substring(start + 1, end) : null;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import java.util.Arrays;
+
+/**
+ * Events of a part of a log kept in order, to be applied later to the log of the whole file. Cycles may have
+ * started in a previous part, so nothing is resolved here: every event is stored as its type, its GC id and numeric
+ * arguments in a primitive array and its names or lines in a string array, so nothing is boxed.
+ */
+class GCEventBuffer extends GCLogEvents {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private enum Event {
+        NEW_LINE,
+        NEW_PHASE,
+        ADD_SUB_PHASE_TIME,
+        ADD_SIZES,
+        FINISH_CYCLE,
+        ADD_SIZES_AND_TIME,
+        ADD_TIME,
+        ADD_REGION_COUNT,
+        ADD_LAST_REGION_SIZES,
+        ADD_REGION_SIZES,
+        ADD_LIVE_HUMONGOUS,
+        ADD_DEAD_HUMONGOUS,
+        ADD_AGE_WITH_SIZE,
+        TO_SPACE_EXHAUSTED,
+        NEW_CONCURRENT_CYCLE,
+        ADD_SURVIVOR_STATS;
+
+        private static final Event[] VALUES = values();
+    }
+
+    private byte[] events = new byte[INITIAL_CAPACITY];
+    private long[] numbers = new long[INITIAL_CAPACITY * 2];
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private int size;
+    private int numbersSize;
+    private int stringsSize;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Applies events in the order they were recorded. Cycles started in earlier parts are still pending in the target
+     * under their GC ids, so events of cycles crossing the edge of this part are merged into them.
+     */
+    void applyTo(GCLogEvents target) {
+        int number = 0;
+        int string = 0;
+        for (int i = 0; i < size; i++) {
+            long sequenceId = numbers[number++];
+            switch (Event.VALUES[events[i]]) {
+                case NEW_LINE:
+                    target.newLine(sequenceId, strings[string++]);
+                    break;
+                case NEW_PHASE:
+                    target.newPhase(sequenceId, strings[string++], numbers[number++]);
+                    break;
+                case ADD_SUB_PHASE_TIME:
+                    target.addSubPhaseTime(sequenceId, strings[string++], numbers[number++]);
+                    break;
+                case ADD_SIZES:
+                    target.addSizes(sequenceId, (int) numbers[number], (int) numbers[number + 1], (int) numbers[number + 2]);
+                    number += 3;
+                    break;
+                case FINISH_CYCLE:
+                    target.finishCycle(sequenceId);
+                    break;
+                case ADD_SIZES_AND_TIME:
+                    target.addSizesAndTime(sequenceId, (int) numbers[number], (int) numbers[number + 1], (int) numbers[number + 2], numbers[number + 3]);
+                    number += 4;
+                    break;
+                case ADD_TIME:
+                    target.addTime(sequenceId, numbers[number++]);
+                    break;
+                case ADD_REGION_COUNT:
+                    target.addRegionCount(sequenceId, strings[string++], (int) numbers[number], (int) numbers[number + 1], (int) numbers[number + 2]);
+                    number += 3;
+                    break;
+                case ADD_LAST_REGION_SIZES:
+                    target.addRegionSizes(sequenceId, (int) numbers[number], (int) numbers[number + 1]);
+                    number += 2;
+                    break;
+                case ADD_REGION_SIZES:
+                    target.addRegionSizes(sequenceId, strings[string++], (int) numbers[number], (int) numbers[number + 1]);
+                    number += 2;
+                    break;
+                case ADD_LIVE_HUMONGOUS:
+                    target.addLiveHumongous(sequenceId, numbers[number++]);
+                    break;
+                case ADD_DEAD_HUMONGOUS:
+                    target.addDeadHumongous(sequenceId, numbers[number++]);
+                    break;
+                case ADD_AGE_WITH_SIZE:
+                    target.addAgeWithSize(sequenceId, (int) numbers[number], numbers[number + 1]);
+                    number += 2;
+                    break;
+                case TO_SPACE_EXHAUSTED:
+                    target.toSpaceExhausted(sequenceId);
+                    break;
+                case NEW_CONCURRENT_CYCLE:
+                    target.newConcurrentCycle(sequenceId, numbers[number++]);
+                    break;
+                case ADD_SURVIVOR_STATS:
+                    target.addSurvivorStats(sequenceId, numbers[number], numbers[number + 1], numbers[number + 2]);
+                    number += 3;
+                    break;
+            }
+        }
+    }
+
+    @Override
+    void newLine(long cycleId, String line) {
+        event(Event.NEW_LINE, cycleId);
+        string(line);
+    }
+
+    @Override
+    void newPhase(long sequenceId, String phase, long timeStamp) {
+        event(Event.NEW_PHASE, sequenceId);
+        string(phase);
+        number(timeStamp);
+    }
+
+    @Override
+    void addSubPhaseTime(long sequenceId, String phase, long time) {
+        event(Event.ADD_SUB_PHASE_TIME, sequenceId);
+        string(phase);
+        number(time);
+    }
+
+    @Override
+    void addSizes(long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize) {
+        event(Event.ADD_SIZES, sequenceId);
+        number(heapBeforeGC);
+        number(heapAfterGC);
+        number(heapSize);
+    }
+
+    @Override
+    void finishCycle(long sequenceId) {
+        event(Event.FINISH_CYCLE, sequenceId);
+    }
+
+    @Override
+    void addSizesAndTime(long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize, long phaseTime) {
+        event(Event.ADD_SIZES_AND_TIME, sequenceId);
+        number(heapBeforeGC);
+        number(heapAfterGC);
+        number(heapSize);
+        number(phaseTime);
+    }
+
+    @Override
+    void addTime(long sequenceId, long phaseTime) {
+        event(Event.ADD_TIME, sequenceId);
+        number(phaseTime);
+    }
+
+    @Override
+    void addRegionCount(long sequenceId, String regionName, int regionsBeforeGC, int regionsAfterGC, int maxRegions) {
+        event(Event.ADD_REGION_COUNT, sequenceId);
+        string(regionName);
+        number(regionsBeforeGC);
+        number(regionsAfterGC);
+        number(maxRegions);
+    }
+
+    @Override
+    void addRegionSizes(long sequenceId, int size, int wasted) {
+        event(Event.ADD_LAST_REGION_SIZES, sequenceId);
+        number(size);
+        number(wasted);
+    }
+
+    @Override
+    void addRegionSizes(long sequenceId, String regionName, int size, int wasted) {
+        event(Event.ADD_REGION_SIZES, sequenceId);
+        string(regionName);
+        number(size);
+        number(wasted);
+    }
+
+    @Override
+    void addLiveHumongous(long sequenceId, long size) {
+        event(Event.ADD_LIVE_HUMONGOUS, sequenceId);
+        number(size);
+    }
+
+    @Override
+    void addDeadHumongous(long sequenceId, long size) {
+        event(Event.ADD_DEAD_HUMONGOUS, sequenceId);
+        number(size);
+    }
+
+    @Override
+    void addAgeWithSize(long sequenceId, int age, long size) {
+        event(Event.ADD_AGE_WITH_SIZE, sequenceId);
+        number(age);
+        number(size);
+    }
+
+    @Override
+    void toSpaceExhausted(long sequenceId) {
+        event(Event.TO_SPACE_EXHAUSTED, sequenceId);
+    }
+
+    @Override
+    void newConcurrentCycle(long sequenceId, long time) {
+        event(Event.NEW_CONCURRENT_CYCLE, sequenceId);
+        number(time);
+    }
+
+    @Override
+    void addSurvivorStats(long sequenceId, long desiredSize, long newThreshold, long maxThreshold) {
+        event(Event.ADD_SURVIVOR_STATS, sequenceId);
+        number(desiredSize);
+        number(newThreshold);
+        number(maxThreshold);
+    }
+
+    private void event(Event event, long sequenceId) {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        events[size++] = (byte) event.ordinal();
+        number(sequenceId);
+    }
+
+    private void number(long value) {
+        if (numbersSize == numbers.length) {
+            numbers = Arrays.copyOf(numbers, numbersSize * 2);
+        }
+        numbers[numbersSize++] = value;
+    }
+
+    private void string(String value) {
+        if (stringsSize == strings.length) {
+            strings = Arrays.copyOf(strings, stringsSize * 2);
+        }
+        strings[stringsSize++] = value;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParseCursor;
+
+/**
+ * Linear scanner of JDK 8 GC lines like
+ * <pre>
+ * [Full GC (Ergonomics) [PSYoungGen: 1024K->0K(2048K)] [ParOldGen: 4096K->3072K(8192K)] 5120K->3072K(10240K), [Metaspace: 3000K->3000K(1056768K)], 0.0123 secs]
+ * </pre>
+ * Nested {@code [...]} sections (generations, metaspace, remark sub-phases) are skipped by tracking bracket depth, so
+ * the whole-heap transition and the pause time are found without backtracking. Sizes are converted to megabytes in
+ * primitive arithmetic.
+ */
+class GCJdk8LineScanner {
+    private static final String TRANSITION = "->";
+    private static final String SECS = " secs";
+    private static final long KB = 1024L;
+    private static final long MB = KB * KB;
+    private static final long GB = MB * KB;
+    private static final int SIZE_SCALE = 3;
+    private static final long SIZE_SCALE_DIVISOR = 1_000L;
+
+    private final ParseCursor cursor = new ParseCursor();
+
+    private int beforeMb;
+    private int afterMb;
+    private int heapSizeMb;
+    private int transitionEnd;
+
+    /**
+     * Reads the first {@code before->after(heapSize)} transition at the bracket level of from. G1 style transitions
+     * with capacity on both sides, like {@code 24.0M(256.0M)->4096.0K(256.0M)}, are supported as well.
+     *
+     * @return true when the transition was found, sizes are then available through getters until the next call
+     */
+    boolean scanHeapTransition(CharSequence line, int from) {
+        int arrow = indexAtSameDepth(line, from, TRANSITION);
+        if (arrow < 0) {
+            return false;
+        }
+        int beforeEnd = arrow;
+        if (beforeEnd > from && line.charAt(beforeEnd - 1) == ')') {
+            while (beforeEnd > from && line.charAt(beforeEnd - 1) != '(') {
+                beforeEnd--;
+            }
+            beforeEnd--;
+        }
+        int beforeStart = beforeEnd - 1;
+        while (beforeStart > from && isNumberChar(line.charAt(beforeStart - 1))) {
+            beforeStart--;
+        }
+        if (beforeStart < from || beforeStart >= beforeEnd - 1 || !isDigit(line.charAt(beforeStart))) {
+            return false;
+        }
+
+        cursor.reset(line);
+        cursor.setPosition(beforeStart);
+        beforeMb = readSizeMb();
+        cursor.setPosition(arrow + TRANSITION.length());
+        if (!cursor.hasRemaining() || !isDigit(cursor.peek())) {
+            return false;
+        }
+        afterMb = readSizeMb();
+        heapSizeMb = 0;
+        if (cursor.hasRemaining() && cursor.peek() == '(') {
+            cursor.setPosition(cursor.getPosition() + 1);
+            heapSizeMb = readSizeMb();
+        }
+        transitionEnd = cursor.getPosition();
+        return true;
+    }
+
+    /**
+     * @return nanoseconds of the first {@code , 0.0123 secs} at the bracket level of from, -1 when there is none
+     */
+    long scanPauseTime(CharSequence line, int from) {
+        int secs = indexAtSameDepth(line, from, SECS);
+        if (secs < 0) {
+            return -1;
+        }
+        int start = secs;
+        while (start > from && isNumberChar(line.charAt(start - 1))) {
+            start--;
+        }
+        if (start == secs) {
+            return -1;
+        }
+        return cursor.reset(line).setPosition(start).readFixed(Nanos.SECONDS_SCALE);
+    }
+
+    int getBeforeMb() {
+        return beforeMb;
+    }
+
+    int getAfterMb() {
+        return afterMb;
+    }
+
+    int getHeapSizeMb() {
+        return heapSizeMb;
+    }
+
+    int getTransitionEnd() {
+        return transitionEnd;
+    }
+
+    /**
+     * Checks for the {@code -XX:+PrintGCDateStamps} prefix, like {@code 2020-09-30T15:16:11.010+0200: } or
+     * {@code 2020-09-30T15:16:11.010Z: } in UTC, which starts every new entry.
+     */
+    static boolean startsWithDateStamp(CharSequence line) {
+        int end = indexOf(line, ": ", 0);
+        if (end != 24 && end != 28) {
+            return false;
+        }
+        for (int i = 0; i < 23; i++) {
+            char character = line.charAt(i);
+            boolean matches;
+            switch (i) {
+                case 4:
+                case 7:
+                    matches = character == '-';
+                    break;
+                case 10:
+                    matches = character == 'T';
+                    break;
+                case 13:
+                case 16:
+                    matches = character == ':';
+                    break;
+                case 19:
+                    matches = true;
+                    break;
+                default:
+                    matches = isDigit(character);
+            }
+            if (!matches) {
+                return false;
+            }
+        }
+        char zone = line.charAt(23);
+        if (zone == 'Z') {
+            return end == 24;
+        }
+        if (end != 28 || (zone != '+' && zone != '-')) {
+            return false;
+        }
+        for (int i = 24; i < 28; i++) {
+            if (!isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Megabytes of a size like {@code 1024K} or {@code 4096.0K}, rounded half even to two decimal places and
+     * truncated, as the JDK 8 sizes always were.
+     */
+    static int toMb(long thousandths, char unit) {
+        long unitBytes;
+        switch (unit) {
+            case 'K':
+                unitBytes = KB;
+                break;
+            case 'M':
+                unitBytes = MB;
+                break;
+            case 'G':
+                unitBytes = GB;
+                break;
+            default:
+                unitBytes = 1;
+        }
+        long numerator = thousandths * unitBytes;
+        long denominator = SIZE_SCALE_DIVISOR / 100 * MB;
+        long hundredths = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder * 2 > denominator || (remainder * 2 == denominator && (hundredths & 1) == 1)) {
+            hundredths++;
+        }
+        return (int) (hundredths / 100);
+    }
+
+    private int readSizeMb() {
+        long thousandths = cursor.readFixed(SIZE_SCALE);
+        char unit = 'B';
+        if (cursor.hasRemaining() && Character.isLetter(cursor.peek())) {
+            unit = cursor.peek();
+            cursor.setPosition(cursor.getPosition() + 1);
+        }
+        return toMb(thousandths, unit);
+    }
+
+    private static int indexAtSameDepth(CharSequence line, int from, String marker) {
+        int depth = 0;
+        int last = line.length() - marker.length();
+        for (int i = Math.max(from, 0); i <= last; i++) {
+            char character = line.charAt(i);
+            if (character == '[') {
+                depth++;
+            } else if (character == ']') {
+                if (--depth < 0) {
+                    return -1;
+                }
+            } else if (depth == 0 && character == marker.charAt(0) && regionMatches(line, i, marker)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(CharSequence line, String marker, int from) {
+        int last = line.length() - marker.length();
+        for (int i = from; i <= last; i++) {
+            if (regionMatches(line, i, marker)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence line, int offset, String marker) {
+        for (int i = 0; i < marker.length(); i++) {
+            if (line.charAt(offset + i) != marker.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNumberChar(char character) {
+        return isDigit(character) || character == '.' || character == ',';
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+}
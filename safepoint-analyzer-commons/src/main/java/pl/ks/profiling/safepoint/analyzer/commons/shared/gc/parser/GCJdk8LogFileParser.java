@@ -15,35 +15,54 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
 import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParseCursor;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TokenMatcher;
 
 public class GCJdk8LogFileParser implements FileParser<GCLogFile> {
-
-    private static final Pattern patternTimestamp = Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d{3}(Z|[+-])(\\d{4})");
-
-    private static final Pattern patternGCAllocationFailure = Pattern.compile(
-            //             "\\[GC \\((.*?)\\) \\[PSYoungGen: (.*?)(.)->(.*?)(.)\\((.*?)(.)\\)\\] (.*?)(.)->(.*?)(.)\\((.*?)(.)\\), (.*?) secs\\] \\[Times: user=(.*?), sys=(.*?), real=(.*?) secs\\]"
-            "\\[GC \\((.*?)\\) \\[PSYoungGen: (.*?)(.)->(.*?)(.)\\((.*?)(.)\\)\\] (.*?)(.)->(.*?)(.)\\((.*?)(.)\\), (.*?) secs\\] (.*)"
-    );
-
-    private static final Pattern patternFullGC = Pattern.compile(
-            "\\[Full GC \\((.*?)\\) \\[PSYoungGen: (.*?)(.)->(.*?)(.)\\((.*?)(.)\\)\\] \\[ParOldGen: (.*?)(.)->(.*?)(.)\\((.*?)(.)\\)\\] (.*?)(.)->(.*?)(.)\\((.*?)(.)\\), \\[Metaspace: (.*?)(.)->(.*?)(.)\\((.*?)(.)\\)\\], (.*?) secs\\] (.*)"
-    );
-
-    public static final BigDecimal D1024 = new BigDecimal(1024L);
-    public static final BigDecimal JAVA_8_GB_MULTIPLIER = D1024;
-    public static final BigDecimal JAVA_8_MB_MULTIPLIER = BigDecimal.ONE;
-    public static final BigDecimal JAVA_8_KB_MULTIPLIER = BigDecimal.ONE.divide(D1024, 12, RoundingMode.HALF_EVEN);
-    public static final BigDecimal JAVA_8_B_MULTIPLIER = JAVA_8_KB_MULTIPLIER.divide(D1024, 12, RoundingMode.HALF_EVEN);
-    public static final BigDecimal TO_MS_MULTIPLIER = new BigDecimal(1000);
+    private static final String ALLOCATION_FAILURE = "[GC (Allocation Failure)";
+    private static final String GC_LOCKER = "[GC (GCLocker Initiated GC)";
+    private static final String SYSTEM_GC = "[GC (System.gc())";
+    private static final String FULL_SYSTEM_GC = "[Full GC (System.gc())";
+    private static final String FULL_ERGONOMICS = "[Full GC (Ergonomics)";
+    private static final String GC_PAUSE = "GC pause";
+    private static final String FULL_GC = "Full GC";
+    private static final String TRANSITION = "->";
+    private static final String MINOR_GC = "[GC (";
+    private static final String GC_CLEANUP = "GC cleanup";
+    private static final String GC_REMARK = "GC remark";
+    private static final String SECS = "secs";
+    private static final String TIMES = "Times";
+    private static final String HEAP = "Heap: ";
+    private static final String WORKER_START = "GC Worker Start";
+    private static final String WORKER_END = "GC Worker End";
+
+    private static final TokenMatcher MATCHER = TokenMatcher.of(ALLOCATION_FAILURE, GC_LOCKER, SYSTEM_GC, FULL_SYSTEM_GC,
+            FULL_ERGONOMICS, GC_PAUSE, FULL_GC, TRANSITION, MINOR_GC, GC_CLEANUP, GC_REMARK, SECS, TIMES, HEAP, WORKER_START,
+            WORKER_END);
+    private static final long ALLOCATION_FAILURE_MASK = mask(ALLOCATION_FAILURE);
+    private static final long GC_LOCKER_MASK = mask(GC_LOCKER);
+    private static final long SYSTEM_GC_MASK = mask(SYSTEM_GC);
+    private static final long FULL_SYSTEM_GC_MASK = mask(FULL_SYSTEM_GC);
+    private static final long FULL_ERGONOMICS_MASK = mask(FULL_ERGONOMICS);
+    private static final long GC_PAUSE_MASK = mask(GC_PAUSE);
+    private static final long FULL_GC_MASK = mask(FULL_GC);
+    private static final long TRANSITION_MASK = mask(TRANSITION);
+    private static final long MINOR_GC_MASK = mask(MINOR_GC);
+    private static final long GC_CLEANUP_MASK = mask(GC_CLEANUP);
+    private static final long GC_REMARK_MASK = mask(GC_REMARK);
+    private static final long SECS_MASK = mask(SECS);
+    private static final long TIMES_MASK = mask(TIMES);
+    private static final long HEAP_MASK = mask(HEAP);
+    private static final long WORKER_MASK = mask(WORKER_START) | mask(WORKER_END);
 
     private GCLogFile gcLogFile = new GCLogFile();
     private long java8SequenceId;
+    private final GCJdk8LineScanner scanner = new GCJdk8LineScanner();
+    private final ParseCursor cursor = new ParseCursor();
 
     @Override
     public void parseLine(String line) {
@@ -62,110 +81,91 @@ public class GCJdk8LogFileParser implements FileParser<GCLogFile> {
 
     private void parseJava8File(String line) {
         // Gestion de fin de cycle quand on rencontre un debut de log avec une date
-        if (java8SequenceId > 0 && line.indexOf(": ") > 0) {
-            String timestamp = line.substring(0, line.indexOf(": "));
-            if (patternTimestamp.matcher(timestamp).matches()) {
-                gcLogFile.finishCycle(java8SequenceId);
-            }
+        if (java8SequenceId > 0 && GCJdk8LineScanner.startsWithDateStamp(line)) {
+            gcLogFile.finishCycle(java8SequenceId);
         }
 
+        long tokens = MATCHER.match(line);
         // Allocation failure, GC sur young et old
-        if (line.contains("[GC (Allocation Failure)")) {
+        if (has(tokens, ALLOCATION_FAILURE_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Pause Young (mixed)", getJava8TimeStamp(line));
-            //addJava8Time(java8SequenceId, line);
-            // Get size and time
-            addGCAllocationFailureSizes(java8SequenceId, line, "[GC (Allocation Failure)", false, false);
-
+            addTimeAndSizes(java8SequenceId, line, ALLOCATION_FAILURE);
         }
         // GCLocker Initiated GC
-        else if (line.contains("[GC (GCLocker Initiated GC)")) {
+        else if (has(tokens, GC_LOCKER_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "(GC (mixed))", getJava8TimeStamp(line));
-            //addJava8Time(java8SequenceId, line);
-            addGCLockerSizes(java8SequenceId, line, "[GC (GCLocker Initiated GC)", false, false);
-            //gcLogFile.finishCycle(java8SequenceId);
+            addTimeAndSizes(java8SequenceId, line, GC_LOCKER);
         }
         // GC (System.gc())
-        else if (line.contains("[GC (System.gc())")) {
+        else if (has(tokens, SYSTEM_GC_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Major GC", getJava8TimeStamp(line));
-            //addJava8Time(java8SequenceId, line);
-            // Revoir la mutualisation
-            addGCLockerSizes(java8SequenceId, line, "[GC (System.gc())", false, false);
-            //gcLogFile.finishCycle(java8SequenceId);
+            addTimeAndSizes(java8SequenceId, line, SYSTEM_GC);
         }
         // FullGC (System.gc())
-        else if (line.contains("[Full GC (System.gc())")) {
+        else if (has(tokens, FULL_SYSTEM_GC_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Full", getJava8TimeStamp(line));
-            addJava8Time(java8SequenceId, line);
-            addFullGCSizes(java8SequenceId, line, "[Full GC (System.gc())", false, false);
+            addTimeAndSizes(java8SequenceId, line, FULL_SYSTEM_GC);
         }
         // Full GC (Ergonomics)
-        else if (line.contains("[Full GC (Ergonomics)")) {
+        else if (has(tokens, FULL_ERGONOMICS_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Pause Full", getJava8TimeStamp(line));
-            addFullGCSizes(java8SequenceId, line, "[Full GC (Ergonomics)", false, false);
-        } else if (line.contains("GC pause")) {
+            addTimeAndSizes(java8SequenceId, line, FULL_ERGONOMICS);
+        } else if (has(tokens, GC_PAUSE_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, getJava8Phase(line), getJava8TimeStamp(line));
-            if (line.contains("secs")) {
-                addJava8Time(java8SequenceId, line);
+            if (has(tokens, SECS_MASK)) {
+                addJava8Time(java8SequenceId, line, line.indexOf(GC_PAUSE));
             }
-        } else if (line.contains("Full GC") && line.contains("->")) {
+        } else if (has(tokens, FULL_GC_MASK | TRANSITION_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Pause Full", getJava8TimeStamp(line));
-            addJava8Time(java8SequenceId, line.substring(line.lastIndexOf(", ")));
-            addJava8Sizes(java8SequenceId, line, "Full GC (Allocation Failure)", false, false);
-        } else if (line.contains("[GC (") && line.contains("->")) {
+            addTimeAndSizes(java8SequenceId, line, FULL_GC);
+        } else if (has(tokens, MINOR_GC_MASK | TRANSITION_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Minor GC", getJava8TimeStamp(line));
-            addJava8Time(java8SequenceId, line.substring(line.lastIndexOf(", ")));
-            addJava8Sizes(java8SequenceId, line, "[GC (", false, false);
-        } else if (line.contains("GC cleanup")) {
+            addTimeAndSizes(java8SequenceId, line, MINOR_GC);
+        } else if (has(tokens, GC_CLEANUP_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Pause Cleanup", getJava8TimeStamp(line));
-            addJava8Time(java8SequenceId, line.substring(line.lastIndexOf(", ")));
-            addJava8Sizes(java8SequenceId, line, "GC cleanup", false, false);
-        } else if (line.contains("GC remark")) {
+            addTimeAndSizes(java8SequenceId, line, GC_CLEANUP);
+        } else if (has(tokens, GC_REMARK_MASK)) {
             gcLogFile.newPhase(++java8SequenceId, "Pause Remark", getJava8TimeStamp(line));
-            addJava8Time(java8SequenceId, line.substring(line.lastIndexOf(", ")));
+            addJava8Time(java8SequenceId, line, line.indexOf(GC_REMARK) + GC_REMARK.length());
         }
         // duration of the GC on multilines GC trace. Ex : , 0.0165161 secs]
-        else if (( (line.startsWith(", ") || (line.startsWith(" (to-space exhausted), "))) && line.contains("secs") && !line.contains("Times"))) {
-            addJava8Time(java8SequenceId, line.replace(" (to-space exhausted)",""));
-        } else if (line.contains("Heap: ") && line.contains("->")) {
-            addJava8Sizes(java8SequenceId, line, "Heap", true, true);
+        else if ((line.startsWith(", ") || line.startsWith(" (to-space exhausted), ")) && has(tokens, SECS_MASK) && !has(tokens, TIMES_MASK)) {
+            addJava8Time(java8SequenceId, line, 0);
+        } else if (has(tokens, HEAP_MASK | TRANSITION_MASK)) {
+            addJava8Sizes(java8SequenceId, line, line.indexOf(HEAP) + HEAP.length());
         } else if (line.startsWith("Desired survivor size")) {
             addJava8SurvivorStats(java8SequenceId, line);
         } else if (line.startsWith("- age")) {
             addJava8AgeCount(java8SequenceId, line);
-        } else if (line.startsWith("   [") && !line.contains("->")) {
+        } else if (line.startsWith("   [") && !has(tokens, TRANSITION_MASK)) {
             addJava8PhaseYoungAndMixed(java8SequenceId, line, gcLogFile, false);
-        } else if (line.startsWith("      [") && !line.contains("GC Worker Start") && !line.contains("GC Worker End")) {
+        } else if (line.startsWith("      [") && (tokens & WORKER_MASK) == 0) {
             addJava8PhaseYoungAndMixed(java8SequenceId, line, gcLogFile, true);
         }
     }
 
-
     private void addJava8PhaseYoungAndMixed(Long sequenceId, String line, GCLogFile gcLogFile, boolean subSubPhase) {
-        String phase = line.replaceFirst(".*\\[", "").replaceFirst(":.*", "");
+        int phaseStart = line.lastIndexOf('[') + 1;
+        int phaseEnd = line.indexOf(':', phaseStart);
+        String phase = line.substring(phaseStart, phaseEnd < 0 ? line.length() : phaseEnd);
         if (subSubPhase) {
-            phase = "|______" + phase;
+            phase = SubPhaseDictionary.NESTED_PREFIX + phase;
         }
-        if (line.contains("Max:")) {
-            String time = line.replaceFirst(".*Max:", "").replaceFirst(", Diff.*", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+        cursor.reset(line);
+        if (cursor.seekLast("Max:")) {
+            gcLogFile.addSubPhaseTime(sequenceId, phase, cursor.readFixed(Nanos.MILLIS_SCALE));
         } else {
-            String time = line.replaceFirst("ms.*", "").replaceFirst(".*:", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+            int msEnd = line.indexOf("ms");
+            cursor.setPosition(line.lastIndexOf(':', msEnd < 0 ? line.length() : msEnd) + 1);
+            gcLogFile.addSubPhaseTime(sequenceId, phase, cursor.readFixed(Nanos.MILLIS_SCALE));
         }
     }
 
     private void addJava8AgeCount(Long sequenceId, String line) {
-        String ageStr = line
-                .replaceFirst("- age", "")
-                .replaceFirst(":.*", "")
-                .trim();
-        String sizeStr = line
-                .replaceFirst(".*:", "")
-                .replaceFirst("bytes.*", "")
-                .trim();
-
-        int age = Integer.parseInt(ageStr);
-        long size = Long.parseLong(sizeStr);
+        cursor.reset(line);
+        int age = (int) cursor.readLong("- age");
+        cursor.seekLast(":");
+        long size = cursor.readLong();
 
         gcLogFile.addAgeWithSize(sequenceId, age, size);
     }
@@ -182,149 +182,53 @@ public class GCJdk8LogFileParser implements FileParser<GCLogFile> {
         gcLogFile.addSurvivorStats(sequenceId, desiredSize, newThreshold, maxThreshold);
     }
 
-    private void addJava8Time(long sequenceId, String line) {
-        // retrait de ', ' du debut
-        String stringToSearch = line.replace(", ", "");
-        // Retrait du ] de fin
-        stringToSearch = stringToSearch.replaceFirst("secs]", "");
-
-        BigDecimal time = ParserUtils.parseFirstBigDecimal(stringToSearch, 0).multiply(TO_MS_MULTIPLIER);
-        gcLogFile.addTime(sequenceId, time);
-    }
-
-    private void addJava8Sizes(long sequenceId, String line, String startingString, boolean containsComma, boolean containsMaxHeapSizeBeforeGC) {
-
-        String stringToSearch = line.substring(line.indexOf(startingString));
-        // Retrait du startingString
-        stringToSearch = stringToSearch.replace(startingString, "");
-        // Retrait de ":"
-        stringToSearch = stringToSearch.replaceFirst(":", "");
-        // Split avec '->'
-        String[] tokens = stringToSearch.split("->");
-        String before = tokens[0].trim();
-        // Entre parenthèse, la taille globale de la Heap avant GC
-        // On supprime tout ce qui se trouve dans la parenthèse apres la taille
-        if ( before.indexOf("(") >= 0 ) {
-            before = before.substring(0, before.indexOf("("));
-        }
-        String after = tokens[1].trim();
-        // Entre parenthèse, la taille globale de la Heap après GC
-        String heapSize = "0.0M";
-        if (after.indexOf("(") >= 0) {
-            heapSize = after.substring(after.indexOf("(") + 1);
-            heapSize = heapSize.substring(0, heapSize.indexOf(")"));
-            after = after.substring(0, after.indexOf("("));
-        }
-
-        if (getSizeWithUnit(heapSize).intValue() == 0) {
-            System.out.println("Error getting heap size of GC for sequence id " + sequenceId);
-        }
-
-        gcLogFile.addSizes(sequenceId, getSizeWithUnit(before).intValue(), getSizeWithUnit(after).intValue(), getSizeWithUnit(heapSize).intValue());
-    }
-
-    private void addFullGCSizes(long sequenceId, String line, String startingString, boolean containsComma, boolean containsMaxHeapSizeBeforeGC) {
-
-        String stringToParse = line.substring(line.indexOf(startingString));
-
-        Matcher matcher = patternFullGC.matcher(stringToParse);
-
-        if (matcher.matches()) {
-            System.out.println("GC Cause: " + matcher.group(1));
-            System.out.println("GC Generation: " + matcher.group(2));
-            // Info youg and Old a gérer plus tard
-            System.out.println("Heap Before: " + matcher.group(14) + matcher.group(15));
-            String before = matcher.group(14) + matcher.group(15);
-            System.out.println("Heap After: " + matcher.group(16) + matcher.group(17));
-            String after = matcher.group(16) + matcher.group(17);
-            System.out.println("Heap Capacity: " + matcher.group(18) + matcher.group(19));
-            String heapSize = matcher.group(18) + matcher.group(19);
-            // Ensuite taille Metaspace
-            // matcher.group(20) à matcher.group(25)
-            // Puis duree GC
-            // On positionne le temps
-            BigDecimal time = ParserUtils.parseFirstBigDecimal(matcher.group(26), 0).multiply(TO_MS_MULTIPLIER);
+    private void addJava8Time(long sequenceId, String line, int from) {
+        long time = scanner.scanPauseTime(line, from);
+        if (time >= 0) {
             gcLogFile.addTime(sequenceId, time);
-            //System.out.println("GC Time: " + matcher.group(18) + " secs");
-            // Regexp ne fonctionne pas, voir quand on aura besoin de cette information
-            //System.out.println("User Time: " + matcher.group(13) + " secs");
-            //System.out.println("System Time: " + matcher.group(14) + " secs");
-            //System.out.println("Real Time: " + matcher.group(15) + " secs");
-
-            gcLogFile.addSizes(sequenceId, getSizeWithUnit(before).intValue(), getSizeWithUnit(after).intValue(), getSizeWithUnit(heapSize).intValue());
         }
     }
 
-    private void addGCAllocationFailureSizes(long sequenceId, String line, String startingString, boolean containsComma, boolean containsMaxHeapSizeBeforeGC) {
-
-        String stringToParse = line.substring(line.indexOf(startingString));
-
-        Matcher matcher = patternGCAllocationFailure.matcher(stringToParse);
-
-        if (matcher.matches()) {
-            System.out.println("GC Cause: " + matcher.group(1));
-            System.out.println("GC Generation: " + matcher.group(2));
-            System.out.println("Heap Before: " + matcher.group(8) + matcher.group(9));
-            String before = matcher.group(8) + matcher.group(9);
-            System.out.println("Heap After: " + matcher.group(10) + matcher.group(11));
-            String after = matcher.group(10) + matcher.group(11);
-            System.out.println("Heap Capacity: " + matcher.group(12) + matcher.group(13));
-            String heapSize = matcher.group(12) + matcher.group(13);
-            System.out.println("GC Time: " + matcher.group(14) + " secs");
-
-            // On positionne le temps
-            BigDecimal time = ParserUtils.parseFirstBigDecimal(matcher.group(14), 0).multiply(TO_MS_MULTIPLIER);
-            gcLogFile.addTime(sequenceId, time);
-
-            // Regexp ne fonctionne pas, voir quand on aura besoin de cette information
-            //System.out.println("User Time: " + matcher.group(13) + " secs");
-            //System.out.println("System Time: " + matcher.group(14) + " secs");
-            //System.out.println("Real Time: " + matcher.group(15) + " secs");
-
-            gcLogFile.addSizes(sequenceId, getSizeWithUnit(before).intValue(), getSizeWithUnit(after).intValue(), getSizeWithUnit(heapSize).intValue());
+    /**
+     * Whole heap transition and pause time following the cause, generation sections in brackets are skipped.
+     */
+    private void addTimeAndSizes(long sequenceId, String line, String cause) {
+        int from = line.indexOf(cause) + cause.length();
+        if (scanner.scanHeapTransition(line, from)) {
+            addJava8Time(sequenceId, line, scanner.getTransitionEnd());
+            addSizes(sequenceId);
+        } else {
+            addJava8Time(sequenceId, line, from);
         }
     }
 
-    private void addGCLockerSizes(long sequenceId, String line, String startingString, boolean containsComma, boolean containsMaxHeapSizeBeforeGC) {
-        // Same as GCAllocationFailureSizes
-        this.addGCAllocationFailureSizes(sequenceId, line, startingString, containsComma, containsMaxHeapSizeBeforeGC);
-    }
-
-    private BigDecimal getSizeWithUnit(String size) {
-        BigDecimal multiplier = getMultiplier(size);
-        return multiplier.multiply(new BigDecimal(size.substring(0, size.length() - 1))).setScale(2, RoundingMode.HALF_EVEN);
+    private void addJava8Sizes(long sequenceId, String line, int from) {
+        if (scanner.scanHeapTransition(line, from)) {
+            addSizes(sequenceId);
+        }
     }
 
-    private BigDecimal getMultiplier(String size) {
-        if (size.charAt(size.length() - 1) == 'K') {
-            return JAVA_8_KB_MULTIPLIER;
-        }
-        if (size.charAt(size.length() - 1) == 'M') {
-            return JAVA_8_MB_MULTIPLIER;
-        }
-        if (size.charAt(size.length() - 1) == 'G') {
-            return JAVA_8_GB_MULTIPLIER;
+    private void addSizes(long sequenceId) {
+        if (scanner.getHeapSizeMb() == 0) {
+            System.out.println("Error getting heap size of GC for sequence id " + sequenceId);
         }
-        return JAVA_8_B_MULTIPLIER;
+        gcLogFile.addSizes(sequenceId, scanner.getBeforeMb(), scanner.getAfterMb(), scanner.getHeapSizeMb());
     }
 
-    private BigDecimal getJava8TimeStamp(String line) {
+    private long getJava8TimeStamp(String line) {
         // JDK 8 - timestamp au format yyyy-mm-ddThh:mm:ss.SSS+0100: 2591798.694: (derniere partie big decimal)
-        // Pattern pattern = Pattern.compile("\\d+,\\d+: ");
-        // Matcher matcher = pattern.matcher(line);
-        // matcher.find();
-        // return new BigDecimal(matcher.group().replace(',', '.').replace(": ", "").trim());
-        // tokenize with ": " separator the line
-        String[] tokens = line.split(": ");
-        // Si il n'y a pas 2 token, c'est une ligne informative sans timestamp
-        if (tokens.length < 2) {
-            return new BigDecimal("0.0");
-        }
-        return new BigDecimal(tokens[1].replace(",", "."));
-
+        return ParserUtils.getUptimeNanos(line);
     }
 
     private String getJava8Phase(String line) {
         return line.substring(line.indexOf("("), line.lastIndexOf(")") + 1);
     }
+
+    private static boolean has(long tokens, long mask) {
+        return (tokens & mask) == mask;
+    }
+
+    private static long mask(String token) {
+        return MATCHER.mask(List.of(token));
+    }
 }
@@ -15,7 +15,6 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
-import java.math.BigDecimal;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -25,7 +24,7 @@ import lombok.Setter;
 @AllArgsConstructor
 public class GCLogConcurrentCycleEntry {
     private long sequenceId;
-    private BigDecimal time;
+    private long time;
     private int mixedCollectionsAfterConcurrent;
     @Setter(AccessLevel.PACKAGE)
     private int remarkReclaimed;
@@ -15,15 +15,13 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
-import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogLinearHistogram;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 
-@Getter
+/**
+ * View of a single row of {@link GCCycleTable}. Maps and lists are created from the columns on each call.
+ */
 public class GCLogCycleEntry {
     public static final String MIXED_COLLECTION = "Mixed collection";
     public static final String FULL_COLLECTION = "Full collection";
@@ -31,39 +29,8 @@ public class GCLogCycleEntry {
 
     public static final String REMARK_COLLECTION = "remark";
 
-    private long sequenceId;
-    private BigDecimal timeStamp;
-    private String phase;
-    private String aggregatedPhase;
-    private String cause;
-
-    private int heapBeforeGCMb;
-    private int heapAfterGCMb;
-    private int heapSizeMb;
-    private BigDecimal timeMs;
-
-    private Map<String, BigDecimal> subPhasesTime = new LinkedHashMap<>();
-
-    private Map<String, Integer> regionsAfterGC = new HashMap<>();
-    private Map<String, Integer> regionsBeforeGC = new HashMap<>();
-    private Map<String, Integer> regionsMax = new HashMap<>();
-
-    private Map<String, Integer> regionsSizeAfterGC = new HashMap<>();
-    private Map<String, Integer> regionsWastedAfterGC = new HashMap<>();
-
-    private List<Long> liveHumongousSizes = new ArrayList<>();
-    private List<Long> deadHumongousSizes = new ArrayList<>();
-
-    boolean genuineCollection;
-
-    private Map<Integer, Long> bytesInAges = new HashMap<>();
-    private int maxAge;
-
-    private long desiredSurvivorSize;
-    private long newTenuringThreshold;
-    private long maxTenuringThreshold;
-
-    private boolean wasToSpaceExhausted;
+    private final GCCycleTable table;
+    private final int row;
 
     public static final String PRE_EVACUATE = "Pre Evacuate Collection Set";
     public static final String PRE_PREPARE_TLABS = "Prepare TLABs";
@@ -101,131 +68,145 @@ public class GCLogCycleEntry {
     public static final String REGIONS_OLD = "Old regions";
     public static final String REGIONS_HUMONGOUS = "Humongous regions";
 
-    GCLogCycleEntry(Long sequenceId, String phase, BigDecimal timeStamp) {
-        this.sequenceId = sequenceId;
-        this.phase = phase;
-        this.timeStamp = timeStamp;
-
-        if (phase.contains("Pause Young")) {
-            if (phase.contains("(Mixed)")) {
-                aggregatedPhase = MIXED_COLLECTION;
-                genuineCollection = true;
-            } else if (phase.contains("(Allocation Failure)")) {
-                aggregatedPhase = YOUNG_COLLECTION;
-                genuineCollection = true;
-            } else if (phase.contains("(Normal)")) {
-                aggregatedPhase = YOUNG_COLLECTION;
-                genuineCollection = true;
-            } else {
-                aggregatedPhase = "Young collection - piggybacks";
-            }
-        } else if (phase.contains("Pause Full")) {
-            aggregatedPhase = FULL_COLLECTION;
-            genuineCollection = true;
-        } else if (phase.startsWith("(G1") || phase.startsWith("(GC") || phase.startsWith("(Meta")) {
-            if (phase.contains("(mixed)")) {
-                aggregatedPhase = MIXED_COLLECTION;
-                genuineCollection = true;
-            } else if (phase.endsWith("(young)") && !phase.contains("G1 Humongous Allocation")) {
-                aggregatedPhase = YOUNG_COLLECTION;
-                genuineCollection = true;
-            } else {
-                aggregatedPhase = "Young collection - piggybacks";
-            }
-        } else if (phase.contains("Full")) {
-            aggregatedPhase = FULL_COLLECTION;
-            genuineCollection = true;
-        } else {
-            aggregatedPhase = phase;
-        }
+    GCLogCycleEntry(GCCycleTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
 
-        fillCause();
+    public long getSequenceId() {
+        return table.getSequenceId(row);
     }
 
-    public BigDecimal getTimeMs() {
-        if (timeMs == null) {
-            System.out.println("Error getting time of GC for sequence id " + this.sequenceId + " at timestamp " + this.timeStamp);
-            return BigDecimal.ZERO;
-        }
-        return timeMs;
+    public long getTimeStamp() {
+        return table.getTimeStamp(row);
+    }
+
+    public String getPhase() {
+        return table.getPhase(row);
+    }
+
+    public String getAggregatedPhase() {
+        return table.getAggregatedPhase(row);
     }
 
-    private void fillCause() {
-        int start = phase.lastIndexOf('(');
-        int end = phase.lastIndexOf(')');
-        if (start >= 0 && end >= 0) {
-            cause = phase.substring(start + 1, end);
+    public String getCause() {
+        return table.getCause(row);
+    }
+
+    public boolean isGenuineCollection() {
+        return table.isGenuineCollection(row);
+    }
+
+    public int getHeapBeforeGCMb() {
+        return table.getHeapBeforeGCMb(row);
+    }
+
+    public int getHeapAfterGCMb() {
+        return table.getHeapAfterGCMb(row);
+    }
+
+    public int getHeapSizeMb() {
+        return table.getHeapSizeMb(row);
+    }
+
+    public long getTime() {
+        long time = table.getTime(row);
+        if (time < 0) {
+            System.out.println("Error getting time of GC for sequence id " + getSequenceId() + " at timestamp " + Nanos.toSecondsDecimal(getTimeStamp()));
+            return 0;
         }
+        return time;
+    }
+
+    public Map<String, Long> getSubPhasesTime() {
+        return table.getSubPhasesTime(row);
+    }
+
+    /**
+     * @param regionId id of the region in {@link GCCycleTable#getRegionNames()}
+     * @return number of regions before GC, null when not logged or unknown
+     */
+    public Integer getRegionBeforeGC(int regionId) {
+        return table.getRegionBeforeGC(row, regionId);
+    }
+
+    public Integer getRegionAfterGC(int regionId) {
+        return table.getRegionAfterGC(row, regionId);
+    }
+
+    public Integer getRegionMax(int regionId) {
+        return table.getRegionMax(row, regionId);
+    }
+
+    public Integer getRegionSizeAfterGC(int regionId) {
+        return table.getRegionSizeAfterGC(row, regionId);
+    }
+
+    public Integer getRegionWastedAfterGC(int regionId) {
+        return table.getRegionWastedAfterGC(row, regionId);
+    }
+
+    public boolean hasRegionsBeforeGC() {
+        return table.hasRegionsBeforeGC(row);
     }
 
-    void addSubPhaseTime(String phase, BigDecimal time) {
-        subPhasesTime.put(phase, time);
+    public boolean hasRegionsSizeAfterGC() {
+        return table.hasRegionsSizeAfterGC(row);
     }
 
-    void addSizesAndTime(int heapBeforeGC, int heapAfterGC, int heapSize, BigDecimal time) {
-        this.heapBeforeGCMb = heapBeforeGC;
-        this.heapAfterGCMb = heapAfterGC;
-        this.heapSizeMb = heapSize;
-        this.timeMs = time;
+    public boolean hasRegionsWastedAfterGC() {
+        return table.hasRegionsWastedAfterGC(row);
     }
 
-    void addSizes(int heapBeforeGCMb, int heapAfterGCMb, int heapSizeMb) {
-        this.heapBeforeGCMb = heapBeforeGCMb;
-        this.heapAfterGCMb = heapAfterGCMb;
-        this.heapSizeMb = heapSizeMb;
+    public LogLinearHistogram getLiveHumongous() {
+        return table.getLiveHumongous(row);
     }
 
-    void addRegionCount(String regionName, Integer beforeGC, Integer afterGC, Integer maxRegions) {
-        regionsBeforeGC.put(regionName, beforeGC);
-        regionsAfterGC.put(regionName, afterGC);
-        regionsMax.put(regionName, maxRegions);
+    public LogLinearHistogram getDeadHumongous() {
+        return table.getDeadHumongous(row);
     }
 
-    void addRegionSizes(String regionName, Integer size, Integer wasted) {
-        regionsSizeAfterGC.put(regionName, size);
-        regionsWastedAfterGC.put(regionName, wasted);
+    public Map<Integer, Long> getBytesInAges() {
+        return table.getBytesInAges(row);
     }
 
-    void addLiveHumongous(Long size) {
-        liveHumongousSizes.add(size);
+    public int getMaxAge() {
+        return table.getMaxAge(row);
     }
 
-    void addDeadHumongous(Long size) {
-        deadHumongousSizes.add(size);
+    public long getDesiredSurvivorSize() {
+        return table.getDesiredSurvivorSize(row);
     }
 
-    void addAgeWithSize(int age, long size) {
-        bytesInAges.put(age, size);
-        maxAge = Math.max(age, maxAge);
+    public long getNewTenuringThreshold() {
+        return table.getNewTenuringThreshold(row);
     }
 
-    void toSpaceExhausted() {
-        wasToSpaceExhausted = true;
+    public long getMaxTenuringThreshold() {
+        return table.getMaxTenuringThreshold(row);
     }
 
-    void addSurvivorStats(long desiredSize, long newThreshold, long maxThreshold) {
-        this.desiredSurvivorSize = desiredSize;
-        this.newTenuringThreshold = newThreshold;
-        this.maxTenuringThreshold = maxThreshold;
+    public boolean isWasToSpaceExhausted() {
+        return table.isToSpaceExhausted(row);
     }
 
-    void addTime(BigDecimal phaseTime) {
-        this.timeMs = phaseTime;
+    int getRow() {
+        return row;
     }
 
     boolean isMixed() {
-        return MIXED_COLLECTION.equals(aggregatedPhase);
+        return table.isMixed(table.getPhaseId(row));
     }
 
     public boolean isRemark() {
-        return phase.toLowerCase().contains(REMARK_COLLECTION);
+        return table.isRemark(table.getPhaseId(row));
     }
 
     /**
      * Heap size may be unknown.
      */
     public boolean isUnknownHeapSize() {
-        if (heapSizeMb == 0 || heapAfterGCMb == 0 || heapBeforeGCMb == 0) {
+        if (getHeapSizeMb() == 0 || getHeapAfterGCMb() == 0 || getHeapBeforeGCMb() == 0) {
             return true;
         }
         return false;
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+/**
+ * Events of GC cycles found by parsers, applied to a {@link GCLogFile} or recorded in a {@link GCEventBuffer}.
+ */
+abstract class GCLogEvents {
+    abstract void newLine(long cycleId, String line);
+
+    abstract void newPhase(long sequenceId, String phase, long timeStamp);
+
+    abstract void addSubPhaseTime(long sequenceId, String phase, long time);
+
+    abstract void addSizes(long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize);
+
+    abstract void finishCycle(long sequenceId);
+
+    abstract void addSizesAndTime(long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize, long phaseTime);
+
+    abstract void addTime(long sequenceId, long phaseTime);
+
+    /**
+     * @param maxRegions {@link GCCycleTable#UNKNOWN} when the line does not tell it
+     */
+    abstract void addRegionCount(long sequenceId, String regionName, int regionsBeforeGC, int regionsAfterGC, int maxRegions);
+
+    /**
+     * Sizes of the region which count was added last.
+     */
+    abstract void addRegionSizes(long sequenceId, int size, int wasted);
+
+    abstract void addRegionSizes(long sequenceId, String regionName, int size, int wasted);
+
+    abstract void addLiveHumongous(long sequenceId, long size);
+
+    abstract void addDeadHumongous(long sequenceId, long size);
+
+    abstract void addAgeWithSize(long sequenceId, int age, long size);
+
+    abstract void toSpaceExhausted(long sequenceId);
+
+    abstract void newConcurrentCycle(long sequenceId, long time);
+
+    abstract void addSurvivorStats(long sequenceId, long desiredSize, long newThreshold, long maxThreshold);
+}
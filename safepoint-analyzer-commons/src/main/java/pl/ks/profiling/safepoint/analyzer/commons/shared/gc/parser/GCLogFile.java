@@ -15,7 +15,6 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -24,10 +23,12 @@ import java.util.regex.Pattern;
 
 import lombok.Getter;
 
-public class GCLogFile {
+public class GCLogFile extends GCLogEvents {
 
     @Getter
-    private List<GCLogCycleEntry> cycleEntries = new ArrayList<>();
+    private final GCCycleTable cycleTable = new GCCycleTable();
+    @Getter
+    private final List<GCLogCycleEntry> cycleEntries = cycleTable.entries();
     @Getter
     private List<GCLogConcurrentCycleEntry> concurrentCycleEntries = new ArrayList<>();
     @Getter
@@ -36,131 +37,150 @@ public class GCLogFile {
     private GCStats stats;
 
     private GCLogConcurrentCycleEntry lastConcurrentCycle = null;
+    private String lastRegion;
 
-    private Map<Long, GCLogCycleEntry> unprocessedCycles = new HashMap<>();
-
-    GCLogCycleEntry getUnprocessedCycles(Long sequenceId) {
-        return unprocessedCycles.get(sequenceId);
-    }
+    private Map<Long, PendingGCCycle> unprocessedCycles = new HashMap<>();
 
-    void newLine(Long cycleId, String line) {
+    @Override
+    void newLine(long cycleId, String line) {
         rawLogLines.computeIfAbsent(cycleId, id -> new ArrayList<>()).add(line);
     }
 
-    void newPhase(Long sequenceId, String phase, BigDecimal timeStamp) {
-        GCLogCycleEntry cycle = new GCLogCycleEntry(sequenceId, phase, timeStamp);
-        unprocessedCycles.put(sequenceId, cycle);
-        if (cycle.isMixed() && lastConcurrentCycle != null) {
+    @Override
+    void newPhase(long sequenceId, String phase, long timeStamp) {
+        int phaseId = cycleTable.phaseId(phase);
+        unprocessedCycles.put(sequenceId, new PendingGCCycle(sequenceId, phaseId, timeStamp));
+        if (cycleTable.isMixed(phaseId) && lastConcurrentCycle != null) {
             lastConcurrentCycle.nextMixedCollection();
         }
     }
 
-    void addSubPhaseTime(Long sequenceId, String phase, BigDecimal time) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addSubPhaseTime(long sequenceId, String phase, long time) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addSubPhaseTime(phase, time);
+        cycle.addSubPhaseTime(cycleTable.getSubPhases(), phase, time);
     }
 
-    void addSizes(Long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addSizes(long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addSizes(heapBeforeGC, heapAfterGC, heapSize);
-        if (gcLogCycleEntry.isRemark() && lastConcurrentCycle != null) {
+        cycle.addSizes(heapBeforeGC, heapAfterGC, heapSize);
+        if (cycleTable.isRemark(cycle.phaseId) && lastConcurrentCycle != null) {
             lastConcurrentCycle.setRemarkReclaimed(heapBeforeGC - heapAfterGC);
         }
     }
 
-    void finishCycle(Long sequenceId) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.remove(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void finishCycle(long sequenceId) {
+        PendingGCCycle cycle = unprocessedCycles.remove(sequenceId);
+        if (cycle == null) {
             return;
         }
-        cycleEntries.add(gcLogCycleEntry);
+        cycleTable.append(cycle);
     }
 
-    void addSizesAndTime(Long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize, BigDecimal phaseTime) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.remove(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addSizesAndTime(long sequenceId, int heapBeforeGC, int heapAfterGC, int heapSize, long phaseTime) {
+        PendingGCCycle cycle = unprocessedCycles.remove(sequenceId);
+        if (cycle == null) {
             return;
         }
-        cycleEntries.add(gcLogCycleEntry);
-        gcLogCycleEntry.addSizesAndTime(heapBeforeGC, heapAfterGC, heapSize, phaseTime);
-        if (gcLogCycleEntry.isRemark() && lastConcurrentCycle != null) {
+        cycle.addSizes(heapBeforeGC, heapAfterGC, heapSize);
+        cycle.time = phaseTime;
+        cycleTable.append(cycle);
+        if (cycleTable.isRemark(cycle.phaseId) && lastConcurrentCycle != null) {
             lastConcurrentCycle.setRemarkReclaimed(heapBeforeGC - heapAfterGC);
         }
     }
 
-    void addTime(Long sequenceId, BigDecimal phaseTime) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addTime(long sequenceId, long phaseTime) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addTime(phaseTime);
+        cycle.time = phaseTime;
     }
 
-    void addRegionCount(Long sequenceId, String regionName, Integer regionsBeforeGC, Integer regionsAfterGC, Integer maxRegions) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addRegionCount(long sequenceId, String regionName, int regionsBeforeGC, int regionsAfterGC, int maxRegions) {
+        lastRegion = regionName;
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addRegionCount(regionName, regionsBeforeGC, regionsAfterGC, maxRegions);
+        cycle.addRegionCount(cycleTable.regionId(regionName), regionsBeforeGC, regionsAfterGC, maxRegions);
+    }
+
+    @Override
+    void addRegionSizes(long sequenceId, int size, int wasted) {
+        addRegionSizes(sequenceId, lastRegion, size, wasted);
     }
 
-    void addRegionSizes(Long sequenceId, String regionName, Integer size, Integer wasted) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addRegionSizes(long sequenceId, String regionName, int size, int wasted) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addRegionSizes(regionName, size, wasted);
+        cycle.addRegionSizes(cycleTable.regionId(regionName), size, wasted);
     }
 
-    void addLiveHumongous(Long sequenceId, Long size) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addLiveHumongous(long sequenceId, long size) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addLiveHumongous(size);
+        cycle.addLiveHumongous(size);
     }
 
-    void addDeadHumongous(Long sequenceId, Long size) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addDeadHumongous(long sequenceId, long size) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addDeadHumongous(size);
+        cycle.addDeadHumongous(size);
     }
 
-    void addAgeWithSize(Long sequenceId, int age, long size) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addAgeWithSize(long sequenceId, int age, long size) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addAgeWithSize(age, size);
+        cycle.addAgeWithSize(age, size);
     }
 
-    void toSpaceExhausted(Long sequenceId) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void toSpaceExhausted(long sequenceId) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.toSpaceExhausted();
+        cycle.toSpaceExhausted = true;
     }
 
-    void newConcurrentCycle(Long sequenceId, BigDecimal time) {
+    @Override
+    void newConcurrentCycle(long sequenceId, long time) {
         lastConcurrentCycle = new GCLogConcurrentCycleEntry(sequenceId, time, 0, 0);
         concurrentCycleEntries.add(lastConcurrentCycle);
     }
 
-    void addSurvivorStats(Long sequenceId, long desiredSize, long newThreshold, long maxThreshold) {
-        GCLogCycleEntry gcLogCycleEntry = unprocessedCycles.get(sequenceId);
-        if (gcLogCycleEntry == null) {
+    @Override
+    void addSurvivorStats(long sequenceId, long desiredSize, long newThreshold, long maxThreshold) {
+        PendingGCCycle cycle = unprocessedCycles.get(sequenceId);
+        if (cycle == null) {
             return;
         }
-        gcLogCycleEntry.addSurvivorStats(desiredSize, newThreshold, maxThreshold);
+        cycle.addSurvivorStats(desiredSize, newThreshold, maxThreshold);
     }
 
     void parsingCompleted() {
@@ -16,12 +16,15 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
 import org.apache.commons.collections4.MapUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogLinearHistogram;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStats;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStatsUtil;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -41,8 +44,8 @@ public class GCStatsCreator {
         generateAgingSummary(gcLogFile, gcStats);
         generateCauseCounts(gcLogFile, gcStats);
 
-        gcStats.setGcRegions(gcLogFile.getCycleEntries().stream()
-                .flatMap(GCLogCycleEntry -> GCLogCycleEntry.getRegionsBeforeGC().keySet().stream())
+        gcStats.setGcRegions(gcLogFile.getCycleTable().getRegionIdsBeforeGC().stream()
+                .map(gcLogFile.getCycleTable().getRegionNames()::get)
                 .collect(Collectors.toSet()));
         gcStats.setGcPhases(gcLogFile.getCycleEntries().stream()
                 .map(GCLogCycleEntry::getPhase)
@@ -50,28 +53,20 @@ public class GCStatsCreator {
         gcStats.setGcAggregatedPhases(gcLogFile.getCycleEntries().stream()
                 .map(GCLogCycleEntry::getAggregatedPhase)
                 .collect(Collectors.toSet()));
-        Map<String, Set<String>> subPhasesMap = new LinkedHashMap<>();
-        for (GCLogCycleEntry GCLogCycleEntry : gcLogFile.getCycleEntries()) {
-            Set<String> currentParentSet = null;
-            for (String phaseName : GCLogCycleEntry.getSubPhasesTime().keySet()) {
-                if (phaseName.startsWith("--") && currentParentSet != null) {
-                    currentParentSet.add(phaseName);
-                } else {
-                    currentParentSet = subPhasesMap.computeIfAbsent(phaseName, ignored -> new LinkedHashSet<>());
-                }
-            }
-        }
-
+        GCCycleTable cycleTable = gcLogFile.getCycleTable();
+        SubPhaseDictionary subPhaseDictionary = cycleTable.getSubPhases();
+        int[] subPhaseIds = Arrays.stream(subPhaseDictionary.hierarchyOrder())
+                .filter(subPhaseId -> cycleTable.getSubPhaseCount(subPhaseId) > 0)
+                .toArray();
         Set<String> subPhases = new LinkedHashSet<>();
-        for (String parent : subPhasesMap.keySet()) {
-            subPhases.add(parent);
-            subPhases.addAll(subPhasesMap.get(parent));
+        for (int subPhaseId : subPhaseIds) {
+            subPhases.add(subPhaseDictionary.getName(subPhaseId));
         }
 
         gcStats.setSubPhases(subPhases);
 
-        generatePhaseStats(gcLogFile, gcStats);
-        generateAggregatedPhaseStats(gcLogFile, gcStats);
+        generatePhaseStats(gcLogFile, gcStats, subPhaseIds);
+        generateAggregatedPhaseStats(gcLogFile, gcStats, subPhaseIds);
         generateConcurrentCycleStats(gcLogFile, gcStats);
         generateHumongousStats(gcLogFile, gcStats);
         generateToSpaceStats(gcLogFile, gcStats);
@@ -150,9 +145,11 @@ public class GCStatsCreator {
                     toSpaceStats.setSequenceId(GCLogCycleEntry.getSequenceId());
                     for (String region : gcStats.getGcRegions()) {
                         String stat = "---";
-                        if (GCLogCycleEntry.getRegionsBeforeGC().get(region) != null &&
-                                GCLogCycleEntry.getRegionsAfterGC().get(region) != null) {
-                            stat = GCLogCycleEntry.getRegionsBeforeGC().get(region) + " --> " + GCLogCycleEntry.getRegionsAfterGC().get(region);
+                        int regionId = gcLogFile.getCycleTable().getRegionId(region);
+                        Integer beforeGC = GCLogCycleEntry.getRegionBeforeGC(regionId);
+                        Integer afterGC = GCLogCycleEntry.getRegionAfterGC(regionId);
+                        if (beforeGC != null && afterGC != null) {
+                            stat = beforeGC + " --> " + afterGC;
                         }
                         toSpaceStats.getRegionStats().put(region, stat);
                     }
@@ -163,33 +160,23 @@ public class GCStatsCreator {
     }
 
     private static void generateHumongousStats(GCLogFile gcLogFile, GCStats gcStats) {
-        List<Long> live = gcLogFile.getCycleEntries().stream()
-                .flatMap(GCLogCycleEntry -> GCLogCycleEntry.getLiveHumongousSizes().stream())
-                .collect(Collectors.toList());
-        List<Long> dead = gcLogFile.getCycleEntries().stream()
-                .flatMap(GCLogCycleEntry -> GCLogCycleEntry.getDeadHumongousSizes().stream())
-                .collect(Collectors.toList());
-        List<Long> all = new ArrayList<>(live.size() + dead.size());
-        all.addAll(live);
-        all.addAll(dead);
+        LogLinearHistogram live = gcLogFile.getCycleTable().getLiveHumongous();
+        LogLinearHistogram dead = gcLogFile.getCycleTable().getDeadHumongous();
 
         boolean any = false;
-        if (live.size() > 0) {
-            gcStats.setLiveHumongousStats(OneFiledAllStatsUtil.create(live.stream()
-                    .mapToDouble(Long::doubleValue)
-                    .toArray()));
+        if (!live.isEmpty()) {
+            gcStats.setLiveHumongousStats(OneFiledAllStatsUtil.create(live));
             any = true;
         }
-        if (dead.size() > 0) {
-            gcStats.setDeadHumongousStats(OneFiledAllStatsUtil.create(dead.stream()
-                    .mapToDouble(Long::doubleValue)
-                    .toArray()));
+        if (!dead.isEmpty()) {
+            gcStats.setDeadHumongousStats(OneFiledAllStatsUtil.create(dead));
             any = true;
         }
         if (any) {
-            gcStats.setAllHumongousStats(OneFiledAllStatsUtil.create(all.stream()
-                    .mapToDouble(Long::doubleValue)
-                    .toArray()));
+            LogLinearHistogram all = new LogLinearHistogram();
+            all.merge(live);
+            all.merge(dead);
+            gcStats.setAllHumongousStats(OneFiledAllStatsUtil.create(all));
         }
     }
 
@@ -206,7 +193,7 @@ public class GCStatsCreator {
                             .collect(Collectors.toList());
                     stats.setCount((long) toProcess.size());
                     stats.setTime(OneFiledAllStatsUtil.create(toProcess.stream()
-                            .mapToDouble(cycle -> cycle.getTime().doubleValue())
+                            .mapToDouble(cycle -> Nanos.toMillis(cycle.getTime()))
                             .toArray()));
                     return stats;
                 })
@@ -214,7 +201,7 @@ public class GCStatsCreator {
         gcStats.setGcConcurrentCycleStats(cyclesStats);
     }
 
-    private static void generatePhaseStats(GCLogFile gcLogFile, GCStats gcStats) {
+    private static void generatePhaseStats(GCLogFile gcLogFile, GCStats gcStats, int[] subPhaseIds) {
         List<GCPhaseStats> phasesStats = gcStats.getGcPhases().stream()
                 .map(phase -> {
                     GCPhaseStats gcPhaseStats = new GCPhaseStats();
@@ -222,19 +209,9 @@ public class GCStatsCreator {
                     List<GCLogCycleEntry> cycles = gcLogFile.getCycleEntries().stream()
                             .filter(GCLogCycleEntry -> phase.equals(GCLogCycleEntry.getPhase()))
                             .collect(Collectors.toList());
-                    Map<String, OneFiledAllStats> subPhasesStats = new LinkedHashMap<>();
-                    for (String subPhase : gcStats.getSubPhases()) {
-                        final String subPhaseName = subPhase;
-                        subPhasesStats.put(subPhase, OneFiledAllStatsUtil.create(cycles.stream()
-                                .map(GCLogCycleEntry -> GCLogCycleEntry.getSubPhasesTime().get(subPhaseName))
-                                .filter(Objects::nonNull)
-                                .mapToDouble(BigDecimal::doubleValue)
-                                .toArray()
-                        ));
-                    }
-                    gcPhaseStats.setSubPhaseTimes(subPhasesStats);
+                    gcPhaseStats.setSubPhaseTimes(createSubPhaseStats(gcLogFile.getCycleTable(), cycles, subPhaseIds));
                     gcPhaseStats.setCount((long) cycles.size());
-                    gcPhaseStats.setTime(createAllStats(cycles, cycleInfo -> cycleInfo.getTimeMs().doubleValue()));
+                    gcPhaseStats.setTime(createAllStats(cycles, cycleInfo -> Nanos.toMillis(cycleInfo.getTime())));
                     return gcPhaseStats;
                 })
                 .sorted(Comparator.comparing(GCPhaseStats::getName))
@@ -242,7 +219,7 @@ public class GCStatsCreator {
         gcStats.setGcPhaseStats(phasesStats);
     }
 
-    private static void generateAggregatedPhaseStats(GCLogFile gcLogFile, GCStats gcStats) {
+    private static void generateAggregatedPhaseStats(GCLogFile gcLogFile, GCStats gcStats, int[] subPhaseIds) {
         List<GCPhaseStats> phasesStats = gcStats.getGcAggregatedPhases().stream()
                 .map(phase -> {
                     GCPhaseStats gcPhaseStats = new GCPhaseStats();
@@ -250,19 +227,9 @@ public class GCStatsCreator {
                     List<GCLogCycleEntry> cycles = gcLogFile.getCycleEntries().stream()
                             .filter(GCLogCycleEntry -> phase.equals(GCLogCycleEntry.getAggregatedPhase()))
                             .collect(Collectors.toList());
-                    Map<String, OneFiledAllStats> subPhasesStats = new LinkedHashMap<>();
-                    for (String subPhase : gcStats.getSubPhases()) {
-                        final String subPhaseName = subPhase;
-                        subPhasesStats.put(subPhase, OneFiledAllStatsUtil.create(cycles.stream()
-                                .map(GCLogCycleEntry -> GCLogCycleEntry.getSubPhasesTime().get(subPhaseName))
-                                .filter(Objects::nonNull)
-                                .mapToDouble(BigDecimal::doubleValue)
-                                .toArray()
-                        ));
-                    }
-                    gcPhaseStats.setSubPhaseTimes(subPhasesStats);
+                    gcPhaseStats.setSubPhaseTimes(createSubPhaseStats(gcLogFile.getCycleTable(), cycles, subPhaseIds));
                     gcPhaseStats.setCount((long) cycles.size());
-                    gcPhaseStats.setTime(createAllStats(cycles, cycleInfo -> cycleInfo.getTimeMs().doubleValue()));
+                    gcPhaseStats.setTime(createAllStats(cycles, cycleInfo -> Nanos.toMillis(cycleInfo.getTime())));
                     return gcPhaseStats;
                 })
                 .sorted(Comparator.comparing(GCPhaseStats::getName))
@@ -333,6 +300,22 @@ public class GCStatsCreator {
         gcStats.setMaxSurvivorAge(maxAge);
     }
 
+    private static Map<String, OneFiledAllStats> createSubPhaseStats(GCCycleTable cycleTable, List<GCLogCycleEntry> cycles, int[] subPhaseIds) {
+        Map<String, OneFiledAllStats> subPhasesStats = new LinkedHashMap<>();
+        double[] values = new double[cycles.size()];
+        for (int subPhaseId : subPhaseIds) {
+            int count = 0;
+            for (GCLogCycleEntry cycle : cycles) {
+                long time = cycleTable.getSubPhaseTime(cycle.getRow(), subPhaseId);
+                if (time >= 0) {
+                    values[count++] = Nanos.toMillis(time);
+                }
+            }
+            subPhasesStats.put(cycleTable.getSubPhases().getName(subPhaseId), OneFiledAllStatsUtil.create(Arrays.copyOf(values, count)));
+        }
+        return subPhasesStats;
+    }
+
     private static OneFiledAllStats createAllStats(List<GCLogCycleEntry> cycles, Function<GCLogCycleEntry, Double> valueFunc) {
         double[] values = cycles.stream()
                 .map(valueFunc)
@@ -15,78 +15,91 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParseCursor;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.TokenMatcher;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
-public class GCUnifiedLogFileParser implements FileParser<GCLogFile> {
-    private final GCLogFile gcLogFile = new GCLogFile();
-    private String lastRegion;
+public class GCUnifiedLogFileParser implements UnifiedLogParser<GCLogFile> {
+    private final GCLogEvents events;
+    private final GCLogFile gcLogFile;
+    private LineHeader header;
+    private final ParseCursor cursor = new ParseCursor();
 
-    public interface TriConsumer<A, B, C> {
-        void accept(A a, B b, C c);
+    interface LineHandler {
+        void accept(GCUnifiedLogFileParser parser, GCLogEvents events, long sequenceId, String line);
     }
 
+    /**
+     * Handler of lines containing all included tokens and none of the excluded ones.
+     */
     static class GcLineParser {
         private final List<String> included;
         private final List<String> excluded;
-        private final TriConsumer<GCLogFile, Long, String> parseLine;
+        private final LineHandler parseLine;
+        private long includedMask;
+        private long excludedMask;
 
-        public GcLineParser(List<String> included, List<String> excluded, TriConsumer<GCLogFile, Long, String> parseLine) {
+        public GcLineParser(List<String> included, List<String> excluded, LineHandler parseLine) {
             this.included = included;
             this.excluded = excluded;
             this.parseLine = parseLine;
         }
 
-        public boolean accepts(String line) {
-            return includesAll(line) && excludesAll(line);
+        private void compile(TokenMatcher matcher) {
+            includedMask = matcher.mask(included);
+            excludedMask = matcher.mask(excluded);
         }
 
-        public void apply(GCLogFile logFile, String line) {
-            parseLine.accept(logFile, getSequenceId(line), line);
+        public boolean accepts(long tokens) {
+            return (tokens & includedMask) == includedMask && (tokens & excludedMask) == 0;
         }
 
-        private boolean includesAll(String line) {
-            return included.stream().allMatch(line::contains);
-        }
-
-        private boolean excludesAll(String line) {
-            if (excluded != null) {
-                return excluded.stream().noneMatch(line::contains);
-            } else {
-                return true;
-            }
-        }
-
-        private Long getSequenceId(String line) {
-            Pattern pattern = Pattern.compile("\\(\\d+\\)");
-            Matcher matcher = pattern.matcher(line);
-            matcher.find();
-            return Long.valueOf(matcher.group().replace("(", "").replace(")", "").trim());
+        public void apply(GCUnifiedLogFileParser parser, String line) {
+            parseLine.accept(parser, parser.events, getSequenceId(line), line);
         }
     }
 
-    private final List<GcLineParser> parsers = List.of(
-            new GcLineParser(includes("gc,start"), excludes(), this::gcStart),
-            new GcLineParser(includes("gc ", "Concurrent Cycle", "ms"), excludes(), this::addConcurrentCycleDataIfPresent),
-            new GcLineParser(includes("gc ", "Concurrent Mark Cycle", "ms"), excludes(), this::addConcurrentCycleDataIfPresent),
-            new GcLineParser(includes("gc,phases", "ms", ")   "), excludes(")       ", "Queue Fixup", "Table Fixup"), this::addPhaseYoungAndMixed),
-            new GcLineParser(includes("gc,phases", "ms"), excludes(")  "), this::addPhaseConcurrentSTW),
-            new GcLineParser(includes("gc ", "->"), excludes(), this::addSizesAndTime),
-            new GcLineParser(includes("regions", "gc,heap", "info"), excludes(), this::addRegionsCounts),
-            new GcLineParser(includes("gc,heap", "trace"), excludes(), this::addRegionsSizes),
-            new GcLineParser(includes("gc,humongous", "debug"), excludes(), this::addHumongous),
-            new GcLineParser(includes("- age"), excludes(), this::addAgeCount),
-            new GcLineParser(includes("gc,age", "debug"), excludes(), this::addSurvivorStats),
-            new GcLineParser(includes("To-space exhausted"), excludes(), this::toSpaceExhausted)
+    private static final List<GcLineParser> PARSERS = List.of(
+            new GcLineParser(includes("gc,start"), excludes(), GCUnifiedLogFileParser::gcStart),
+            new GcLineParser(includes("gc ", "Concurrent Cycle", "ms"), excludes(), GCUnifiedLogFileParser::addConcurrentCycleDataIfPresent),
+            new GcLineParser(includes("gc ", "Concurrent Mark Cycle", "ms"), excludes(), GCUnifiedLogFileParser::addConcurrentCycleDataIfPresent),
+            new GcLineParser(includes("gc,phases", "ms", ")   "), excludes(")       ", "Queue Fixup", "Table Fixup"), GCUnifiedLogFileParser::addPhaseYoungAndMixed),
+            new GcLineParser(includes("gc,phases", "ms"), excludes(")  "), GCUnifiedLogFileParser::addPhaseConcurrentSTW),
+            new GcLineParser(includes("gc ", "->"), excludes(), GCUnifiedLogFileParser::addSizesAndTime),
+            new GcLineParser(includes("regions", "gc,heap", "info"), excludes(), GCUnifiedLogFileParser::addRegionsCounts),
+            new GcLineParser(includes("gc,heap", "trace"), excludes(), GCUnifiedLogFileParser::addRegionsSizes),
+            new GcLineParser(includes("gc,humongous", "debug"), excludes(), GCUnifiedLogFileParser::addHumongous),
+            new GcLineParser(includes("- age"), excludes(), GCUnifiedLogFileParser::addAgeCount),
+            new GcLineParser(includes("gc,age", "debug"), excludes(), GCUnifiedLogFileParser::addSurvivorStats),
+            new GcLineParser(includes("To-space exhausted"), excludes(), GCUnifiedLogFileParser::toSpaceExhausted)
     );
 
+    private static final String GC_TAG = "gc";
+    private static final String GC_ID_START = "GC(";
+    private static final TokenMatcher MATCHER = createMatcher();
+    private static final long GC_LOG_MASK = MATCHER.mask(List.of(GC_TAG, GC_ID_START));
+
+    private static TokenMatcher createMatcher() {
+        Set<String> tokens = new LinkedHashSet<>(List.of(GC_TAG, GC_ID_START));
+        PARSERS.forEach(parser -> {
+            tokens.addAll(parser.included);
+            tokens.addAll(parser.excluded);
+        });
+        TokenMatcher matcher = new TokenMatcher(new ArrayList<>(tokens));
+        PARSERS.forEach(parser -> parser.compile(matcher));
+        return matcher;
+    }
+
     private static List<String> includes(String... included) {
         return new ArrayList<>(Arrays.asList(included));
     }
@@ -95,171 +108,246 @@ public class GCUnifiedLogFileParser implements FileParser<GCLogFile> {
         return new ArrayList<>(Arrays.asList(excluded));
     }
 
+    /**
+     * @return number in the first parentheses containing only digits, like GC(123)
+     */
+    static long getSequenceId(String line) {
+        int length = line.length();
+        for (int open = line.indexOf('('); open >= 0; open = line.indexOf('(', open + 1)) {
+            int end = open + 1;
+            long value = 0;
+            while (end < length && Character.isDigit(line.charAt(end))) {
+                value = value * 10 + line.charAt(end) - '0';
+                end++;
+            }
+            if (end > open + 1 && end < length && line.charAt(end) == ')') {
+                return value;
+            }
+        }
+        throw new IllegalStateException("No GC id in line: " + line);
+    }
+
     public GCUnifiedLogFileParser() {
+        this(new GCLogFile());
+    }
+
+    private GCUnifiedLogFileParser(GCLogFile gcLogFile) {
+        this.events = gcLogFile;
+        this.gcLogFile = gcLogFile;
+    }
+
+    /**
+     * Parser of a part of a log recording its events, which are merged by {@link ChunkedGCLogFileParser}.
+     */
+    GCUnifiedLogFileParser(GCEventBuffer buffer) {
+        this.events = buffer;
+        this.gcLogFile = null;
     }
 
     @Override
-    public void parseLine(String line) {
-        if (isGcLog(line)) {
-            useFirstAccepting(line, parsers);
-        }
+    public boolean isInterestedIn(LogTags tags) {
+        return tags.has("gc");
     }
 
-    private boolean isGcLog(String line) {
-        return line.contains("gc") && line.contains("GC(");
+    @Override
+    public void parseLine(String line, LineHeader header) {
+        long tokens = MATCHER.match(line);
+        if ((tokens & GC_LOG_MASK) == GC_LOG_MASK) {
+            this.header = header;
+            useFirstAccepting(line, tokens);
+        }
     }
 
-    private void useFirstAccepting(String line, List<GcLineParser> parsers) {
-        for (GcLineParser parser : parsers) {
-            if (parser.accepts(line)) {
-                parser.apply(this.gcLogFile, line);
+    private void useFirstAccepting(String line, long tokens) {
+        for (GcLineParser parser : PARSERS) {
+            if (parser.accepts(tokens)) {
+                parser.apply(this, line);
                 return;
             }
         }
     }
 
-    private void gcStart(GCLogFile gcLogFile, Long sequenceId, String line) {
-        gcLogFile.newPhase(sequenceId, getPhase(line), ParserUtils.getTimeStamp(line));
+    private void gcStart(GCLogEvents events, long sequenceId, String line) {
+        events.newPhase(sequenceId, getPhase(line), ParserUtils.getUptimeNanos(header, line));
     }
 
-    private void addConcurrentCycleDataIfPresent(GCLogFile gcLogFile, Long sequenceId, String line) {
-        Pattern pattern = Pattern.compile("\\d+.\\d+ms");
-        Matcher matcher = pattern.matcher(line);
-        matcher.find();
-        String time = matcher.group().replace("ms", "").replace(",", ".");
-        gcLogFile.newConcurrentCycle(sequenceId, new BigDecimal(time));
+    private void addConcurrentCycleDataIfPresent(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line).seekNumberFollowedBy("ms");
+        events.newConcurrentCycle(sequenceId, cursor.readFixed(Nanos.MILLIS_SCALE));
     }
 
     @Override
     public GCLogFile fetchData() {
+        if (gcLogFile == null) {
+            throw new IllegalStateException("Events of a part of a log are merged by " + ChunkedGCLogFileParser.class.getSimpleName());
+        }
         gcLogFile.parsingCompleted();
         return gcLogFile;
     }
 
-    private void addPhaseConcurrentSTW(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String phaseWithTime = line.replaceFirst(".*GC\\(\\d+\\)", "").trim();
-        int indexOfSpace = phaseWithTime.lastIndexOf(" ");
-        String phase = phaseWithTime.substring(0, indexOfSpace);
-        String time = phaseWithTime.substring(indexOfSpace + 1).replaceAll("ms", "").replaceAll(",", ".");
-        gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+    private void addPhaseConcurrentSTW(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line).setPosition(afterLastGcId(line));
+        int timeStart = line.lastIndexOf(' ', lastNonWhitespace(line)) + 1;
+        String phase = cursor.readTo(timeStart);
+        cursor.setPosition(timeStart);
+        events.addSubPhaseTime(sequenceId, phase, cursor.readFixed(Nanos.MILLIS_SCALE));
     }
 
-    private void addPhaseYoungAndMixed(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String phase = line.replaceFirst(".*GC\\(\\d+\\)", "").replaceFirst(":.*", "").replace("   ", "").replaceAll("  ", "|______").replace(" (ms)", "");
-        if (line.contains("Max:")) {
-            String time = line.replaceFirst(".*Max:", "").replaceFirst(",.*", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
-        } else if (line.contains("skipped")) {
-            gcLogFile.addSubPhaseTime(sequenceId, phase, BigDecimal.ZERO);
+    private void addPhaseYoungAndMixed(GCLogEvents events, long sequenceId, String line) {
+        int phaseStart = afterLastGcId(line);
+        int phaseEnd = line.indexOf(':', phaseStart);
+        String phase = indentedPhaseName(line, phaseStart, phaseEnd < 0 ? line.length() : phaseEnd);
+        cursor.reset(line);
+        if (cursor.seekLast("Max:")) {
+            events.addSubPhaseTime(sequenceId, phase, cursor.readFixed(Nanos.MILLIS_SCALE));
+        } else if (cursor.contains("skipped")) {
+            events.addSubPhaseTime(sequenceId, phase, 0);
         } else {
-            String time = line.replaceFirst(".*:", "").replaceFirst("ms", "").trim().replace(',', '.');
-            gcLogFile.addSubPhaseTime(sequenceId, phase, new BigDecimal(time));
+            cursor.seekLast(":");
+            events.addSubPhaseTime(sequenceId, phase, cursor.readFixed(Nanos.MILLIS_SCALE));
         }
     }
 
-    private void addSizesAndTime(GCLogFile gcLogFile, Long sequenceId, String line) {
-        Pattern pattern = Pattern.compile("\\d+M");
-        Matcher matcher = pattern.matcher(line);
-        matcher.find();
-        String before = matcher.group().replace("M", "");
-        matcher.find();
-        String after = matcher.group().replace("M", "");
-        matcher.find();
-        String heapSize = matcher.group().replace("M", "");
-        pattern = Pattern.compile("\\d+.\\d+ms");
-        matcher = pattern.matcher(line);
-        matcher.find();
-        String time = matcher.group().replace("ms", "").replace(",", ".");
-
-        gcLogFile.addSizesAndTime(sequenceId, Integer.parseInt(before), Integer.parseInt(after), Integer.parseInt(heapSize), new BigDecimal(time));
+    /**
+     * Sub phases are nested with two extra spaces per level, printed as {@code |______} in the report.
+     */
+    private static String indentedPhaseName(String line, int start, int end) {
+        StringBuilder phase = new StringBuilder(end - start + 8);
+        int i = start;
+        while (i < end) {
+            if (line.charAt(i) != ' ') {
+                phase.append(line.charAt(i++));
+                continue;
+            }
+            int runStart = i;
+            while (i < end && line.charAt(i) == ' ') {
+                i++;
+            }
+            int remainder = (i - runStart) % 3;
+            if (remainder == 2) {
+                phase.append(SubPhaseDictionary.NESTED_PREFIX);
+            } else if (remainder == 1) {
+                phase.append(' ');
+            }
+        }
+        int unit = phase.indexOf(" (ms)");
+        while (unit >= 0) {
+            phase.delete(unit, unit + 5);
+            unit = phase.indexOf(" (ms)", unit);
+        }
+        return phase.toString();
     }
 
-    private void addSurvivorStats(GCLogFile gcLogFile, Long sequenceId, String line) {
-        int desiredSizePos = line.indexOf("Desired survivor size");
-        int newThresholdPos = line.indexOf("new threshold", desiredSizePos);
-        int maxThresholdPos = line.indexOf("max threshold", newThresholdPos);
+    private void addSizesAndTime(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line);
+        cursor.seekNumberFollowedBy("M");
+        int before = cursor.readInt();
+        cursor.seekNumberFollowedBy("M");
+        int after = cursor.readInt();
+        cursor.seekNumberFollowedBy("M");
+        int heapSize = cursor.readInt();
+        cursor.reset(line).seekNumberFollowedBy("ms");
+        long time = cursor.readFixed(Nanos.MILLIS_SCALE);
+
+        events.addSizesAndTime(sequenceId, before, after, heapSize, time);
+    }
 
-        long desiredSize = ParserUtils.parseFirstNumber(line, desiredSizePos);
-        long newThreshold = ParserUtils.parseFirstNumber(line, newThresholdPos);
-        long maxThreshold = ParserUtils.parseFirstNumber(line, maxThresholdPos);
+    private void addSurvivorStats(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line);
+        long desiredSize = cursor.readLong("Desired survivor size");
+        long newThreshold = cursor.readLong("new threshold");
+        long maxThreshold = cursor.readLong("max threshold");
 
-        gcLogFile.addSurvivorStats(sequenceId, desiredSize, newThreshold, maxThreshold);
+        events.addSurvivorStats(sequenceId, desiredSize, newThreshold, maxThreshold);
     }
 
-    private void toSpaceExhausted(GCLogFile gcLogFile, Long sequenceId, String line) {
-        gcLogFile.toSpaceExhausted(sequenceId);
+    private void toSpaceExhausted(GCLogEvents events, long sequenceId, String line) {
+        events.toSpaceExhausted(sequenceId);
     }
 
-    private void addHumongous(GCLogFile gcLogFile, Long sequenceId, String line) {
-        boolean live = line.contains("reclaim candidate 0");
-        String size = line
-                .replaceFirst(".*object size", "")
-                .replaceFirst("start.*", "")
-                .replaceFirst("@.*", "")
-                .trim();
+    private void addHumongous(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line);
+        boolean live = cursor.contains("reclaim candidate 0");
+        cursor.seekLast("object size");
+        long size = cursor.readLong();
         if (live) {
-            gcLogFile.addLiveHumongous(sequenceId, Long.valueOf(size));
+            events.addLiveHumongous(sequenceId, size);
         } else {
-            gcLogFile.addDeadHumongous(sequenceId, Long.valueOf(size));
+            events.addDeadHumongous(sequenceId, size);
         }
     }
 
-    private void addRegionsSizes(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String size = line
-                .replaceFirst(".*Used:", "")
-                .replaceFirst("K,.*", "")
-                .trim();
-        String wasted = line
-                .replaceFirst(".*Waste:", "")
-                .replaceFirst("K.*", "")
-                .trim();
-        gcLogFile.addRegionSizes(sequenceId, lastRegion, Integer.valueOf(size), Integer.valueOf(wasted));
+    private void addRegionsSizes(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line);
+        cursor.seekLast("Used:");
+        int size = cursor.readInt();
+        cursor.reset(line).seekLast("Waste:");
+        int wasted = cursor.readInt();
+        events.addRegionSizes(sequenceId, size, wasted);
     }
 
-    private void addRegionsCounts(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String regionInfo = line
-                .replaceFirst(".* GC", "")
-                .replaceFirst(".*\\) ", "")
-                .trim();
-
-        String regionName = regionInfo.replaceFirst(":.*", "").trim();
-        String before = regionInfo.replaceFirst(".*:", "").replaceFirst("->.*", "").trim();
-        String after = regionInfo.replaceFirst(".*->", "").replaceFirst("\\(.*", "").trim();
-        String max = regionInfo.replaceFirst(".*->", "");
-
-        Integer maxRegions = null;
-        if (max.contains("(")) {
-            max = max.replaceFirst(".*\\(", "").replace(")", "").trim();
-            if (max.length() > 0) {
-                maxRegions = Integer.valueOf(max);
+    private void addRegionsCounts(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line);
+        cursor.seekLast(" GC");
+        cursor.seekLast(") ");
+
+        String regionName = cursor.readUntil(':');
+        cursor.seekLast(":");
+        int before = cursor.readInt();
+        cursor.seekLast("->");
+        int after = cursor.readInt();
+
+        int maxRegions = GCCycleTable.UNKNOWN;
+        if (cursor.seekLast("(")) {
+            cursor.skipWhitespace();
+            if (cursor.hasRemaining() && Character.isDigit(cursor.peek())) {
+                maxRegions = cursor.readInt();
             }
         }
-        gcLogFile.addRegionCount(sequenceId, regionName, Integer.valueOf(before), Integer.valueOf(after), maxRegions);
-
-        lastRegion = regionName;
+        events.addRegionCount(sequenceId, regionName, before, after, maxRegions);
     }
 
     private String getPhase(String line) {
-        String phase = line
-                .replaceFirst(".* GC\\(", "")
-                .replaceFirst(".*\\) Pause", "Pause")
-                .trim();
-        return phase;
+        cursor.reset(line);
+        cursor.seekLast(" GC(");
+        int pause = cursor.lastIndexOf(") Pause");
+        if (pause >= 0) {
+            cursor.setPosition(pause + 2);
+        }
+        return cursor.readRemaining();
     }
 
-    private void addAgeCount(GCLogFile gcLogFile, Long sequenceId, String line) {
-        String ageStr = line
-                .replaceFirst(".* - age", "")
-                .replaceFirst(":.*", "")
-                .trim();
-        String sizeStr = line
-                .replaceFirst(".*:", "")
-                .replaceFirst("bytes.*", "")
-                .trim();
+    private void addAgeCount(GCLogEvents events, long sequenceId, String line) {
+        cursor.reset(line);
+        cursor.seekLast(" - age");
+        int age = cursor.readInt();
+        cursor.seekLast(":");
+        long size = cursor.readLong();
+
+        events.addAgeWithSize(sequenceId, age, size);
+    }
 
-        int age = Integer.parseInt(ageStr);
-        long size = Long.parseLong(sizeStr);
+    /**
+     * @return index right after the last {@code GC(<id>)} in the line, 0 if there is none
+     */
+    private static int afterLastGcId(String line) {
+        for (int open = line.lastIndexOf("GC("); open >= 0; open = line.lastIndexOf("GC(", open - 1)) {
+            int end = open + 3;
+            while (end < line.length() && Character.isDigit(line.charAt(end))) {
+                end++;
+            }
+            if (end > open + 3 && end < line.length() && line.charAt(end) == ')') {
+                return end + 1;
+            }
+        }
+        return 0;
+    }
 
-        gcLogFile.addAgeWithSize(sequenceId, age, size);
+    private static int lastNonWhitespace(String line) {
+        int i = line.length() - 1;
+        while (i > 0 && line.charAt(i) <= ' ') {
+            i--;
+        }
+        return i;
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import java.util.Arrays;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogLinearHistogram;
+
+/**
+ * Cycle which lines are still being parsed, appended to {@link GCCycleTable} when it finishes.
+ */
+class PendingGCCycle {
+    final long sequenceId;
+    final long timeStamp;
+    final int phaseId;
+
+    int heapBeforeGCMb;
+    int heapAfterGCMb;
+    int heapSizeMb;
+    long time = -1;
+
+    // indexed by sub-phase id, -1 when not logged
+    long[] subPhaseTimes = new long[0];
+    // last sub-phase logged at each nesting level, parent of the next more nested one
+    private int[] openSubPhases = new int[0];
+
+    // indexed by region id of the table
+    int[] regionsBeforeGC = new int[0];
+    int[] regionsAfterGC = new int[0];
+    int[] regionsMax = new int[0];
+    int[] regionsSizeAfterGC = new int[0];
+    int[] regionsWastedAfterGC = new int[0];
+
+    // created with the first humongous object
+    LogLinearHistogram liveHumongous;
+    LogLinearHistogram deadHumongous;
+
+    // indexed by age, -1 when not logged
+    long[] bytesInAges = new long[0];
+
+    long desiredSurvivorSize;
+    long newTenuringThreshold;
+    long maxTenuringThreshold;
+
+    boolean toSpaceExhausted;
+
+    PendingGCCycle(long sequenceId, int phaseId, long timeStamp) {
+        this.sequenceId = sequenceId;
+        this.phaseId = phaseId;
+        this.timeStamp = timeStamp;
+    }
+
+    void addSubPhaseTime(SubPhaseDictionary subPhases, String phase, long time) {
+        int depth = SubPhaseDictionary.depth(phase);
+        int parent = depth > 0 && depth <= openSubPhases.length ? openSubPhases[depth - 1] : SubPhaseDictionary.NO_PARENT;
+        int subPhaseId = subPhases.id(phase, parent);
+        subPhaseTimes = set(subPhaseTimes, subPhaseId, time);
+
+        if (depth >= openSubPhases.length) {
+            int oldLength = openSubPhases.length;
+            openSubPhases = Arrays.copyOf(openSubPhases, depth + 1);
+            Arrays.fill(openSubPhases, oldLength, depth, SubPhaseDictionary.NO_PARENT);
+        }
+        openSubPhases[depth] = subPhaseId;
+        Arrays.fill(openSubPhases, depth + 1, openSubPhases.length, SubPhaseDictionary.NO_PARENT);
+    }
+
+    void addSizes(int heapBeforeGCMb, int heapAfterGCMb, int heapSizeMb) {
+        this.heapBeforeGCMb = heapBeforeGCMb;
+        this.heapAfterGCMb = heapAfterGCMb;
+        this.heapSizeMb = heapSizeMb;
+    }
+
+    void addRegionCount(int regionId, int beforeGC, int afterGC, int maxRegions) {
+        regionsBeforeGC = set(regionsBeforeGC, regionId, beforeGC);
+        regionsAfterGC = set(regionsAfterGC, regionId, afterGC);
+        regionsMax = set(regionsMax, regionId, maxRegions);
+    }
+
+    void addRegionSizes(int regionId, int size, int wasted) {
+        regionsSizeAfterGC = set(regionsSizeAfterGC, regionId, size);
+        regionsWastedAfterGC = set(regionsWastedAfterGC, regionId, wasted);
+    }
+
+    void addLiveHumongous(long size) {
+        if (liveHumongous == null) {
+            liveHumongous = new LogLinearHistogram();
+        }
+        liveHumongous.record(size);
+    }
+
+    void addDeadHumongous(long size) {
+        if (deadHumongous == null) {
+            deadHumongous = new LogLinearHistogram();
+        }
+        deadHumongous.record(size);
+    }
+
+    void addAgeWithSize(int age, long size) {
+        bytesInAges = set(bytesInAges, age, size);
+    }
+
+    void addSurvivorStats(long desiredSize, long newThreshold, long maxThreshold) {
+        this.desiredSurvivorSize = desiredSize;
+        this.newTenuringThreshold = newThreshold;
+        this.maxTenuringThreshold = maxThreshold;
+    }
+
+    private static long[] set(long[] values, int index, long value) {
+        if (index >= values.length) {
+            int oldLength = values.length;
+            values = Arrays.copyOf(values, Math.max(index + 1, 16));
+            Arrays.fill(values, oldLength, values.length, -1);
+        }
+        values[index] = value;
+        return values;
+    }
+
+    private static int[] set(int[] values, int regionId, int value) {
+        if (regionId >= values.length) {
+            int oldLength = values.length;
+            values = Arrays.copyOf(values, regionId + 1);
+            Arrays.fill(values, oldLength, values.length, GCCycleTable.ABSENT);
+        }
+        values[regionId] = value;
+        return values;
+    }
+}
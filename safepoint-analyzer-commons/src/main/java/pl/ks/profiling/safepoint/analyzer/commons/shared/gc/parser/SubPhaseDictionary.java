@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ids of sub-phase names of a GC log. Nested sub-phases are prefixed with {@link #NESTED_PREFIX} once per level, the
+ * parent of a sub-phase is the closest less nested sub-phase logged before it in the cycle it was first seen in.
+ */
+public class SubPhaseDictionary {
+    public static final String NESTED_PREFIX = "|______";
+    public static final int NO_PARENT = -1;
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private int[] parents = new int[16];
+    private int[] depths = new int[16];
+    private int[] hierarchyOrder;
+
+    public int size() {
+        return names.size();
+    }
+
+    public String getName(int id) {
+        return names.get(id);
+    }
+
+    public int getParent(int id) {
+        return parents[id];
+    }
+
+    public int getDepth(int id) {
+        return depths[id];
+    }
+
+    /**
+     * @return ids of all sub-phases, each parent followed by its children, in order they were first seen
+     */
+    public int[] hierarchyOrder() {
+        if (hierarchyOrder == null) {
+            int[] order = new int[names.size()];
+            int size = 0;
+            for (int id = 0; id < names.size(); id++) {
+                if (parents[id] == NO_PARENT) {
+                    size = appendSubtree(order, size, id);
+                }
+            }
+            hierarchyOrder = order;
+        }
+        return hierarchyOrder;
+    }
+
+    /**
+     * @return number of {@link #NESTED_PREFIX} the name starts with
+     */
+    public static int depth(String name) {
+        int depth = 0;
+        while (name.startsWith(NESTED_PREFIX, depth * NESTED_PREFIX.length())) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * @return id of the name, registered with the given parent when seen for the first time
+     */
+    int id(String name, int parent) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        id = names.size();
+        if (id == parents.length) {
+            parents = Arrays.copyOf(parents, id * 2);
+            depths = Arrays.copyOf(depths, id * 2);
+        }
+        names.add(name);
+        ids.put(name, id);
+        parents[id] = parent;
+        depths[id] = depth(name);
+        hierarchyOrder = null;
+        return id;
+    }
+
+    private int appendSubtree(int[] order, int size, int id) {
+        order[size++] = id;
+        for (int child = id + 1; child < names.size(); child++) {
+            if (parents[child] == id) {
+                size = appendSubtree(order, size, child);
+            }
+        }
+        return size;
+    }
+}
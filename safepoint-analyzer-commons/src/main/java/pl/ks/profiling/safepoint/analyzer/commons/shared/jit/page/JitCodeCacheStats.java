@@ -17,6 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -57,7 +58,7 @@ public class JitCodeCacheStats implements PageCreator {
             "Max used",
             "Used");
     private static final List<Function<CodeCacheStatus, Object>> currentCountChartExtractors = List.of(
-            CodeCacheStatus::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             CodeCacheStatus::getSize,
             CodeCacheStatus::getMaxUsed,
             CodeCacheStatus::getUsed);
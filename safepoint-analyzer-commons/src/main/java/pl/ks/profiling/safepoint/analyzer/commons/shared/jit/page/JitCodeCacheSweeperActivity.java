@@ -19,6 +19,7 @@ import java.text.DecimalFormat;
 import java.util.List;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser.CodeCacheSweeperActivity;
@@ -51,7 +52,7 @@ public class JitCodeCacheSweeperActivity implements PageCreator {
         stats[0][1] = "Count";
         int i = 1;
         for (CodeCacheSweeperActivity activity : codeCacheSweeperActivities) {
-            stats[i][0] = activity.getTimeStamp();
+            stats[i][0] = Nanos.toSecondsDecimal(activity.getTimeStamp());
             stats[i][1] = i;
             i++;
         }
@@ -21,6 +21,7 @@ import java.util.function.Function;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -52,7 +53,7 @@ public class JitCompilationCount implements PageCreator {
             "Time",
             "Count");
     private static final List<Function<CompilationStatus, Object>> currentCountChartExtractors = List.of(
-            CompilationStatus::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             CompilationStatus::getCurrentCount);
 
     private static Object[][] getCurrentCountChart(List<CompilationStatus> entries) {
@@ -17,6 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.jit.page;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -71,7 +72,7 @@ public class JitTieredCompilationCount implements PageCreator {
         stats[0][4] = "Tier 4";
         int i = 1;
         for (CompilationStatus status : compilationStatuses) {
-            stats[i][0] = status.getTimeStamp();
+            stats[i][0] = Nanos.toSecondsDecimal(status.getTimeStamp());
             stats[i][1] = status.getTier1CurrentCount();
             stats[i][2] = status.getTier2CurrentCount();
             stats[i][3] = status.getTier3CurrentCount();
@@ -100,7 +101,7 @@ public class JitTieredCompilationCount implements PageCreator {
                 "Time",
                 "Tier " + tier);
         List<Function<CompilationStatus, Object>> extractors = List.of(
-                CompilationStatus::getTimeStamp,
+                entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
                 getTierCount
         );
         return PageUtils.toMatrix(entries, columns, extractors);
@@ -15,16 +15,13 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser;
 
-import java.math.BigDecimal;
 import lombok.Builder;
 import lombok.Value;
-import lombok.With;
 
-@With
 @Value
 @Builder
 public class CompilationStatus {
-    BigDecimal timeStamp;
+    long timeStamp;
     long loadedCount;
     long unloadedCount;
     long tier1LoadedCount;
@@ -15,27 +15,54 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.CumulativeCounters;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 
 @Getter
 public class JitLogFile {
-    private List<CompilationStatus> compilationStatuses = new ArrayList<>();
+    /**
+     * Initial nanoseconds between compilation count snapshots, it is not configurable: snapshots are merged into wider
+     * buckets anyway when a long log produces too many of them.
+     */
+    public static final long COMPILATION_RESOLUTION = 100 * Nanos.PER_MILLI;
+
+    // tier 0 when it could not be read, counted only in totals
+    private static final int TIERS = 5;
+    private static final int UNLOADED = TIERS;
+
+    private final CumulativeCounters compilationCounters;
+    private final List<CompilationStatus> compilationStatuses;
     private List<CodeCacheSweeperActivity> codeCacheSweeperActivities = new ArrayList<>();
     private Map<String, List<CodeCacheStatus>> codeCacheStatuses = new HashMap<>();
-    private CompilationStatus lastStatus = null;
 
-    void newCodeCacheSweeperActivity(BigDecimal timeStamp) {
+    public JitLogFile() {
+        this(COMPILATION_RESOLUTION);
+    }
+
+    JitLogFile(long compilationResolution) {
+        this.compilationCounters = new CumulativeCounters(2 * TIERS, compilationResolution);
+        this.compilationStatuses = compilationCounters.asList(this::toStatus);
+    }
+
+    /**
+     * @return counts after the last compilation event, null when there was none
+     */
+    public CompilationStatus getLastStatus() {
+        return compilationCounters.last(this::toStatus);
+    }
+
+    void newCodeCacheSweeperActivity(long timeStamp) {
         codeCacheSweeperActivities.add(CodeCacheSweeperActivity.builder()
                 .timeStamp(timeStamp)
                 .build());
     }
 
-    void newCodeCacheStats(String segment, BigDecimal timeStamp, long size, long maxUsed, long used) {
+    void newCodeCacheStats(String segment, long timeStamp, long size, long maxUsed, long used) {
         codeCacheStatuses.computeIfAbsent(segment, name -> new ArrayList<>()).add(
                 CodeCacheStatus.builder()
                         .timeStamp(timeStamp)
@@ -46,88 +73,33 @@ public class JitLogFile {
         );
     }
 
-    void newCompilation(BigDecimal timeStamp, int tier) {
-        if (lastStatus == null) {
-            lastStatus = CompilationStatus.builder()
-                    .loadedCount(1)
-                    .timeStamp(timeStamp)
-                    .build();
-
-            switch (tier) {
-                case 1:
-                    lastStatus = lastStatus.withTier1LoadedCount(1);
-                    break;
-                case 2:
-                    lastStatus = lastStatus.withTier2LoadedCount(1);
-                    break;
-                case 3:
-                    lastStatus = lastStatus.withTier3LoadedCount(1);
-                    break;
-                case 4:
-                    lastStatus = lastStatus.withTier4LoadedCount(1);
-                    break;
-            }
-        } else {
-            lastStatus = lastStatus.withTimeStamp(timeStamp);
-            switch (tier) {
-                case 1:
-                    lastStatus = lastStatus.withTier1LoadedCount(lastStatus.getTier1LoadedCount() + 1).withLoadedCount(lastStatus.getLoadedCount() + 1);
-                    break;
-                case 2:
-                    lastStatus = lastStatus.withTier2LoadedCount(lastStatus.getTier2LoadedCount() + 1).withLoadedCount(lastStatus.getLoadedCount() + 1);
-                    break;
-                case 3:
-                    lastStatus = lastStatus.withTier3LoadedCount(lastStatus.getTier3LoadedCount() + 1).withLoadedCount(lastStatus.getLoadedCount() + 1);
-                    break;
-                case 4:
-                    lastStatus = lastStatus.withTier4LoadedCount(lastStatus.getTier4LoadedCount() + 1).withLoadedCount(lastStatus.getLoadedCount() + 1);
-                    break;
-            }
-        }
-
-        compilationStatuses.add(lastStatus);
+    void newCompilation(long timeStamp, int tier) {
+        compilationCounters.increment(timeStamp, tier);
     }
 
-    void compilationMadeNodEntrant(BigDecimal timeStamp, int tier) {
-        if (lastStatus == null) {
-            lastStatus = CompilationStatus.builder()
-                    .unloadedCount(1)
-                    .timeStamp(timeStamp)
-                    .build();
+    void compilationMadeNodEntrant(long timeStamp, int tier) {
+        compilationCounters.increment(timeStamp, UNLOADED + tier);
+    }
 
-            switch (tier) {
-                case 1:
-                    lastStatus = lastStatus.withTier1UnloadedCount(1);
-                    break;
-                case 2:
-                    lastStatus = lastStatus.withTier2UnloadedCount(1);
-                    break;
-                case 3:
-                    lastStatus = lastStatus.withTier3UnloadedCount(1);
-                    break;
-                case 4:
-                    lastStatus = lastStatus.withTier4UnloadedCount(1);
-                    break;
-            }
-        } else {
-            lastStatus = lastStatus.withTimeStamp(timeStamp);
-            switch (tier) {
-                case 1:
-                    lastStatus = lastStatus.withTier1UnloadedCount(lastStatus.getTier1UnloadedCount() + 1).withUnloadedCount(lastStatus.getUnloadedCount() + 1);
-                    break;
-                case 2:
-                    lastStatus = lastStatus.withTier2UnloadedCount(lastStatus.getTier2UnloadedCount() + 1).withUnloadedCount(lastStatus.getUnloadedCount() + 1);
-                    break;
-                case 3:
-                    lastStatus = lastStatus.withTier3UnloadedCount(lastStatus.getTier3UnloadedCount() + 1).withUnloadedCount(lastStatus.getUnloadedCount() + 1);
-                    break;
-                case 4:
-                    lastStatus = lastStatus.withTier4UnloadedCount(lastStatus.getTier4UnloadedCount() + 1).withUnloadedCount(lastStatus.getUnloadedCount() + 1);
-                    break;
-            }
+    private CompilationStatus toStatus(int snapshot) {
+        long loadedCount = 0;
+        long unloadedCount = 0;
+        for (int tier = 0; tier < TIERS; tier++) {
+            loadedCount += compilationCounters.get(snapshot, tier);
+            unloadedCount += compilationCounters.get(snapshot, UNLOADED + tier);
         }
-
-        compilationStatuses.add(lastStatus);
+        return CompilationStatus.builder()
+                .timeStamp(compilationCounters.getTimeStamp(snapshot))
+                .loadedCount(loadedCount)
+                .unloadedCount(unloadedCount)
+                .tier1LoadedCount(compilationCounters.get(snapshot, 1))
+                .tier1UnloadedCount(compilationCounters.get(snapshot, UNLOADED + 1))
+                .tier2LoadedCount(compilationCounters.get(snapshot, 2))
+                .tier2UnloadedCount(compilationCounters.get(snapshot, UNLOADED + 2))
+                .tier3LoadedCount(compilationCounters.get(snapshot, 3))
+                .tier3UnloadedCount(compilationCounters.get(snapshot, UNLOADED + 3))
+                .tier4LoadedCount(compilationCounters.get(snapshot, 4))
+                .tier4UnloadedCount(compilationCounters.get(snapshot, UNLOADED + 4))
+                .build();
     }
-
 }
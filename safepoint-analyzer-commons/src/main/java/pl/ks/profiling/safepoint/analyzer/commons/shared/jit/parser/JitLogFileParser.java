@@ -16,52 +16,45 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser;
 
 import java.math.BigDecimal;
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParseCursor;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 
-public class JitLogFileParser implements FileParser<JitLogFile> {
+public class JitLogFileParser implements UnifiedLogParser<JitLogFile> {
     private final JitLogFile jitLogFile = new JitLogFile();
+    private final ParseCursor cursor = new ParseCursor();
 
     @Override
-    public void parseLine(String line) {
-        if (line.contains("codecache,sweep,start")) {
-            jitLogFile.newCodeCacheSweeperActivity(ParserUtils.getTimeStamp(line));
-        } else if (line.contains("codecache,sweep") && line.contains("size=")) {
-            parseCodeCacheStats(line);
-        } else if (line.contains("jit,compilation") && line.contains("debug")) {
-            parseJitCompilation(line);
-        }
+    public boolean isInterestedIn(LogTags tags) {
+        return tags.hasAny("codecache", "jit");
     }
 
-    private void parseCodeCacheStats(String line) {
-        BigDecimal timeStamp = ParserUtils.getTimeStamp(line);
-        String segment = line.substring(line.lastIndexOf(']') + 2);
-        segment = segment.substring(0, segment.indexOf(':'));
-        long size = parseFirstNumber(line, line.indexOf("size="));
-        long used = parseFirstNumber(line, line.indexOf("used="));
-        long maxUsed = parseFirstNumber(line, line.indexOf("max_used="));
-        jitLogFile.newCodeCacheStats(segment, timeStamp, size, maxUsed, used);
+    @Override
+    public void parseLine(String line, LineHeader header) {
+        if (header.hasTags(line, "codecache", "sweep", "start")) {
+            jitLogFile.newCodeCacheSweeperActivity(ParserUtils.getUptimeNanos(header, line));
+        } else if (header.hasTags(line, "codecache", "sweep") && line.contains("size=")) {
+            parseCodeCacheStats(line, header);
+        } else if (header.hasTags(line, "jit", "compilation") && header.isLevel(LineHeader.Level.DEBUG)) {
+            parseJitCompilation(line, header);
+        }
     }
 
-    private static long parseFirstNumber(String line, int pos) {
-        boolean started = false;
-        long value = 0;
-        for (int i = pos; i < line.length(); i++) {
-            if (Character.isDigit(line.charAt(i))) {
-                started = true;
-                value *= 10;
-                value += line.charAt(i) - '0';
-            } else {
-                if (started) {
-                    return value;
-                }
-            }
-        }
-        return 0;
+    private void parseCodeCacheStats(String line, LineHeader header) {
+        long timeStamp = ParserUtils.getUptimeNanos(header, line);
+        cursor.reset(line);
+        cursor.setPosition(line.lastIndexOf(']') + 2);
+        String segment = cursor.readUntil(':');
+        long size = cursor.readLong("size=");
+        long used = cursor.readLong("used=");
+        long maxUsed = cursor.readLong("max_used=");
+        jitLogFile.newCodeCacheStats(segment, timeStamp, size, maxUsed, used);
     }
 
-    private void parseJitCompilation(String line) {
-        BigDecimal timeStamp = ParserUtils.getTimeStamp(line);
+    private void parseJitCompilation(String line, LineHeader header) {
+        long timeStamp = ParserUtils.getUptimeNanos(header, line);
         int tier = getTier(line);
         if (line.lastIndexOf(')') == line.length() - 1) {
             jitLogFile.newCompilation(timeStamp, tier);
@@ -71,11 +64,11 @@ public class JitLogFileParser implements FileParser<JitLogFile> {
     }
 
     private int getTier(String line) {
-        String withoutDecorators = line.substring(line.lastIndexOf(']') + 2);
         boolean flagsStarted = false;
         int countDown = 8;
 
-        for (byte character : withoutDecorators.getBytes()) {
+        for (int i = line.lastIndexOf(']') + 2; i < line.length(); i++) {
+            char character = line.charAt(i);
             if (character == ' ') {
                 flagsStarted = true;
             }
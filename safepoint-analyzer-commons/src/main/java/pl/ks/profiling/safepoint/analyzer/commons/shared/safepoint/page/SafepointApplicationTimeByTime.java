@@ -17,6 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -71,8 +72,8 @@ public class SafepointApplicationTimeByTime implements PageCreator {
             "Phase start time",
             "Application time");
     private static final List<Function<TimesInTime, Object>> chartExtractors = List.of(
-            TimesInTime::getStartTime,
-            TimesInTime::getApplicationTime);
+            times -> Nanos.toSecondsDecimal(times.getStartTime()),
+            times -> Nanos.toSeconds(times.getApplicationTime()));
 
     private static Object[][] getChart(List<TimesInTime> timesInTimes) {
         return PageUtils.toMatrix(timesInTimes, chartColumns, chartExtractors);
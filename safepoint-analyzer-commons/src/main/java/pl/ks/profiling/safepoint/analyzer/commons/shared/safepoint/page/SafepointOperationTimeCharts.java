@@ -15,21 +15,19 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.page;
 
-import java.math.BigDecimal;
 import java.text.DecimalFormat;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
-import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointLogEntry;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointOperationStatsByName;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser.SafepointTable;
 
 public class SafepointOperationTimeCharts implements PageCreator {
-    public static final BigDecimal MULTIPLIER = new BigDecimal(1000);
 
     @Override
     public Page create(JvmLogFile jvmLogFile, DecimalFormat decimalFormat) {
@@ -54,22 +52,26 @@ public class SafepointOperationTimeCharts implements PageCreator {
         List<String> names = jvmLogFile.getSafepointLogFile().getSafepointOperationStats().getStatsByNames().stream()
                 .map(SafepointOperationStatsByName::getOperationName)
                 .collect(Collectors.toList());
-        Object[][] stats = new Object[jvmLogFile.getSafepointLogFile().getSafepoints().size() + 1][names.size() + 1];
+        SafepointTable safepoints = jvmLogFile.getSafepointLogFile().getSafepointTable();
+        Object[][] stats = new Object[safepoints.size() + 1][names.size() + 1];
 
-        Map<String, Integer> namesMap = new HashMap<>();
+        // operation id + 1 -> column
+        int[] columns = new int[safepoints.getOperationCount() + 1];
         int j = 1;
         for (String name : names) {
-            namesMap.put(name, j);
+            for (int operationId = SafepointTable.NO_OPERATION; operationId < safepoints.getOperationCount(); operationId++) {
+                if (Objects.equals(name, safepoints.getOperationNameById(operationId))) {
+                    columns[operationId + 1] = j;
+                }
+            }
             stats[0][j] = name;
             j++;
         }
 
         stats[0][0] = "Time";
-        int i = 1;
-        for (SafepointLogEntry safepointLogEntry : jvmLogFile.getSafepointLogFile().getSafepoints()) {
-            stats[i][0] = safepointLogEntry.getTimeStamp();
-            stats[i][namesMap.get(safepointLogEntry.getOperationName())] = safepointLogEntry.getStoppedTime().add(safepointLogEntry.getTtsTime()).multiply(MULTIPLIER);
-            i++;
+        for (int row = 0; row < safepoints.size(); row++) {
+            stats[row + 1][0] = Nanos.toSecondsDecimal(safepoints.getTimeStamp(row));
+            stats[row + 1][columns[safepoints.getOperationId(row) + 1]] = Nanos.toMillis(safepoints.getStoppedTime(row) + safepoints.getTtsTime(row));
         }
         return stats;
     }
@@ -15,19 +15,17 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.stream.Stream;
 import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 
 public class SafepointJdk8LogFileParser implements FileParser<SafepointLogFile> {
-    private static final int SCALE = 10;
     private static final String JDK8_REGEX = ".*: .*\\[.*\\] *.*\\[.*\\].*";
 
     private boolean waitForNext = true;
     private boolean jdk8 = false;
-    private BigDecimal lastAppTime = null;
+    private Long lastAppTime = null;
 
     private SafepointLogFile safepointLogFile = new SafepointLogFile();
 
@@ -36,7 +34,7 @@ public class SafepointJdk8LogFileParser implements FileParser<SafepointLogFile>
         if (line.contains("vmop") && line.contains("initially_running")) {
             jdk8 = true;
         } else if (jdk8 && line.matches(JDK8_REGEX) && line.split("\\[").length == 3) {
-            safepointLogFile.newSafepoint(ParserUtils.getTimeStamp(line));
+            safepointLogFile.newSafepoint(ParserUtils.getUptimeNanos(line));
             lastAppTime = addJava8OneLine(line, safepointLogFile, lastAppTime);
             waitForNext = false;
         }
@@ -50,7 +48,7 @@ public class SafepointJdk8LogFileParser implements FileParser<SafepointLogFile>
 
     //[1,060s][info][safepoint] Safepoint "Cleanup", Time since last: 1000140224 ns, Reaching safepoint: 196482 ns, At safepoint: 16740 ns, Total: 213222 ns
 
-    private static BigDecimal addJava8OneLine(String line, SafepointLogFile current, BigDecimal lastAppTime) {
+    private static Long addJava8OneLine(String line, SafepointLogFile current, Long lastAppTime) {
         String[] splittedLine = line.split(" ");
         String[] lineNoBlank = Stream.of(splittedLine)
                 .filter(s -> s.length() > 0)
@@ -58,7 +56,8 @@ public class SafepointJdk8LogFileParser implements FileParser<SafepointLogFile>
         StringBuilder operationName = new StringBuilder();
 
         int index = 0;
-        BigDecimal currentAppTime = new BigDecimal(lineNoBlank[index++].replaceAll("\\.", "").replaceAll(",", "").replaceAll(":", ""));
+        // uptime with millisecond precision, e.g. "12.345:"
+        long currentAppTime = Long.parseLong(lineNoBlank[index++].replaceAll("\\.", "").replaceAll(",", "").replaceAll(":", "")) * Nanos.PER_MILLI;
         while (!"[".equals(lineNoBlank[index])) {
             operationName.append(lineNoBlank[index]).append(" ");
             index++;
@@ -69,13 +68,12 @@ public class SafepointJdk8LogFileParser implements FileParser<SafepointLogFile>
             index++;
         }
 
-        BigDecimal tts = new BigDecimal(lineNoBlank[index + 3]);
-        BigDecimal stoppedTime = new BigDecimal(lineNoBlank[index + 5]).add(tts);
+        long tts = Long.parseLong(lineNoBlank[index + 3]) * Nanos.PER_MILLI;
+        long stoppedTime = Long.parseLong(lineNoBlank[index + 5]) * Nanos.PER_MILLI + tts;
         current.addAllData(
-                tts.divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                stoppedTime.divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                lastAppTime == null ? BigDecimal.ZERO : currentAppTime.subtract(lastAppTime).subtract(stoppedTime)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
+                tts,
+                stoppedTime,
+                lastAppTime == null ? 0 : currentAppTime - lastAppTime - stoppedTime,
                 operationName.toString().trim()
         );
 
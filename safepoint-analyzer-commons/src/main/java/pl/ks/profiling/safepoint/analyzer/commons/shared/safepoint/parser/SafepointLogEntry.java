@@ -15,52 +15,46 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Getter;
-import lombok.Setter;
-
-@Getter
-@Builder
-@AllArgsConstructor
+/**
+ * View of a single row of {@link SafepointTable}.
+ */
 public class SafepointLogEntry {
-    @Setter(AccessLevel.PACKAGE)
-    private BigDecimal timeStamp;
-    private long sequenceId;
-    private String operationName;
-    private BigDecimal applicationTime;
-    private BigDecimal ttsTime;
-    private BigDecimal stoppedTime;
-    private boolean completed;
+    private final SafepointTable table;
+    private final int row;
+
+    SafepointLogEntry(SafepointTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    public long getTimeStamp() {
+        return table.getTimeStamp(row);
+    }
+
+    public long getSequenceId() {
+        return table.getSequenceId(row);
+    }
 
-    SafepointLogEntry(BigDecimal timeStamp, long sequenceId) {
-        this.timeStamp = timeStamp;
-        this.sequenceId = sequenceId;
+    public String getOperationName() {
+        return table.getOperationName(row);
     }
 
-    SafepointLogEntry(BigDecimal timeStamp, long sequenceId, BigDecimal applicationTime) {
-        this.timeStamp = timeStamp;
-        this.sequenceId = sequenceId;
-        this.applicationTime = applicationTime;
+    public long getApplicationTime() {
+        return table.getApplicationTime(row);
     }
 
-    void addOperationName(String operationName) {
-        this.operationName = operationName;
+    public long getTtsTime() {
+        return table.getTtsTime(row);
     }
 
-    void addTimeToSafepointAndStoppedTime(BigDecimal ttsTime, BigDecimal stoppedTime) {
-        this.ttsTime = ttsTime;
-        this.stoppedTime = stoppedTime;
-        this.completed = true;
+    public long getStoppedTime() {
+        return table.getStoppedTime(row);
     }
 
-    void addAllData(BigDecimal ttsTime, BigDecimal stoppedTime, BigDecimal applicationTime, String operationName) {
-        this.applicationTime = applicationTime;
-        this.operationName = operationName;
-        this.ttsTime = ttsTime;
-        this.stoppedTime = stoppedTime;
-        this.completed = true;
+    /**
+     * Only completed safepoints are stored.
+     */
+    public boolean isCompleted() {
+        return true;
     }
 }
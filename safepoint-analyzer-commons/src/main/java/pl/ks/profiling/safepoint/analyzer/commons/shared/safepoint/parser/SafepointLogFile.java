@@ -15,59 +15,74 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
 
 public class SafepointLogFile {
     @Getter
-    private List<SafepointLogEntry> safepoints = new ArrayList<>();
+    private final SafepointTable safepointTable = new SafepointTable();
+    @Getter
+    private final List<SafepointLogEntry> safepoints = safepointTable.entries();
     @Getter
     private SafepointOperationStats safepointOperationStats;
-    private SafepointLogEntry lastEntry;
     private long sequenceId;
 
-    void newSafepoint(BigDecimal timeStamp) {
-        if (lastEntry != null && lastEntry.isCompleted()) {
-            safepoints.add(lastEntry);
-        }
-        lastEntry = new SafepointLogEntry(timeStamp, sequenceId++);
+    // the last safepoint, appended to the table when the next one starts, if it is completed by then
+    private boolean started;
+    private boolean completed;
+    private long timeStamp;
+    private long lastSequenceId;
+    private long applicationTime;
+    private long ttsTime;
+    private long stoppedTime;
+    private int operationId = SafepointTable.NO_OPERATION;
+
+    void newSafepoint(long timeStamp) {
+        newSafepoint(timeStamp, 0);
     }
 
-    void newSafepoint(BigDecimal timeStamp, BigDecimal applicationTime) {
-        if (lastEntry != null && lastEntry.isCompleted()) {
-            safepoints.add(lastEntry);
-        }
-        lastEntry = new SafepointLogEntry(timeStamp, sequenceId++, applicationTime);
+    void newSafepoint(long timeStamp, long applicationTime) {
+        appendCompleted();
+        this.started = true;
+        this.completed = false;
+        this.timeStamp = timeStamp;
+        this.lastSequenceId = sequenceId++;
+        this.applicationTime = applicationTime;
+        this.ttsTime = 0;
+        this.stoppedTime = 0;
+        this.operationId = SafepointTable.NO_OPERATION;
     }
 
     void addOperationName(String operationName) {
-        if (lastEntry == null) {
+        if (!started) {
             return;
         }
-        lastEntry.addOperationName(operationName);
+        operationId = safepointTable.operationId(operationName);
     }
 
-    void addTimeToSafepointAndStoppedTime(BigDecimal timeToSafepoint, BigDecimal stoppedTime) {
-        if (lastEntry == null) {
+    void addTimeToSafepointAndStoppedTime(long timeToSafepoint, long stoppedTime) {
+        if (!started) {
             return;
         }
-        lastEntry.addTimeToSafepointAndStoppedTime(timeToSafepoint, stoppedTime);
+        this.ttsTime = timeToSafepoint;
+        this.stoppedTime = stoppedTime;
+        this.completed = true;
     }
 
-    void addAllData(BigDecimal timeToSafepoint, BigDecimal stoppedTime, BigDecimal applicationTime, String operationName) {
-        if (lastEntry == null) {
+    void addAllData(long timeToSafepoint, long stoppedTime, long applicationTime, String operationName) {
+        if (!started) {
             return;
         }
-        lastEntry.addAllData(timeToSafepoint, stoppedTime, applicationTime, operationName);
+        this.applicationTime = applicationTime;
+        this.operationId = safepointTable.operationId(operationName);
+        this.ttsTime = timeToSafepoint;
+        this.stoppedTime = stoppedTime;
+        this.completed = true;
     }
 
     void parsingCompleted() {
-        if (lastEntry != null && lastEntry.isCompleted()) {
-            safepoints.add(lastEntry);
-            lastEntry = null;
-        }
+        appendCompleted();
+        started = false;
 
         if (safepointOperationStats != null) {
             return;
@@ -75,4 +90,11 @@ public class SafepointLogFile {
 
         safepointOperationStats = SafepointStatsCreator.create(this);
     }
+
+    private void appendCompleted() {
+        if (started && completed) {
+            safepointTable.append(timeStamp, lastSequenceId, applicationTime, ttsTime, stoppedTime, operationId);
+            completed = false;
+        }
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
+
+/**
+ * Decoder of the one-line safepoint format of JDK 13+:
+ * <pre>
+ * Safepoint "G1CollectForAllocation", Time since last: 5972932511 ns, Reaching safepoint: 108298 ns, Cleanup: 83917 ns, At safepoint: 113194973 ns, Total: 113387188 ns
+ * </pre>
+ * The line is scanned once, values land in primitive fields and operation names are interned, so decoding a line
+ * of an already seen operation allocates nothing. One decoder is meant to be kept per parser.
+ */
+class SafepointOneLineDecoder {
+    private static final String PREFIX = "Safepoint \"";
+    private static final String NS_SUFFIX = " ns";
+    private static final String TIME_SINCE_LAST = "Time since last";
+    private static final String REACHING_SAFEPOINT = "Reaching safepoint";
+    private static final String TOTAL = "Total";
+
+    private String[] names = new String[64];
+    private int namesCount;
+
+    private String operationName;
+    private long timeSinceLast;
+    private long reachingSafepoint;
+    private long total;
+
+    /**
+     * @return true when message starting at from is a one-line safepoint entry with all of the used values, which
+     * are then available through getters until the next call
+     */
+    boolean decode(CharSequence line, int from) {
+        int length = line.length();
+        if (!startsWith(line, from, PREFIX) || !startsWith(line, length - NS_SUFFIX.length(), NS_SUFFIX)) {
+            return false;
+        }
+        int nameStart = from + PREFIX.length();
+        int nameEnd = nameStart;
+        while (nameEnd < length && line.charAt(nameEnd) != '"') {
+            nameEnd++;
+        }
+        if (nameEnd == length) {
+            return false;
+        }
+
+        timeSinceLast = -1;
+        reachingSafepoint = -1;
+        total = -1;
+        int pos = nameEnd + 1;
+        while (pos < length) {
+            while (pos < length && (line.charAt(pos) == ',' || line.charAt(pos) == ' ')) {
+                pos++;
+            }
+            int labelStart = pos;
+            while (pos < length && line.charAt(pos) != ':') {
+                pos++;
+            }
+            int labelEnd = pos;
+            pos++;
+            while (pos < length && line.charAt(pos) == ' ') {
+                pos++;
+            }
+            long value = 0;
+            while (pos < length && line.charAt(pos) >= '0' && line.charAt(pos) <= '9') {
+                value = value * 10 + line.charAt(pos) - '0';
+                pos++;
+            }
+            while (pos < length && line.charAt(pos) != ',') {
+                pos++;
+            }
+            if (isLabel(line, labelStart, labelEnd, TIME_SINCE_LAST)) {
+                timeSinceLast = value;
+            } else if (isLabel(line, labelStart, labelEnd, REACHING_SAFEPOINT)) {
+                reachingSafepoint = value;
+            } else if (isLabel(line, labelStart, labelEnd, TOTAL)) {
+                total = value;
+            }
+        }
+        if (timeSinceLast < 0 || reachingSafepoint < 0 || total < 0) {
+            return false;
+        }
+        operationName = intern(line, nameStart, nameEnd);
+        return true;
+    }
+
+    String getOperationName() {
+        return operationName;
+    }
+
+    long getTimeSinceLast() {
+        return timeSinceLast;
+    }
+
+    long getReachingSafepoint() {
+        return reachingSafepoint;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    private String intern(CharSequence line, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + line.charAt(i);
+        }
+        int mask = names.length - 1;
+        for (int i = (hash ^ (hash >>> 16)) & mask; ; i = (i + 1) & mask) {
+            String name = names[i];
+            if (name == null) {
+                name = line.subSequence(start, end).toString();
+                names[i] = name;
+                if (++namesCount * 2 > names.length) {
+                    rehash();
+                }
+                return name;
+            } else if (isLabel(line, start, end, name)) {
+                return name;
+            }
+        }
+    }
+
+    private void rehash() {
+        String[] old = names;
+        names = new String[old.length * 2];
+        int mask = names.length - 1;
+        for (String name : old) {
+            if (name != null) {
+                int hash = name.hashCode();
+                int i = (hash ^ (hash >>> 16)) & mask;
+                while (names[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                names[i] = name;
+            }
+        }
+    }
+
+    private static boolean isLabel(CharSequence line, int start, int end, String label) {
+        return end - start == label.length() && startsWith(line, start, label);
+    }
+
+    private static boolean startsWith(CharSequence line, int offset, String text) {
+        if (offset < 0 || offset + text.length() > line.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (line.charAt(offset + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
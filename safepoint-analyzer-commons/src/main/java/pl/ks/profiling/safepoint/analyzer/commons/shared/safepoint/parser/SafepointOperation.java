@@ -15,7 +15,6 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,8 +24,8 @@ import lombok.Setter;
 public class SafepointOperation {
     private long sequenceId;
     private String operationName;
-    private BigDecimal applicationTime;
-    private BigDecimal ttsTime;
-    private BigDecimal stoppedTime;
-    private BigDecimal timeStamp;
+    private long applicationTime;
+    private long ttsTime;
+    private long stoppedTime;
+    private long timeStamp;
 }
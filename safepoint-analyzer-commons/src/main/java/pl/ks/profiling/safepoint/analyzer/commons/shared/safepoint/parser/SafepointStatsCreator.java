@@ -19,142 +19,137 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
-import lombok.Builder;
-import lombok.Value;
+import java.util.function.IntToLongFunction;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStats;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.OneFiledAllStatsUtil;
 
 public class SafepointStatsCreator {
-    static final BigDecimal TO_MS_MULTIPLIER = new BigDecimal(1000);
     private static final BigDecimal PERCENT_MULTIPLIER = new BigDecimal(100);
     private static final int NEW_SCALE = 2;
+    // stats are in milliseconds rounded to NEW_SCALE places
+    private static final double NANOS_PER_ROUNDED_UNIT = Nanos.PER_MILLI / 100.0;
 
     public static SafepointOperationStats create(SafepointLogFile safepointLogFile) {
+        SafepointTable safepoints = safepointLogFile.getSafepointTable();
         SafepointOperationStats stats = new SafepointOperationStats();
-        stats.setTts(createAllStats(safepointLogFile.getSafepoints(), operation -> operation.getTtsTime().multiply(TO_MS_MULTIPLIER).setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-        stats.setApplicationTime(createAllStats(safepointLogFile.getSafepoints(), operation -> operation.getApplicationTime().multiply(TO_MS_MULTIPLIER).setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-        stats.setOperationTime(createAllStats(safepointLogFile.getSafepoints(), operation -> operation.getStoppedTime().subtract(operation.getTtsTime()).multiply(TO_MS_MULTIPLIER).setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-        stats.setTotalCount(safepointLogFile.getSafepoints().size());
-        stats.setTimesInTimes2sec(generateTimeStats(safepointLogFile.getSafepoints(), new BigDecimal("2")));
-        stats.setTimesInTimes5sec(generateTimeStats(safepointLogFile.getSafepoints(), new BigDecimal("5")));
-        stats.setTimesInTimes15sec(generateTimeStats(safepointLogFile.getSafepoints(), new BigDecimal("15")));
-        Map<String, List<SafepointLogEntry>> statsByNameMap = new HashMap<>();
-        safepointLogFile.getSafepoints().forEach(operation -> {
-            List<SafepointLogEntry> operationsByName = statsByNameMap.computeIfAbsent(operation.getOperationName(), name -> new ArrayList<>());
-            operationsByName.add(operation);
-        });
+        stats.setTts(createAllStats(safepoints, null, safepoints::getTtsTime));
+        stats.setApplicationTime(createAllStats(safepoints, null, safepoints::getApplicationTime));
+        stats.setOperationTime(createAllStats(safepoints, null, safepoints::getOperationTime));
+        stats.setTotalCount(safepoints.size());
+        stats.setTimesInTimes2sec(generateTimeStats(safepoints, 2 * Nanos.PER_SECOND));
+        stats.setTimesInTimes5sec(generateTimeStats(safepoints, 5 * Nanos.PER_SECOND));
+        stats.setTimesInTimes15sec(generateTimeStats(safepoints, 15 * Nanos.PER_SECOND));
+        int[][] rowsByOperation = rowsByOperation(safepoints);
 
         stats.setStatsByNames(new HashSet<>());
-        for (Map.Entry<String, List<SafepointLogEntry>> entry : statsByNameMap.entrySet()) {
-            List<SafepointLogEntry> operationsByName = entry.getValue();
+        for (int operationId = SafepointTable.NO_OPERATION; operationId < safepoints.getOperationCount(); operationId++) {
+            int[] rows = rowsByOperation[operationId + 1];
+            if (rows.length == 0) {
+                continue;
+            }
             SafepointOperationStatsByName statsByName = new SafepointOperationStatsByName();
-            statsByName.setOperationTime(createAllStats(operationsByName, operation -> operation.getStoppedTime()
-                    .subtract(operation.getTtsTime())
-                    .multiply(TO_MS_MULTIPLIER)
-                    .setScale(NEW_SCALE, RoundingMode.HALF_EVEN).doubleValue()));
-            statsByName.setCount(operationsByName.size());
-            statsByName.setOperationName(entry.getKey());
-            statsByName.setCountPercent(new BigDecimal(operationsByName.size())
+            statsByName.setOperationTime(createAllStats(safepoints, rows, safepoints::getOperationTime));
+            statsByName.setCount(rows.length);
+            statsByName.setOperationName(safepoints.getOperationNameById(operationId));
+            statsByName.setCountPercent(new BigDecimal(rows.length)
                     .multiply(PERCENT_MULTIPLIER)
-                    .divide(new BigDecimal(safepointLogFile.getSafepoints().size()), NEW_SCALE, RoundingMode.HALF_EVEN)
+                    .divide(new BigDecimal(safepoints.size()), NEW_SCALE, RoundingMode.HALF_EVEN)
                     .setScale(NEW_SCALE, RoundingMode.HALF_EVEN));
             BigDecimal ttsTime = stats.getTts().getAverage()
-                    .multiply(new BigDecimal(operationsByName.size()));
+                    .multiply(new BigDecimal(rows.length));
             statsByName.setTimeWithTtsPercent(statsByName.getOperationTime().getTotal()
                     .add(ttsTime)
                     .multiply(PERCENT_MULTIPLIER)
                     .divide(stats.getOperationTime().getTotal().add(stats.getTts().getTotal()), NEW_SCALE, RoundingMode.HALF_EVEN)
                     .setScale(NEW_SCALE, RoundingMode.HALF_EVEN));
-            statsByName.setStatsByTime(generateInTimeStats(safepointLogFile.getSafepoints(), entry.getKey()));
+            statsByName.setStatsByTime(generateInTimeStats(safepoints, operationId));
             stats.getStatsByNames().add(statsByName);
         }
         return stats;
     }
 
-    private static List<TimesInTime> generateTimeStats(List<SafepointLogEntry> operations, BigDecimal interval) {
-        List<Phase> phases = new ArrayList<>(operations.size() * 3);
-        for (SafepointLogEntry operation : operations) {
-            phases.add(Phase.builder()
-                    .time(operation.getApplicationTime())
-                    .type(PhaseType.APPLICATION)
-                    .build());
-            phases.add(Phase.builder()
-                    .time(operation.getTtsTime())
-                    .type(PhaseType.TTS)
-                    .build());
-            phases.add(Phase.builder()
-                    .time(operation.getStoppedTime().subtract(operation.getTtsTime()))
-                    .type(PhaseType.SAFEPOINT)
-                    .build());
+    /**
+     * @return rows of each operation, indexed by operation id + 1 so that unnamed operations are first
+     */
+    private static int[][] rowsByOperation(SafepointTable safepoints) {
+        int[] counts = new int[safepoints.getOperationCount() + 1];
+        for (int row = 0; row < safepoints.size(); row++) {
+            counts[safepoints.getOperationId(row) + 1]++;
+        }
+        int[][] rows = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            rows[i] = new int[counts[i]];
+            counts[i] = 0;
         }
+        for (int row = 0; row < safepoints.size(); row++) {
+            int index = safepoints.getOperationId(row) + 1;
+            rows[index][counts[index]++] = row;
+        }
+        return rows;
+    }
 
-        if (operations.size() == 0) {
+    private static List<TimesInTime> generateTimeStats(SafepointTable safepoints, long interval) {
+        if (safepoints.size() == 0) {
             return Collections.emptyList();
         }
-        BigDecimal currentStartTime = operations.get(0).getTimeStamp();
-        if (currentStartTime == null) {
-            currentStartTime = BigDecimal.ZERO;
+        TimesInTimeBuilder builder = new TimesInTimeBuilder(Math.max(safepoints.getTimeStamp(0), 0), interval);
+        for (int row = 0; row < safepoints.size(); row++) {
+            builder.add(safepoints.getApplicationTime(row), PhaseType.APPLICATION);
+            builder.add(safepoints.getTtsTime(row), PhaseType.TTS);
+            builder.add(safepoints.getOperationTime(row), PhaseType.SAFEPOINT);
         }
-        BigDecimal remainingTime = interval;
-        BigDecimal currentEndTime = currentStartTime.add(interval);
+        return builder.timesInTimes;
+    }
+
+    /**
+     * Splits consecutive phases into windows of the same length.
+     */
+    private static class TimesInTimeBuilder {
+        private final long interval;
+        private final List<TimesInTime> timesInTimes = new ArrayList<>();
+        private long remainingTime;
+        private TimesInTime current;
 
-        List<TimesInTime> timesInTimes = new ArrayList<>();
-        TimesInTime current = new TimesInTime();
-        current.setStartTime(currentStartTime);
-        current.setEndTime(currentEndTime);
+        TimesInTimeBuilder(long startTime, long interval) {
+            this.interval = interval;
+            this.remainingTime = interval;
+            this.current = new TimesInTime();
+            current.setStartTime(startTime);
+            current.setEndTime(startTime + interval);
+        }
 
-        for (Phase phase : phases) {
-            BigDecimal phaseTime = phase.getTime();
-            while (phaseTime.compareTo(remainingTime) >= 0) {
-                switch (phase.getType()) {
-                    case APPLICATION:
-                        current.setApplicationTime(current.getApplicationTime().add(remainingTime));
-                        break;
-                    case SAFEPOINT:
-                        current.setOperationTime(current.getOperationTime().add(remainingTime));
-                        break;
-                    case TTS:
-                        current.setTts(current.getTts().add(remainingTime));
-                        break;
-                }
-                phaseTime = phaseTime.subtract(remainingTime);
+        void add(long phaseTime, PhaseType type) {
+            while (phaseTime >= remainingTime) {
+                addTime(remainingTime, type);
+                phaseTime -= remainingTime;
                 remainingTime = interval;
                 timesInTimes.add(current);
-                currentStartTime = currentEndTime;
-                currentEndTime = currentEndTime.add(interval);
+                long startTime = current.getEndTime();
                 current = new TimesInTime();
-                current.setStartTime(currentStartTime);
-                current.setEndTime(currentEndTime);
+                current.setStartTime(startTime);
+                current.setEndTime(startTime + interval);
             }
-            switch (phase.getType()) {
+            addTime(phaseTime, type);
+            remainingTime -= phaseTime;
+        }
+
+        private void addTime(long time, PhaseType type) {
+            switch (type) {
                 case APPLICATION:
-                    current.setApplicationTime(current.getApplicationTime().add(phaseTime));
+                    current.setApplicationTime(current.getApplicationTime() + time);
                     break;
                 case SAFEPOINT:
-                    current.setOperationTime(current.getOperationTime().add(phaseTime));
+                    current.setOperationTime(current.getOperationTime() + time);
                     break;
                 case TTS:
-                    current.setTts(current.getTts().add(phaseTime));
+                    current.setTts(current.getTts() + time);
                     break;
             }
-            remainingTime = remainingTime.subtract(phaseTime);
         }
-
-        return timesInTimes;
-    }
-
-
-    @Value
-    @Builder
-    private static class Phase {
-        private BigDecimal time;
-        private PhaseType type;
     }
 
     enum PhaseType {
@@ -163,31 +158,34 @@ public class SafepointStatsCreator {
         TTS
     }
 
-    private static Set<SafepointInTimeStats> generateInTimeStats(List<SafepointLogEntry> operations, String name) {
+    private static Set<SafepointInTimeStats> generateInTimeStats(SafepointTable safepoints, int operationId) {
         Set<SafepointInTimeStats> safepointInTimeStats = new HashSet<>();
-        BigDecimal time = BigDecimal.ZERO;
+        long time = 0;
         long count = 0;
-        BigDecimal timeSpent = BigDecimal.ZERO;
-        for (SafepointLogEntry operation : operations) {
-            if (operation.getOperationName().equals(name)) {
+        long timeSpent = 0;
+        for (int row = 0; row < safepoints.size(); row++) {
+            if (safepoints.getOperationId(row) == operationId) {
                 count++;
-                timeSpent = timeSpent.add(operation.getStoppedTime().subtract(operation.getTtsTime()));
+                timeSpent += safepoints.getOperationTime(row);
                 SafepointInTimeStats stat = new SafepointInTimeStats();
                 stat.setCount(count);
                 stat.setTime(time);
                 stat.setTimeSpent(timeSpent);
                 safepointInTimeStats.add(stat);
             }
-            time = time.add(operation.getApplicationTime()).add(operation.getStoppedTime());
+            time += safepoints.getApplicationTime(row) + safepoints.getStoppedTime(row);
         }
         return safepointInTimeStats;
     }
 
-    private static OneFiledAllStats createAllStats(List<SafepointLogEntry> operations, Function<SafepointLogEntry, Double> valueFunc) {
-        double[] values = operations.stream()
-                .map(valueFunc)
-                .mapToDouble(Double::doubleValue)
-                .toArray();
+    /**
+     * @param rows rows to create stats of, all rows when null
+     */
+    private static OneFiledAllStats createAllStats(SafepointTable safepoints, int[] rows, IntToLongFunction nanosFunc) {
+        double[] values = new double[rows == null ? safepoints.size() : rows.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.rint(nanosFunc.applyAsLong(rows == null ? i : rows[i]) / NANOS_PER_ROUNDED_UNIT) / 100.0;
+        }
         return OneFiledAllStatsUtil.create(values);
     }
 }
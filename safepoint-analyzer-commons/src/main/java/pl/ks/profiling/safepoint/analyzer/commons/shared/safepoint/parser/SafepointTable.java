@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 Krzysztof Slusarski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Completed safepoints stored column by column, one row per safepoint. Times are in nanoseconds, operation names are
+ * kept once in a symbol table and referenced by id.
+ */
+public class SafepointTable {
+    public static final int NO_OPERATION = -1;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int size;
+    private long[] timeStamps = new long[INITIAL_CAPACITY];
+    private long[] sequenceIds = new long[INITIAL_CAPACITY];
+    private long[] applicationTimes = new long[INITIAL_CAPACITY];
+    private long[] ttsTimes = new long[INITIAL_CAPACITY];
+    private long[] stoppedTimes = new long[INITIAL_CAPACITY];
+    private int[] operationIds = new int[INITIAL_CAPACITY];
+
+    private final List<String> operationNames = new ArrayList<>();
+    private final Map<String, Integer> operationIdsByName = new HashMap<>();
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return views of rows, created when accessed
+     */
+    public List<SafepointLogEntry> entries() {
+        return new Entries();
+    }
+
+    public long getTimeStamp(int row) {
+        return timeStamps[row];
+    }
+
+    public long getSequenceId(int row) {
+        return sequenceIds[row];
+    }
+
+    public long getApplicationTime(int row) {
+        return applicationTimes[row];
+    }
+
+    public long getTtsTime(int row) {
+        return ttsTimes[row];
+    }
+
+    /**
+     * @return time to safepoint and operation time
+     */
+    public long getStoppedTime(int row) {
+        return stoppedTimes[row];
+    }
+
+    public long getOperationTime(int row) {
+        return stoppedTimes[row] - ttsTimes[row];
+    }
+
+    /**
+     * @return id of the operation name, {@link #NO_OPERATION} when the log did not name it
+     */
+    public int getOperationId(int row) {
+        return operationIds[row];
+    }
+
+    public String getOperationName(int row) {
+        return getOperationNameById(operationIds[row]);
+    }
+
+    public int getOperationCount() {
+        return operationNames.size();
+    }
+
+    public String getOperationNameById(int operationId) {
+        return operationId == NO_OPERATION ? null : operationNames.get(operationId);
+    }
+
+    int operationId(String operationName) {
+        if (operationName == null) {
+            return NO_OPERATION;
+        }
+        Integer id = operationIdsByName.get(operationName);
+        if (id == null) {
+            id = operationNames.size();
+            operationNames.add(operationName);
+            operationIdsByName.put(operationName, id);
+        }
+        return id;
+    }
+
+    void append(long timeStamp, long sequenceId, long applicationTime, long ttsTime, long stoppedTime, int operationId) {
+        if (size == timeStamps.length) {
+            int capacity = size * 2;
+            timeStamps = Arrays.copyOf(timeStamps, capacity);
+            sequenceIds = Arrays.copyOf(sequenceIds, capacity);
+            applicationTimes = Arrays.copyOf(applicationTimes, capacity);
+            ttsTimes = Arrays.copyOf(ttsTimes, capacity);
+            stoppedTimes = Arrays.copyOf(stoppedTimes, capacity);
+            operationIds = Arrays.copyOf(operationIds, capacity);
+        }
+        timeStamps[size] = timeStamp;
+        sequenceIds[size] = sequenceId;
+        applicationTimes[size] = applicationTime;
+        ttsTimes[size] = ttsTime;
+        stoppedTimes[size] = stoppedTime;
+        operationIds[size] = operationId;
+        size++;
+    }
+
+    private class Entries extends AbstractList<SafepointLogEntry> implements RandomAccess {
+        @Override
+        public SafepointLogEntry get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return new SafepointLogEntry(SafepointTable.this, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
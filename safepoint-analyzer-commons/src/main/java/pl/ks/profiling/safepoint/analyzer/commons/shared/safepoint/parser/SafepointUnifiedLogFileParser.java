@@ -15,33 +15,39 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParseCursor;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 
-public class SafepointUnifiedLogFileParser implements FileParser<SafepointLogFile> {
-    private static final BigDecimal NS_TO_MS_DIVISIOR = new BigDecimal(1_000_000);
-    private static final int SCALE = 10;
-
+public class SafepointUnifiedLogFileParser implements UnifiedLogParser<SafepointLogFile> {
     private boolean waitForNext = true;
 
     private SafepointLogFile safepointLogFile = new SafepointLogFile();
+    private final ParseCursor cursor = new ParseCursor();
+    private final SafepointOneLineDecoder oneLineDecoder = new SafepointOneLineDecoder();
+
+    @Override
+    public boolean isInterestedIn(LogTags tags) {
+        return tags.has("safepoint");
+    }
 
     @Override
-    public void parseLine(String line) {
-        if (line.contains("Application time")) {
-            safepointLogFile.newSafepoint(ParserUtils.getTimeStamp(line), parseApplicationTime(line));
+    public void parseLine(String line, LineHeader header) {
+        if (oneLineDecoder.decode(line, header.getMessageStart())) {
+            safepointLogFile.newSafepoint(ParserUtils.getUptimeNanos(header, line));
+            safepointLogFile.addAllData(oneLineDecoder.getReachingSafepoint(), oneLineDecoder.getTotal(), oneLineDecoder.getTimeSinceLast(), oneLineDecoder.getOperationName());
+            waitForNext = false;
+        } else if (line.contains("Application time")) {
+            safepointLogFile.newSafepoint(ParserUtils.getUptimeNanos(header, line), parseApplicationTime(line));
             waitForNext = false;
         } else if (!waitForNext && line.contains("Entering safepoint region")) {
             addOperationName(line, safepointLogFile);
         } else if (!waitForNext && line.contains("Total time for which application threads were stopped")) {
             addTtsAndStoppedTime(line, safepointLogFile);
             waitForNext = true;
-        } else if (line.contains("Reaching safepoint")) {
-            safepointLogFile.newSafepoint(ParserUtils.getTimeStamp(line));
-            addJava13OneLine(line, safepointLogFile);
-            waitForNext = false;
         }
     }
 
@@ -51,65 +57,25 @@ public class SafepointUnifiedLogFileParser implements FileParser<SafepointLogFil
         return safepointLogFile;
     }
 
-    private static void addJava13OneLine(String line, SafepointLogFile current) {
-        String name = line
-                .replaceFirst(".* Safepoint \"", "")
-                .replaceFirst("\", Time since.*", "")
-                .trim();
-        String tts = line
-                .replaceFirst(".* Reaching safepoint: ", "")
-                .replaceFirst(" ns, .*", "")
-                .trim();
-        String stopped = line
-                .replaceFirst(".*Total: ", "")
-                .replaceFirst(" ns", "")
-                .trim();
-        String appTime = line
-                .replaceFirst(".*Time since last: ", "")
-                .replaceFirst(" ns, .*", "")
-                .trim();
-        current.addAllData(
-                new BigDecimal(tts)
-                        .divide(NS_TO_MS_DIVISIOR, SCALE, RoundingMode.HALF_EVEN)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                new BigDecimal(stopped)
-                        .divide(NS_TO_MS_DIVISIOR, SCALE, RoundingMode.HALF_EVEN)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                new BigDecimal(appTime)
-                        .divide(NS_TO_MS_DIVISIOR, SCALE, RoundingMode.HALF_EVEN)
-                        .divide(SafepointStatsCreator.TO_MS_MULTIPLIER, SCALE, RoundingMode.HALF_EVEN),
-                name
-        );
-    }
-
-    private static void addTtsAndStoppedTime(String line, SafepointLogFile current) {
-        String tts = line
-                .replaceFirst(".*Stopping threads took: ", "")
-                .replace(" seconds", "")
-                .replace(',', '.')
-                .trim();
-        String stopped = line
-                .replaceFirst(".*Total time for which application threads were stopped: ", "")
-                .replaceFirst(" seconds, Stopping threads.*", "")
-                .replace(',', '.')
-                .trim();
+    private void addTtsAndStoppedTime(String line, SafepointLogFile current) {
+        cursor.reset(line);
+        cursor.seekLast("Total time for which application threads were stopped: ");
+        long stopped = cursor.readFixed(Nanos.SECONDS_SCALE);
+        cursor.seekLast("Stopping threads took: ");
+        long tts = cursor.readFixed(Nanos.SECONDS_SCALE);
 
-        current.addTimeToSafepointAndStoppedTime(new BigDecimal(tts), new BigDecimal(stopped));
+        current.addTimeToSafepointAndStoppedTime(tts, stopped);
     }
 
-    private static void addOperationName(String line, SafepointLogFile safepointLogFile) {
-        String name = line
-                .replaceFirst(".*Entering safepoint region: ", "")
-                .trim();
-        safepointLogFile.addOperationName(name);
+    private void addOperationName(String line, SafepointLogFile safepointLogFile) {
+        cursor.reset(line);
+        cursor.seekLast("Entering safepoint region: ");
+        safepointLogFile.addOperationName(cursor.readRemaining());
     }
 
-    private static BigDecimal parseApplicationTime(String line) {
-        String appTime = line
-                .replaceFirst(".*Application time: ", "")
-                .replace(" seconds", "")
-                .replace(',', '.')
-                .trim();
-        return new BigDecimal(appTime);
+    private long parseApplicationTime(String line) {
+        cursor.reset(line);
+        cursor.seekLast("Application time: ");
+        return cursor.readFixed(Nanos.SECONDS_SCALE);
     }
 }
@@ -17,6 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.page;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -75,7 +76,7 @@ public class StringDedupLast implements PageCreator {
             "Young size",
             "Old size");
     private static final List<Function<StringDedupLogEntry, Object>> sizeChartExtractors = List.of(
-            StringDedupLogEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             StringDedupLogEntry::getLastSize,
             StringDedupLogEntry::getLastSizeYoung,
             StringDedupLogEntry::getLastSizeOld);
@@ -90,7 +91,7 @@ public class StringDedupLast implements PageCreator {
             "Young count",
             "Old count");
     private static final List<Function<StringDedupLogEntry, Object>> countChartExtractors = List.of(
-            StringDedupLogEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             StringDedupLogEntry::getLastCount,
             StringDedupLogEntry::getLastCountYoung,
             StringDedupLogEntry::getLastCountOld);
@@ -103,7 +104,7 @@ public class StringDedupLast implements PageCreator {
             "Time",
             "New strings count");
     private static final List<Function<StringDedupLogEntry, Object>> newCountChartExtractors = List.of(
-            StringDedupLogEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             StringDedupLogEntry::getLastCountNew);
 
     private static Object[][] getNewCountChart(List<StringDedupLogEntry> entries) {
@@ -114,7 +115,7 @@ public class StringDedupLast implements PageCreator {
             "Time",
             "New strings size");
     private static final List<Function<StringDedupLogEntry, Object>> newSizeChartExtractors = List.of(
-            StringDedupLogEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             StringDedupLogEntry::getLastSizeNew);
 
     private static Object[][] getNewSizeChart(List<StringDedupLogEntry> entries) {
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.function.Function;
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -76,7 +77,7 @@ public class StringDedupTotal implements PageCreator {
         stats[0][3] = "Old size";
         int i = 1;
         for (StringDedupLogEntry status : entries) {
-            stats[i][0] = status.getTimeStamp();
+            stats[i][0] = Nanos.toSecondsDecimal(status.getTimeStamp());
             stats[i][1] = status.getTotalSize();
             stats[i][2] = status.getTotalSizeYoung();
             stats[i][3] = status.getTotalSizeOld();
@@ -91,7 +92,7 @@ public class StringDedupTotal implements PageCreator {
             "Young count",
             "Old count");
     private static final List<Function<StringDedupLogEntry, Object>> countChartExtractors = List.of(
-            StringDedupLogEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             StringDedupLogEntry::getTotalCount,
             StringDedupLogEntry::getTotalCountYoung,
             StringDedupLogEntry::getTotalCountOld);
@@ -104,7 +105,7 @@ public class StringDedupTotal implements PageCreator {
             "Time",
             "New strings count");
     private static final List<Function<StringDedupLogEntry, Object>> newCountChartExtractors = List.of(
-            StringDedupLogEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             StringDedupLogEntry::getTotalCountNew);
 
     private static Object[][] getNewCountChart(List<StringDedupLogEntry> entries) {
@@ -115,7 +116,7 @@ public class StringDedupTotal implements PageCreator {
             "Time",
             "New strings size");
     private static final List<Function<StringDedupLogEntry, Object>> newSizeChartExtractors = List.of(
-            StringDedupLogEntry::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             StringDedupLogEntry::getTotalSizeNew);
 
     private static Object[][] getNewSizeChart(List<StringDedupLogEntry> entries) {
@@ -23,7 +23,7 @@ import lombok.Setter;
 @Getter
 public class StringDedupLogEntry {
     @Setter(AccessLevel.PACKAGE)
-    private BigDecimal timeStamp;
+    private long timeStamp;
     private boolean initialized;
     private long lastCount;
     private long lastCountNew;
@@ -27,7 +27,7 @@ public class StringDedupLogFile {
 
     private Stage stage = Stage.UNKNOWN;
 
-    void newEntry(BigDecimal timestamp) {
+    void newEntry(long timestamp) {
         if (lastEntry.isInitialized()) {
             entries.add(lastEntry);
             lastEntry = new StringDedupLogEntry();
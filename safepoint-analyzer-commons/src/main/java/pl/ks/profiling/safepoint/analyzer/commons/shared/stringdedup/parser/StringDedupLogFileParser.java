@@ -16,16 +16,21 @@
 package pl.ks.profiling.safepoint.analyzer.commons.shared.stringdedup.parser;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.function.BiConsumer;
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.Consumer3;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParseCursor;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 
-public class StringDedupLogFileParser implements FileParser<StringDedupLogFile> {
+public class StringDedupLogFileParser implements UnifiedLogParser<StringDedupLogFile> {
     private final StringDedupLogFile logFile = new StringDedupLogFile();
+    private LineHeader header;
 
     private final TokenParser[] parsers = new TokenParser[]{
-            new SimpleTokenParser("Concurrent String Deduplication", StringDedupLogFileParser::markDeduplicationStarted),
+            new SimpleTokenParser("Concurrent String Deduplication", this::markDeduplicationStarted),
             new SimpleTokenParser("Last Exec", StringDedupLogFileParser::markLastExecSection),
             new SimpleTokenParser("Total Exec", StringDedupLogFileParser::markTotalExecOccurredSection),
             new SizeCountParser("Deduplicated", StringDedupLogFile::deduplicated),
@@ -34,8 +39,8 @@ public class StringDedupLogFileParser implements FileParser<StringDedupLogFile>
             new SizeCountParser("New", StringDedupLogFile::newStrings, SizeCountParser.SIZE_MARKERS_WITHOUT_PARENTHESIS)
     };
 
-    private static void markDeduplicationStarted(StringDedupLogFile logFile, String line) {
-        logFile.newEntry(ParserUtils.getTimeStamp(line));
+    private void markDeduplicationStarted(StringDedupLogFile logFile, String line) {
+        logFile.newEntry(ParserUtils.getUptimeNanos(header, line));
     }
 
     private static void markLastExecSection(StringDedupLogFile logFile, String line) {
@@ -47,11 +52,17 @@ public class StringDedupLogFileParser implements FileParser<StringDedupLogFile>
     }
 
     @Override
-    public void parseLine(String line) {
-        if (!isStringDeduplicationLine(line)) {
+    public boolean isInterestedIn(LogTags tags) {
+        return tags.hasAll("gc", "stringdedup");
+    }
+
+    @Override
+    public void parseLine(String line, LineHeader header) {
+        if (!header.hasTags(line, "gc", "stringdedup")) {
             return;
         }
 
+        this.header = header;
         useFirstAccepting(line, parsers);
     }
 
@@ -69,10 +80,6 @@ public class StringDedupLogFileParser implements FileParser<StringDedupLogFile>
         }
     }
 
-    private boolean isStringDeduplicationLine(String line) {
-        return line.contains("gc,stringdedup");
-    }
-
     static abstract class TokenParser {
         protected String token;
 
@@ -105,6 +112,7 @@ public class StringDedupLogFileParser implements FileParser<StringDedupLogFile>
         private final String megaMarker;
         private final String gigaMarker;
         private final Consumer3<StringDedupLogFile, Long, BigDecimal> applyFunction;
+        private final ParseCursor cursor = new ParseCursor();
         private final static boolean SIZE_MARKERS_WITHOUT_PARENTHESIS = false;
         public final static boolean SIZE_MARKERS_WITH_PARENTHESIS = true;
 
@@ -129,32 +137,30 @@ public class StringDedupLogFileParser implements FileParser<StringDedupLogFile>
         }
 
         public void apply(StringDedupLogFile logFile, String line) {
-            int tokenPosition = line.indexOf(token);
-            long count = ParserUtils.parseFirstNumber(line, tokenPosition);
-            int percentPos = getPercentPos(line, tokenPosition);
-            BigDecimal sizeKb = getSizeInKiloBytes(line, percentPos);
+            cursor.reset(line);
+            cursor.seek(token);
+            long count = cursor.readLong();
+            cursor.seek("%)");
+            int percentPos = cursor.getPosition();
+            BigDecimal sizeKb = getSizeInKiloBytes(percentPos);
             applyFunction.apply(logFile, count, sizeKb);
         }
 
-        private int getPercentPos(String line, int tokenPosition) {
-            return line.indexOf("%)", tokenPosition);
-        }
-
-        private BigDecimal getSizeInKiloBytes(String line, int percentPos) {
-            BigDecimal size = ParserUtils.parseFirstBigDecimal(line, percentPos);
-            if (containsMarker(line, percentPos, bytesMarker)) {
+        private BigDecimal getSizeInKiloBytes(int percentPos) {
+            BigDecimal size = cursor.readDecimal().setScale(2, RoundingMode.HALF_DOWN);
+            if (containsMarker(percentPos, bytesMarker)) {
                 return UnitsConverter.bytesToKiloBytes(size);
-            } else if (containsMarker(line, percentPos, megaMarker)) {
+            } else if (containsMarker(percentPos, megaMarker)) {
                 return UnitsConverter.megabytesToKiloBytes(size);
-            } else if (containsMarker(line, percentPos, gigaMarker)) {
+            } else if (containsMarker(percentPos, gigaMarker)) {
                 return UnitsConverter.gigabytesToKiloBytes(size);
             } else {
                 return size;
             }
         }
 
-        private boolean containsMarker(String line, int percentPos, String marker) {
-            return line.indexOf(marker, percentPos) >= 0;
+        private boolean containsMarker(int percentPos, String marker) {
+            return cursor.indexOf(marker, percentPos) >= 0;
         }
     }
 
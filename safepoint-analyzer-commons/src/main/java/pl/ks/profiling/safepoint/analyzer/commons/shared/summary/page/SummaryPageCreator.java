@@ -2,6 +2,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.summary.page;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.gui.commons.PageContent;
 import pl.ks.profiling.gui.commons.Table;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -12,6 +13,7 @@ import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.LogsFile;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -21,15 +23,17 @@ public class SummaryPageCreator implements PageCreator {
 
     @Override
     public Page create(JvmLogFile jvmLogFile, DecimalFormat decimalFormat) {
+        List<PageContent> pageContents = new ArrayList<>();
+        pageContents.add(summaryTable(jvmLogFile));
+        pageContents.add(filesTable(jvmLogFile));
+        if (jvmLogFile.getGcLogFile() != null) {
+            pageContents.add(heapSumary(jvmLogFile));
+        }
         return Page.builder()
                 .menuName("Summary")
                 .fullName("Summary")
                 .icon(Page.Icon.STATS)
-                .pageContents(List.of(
-                        summaryTable(jvmLogFile),
-                        filesTable(jvmLogFile),
-                        heapSumary(jvmLogFile)
-                ))
+                .pageContents(pageContents)
                 .build();
     }
 
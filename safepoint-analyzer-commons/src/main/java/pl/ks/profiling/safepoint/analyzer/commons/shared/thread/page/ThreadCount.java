@@ -17,6 +17,7 @@ package pl.ks.profiling.safepoint.analyzer.commons.shared.thread.page;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -59,7 +60,7 @@ public class ThreadCount implements PageCreator {
             "Time",
             "Count");
     private static final List<Function<ThreadsStatus, Object>> currentChartExtractors = List.of(
-            ThreadsStatus::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             ThreadsStatus::getCurrentCount);
 
     private static Object[][] getCurrentCountChart(List<ThreadsStatus> entries) {
@@ -70,7 +71,7 @@ public class ThreadCount implements PageCreator {
             "Time",
             "Created");
     private static final List<Function<ThreadsStatus, Object>> createdChartExtractors = List.of(
-            ThreadsStatus::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             ThreadsStatus::getCreatedCount);
 
     private static Object[][] getCreatedChart(List<ThreadsStatus> entries) {
@@ -15,47 +15,57 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import lombok.Getter;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.CumulativeCounters;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 
 @Getter
 public class ThreadLogFile {
-    private List<ThreadsStatus> threadsStatuses = new ArrayList<>();
-    private ThreadsStatus lastStatus = null;
-
-    void newThreadAdded(BigDecimal timeStamp) {
-        if (lastStatus == null) {
-            lastStatus = ThreadsStatus.builder()
-                    .createdCount(1)
-                    .destroyedCount(0)
-                    .timeStamp(timeStamp)
-                    .build();
-        } else {
-            lastStatus = ThreadsStatus.builder()
-                    .createdCount(lastStatus.getCreatedCount() + 1)
-                    .destroyedCount(lastStatus.getDestroyedCount())
-                    .timeStamp(timeStamp)
-                    .build();
-        }
-        threadsStatuses.add(lastStatus);
+    public static final long DEFAULT_RESOLUTION = 100 * Nanos.PER_MILLI;
+
+    private static final int CREATED = 0;
+    private static final int DESTROYED = 1;
+
+    private final CumulativeCounters threadCounters;
+    private final List<ThreadsStatus> threadsStatuses;
+
+    public ThreadLogFile() {
+        this(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution initial nanoseconds between thread count snapshots
+     */
+    public ThreadLogFile(long resolution) {
+        this(resolution, CumulativeCounters.DEFAULT_MAX_SNAPSHOTS);
+    }
+
+    ThreadLogFile(long resolution, int maxSnapshots) {
+        this.threadCounters = new CumulativeCounters(2, resolution, maxSnapshots);
+        this.threadsStatuses = threadCounters.asList(this::toStatus);
+    }
+
+    /**
+     * @return counts after the last thread event, null when there was none
+     */
+    public ThreadsStatus getLastStatus() {
+        return threadCounters.last(this::toStatus);
+    }
+
+    void newThreadAdded(long timeStamp) {
+        threadCounters.increment(timeStamp, CREATED);
+    }
+
+    void threadDestroyed(long timeStamp) {
+        threadCounters.increment(timeStamp, DESTROYED);
     }
 
-    void threadDestroyed(BigDecimal timeStamp) {
-        if (lastStatus == null) {
-            lastStatus = ThreadsStatus.builder()
-                    .createdCount(0)
-                    .destroyedCount(1)
-                    .timeStamp(timeStamp)
-                    .build();
-        } else {
-            lastStatus = ThreadsStatus.builder()
-                    .createdCount(lastStatus.getCreatedCount())
-                    .destroyedCount(lastStatus.getDestroyedCount() + 1)
-                    .timeStamp(timeStamp)
-                    .build();
-        }
-        threadsStatuses.add(lastStatus);
+    private ThreadsStatus toStatus(int snapshot) {
+        return ThreadsStatus.builder()
+                .createdCount(threadCounters.get(snapshot, CREATED))
+                .destroyedCount(threadCounters.get(snapshot, DESTROYED))
+                .timeStamp(threadCounters.getTimeStamp(snapshot))
+                .build();
     }
 }
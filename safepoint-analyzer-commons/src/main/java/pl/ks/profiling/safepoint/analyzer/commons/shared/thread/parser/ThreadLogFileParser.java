@@ -15,25 +15,40 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 
-public class ThreadLogFileParser implements FileParser<ThreadLogFile> {
-    private final ThreadLogFile threadLogFile = new ThreadLogFile();
+public class ThreadLogFileParser implements UnifiedLogParser<ThreadLogFile> {
+    private final ThreadLogFile threadLogFile;
 
     public ThreadLogFileParser() {
+        this(ThreadLogFile.DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution initial nanoseconds between thread count snapshots presented on charts
+     */
+    public ThreadLogFileParser(long resolution) {
+        this.threadLogFile = new ThreadLogFile(resolution);
+    }
+
+    @Override
+    public boolean isInterestedIn(LogTags tags) {
+        return tags.hasAll("os", "thread");
     }
 
     @Override
-    public void parseLine(String line) {
-        if (!line.contains("os,thread")) {
+    public void parseLine(String line, LineHeader header) {
+        if (!header.hasTags(line, "os", "thread")) {
             return;
         }
 
         if (line.contains("Thread started")) {
-            threadLogFile.newThreadAdded(ParserUtils.getTimeStamp(line));
+            threadLogFile.newThreadAdded(ParserUtils.getUptimeNanos(header, line));
         } else if (line.contains("Thread finished")) {
-            threadLogFile.threadDestroyed(ParserUtils.getTimeStamp(line));
+            threadLogFile.threadDestroyed(ParserUtils.getUptimeNanos(header, line));
         }
     }
 
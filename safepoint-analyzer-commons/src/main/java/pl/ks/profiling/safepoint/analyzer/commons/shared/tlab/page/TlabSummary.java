@@ -21,6 +21,7 @@ import java.util.function.Function;
 
 import pl.ks.profiling.gui.commons.Chart;
 import pl.ks.profiling.gui.commons.Page;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageCreator;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.PageUtils;
@@ -73,7 +74,7 @@ public class TlabSummary implements PageCreator {
             "Time",
             "Allocation threads");
     private static final List<Function<TlabSummaryInfo, Object>> allocatingThreadsChartExtractors = List.of(
-            TlabSummaryInfo::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             TlabSummaryInfo::getThreadCount);
 
     private static Object[][] getAllocatingThreadsChart(List<TlabSummaryInfo> entries) {
@@ -85,7 +86,7 @@ public class TlabSummary implements PageCreator {
             "Slow allocations",
             "One thread max slow allocations");
     private static final List<Function<TlabSummaryInfo, Object>> slowAllocationChartExtractors = List.of(
-            TlabSummaryInfo::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             TlabSummaryInfo::getSlowAllocs,
             TlabSummaryInfo::getMaxSlowAllocs);
 
@@ -98,7 +99,7 @@ public class TlabSummary implements PageCreator {
             "Refills",
             "One thread max refills");
     private static final List<Function<TlabSummaryInfo, Object>> refillsChartExtractors = List.of(
-            TlabSummaryInfo::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             TlabSummaryInfo::getRefills,
             TlabSummaryInfo::getMaxRefills);
 
@@ -110,7 +111,7 @@ public class TlabSummary implements PageCreator {
             "Time",
             "Waste %");
     private static final List<Function<TlabSummaryInfo, Object>> wasteChartExtractors = List.of(
-            TlabSummaryInfo::getTimeStamp,
+            entry -> Nanos.toSecondsDecimal(entry.getTimeStamp()),
             TlabSummaryInfo::getWastePercent);
 
     private static Object[][] getWasteChart(List<TlabSummaryInfo> entries) {
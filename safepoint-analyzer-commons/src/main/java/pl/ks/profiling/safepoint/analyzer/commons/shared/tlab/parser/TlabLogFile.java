@@ -58,7 +58,7 @@ public class TlabLogFile {
         threadTlabsBeforeGC.add(threadTlabBeforeGC);
     }
 
-    public void newSummary(BigDecimal timeStamp, long threadCount, long refills, long maxRefills, long slowAllocs, long maxSlowAllocs, BigDecimal wastePercent) {
+    public void newSummary(long timeStamp, long threadCount, long refills, long maxRefills, long slowAllocs, long maxSlowAllocs, BigDecimal wastePercent) {
         tlabSummaries.add(TlabSummaryInfo.builder()
                 .timeStamp(timeStamp)
                 .threadCount(threadCount)
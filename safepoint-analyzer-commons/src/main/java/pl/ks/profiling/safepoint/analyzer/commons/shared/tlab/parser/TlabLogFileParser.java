@@ -15,36 +15,46 @@
  */
 package pl.ks.profiling.safepoint.analyzer.commons.shared.tlab.parser;
 
-import pl.ks.profiling.safepoint.analyzer.commons.FileParser;
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeader;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LogTags;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.ParseCursor;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-public class TlabLogFileParser implements FileParser<TlabLogFile> {
+public class TlabLogFileParser implements UnifiedLogParser<TlabLogFile> {
     private final TlabLogFile tlabLogFile = new TlabLogFile();
     private final Map<String, String> lastThreadMap = new HashMap<>();
+    private final ParseCursor cursor = new ParseCursor();
     private final Comparator<ThreadTlabBeforeGC> MostFrequentSlowAllocsFirst = Comparator.comparingLong(ThreadTlabBeforeGC::getSlowAllocs).reversed();
 
     @Override
-    public void parseLine(String line) {
-        if (isTlabLine(line)) {
-            if (isThreadTlabLine(line)) {
+    public boolean isInterestedIn(LogTags tags) {
+        return tags.has("gc") && tags.hasAny("tlab", "start");
+    }
+
+    @Override
+    public void parseLine(String line, LineHeader header) {
+        if (isTlabLine(line, header)) {
+            if (isThreadTlabLine(line, header)) {
                 lastThreadMap.put(parseThreadId(line), line);
             } else if (isTlabSummaryLine(line)) {
-                parseTlabSummary(line);
+                parseTlabSummary(line, header);
             }
-        } else if (gcStarts(line) && !lastThreadMap.isEmpty()) {
+        } else if (gcStarts(line, header) && !lastThreadMap.isEmpty()) {
             logStatsForThreads();
         }
     }
 
-    private boolean isTlabLine(String line) {
-        return line.contains("gc,tlab");
+    private boolean isTlabLine(String line, LineHeader header) {
+        return header.hasTags(line, "gc", "tlab");
     }
 
     private void logStatsForThreads() {
@@ -52,14 +62,15 @@ public class TlabLogFileParser implements FileParser<TlabLogFile> {
         lastThreadMap.clear();
     }
 
-    private boolean gcStarts(String line) {
-        return line.contains("gc,start");
+    private boolean gcStarts(String line, LineHeader header) {
+        return header.hasTags(line, "gc", "start");
     }
 
     private String parseThreadId(String line) {
-        PositionalParser parser = new PositionalParser(line);
-        parser.moveAfter("TLAB");
-        return parser.readHexadecimalNumber("fill thread");
+        cursor.reset(line);
+        cursor.seek("TLAB");
+        cursor.seek("thread:");
+        return cursor.readHexToken();
     }
 
     private List<ThreadTlabBeforeGC> parseLinesForThreads(Map<String, String> lastThreadMap) {
@@ -71,11 +82,11 @@ public class TlabLogFileParser implements FileParser<TlabLogFile> {
     }
 
     private ThreadTlabBeforeGC parseThreadTlabStats(String threadId, String line) {
-        PositionalParser parser = new PositionalParser(line);
-        parser.moveAfter("TLAB:");
-        long nid = parser.readNumericValue("id:");
-        long size = parser.readNumericValue("desired_size:");
-        long slowAllocs = parser.readNumericValue("slow allocs:");
+        cursor.reset(line);
+        cursor.seek("TLAB:");
+        long nid = cursor.readLong("id:");
+        long size = cursor.readLong("desired_size:");
+        long slowAllocs = cursor.readLong("slow allocs:");
         return ThreadTlabBeforeGC.builder()
                 .tid(threadId)
                 .nid(nid)
@@ -84,17 +95,17 @@ public class TlabLogFileParser implements FileParser<TlabLogFile> {
                 .build();
     }
 
-    private void parseTlabSummary(String line) {
-        BigDecimal timeStamp = ParserUtils.getTimeStamp(line);
+    private void parseTlabSummary(String line, LineHeader header) {
+        long timeStamp = ParserUtils.getUptimeNanos(header, line);
 
-        PositionalParser parser = new PositionalParser(line);
-        parser.moveAfter("TLAB totals:");
-        long threadCount = parser.readNumericValue("thrds:");
-        long refills = parser.readNumericValue("refills:");
-        long maxRefills = parser.readNumericValue("max:");
-        long slowAllocs = parser.readNumericValue("slow allocs:");
-        long maxSlowAllocs = parser.readNumericValue("max");
-        BigDecimal wastePercent = parser.readPercentValue("waste:");
+        cursor.reset(line);
+        cursor.seek("TLAB totals:");
+        long threadCount = cursor.readLong("thrds:");
+        long refills = cursor.readLong("refills:");
+        long maxRefills = cursor.readLong("max:");
+        long slowAllocs = cursor.readLong("slow allocs:");
+        long maxSlowAllocs = cursor.readLong("max");
+        BigDecimal wastePercent = cursor.readDecimal("waste:").setScale(2, RoundingMode.HALF_DOWN);
 
         tlabLogFile.newSummary(timeStamp, threadCount, refills, maxRefills, slowAllocs, maxSlowAllocs, wastePercent);
     }
@@ -104,9 +115,9 @@ public class TlabLogFileParser implements FileParser<TlabLogFile> {
         return line.contains("TLAB totals");
     }
 
-    private boolean isThreadTlabLine(String line) {
+    private boolean isThreadTlabLine(String line, LineHeader header) {
         // src/hotspot/share/gc/shared/threadLocalAllocBuffer.cpp:283
-        return line.contains("trace") && (line.contains("TLAB: fill thread") || line.contains("TLAB: gc thread"));
+        return header.isLevel(LineHeader.Level.TRACE) && (line.contains("TLAB: fill thread") || line.contains("TLAB: gc thread"));
     }
 
     @Override
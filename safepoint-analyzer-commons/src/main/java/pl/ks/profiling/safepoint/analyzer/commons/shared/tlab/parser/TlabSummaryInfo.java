@@ -22,7 +22,7 @@ import lombok.Value;
 @Value
 @Builder
 public class TlabSummaryInfo {
-    BigDecimal timeStamp;
+    long timeStamp;
     long threadCount;
     long refills;
     long maxRefills;
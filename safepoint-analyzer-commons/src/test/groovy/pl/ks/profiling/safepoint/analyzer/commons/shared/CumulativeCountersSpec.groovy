@@ -0,0 +1,71 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+class CumulativeCountersSpec extends Specification {
+    def "should keep one snapshot per bucket with the state after its last event"() {
+        given:
+        CumulativeCounters counters = new CumulativeCounters(2, 100)
+
+        when:
+        (0..<1000).each { counters.increment(it, it % 2) }
+        counters.increment(5_000, 1)
+
+        then:
+        counters.size() == 11
+        counters.getTimeStamp(0) == 99
+        counters.get(0, 0) == 50
+        counters.get(0, 1) == 50
+        counters.getTimeStamp(9) == 999
+        counters.get(9, 0) == 500
+        counters.getTimeStamp(10) == 5_000
+        counters.get(10, 1) == 501
+        counters.getCurrent(0) == 500
+        counters.getCurrent(1) == 501
+    }
+
+    def "should merge snapshots into wider buckets when there are too many"() {
+        given:
+        CumulativeCounters counters = new CumulativeCounters(1, 10, 100)
+
+        when:
+        (0..<100_000).each { counters.increment(it, 0) }
+
+        then:
+        counters.size() < 100
+        counters.size() > 25
+        counters.resolution == 10 * 128
+        counters.getTimeStamp(0) == counters.resolution - 1
+        counters.get(0, 0) == counters.resolution
+        counters.getTimeStamp(counters.size() - 1) == 99_999
+        counters.get(counters.size() - 1, 0) == 100_000
+        (1..<counters.size()).every { counters.get(it, 0) - counters.get(it - 1, 0) == counters.resolution || it == counters.size() - 1 }
+    }
+
+    def "should view snapshots and the last one through a function of the snapshot index"() {
+        given:
+        CumulativeCounters counters = new CumulativeCounters(1, 100)
+        List<Long> values = counters.asList { int snapshot -> counters.get(snapshot, 0) }
+
+        expect:
+        values.isEmpty()
+        counters.last { int snapshot -> snapshot } == null
+
+        when:
+        (0..<250).each { counters.increment(it, 0) }
+        values.get(3)
+
+        then:
+        values == [100L, 200L, 250L]
+        counters.last { int snapshot -> counters.getTimeStamp(snapshot) } == 249
+        thrown(IndexOutOfBoundsException)
+    }
+
+    def "should reject non positive resolution"() {
+        when:
+        new CumulativeCounters(1, 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
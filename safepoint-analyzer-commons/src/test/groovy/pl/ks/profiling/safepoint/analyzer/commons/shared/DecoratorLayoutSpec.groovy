@@ -0,0 +1,61 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import pl.ks.profiling.safepoint.analyzer.commons.shared.DecoratorLayout.Decorator
+import spock.lang.Specification
+
+class DecoratorLayoutSpec extends Specification {
+    def "should classify decorators"() {
+        expect:
+        DecoratorLayout.of(line).decorators == decorators
+
+        where:
+        line                                                                                    || decorators
+        "[2020-12-21T01:04:47.091+0000][1778483.410s][debug][gc,ergo  ] GC(1)"                  || [Decorator.TIME, Decorator.UPTIME, Decorator.LEVEL, Decorator.TAGS]
+        "[2020-12-21T01:04:47.091+0100][2020-12-21T00:04:47.091+0000][1.410s] GC(1)"            || [Decorator.TIME, Decorator.UTCTIME, Decorator.UPTIME]
+        "[2020-12-21T00:04:47.091+0000][2020-12-21T00:04:47.091+0000][info][gc] GC(1)"          || [Decorator.TIME, Decorator.UTCTIME, Decorator.LEVEL, Decorator.TAGS]
+        "[1608512687091ms][1410ms][1608512687091123456ns][1410123456ns][gc] GC(1)"              || [Decorator.TIMEMILLIS, Decorator.UPTIMEMILLIS, Decorator.TIMENANOS, Decorator.UPTIMENANOS, Decorator.TAGS]
+        "[host][2956][2957][info][safepoint] Safepoint"                                         || [Decorator.HOSTNAME, Decorator.PID, Decorator.TID, Decorator.LEVEL, Decorator.TAGS]
+        "[1608512687091123456ns][info][gc] GC(1)"                                               || [Decorator.TIMENANOS, Decorator.LEVEL, Decorator.TAGS]
+        "[1410123456ns][info][gc] GC(1)"                                                        || [Decorator.UPTIMENANOS, Decorator.LEVEL, Decorator.TAGS]
+        "[1.410s][info][gc][extra] GC(1)"                                                       || [Decorator.UPTIME, Decorator.LEVEL, Decorator.TAGS]
+        "2020-09-30T15:16:11.010+0200: 12.345: [GC pause"                                       || []
+    }
+
+    def "should sniff layout followed by most of lines"() {
+        given:
+        List<String> lines = [
+                "[2020-12-21T01:04:47.091+0000][1410123456ns][info][gc] GC(1) Pause Young",
+                "    continuation without decorators",
+                "[2020-12-21T01:04:47.092+0000][1411123456ns][debug][gc,heap] GC(1) Eden regions: 1->0(2)",
+                "[1.411s][info][gc] other JVM",
+        ]
+
+        when:
+        DecoratorLayout layout = DecoratorLayout.sniff(lines)
+
+        then:
+        layout.decorators == [Decorator.TIME, Decorator.UPTIMENANOS, Decorator.LEVEL, Decorator.TAGS]
+        DecoratorLayout.sniff(["no decorators"]) == null
+    }
+
+    def "should decode by position and fall back for other lines"() {
+        given:
+        DecoratorLayout layout = DecoratorLayout.of("[2020-12-21T01:04:47.091+0000][1410123456ns][info][gc] GC(1)")
+
+        when:
+        LineHeader header = layout.decode(line, new LogTags.Table())
+
+        then:
+        header.uptimeNanos == uptimeNanos
+        header.level == level
+        header.tags?.name == tags
+        line.substring(header.messageStart) == message
+
+        where:
+        line                                                                              || uptimeNanos    | level                  | tags        | message
+        "[2020-12-21T01:04:47.092+0000][1411123456ns][warning][gc,heap  ] Eden: 1->0(2)" || 1_411_123_456L | LineHeader.Level.WARNING | "gc,heap" | "Eden: 1->0(2)"
+        "[1.411s][info][safepoint] Safepoint"                                            || 1_411_000_000L | LineHeader.Level.INFO  | "safepoint" | "Safepoint"
+        "[2020-12-21T01:04:47.092+0000][1411123456ns][info][gc][extra] GC(1)"            || 1_411_123_456L | LineHeader.Level.INFO  | "gc"        | "[extra] GC(1)"
+        "   continuation"                                                                 || -1L            | null                   | null        | "   continuation"
+    }
+}
@@ -0,0 +1,129 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import pl.ks.profiling.io.source.StreamLineReader
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+class LineHeaderSpec extends Specification {
+    def "should decode decorators"() {
+        when:
+        LineHeader header = LineHeader.decode(line)
+
+        then:
+        header.uptimeNanos == uptimeNanos
+        header.level == level
+        header.tags?.name == tags
+        line.substring(header.messageStart) == message
+
+        where:
+        line                                                                                         || uptimeNanos             | level                   | tags        | message
+        "[2020-12-21T01:04:47.091+0000][1778483.410s][debug][gc,ergo              ] GC(597760) Init" || 1_778_483_410_000_000L  | LineHeader.Level.DEBUG  | "gc,ergo"   | "GC(597760) Init"
+        "[2020-09-30T15:16:11.010+0200][485804.308s][2956][trace][gc,tlab ] TLAB: fill thread"      || 485_804_308_000_000L    | LineHeader.Level.TRACE  | "gc,tlab"   | "TLAB: fill thread"
+        "[1778483,430s][info ][gc,start] GC(1) Pause Young"                                          || 1_778_483_430_000_000L  | LineHeader.Level.INFO   | "gc,start"  | "GC(1) Pause Young"
+        "[0.087s][safepoint] Safepoint"                                                              || 87_000_000L             | null                    | "safepoint" | "Safepoint"
+        "[2020-09-30T15:16:11.010+0200][87123456ns][info][gc] GC(1) Pause"                           || 87_123_456L             | LineHeader.Level.INFO   | "gc"        | "GC(1) Pause"
+        "[1601471771010ms][87ms][12][34][info][gc] GC(1) Pause"                                      || 87_000_000L             | LineHeader.Level.INFO   | "gc"        | "GC(1) Pause"
+        "[1601471771010ms][info][gc] GC(1) Pause"                                                    || -1L                     | LineHeader.Level.INFO   | "gc"        | "GC(1) Pause"
+        "2020-09-30T15:16:11.010+0200: 12.345: [GC pause (G1 Evacuation Pause)"                      || -1L                     | null                    | null        | "2020-09-30T15:16:11.010+0200: 12.345: [GC pause (G1 Evacuation Pause)"
+        ""                                                                                           || -1L                     | null                    | null        | ""
+    }
+
+    def "should reuse layout of previous line routed on its own only when line follows it"() {
+        given:
+        RecordingParser parser = new RecordingParser(tag: "gc")
+        LineRouter router = new LineRouter([parser])
+
+        when:
+        [
+                "[1.000s][info][gc] first",
+                "[2.000s][debug][gc,heap] same layout",
+                "[3000ms][gc] other layout",
+                "not decorated",
+                "[4.000s][info][gc] first layout again",
+        ].each { router.route(it) }
+
+        then:
+        parser.headers*.uptimeNanos == [1_000_000_000L, 2_000_000_000L, 3_000_000_000L, -1L, 4_000_000_000L]
+        parser.headers*.level == [LineHeader.Level.INFO, LineHeader.Level.DEBUG, null, null, LineHeader.Level.INFO]
+        parser.headers*.tags*.name == ["gc", "gc,heap", "gc", null, "gc"]
+        parser.messages == ["first", "same layout", "other layout", "not decorated", "first layout again"]
+    }
+
+    def "should intern tag sets"() {
+        given:
+        LogTags.Table table = new LogTags.Table()
+
+        when:
+        List<LogTags> tags = (1..200).collect { LineHeader.decode("[1.000s][info][gc,tag${it % 100}   ] message", table).tags }
+
+        then:
+        table.size() == 100
+        tags[0].is(tags[100])
+        tags[0].name == "gc,tag1"
+        tags[0].hasAll("gc", "tag1")
+        !tags[0].has("tag")
+    }
+
+    def "should route lines to interested parsers only"() {
+        given:
+        RecordingParser gc = new RecordingParser(tag: "gc")
+        RecordingParser safepoint = new RecordingParser(tag: "safepoint")
+        LineRouter router = new LineRouter([gc, safepoint])
+
+        when:
+        router.route("[1.000s][info][gc,start] GC(1) Pause")
+        router.route("[2.000s][info][safepoint] Safepoint")
+        router.route("[3.000s][info][os,thread] Thread started")
+        router.route("4.000: no tags")
+
+        then:
+        gc.lines == ["[1.000s][info][gc,start] GC(1) Pause", "4.000: no tags"]
+        safepoint.lines == ["[2.000s][info][safepoint] Safepoint", "4.000: no tags"]
+        gc.timeStamps == [1_000_000_000L, -1L]
+    }
+
+    def "should slice messages after non-ASCII decorators alike inside and after the sniffed sample"() {
+        given:
+        List<String> lines = (0..<200).collect { "[${it}.000s][węzeł-ż][info][gc] GC(${it}) Pause".toString() }
+        byte[] bytes = lines.collect { it + "\n" }.join().getBytes(StandardCharsets.UTF_8)
+        StreamLineReader reader = new StreamLineReader([new ByteArrayInputStream(bytes)])
+        RecordingParser gc = new RecordingParser(tag: "gc")
+
+        when:
+        new LineRouter([gc]).withCloseable { router -> router.routeAll { reader.readLine() } }
+
+        then:
+        bytes.length > DecoratorLayout.SAMPLE_CHARS
+        gc.lines == lines
+        gc.messages == (0..<200).collect { "GC(${it}) Pause".toString() }
+        gc.timeStamps[150] == 150_000_000_000L
+    }
+
+    static class RecordingParser implements UnifiedLogParser<List<String>> {
+        String tag
+        List<String> lines = []
+        List<String> messages = []
+        List<Long> timeStamps = []
+        List<LineHeader> headers = []
+
+        @Override
+        boolean isInterestedIn(LogTags tags) {
+            return tags.has(tag)
+        }
+
+        @Override
+        void parseLine(String line, LineHeader header) {
+            lines << line
+            messages << line.substring(header.messageStart)
+            timeStamps << header.uptimeNanos
+            headers << header
+        }
+
+        @Override
+        List<String> fetchData() {
+            return lines
+        }
+    }
+}
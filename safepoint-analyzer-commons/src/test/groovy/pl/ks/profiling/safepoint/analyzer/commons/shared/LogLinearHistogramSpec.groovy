@@ -0,0 +1,64 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+class LogLinearHistogramSpec extends Specification {
+    def "should keep values within relative error of a sub-bucket"() {
+        expect:
+        LogLinearHistogram.lowestValue(LogLinearHistogram.index(value)) <= value
+        LogLinearHistogram.highestValue(LogLinearHistogram.index(value)) >= value
+        LogLinearHistogram.highestValue(LogLinearHistogram.index(value)) - LogLinearHistogram.lowestValue(LogLinearHistogram.index(value)) <= value / LogLinearHistogram.SUB_BUCKETS
+
+        where:
+        value << [0, 1, 63, 64, 127, 128, 1000, 1048576, 1048577, 33554432 - 1, Long.MAX_VALUE]
+    }
+
+    def "should read exact count, total and extremes and approximate percentiles"() {
+        given:
+        LogLinearHistogram histogram = new LogLinearHistogram()
+
+        when:
+        (1..1000).each { histogram.record(it * 1024L) }
+
+        then:
+        histogram.count == 1000
+        histogram.total == 1024L * 500 * 1001
+        histogram.min == 1024
+        histogram.max == 1024000
+        histogram.getValueAtPercentile(100) == 1024000
+        Math.abs(histogram.getValueAtPercentile(50) - 500 * 1024) <= 500 * 1024 / LogLinearHistogram.SUB_BUCKETS
+        Math.abs(histogram.getValueAtPercentile(99) - 990 * 1024) <= 990 * 1024 / LogLinearHistogram.SUB_BUCKETS
+    }
+
+    def "should merge histograms with different ranges"() {
+        given:
+        LogLinearHistogram small = new LogLinearHistogram()
+        LogLinearHistogram large = new LogLinearHistogram()
+        LogLinearHistogram merged = new LogLinearHistogram()
+        (1..10).each { small.record(it) }
+        (1..10).each { large.record(it * 1_000_000L) }
+
+        when:
+        merged.merge(large)
+        merged.merge(small)
+        merged.merge(new LogLinearHistogram())
+
+        then:
+        merged.count == 20
+        merged.min == 1
+        merged.max == 10_000_000
+        merged.getValueAtPercentile(50) == 10
+        merged.getValueAtPercentile(55) > 900_000
+    }
+
+    def "should be empty without values"() {
+        given:
+        LogLinearHistogram histogram = new LogLinearHistogram()
+
+        expect:
+        histogram.empty
+        histogram.min == 0
+        histogram.getValueAtPercentile(50) == 0
+        histogram.average == 0
+    }
+}
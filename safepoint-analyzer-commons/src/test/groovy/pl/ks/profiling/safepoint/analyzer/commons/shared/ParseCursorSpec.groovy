@@ -0,0 +1,77 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import spock.lang.Specification
+
+class ParseCursorSpec extends Specification {
+    def "should read numbers after markers"() {
+        given:
+        ParseCursor cursor = new ParseCursor("TLAB totals: thrds: 86  refills: 2701 max: 265 waste:  1,2% gc: 0x7fad")
+
+        expect:
+        cursor.readLong("thrds:") == 86
+        cursor.readLong("max:") == 265
+        cursor.readDecimal("waste:") == 1.2G
+        cursor.readDecimal().scale() == 0
+        cursor.readHexToken() == null
+    }
+
+    def "should keep position when marker is missing"() {
+        given:
+        ParseCursor cursor = new ParseCursor("a: 1, b: 2")
+        cursor.seek("a:")
+
+        when:
+        boolean found = cursor.seek("c:")
+
+        then:
+        !found
+        cursor.readLong() == 1
+    }
+
+    def "should seek last marker and read trimmed text"() {
+        given:
+        ParseCursor cursor = new ParseCursor("[info][gc,heap] GC(3) Eden regions: 12->0(150)")
+
+        when:
+        cursor.seekLast(") ")
+        String name = cursor.readUntil(':')
+        cursor.seekLast("->")
+
+        then:
+        name == "Eden regions"
+        cursor.readLong() == 0
+        cursor.readLong() == 150
+    }
+
+    def "should find numbers followed by unit"() {
+        given:
+        ParseCursor cursor = new ParseCursor("GC(7) Pause Young (G1 Evacuation Pause) 24M->4M(256M) 3,456ms")
+
+        expect:
+        cursor.seekNumberFollowedBy("M")
+        cursor.readLong() == 24
+        cursor.seekNumberFollowedBy("ms")
+        cursor.readDecimal() == 3.456G
+        !cursor.seekNumberFollowedBy("ms")
+    }
+
+    def "should read fixed-point nanoseconds"() {
+        expect:
+        new ParseCursor(text).readFixed(scale) == nanos
+
+        where:
+        text                || scale                | nanos
+        "[1778483.410s]"    || Nanos.SECONDS_SCALE  | 1_778_483_410_000_000L
+        "[1778483,430s]"    || Nanos.SECONDS_SCALE  | 1_778_483_430_000_000L
+        "Total: 5.972932511" || Nanos.SECONDS_SCALE | 5_972_932_511L
+        "Other: 0.4ms"      || Nanos.MILLIS_SCALE   | 400_000L
+        "Other: 0.0000015ms" || Nanos.MILLIS_SCALE  | 2L
+        "Other: 12ms"       || Nanos.MILLIS_SCALE   | 12_000_000L
+        "skipped"           || Nanos.MILLIS_SCALE   | 0L
+    }
+
+    def "should read hexadecimal token"() {
+        expect:
+        new ParseCursor("TLAB: gc thread: 0x00007fae20097800 [id: 13908]").readHexToken() == "0x00007fae20097800"
+    }
+}
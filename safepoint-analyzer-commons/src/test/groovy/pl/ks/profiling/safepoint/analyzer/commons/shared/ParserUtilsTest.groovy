@@ -24,4 +24,16 @@ class ParserUtilsTest extends Specification {
         then:
         timeStamp == 1778483.430G
     }
+
+    def "should get uptime from line decorated with uptime in other units"() {
+        expect:
+        ParserUtils.getUptimeNanos(line) == uptimeNanos
+
+        where:
+        line                                                                       || uptimeNanos
+        "[2020-12-21T01:04:47.091+0000][1778483410123456ns][info][gc] GC(1) Pause" || 1_778_483_410_123_456L
+        "[1778483410ms][info][gc] GC(1) Pause"                                     || 1_778_483_410_000_000L
+        "[2020-12-21T01:04:47.091+0000][info][gc] GC(1) Pause [1.5s]"              || 0L
+        "2020-09-30T15:16:11.010+0200: 12,345: [GC pause (G1 Evacuation Pause)"    || 12_345_000_000L
+    }
 }
@@ -0,0 +1,56 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import pl.ks.profiling.safepoint.analyzer.commons.UnifiedLogParser
+import spock.lang.Specification
+
+class PipelinedLineRouterSpec extends Specification {
+    private static final int LINES = PipelinedLineRouter.BATCH_SIZE * PipelinedLineRouter.QUEUE_CAPACITY * 3 + 7
+
+    def "should deliver the same lines in the same order as sequential router"() {
+        given:
+        List<String> lines = (0..<LINES).collect { "[${it}.000s][info][${it % 3 == 0 ? 'gc,start' : 'safepoint'}] line ${it}".toString() }
+        LineHeaderSpec.RecordingParser sequentialGc = new LineHeaderSpec.RecordingParser(tag: "gc")
+        LineHeaderSpec.RecordingParser sequentialSafepoint = new LineHeaderSpec.RecordingParser(tag: "safepoint")
+        LineHeaderSpec.RecordingParser pipelinedGc = new LineHeaderSpec.RecordingParser(tag: "gc")
+        LineHeaderSpec.RecordingParser pipelinedSafepoint = new LineHeaderSpec.RecordingParser(tag: "safepoint")
+
+        when:
+        new LineRouter([sequentialGc, sequentialSafepoint]).withCloseable { router -> lines.each { router.route(it) } }
+        new PipelinedLineRouter([pipelinedGc, pipelinedSafepoint]).withCloseable { router -> lines.each { router.route(it) } }
+
+        then:
+        pipelinedGc.lines.size() == (LINES + 2).intdiv(3)
+        pipelinedGc.lines == sequentialGc.lines
+        pipelinedGc.timeStamps == sequentialGc.timeStamps
+        pipelinedSafepoint.lines == sequentialSafepoint.lines
+    }
+
+    def "should report failure of a parser and not block reading"() {
+        given:
+        UnifiedLogParser<Void> failing = new UnifiedLogParser<Void>() {
+            @Override
+            boolean isInterestedIn(LogTags tags) {
+                return true
+            }
+
+            @Override
+            void parseLine(String line, LineHeader header) {
+                throw new IllegalArgumentException("broken line")
+            }
+
+            @Override
+            Void fetchData() {
+                return null
+            }
+        }
+        PipelinedLineRouter router = new PipelinedLineRouter([failing])
+
+        when:
+        (0..<LINES).each { router.route("[1.000s][info][gc] line") }
+        router.close()
+
+        then:
+        IllegalStateException e = thrown()
+        e.cause instanceof IllegalArgumentException
+    }
+}
@@ -0,0 +1,48 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import java.nio.charset.StandardCharsets
+import pl.ks.profiling.io.source.InputStreamLogsSource
+import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile
+import spock.lang.Specification
+
+class SubsystemSpec extends Specification {
+    def "should parse requested subsystems"() {
+        expect:
+        Subsystem.parse(names) == expected as Set
+
+        where:
+        names              || expected
+        null               || Subsystem.values()
+        " "                || Subsystem.values()
+        "gc"               || [Subsystem.GC]
+        "GC, safepoint,"   || [Subsystem.GC, Subsystem.SAFEPOINT]
+    }
+
+    def "should reject unknown subsystem"() {
+        when:
+        Subsystem.parse("gc,heap")
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message.contains("heap")
+        e.message.contains(Subsystem.names())
+    }
+
+    def "should run only parsers and pages of requested subsystems"() {
+        given:
+        String logs = '''[2020-09-30T15:16:11.010+0200][1.234s][info][safepoint] Safepoint "G1CollectForAllocation", Time since last: 5972932511 ns, Reaching safepoint: 108298 ns, Cleanup: 83917 ns, At safepoint: 113194973 ns, Total: 113387188 ns
+[2020-09-30T15:16:11.010+0200][1.235s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 24M->4M(256M) 113.148ms
+'''
+        InputStreamLogsSource logsSource = new InputStreamLogsSource("test.log", new ByteArrayInputStream(logs.getBytes(StandardCharsets.UTF_8)))
+
+        when:
+        JvmLogFile jvmLogFile = new StatsService().createAllStatsUnifiedLogger(logsSource, EnumSet.of(Subsystem.SAFEPOINT), {}, {})
+
+        then:
+        jvmLogFile.safepointLogFile.safepoints.size() == 1
+        jvmLogFile.gcLogFile == null
+        jvmLogFile.threadLogFile == null
+        jvmLogFile.pages*.menuName.every { !it.toLowerCase().contains("gc") }
+        jvmLogFile.pages.size() > 1
+    }
+}
@@ -0,0 +1,51 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared
+
+import pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser.GCUnifiedLogFileParser
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class TokenMatcherSpec extends Specification {
+    TokenMatcher matcher = TokenMatcher.of("he", "she", "his", "hers", "GC(")
+
+    @Unroll
+    def "should find tokens #expected in '#line'"() {
+        expect:
+        matcher.match(line) == matcher.mask(expected)
+
+        where:
+        line                 | expected
+        ""                   | []
+        "ushers"             | ["he", "she", "hers"]
+        "this"               | ["his"]
+        "hé"                 | []
+        "[gc] GC(12) Pause"  | ["GC("]
+        "GC"                 | []
+    }
+
+    def "should reject unknown tokens"() {
+        when:
+        matcher.mask(["her"])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    @Unroll
+    def "should extract GC id from '#line'"() {
+        expect:
+        GCUnifiedLogFileParser.getSequenceId(line) == id
+
+        where:
+        line                                                    | id
+        "[0.1s][info][gc] GC(0) Pause Young (Normal) 3M->1M(8M) 1.2ms" | 0
+        "[0.1s][info][gc,heap] (abc) GC(1234) Eden regions: 1->0(2)"   | 1234
+    }
+
+    def "should fail when line has no GC id"() {
+        when:
+        GCUnifiedLogFileParser.getSequenceId("[0.1s][info][gc] Using G1")
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
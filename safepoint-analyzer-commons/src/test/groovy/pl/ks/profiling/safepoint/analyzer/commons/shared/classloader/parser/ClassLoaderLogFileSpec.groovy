@@ -0,0 +1,30 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.classloader.parser
+
+import spock.lang.Specification
+
+class ClassLoaderLogFileSpec extends Specification {
+    def "should keep exact last status and merged snapshots of class counts"() {
+        given:
+        ClassLoaderLogFile classLoaderLogFile = new ClassLoaderLogFile(10, 4)
+
+        when:
+        (0..<80).each { classLoaderLogFile.newClassLoaded(it) }
+        classLoaderLogFile.classUnloaded(95)
+
+        then:
+        classLoaderLogFile.classCounters.resolution == 40
+        classLoaderLogFile.classStatuses.collect { [it.timeStamp, it.loadedCount, it.unloadedCount] } ==
+                [[39L, 40L, 0L], [79L, 80L, 0L], [95L, 80L, 1L]]
+        with(classLoaderLogFile.lastStatus) {
+            timeStamp == 95
+            loadedCount == 80
+            unloadedCount == 1
+        }
+    }
+
+    def "should have no status without class events"() {
+        expect:
+        new ClassLoaderLogFile().lastStatus == null
+        new ClassLoaderLogFile().classStatuses.isEmpty()
+    }
+}
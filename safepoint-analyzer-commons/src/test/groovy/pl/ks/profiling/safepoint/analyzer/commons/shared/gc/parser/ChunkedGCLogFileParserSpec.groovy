@@ -0,0 +1,147 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser
+
+import pl.ks.profiling.io.source.LogChunk
+import pl.ks.profiling.io.source.MappedLogFile
+import pl.ks.profiling.safepoint.analyzer.commons.shared.LineHeaderSpec
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Path
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+class ChunkedGCLogFileParserSpec extends Specification {
+    @TempDir
+    Path directory
+
+    def "should parse the same cycles as sequential parser regardless of chunk boundaries"() {
+        given:
+        List<String> lines = gcLog(40)
+        File file = directory.resolve("gc.log").toFile()
+        file.text = lines.join("\n") + "\n"
+        GCUnifiedLogFileParser sequentialParser = new GCUnifiedLogFileParser()
+        lines.each { sequentialParser.parseLine(it) }
+        GCLogFile sequential = sequentialParser.fetchData()
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism)
+
+        when:
+        List<LogChunk> chunks = MappedLogFile.split(file, 1, chunkSize)
+        GCLogFile chunked = new ChunkedGCLogFileParser(chunks, [], executor, parallelism).parse()
+
+        then:
+        chunks.size() > 1
+        sequential.cycleEntries.size() == 40
+        chunked.cycleEntries.collect { describe(chunked.cycleTable, it) } == sequential.cycleEntries.collect { describe(sequential.cycleTable, it) }
+        chunked.concurrentCycleEntries.collect { [it.sequenceId, it.time, it.mixedCollectionsAfterConcurrent, it.remarkReclaimed] } ==
+                sequential.concurrentCycleEntries.collect { [it.sequenceId, it.time, it.mixedCollectionsAfterConcurrent, it.remarkReclaimed] }
+        chunked.concurrentCycleEntries.any { it.mixedCollectionsAfterConcurrent > 0 }
+
+        cleanup:
+        executor.shutdown()
+
+        where:
+        chunkSize | parallelism
+        97        | 3
+        1024      | 3
+        4096      | 3
+        97        | 1
+    }
+
+    def "should route lines of chunks to other parsers in order in the same pass"() {
+        given:
+        List<String> lines = []
+        gcLog(20).eachWithIndex { String line, int index ->
+            lines << line
+            if (index % 3 == 0) {
+                lines << "[${2000 + index}.000s][info ][safepoint     ] Safepoint \"G1CollectForAllocation\", Total: ${index} ns"
+            }
+        }
+        File file = directory.resolve("gc.log").toFile()
+        file.text = lines.join("\n") + "\n"
+        ExecutorService executor = Executors.newFixedThreadPool(3)
+        def safepoints = new LineHeaderSpec.RecordingParser(tag: "safepoint")
+        def ages = new LineHeaderSpec.RecordingParser(tag: "age")
+        List<Long> merged = []
+
+        when:
+        List<LogChunk> chunks = MappedLogFile.split(file, 1, 97)
+        ChunkedGCLogFileParser parser = new ChunkedGCLogFileParser(chunks, [safepoints, ages], executor, 3)
+        GCLogFile gcLogFile = parser.parse { chunk, numberOfLines -> merged << numberOfLines }
+
+        then:
+        gcLogFile.cycleEntries.size() == 20
+        safepoints.lines == lines.findAll { it.contains("[safepoint") }
+        safepoints.timeStamps == lines.findAll { it.contains("[safepoint") }.collect { Long.parseLong(it.substring(1, 5)) * 1_000_000_000L }
+        ages.lines == lines.findAll { it.contains("[gc,age") }
+        parser.numberOfLines == lines.size()
+        merged.size() == chunks.size()
+        merged == merged.sort(false)
+        merged.last() == lines.size()
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "should merge a cycle split at a chunk edge by its GC id"() {
+        given:
+        GCEventBuffer first = new GCEventBuffer()
+        first.newConcurrentCycle(1000L, 5_000_000L)
+        first.newPhase(7L, "Pause Young (Mixed) (G1 Evacuation Pause)", 1_000_000_000L)
+        first.addRegionCount(7L, "Eden", 10, 0, 12)
+        GCEventBuffer second = new GCEventBuffer()
+        second.addRegionSizes(7L, 100, 1)
+        second.addSizesAndTime(7L, 150, 50, 200, 3_000_000L)
+        GCLogFile gcLogFile = new GCLogFile()
+
+        when:
+        first.applyTo(gcLogFile)
+        second.applyTo(gcLogFile)
+        gcLogFile.parsingCompleted()
+
+        then:
+        first.size() == 3
+        second.size() == 2
+        gcLogFile.cycleEntries.size() == 1
+        with(gcLogFile.cycleEntries[0]) {
+            sequenceId == 7
+            timeStamp == 1_000_000_000L
+            heapBeforeGCMb == 150
+            heapAfterGCMb == 50
+            time == 3_000_000L
+            getRegionBeforeGC(gcLogFile.cycleTable.getRegionId("Eden")) == 10
+            getRegionSizeAfterGC(gcLogFile.cycleTable.getRegionId("Eden")) == 100
+        }
+        gcLogFile.concurrentCycleEntries[0].mixedCollectionsAfterConcurrent == 1
+    }
+
+    private static List<String> describe(GCCycleTable table, GCLogCycleEntry entry) {
+        Map<String, List<Integer>> regions = table.regionNames.sort(false).collectEntries { String name ->
+            int regionId = table.getRegionId(name)
+            [(name): [entry.getRegionBeforeGC(regionId), entry.getRegionAfterGC(regionId), entry.getRegionSizeAfterGC(regionId)]]
+        }
+        return [entry.sequenceId, entry.phase, entry.timeStamp, entry.heapBeforeGCMb, entry.heapAfterGCMb, entry.time,
+                entry.subPhasesTime, regions, entry.bytesInAges, entry.desiredSurvivorSize, entry.liveHumongous]*.toString()
+    }
+
+    private static List<String> gcLog(int cycles) {
+        List<String> lines = []
+        for (int id = 0; id < cycles; id++) {
+            String prefix = "[${1000 + id}.${id % 10}00s][info ][gc,start       ] GC($id) "
+            String type = id % 10 == 3 ? "Pause Remark" : (id % 10 > 5 ? "Pause Young (Mixed) (G1 Evacuation Pause)" : "Pause Young (Normal) (G1 Evacuation Pause)")
+            lines << prefix + type
+            lines << "[${1000 + id}.100s][debug][gc,age         ] GC($id) Desired survivor size ${1024 * id} bytes, new threshold 15 (max threshold 15)"
+            lines << "[${1000 + id}.100s][trace][gc,age         ] GC($id) - age   1:      ${100 + id} bytes,      ${100 + id} total"
+            lines << "[${1000 + id}.100s][debug][gc,humongous   ] GC($id) Live humongous region 20 object size ${2000 + id} start 0x00000006c2800000  with remset 1 code roots 0 is marked 0 reclaim candidate 0 type array 1"
+            lines << "[${1000 + id}.100s][info ][gc,phases      ] GC($id)   Pre Evacuate Collection Set: 0.${id}ms"
+            lines << "[${1000 + id}.100s][info ][gc,heap        ] GC($id) Eden regions: ${10 + id}->0(${12 + id})"
+            lines << "[${1000 + id}.100s][trace][gc,heap        ] GC($id)  Used: ${id}K, Waste: 0K"
+            lines << "[${1000 + id}.100s][info ][gc,heap        ] GC($id) Old regions: ${20 + id}->${21 + id}"
+            lines << "[${1000 + id}.100s][trace][gc,heap        ] GC($id)  Used: ${id * 2}K, Waste: 1K"
+            if (id % 10 == 1) {
+                lines << "[${1000 + id}.200s][info ][gc             ] GC(${id + 1000}) Concurrent Cycle ${id}.5ms"
+            }
+            lines << "[${1000 + id}.300s][info ][gc             ] GC($id) ${type} ${100 + id}M->${50 + id}M(200M) ${id}.345ms"
+        }
+        return lines
+    }
+}
@@ -0,0 +1,116 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser
+
+import spock.lang.Specification
+
+class GCCycleTableSpec extends Specification {
+    def "should keep cycles as rows viewed like entries"() {
+        given:
+        GCLogFile gcLogFile = new GCLogFile()
+
+        when:
+        (0..<200).each { id ->
+            String phase = id % 2 == 0 ? "Pause Young (Normal) (G1 Evacuation Pause)" : "Pause Young (Mixed) (G1 Evacuation Pause)"
+            gcLogFile.newPhase(id, phase, id * 1_000_000L)
+            gcLogFile.addSubPhaseTime(id, "Pre Evacuate Collection Set", id)
+            gcLogFile.addRegionCount(id, GCLogCycleEntry.REGIONS_EDEN, 10 + id, 0, id % 2 == 0 ? GCCycleTable.UNKNOWN : 12)
+            gcLogFile.addRegionSizes(id, id, 0)
+            if (id == 150) {
+                gcLogFile.addRegionCount(id, "Archive regions", 2, 2, GCCycleTable.UNKNOWN)
+                gcLogFile.addLiveHumongous(id, 2048L)
+                gcLogFile.addAgeWithSize(id, 3, 300)
+                gcLogFile.toSpaceExhausted(id)
+            }
+            gcLogFile.addSizesAndTime(id, 100, 50, 200, id * 10L)
+        }
+        GCCycleTable table = gcLogFile.cycleTable
+
+        then:
+        table.size() == 200
+        gcLogFile.cycleEntries.size() == 200
+        table.getRegionNames().size() == 5
+        int eden = table.getRegionId(GCLogCycleEntry.REGIONS_EDEN)
+        int archive = table.getRegionId("Archive regions")
+        table.getRegionId("Unknown regions") == -1
+        table.regionIdsBeforeGC == [archive, eden]
+        table.regionIdsMax == [archive, eden]
+        table.regionIdsSizeAfterGC == [eden]
+
+        GCLogCycleEntry young = gcLogFile.cycleEntries[0]
+        young.aggregatedPhase == GCLogCycleEntry.YOUNG_COLLECTION
+        young.cause == "G1 Evacuation Pause"
+        young.genuineCollection
+        young.getRegionBeforeGC(eden) == 10
+        young.getRegionBeforeGC(archive) == null
+        young.getRegionMax(eden) == null
+        young.hasRegionsBeforeGC()
+        young.bytesInAges.isEmpty()
+        young.liveHumongous.empty
+        !young.wasToSpaceExhausted
+
+        GCLogCycleEntry mixed = gcLogFile.cycleEntries[151]
+        mixed.aggregatedPhase == GCLogCycleEntry.MIXED_COLLECTION
+        mixed.getRegionMax(eden) == 12
+        mixed.time == 1510
+
+        GCLogCycleEntry special = gcLogFile.cycleEntries[150]
+        special.sequenceId == 150
+        special.timeStamp == 150_000_000L
+        special.subPhasesTime == ["Pre Evacuate Collection Set": 150L]
+        special.getRegionBeforeGC(eden) == 160
+        special.getRegionBeforeGC(archive) == 2
+        special.getRegionSizeAfterGC(eden) == 150
+        special.getRegionSizeAfterGC(archive) == null
+        special.getRegionWastedAfterGC(eden) == 0
+        special.hasRegionsSizeAfterGC()
+        special.liveHumongous.count == 1
+        special.liveHumongous.max == 2048
+        special.bytesInAges == [3: 300L]
+        special.maxAge == 3
+        special.wasToSpaceExhausted
+        special.heapBeforeGCMb == 100
+        special.heapAfterGCMb == 50
+        special.heapSizeMb == 200
+    }
+
+    def "should keep sub-phases under their parents"() {
+        given:
+        GCLogFile gcLogFile = new GCLogFile()
+        String nested = SubPhaseDictionary.NESTED_PREFIX
+
+        when:
+        gcLogFile.newPhase(1, "Pause Young (Normal) (G1 Evacuation Pause)", 0)
+        gcLogFile.addSubPhaseTime(1, "Pre Evacuate Collection Set", 100)
+        gcLogFile.addSubPhaseTime(1, nested + "Prepare TLABs", 10)
+        gcLogFile.addSubPhaseTime(1, "Post Evacuate Collection Set", 200)
+        gcLogFile.addSizesAndTime(1, 100, 50, 200, 1000)
+        gcLogFile.newPhase(2, "Pause Young (Normal) (G1 Evacuation Pause)", 1)
+        gcLogFile.addSubPhaseTime(2, "Pre Evacuate Collection Set", 300)
+        gcLogFile.addSubPhaseTime(2, nested + "Choose Collection Set", 0)
+        gcLogFile.addSizesAndTime(2, 100, 50, 200, 1000)
+        SubPhaseDictionary subPhases = gcLogFile.cycleTable.subPhases
+
+        then:
+        subPhases.size() == 4
+        subPhases.getParent(1) == 0
+        subPhases.getParent(3) == 0
+        subPhases.getDepth(3) == 1
+        subPhases.hierarchyOrder().collect { subPhases.getName(it) } ==
+                ["Pre Evacuate Collection Set", nested + "Prepare TLABs", nested + "Choose Collection Set", "Post Evacuate Collection Set"]
+        gcLogFile.cycleEntries[1].subPhasesTime == ["Pre Evacuate Collection Set": 300L, (nested + "Choose Collection Set"): 0L]
+        gcLogFile.cycleTable.getSubPhaseCount(0) == 2
+        gcLogFile.cycleTable.getSubPhaseCount(2) == 1
+        gcLogFile.cycleTable.getSubPhaseTime(1, 2) == -1
+    }
+
+    def "should encode each distinct phase once"() {
+        given:
+        GCCycleTable table = new GCCycleTable()
+
+        expect:
+        table.phaseId("Pause Remark") == table.phaseId("Pause Remark")
+        table.phaseId("Pause Remark") != table.phaseId("Pause Cleanup")
+        table.isRemark(table.phaseId("Pause Remark"))
+        table.isMixed(table.phaseId("Pause Young (Mixed) (G1 Evacuation Pause)"))
+        !table.isMixed(table.phaseId("Pause Young (Normal) (G1 Evacuation Pause)"))
+    }
+}
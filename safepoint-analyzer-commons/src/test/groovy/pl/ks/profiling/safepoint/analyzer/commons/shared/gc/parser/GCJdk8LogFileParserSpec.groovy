@@ -0,0 +1,98 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.gc.parser
+
+import spock.lang.Specification
+
+class GCJdk8LogFileParserSpec extends Specification {
+    def "should parse parallel gc lines"() {
+        given:
+        GCJdk8LogFileParser parser = new GCJdk8LogFileParser()
+
+        when:
+        parser.parseLine(line)
+        parser.endCycle()
+
+        then:
+        GCLogCycleEntry entry = parser.fetchData().cycleEntries.head()
+        entry.phase == phase
+        entry.timeStamp == 1_234_000_000L
+        entry.heapBeforeGCMb == before
+        entry.heapAfterGCMb == after
+        entry.heapSizeMb == heapSize
+        entry.time == time
+
+        where:
+        line                                                                                                                                                                                                                         || phase                 | before | after | heapSize | time
+        "2020-09-30T15:16:11.010+0200: 1.234: [GC (Allocation Failure) [PSYoungGen: 65536K->10720K(76288K)] 65536K->10800K(251392K), 0.0123456 secs] [Times: user=0.04 sys=0.01, real=0.01 secs]"                                   || "Pause Young (mixed)" | 64     | 10    | 245      | 12_345_600L
+        "2020-09-30T15:16:11.010+0200: 1.234: [Full GC (Ergonomics) [PSYoungGen: 10720K->0K(76288K)] [ParOldGen: 170000K->120000K(175104K)] 180720K->120000K(251392K), [Metaspace: 20000K->20000K(1067008K)], 0.3456789 secs]"       || "Pause Full"          | 176    | 117   | 245      | 345_678_900L
+        "2020-09-30T15:16:11.010+0200: 1.234: [GC (Metadata GC Threshold) [PSYoungGen: 1048575K->10720K(1048576K)] 1048575K->10800K(2097152K), 0,0100000 secs]"                                                                    || "Minor GC"            | 1024   | 10    | 2048     | 10_000_000L
+        "2020-09-30T15:16:11.010+0200: 1.234: [GC remark 2020-09-30T15:16:11.011+0200: 1.235: [Finalize Marking, 0.0001234 secs] 2020-09-30T15:16:11.012+0200: 1.236: [GC ref-proc, 0.0002345 secs], 0.0123456 secs]"             || "Pause Remark"        | 0      | 0     | 0        | 12_345_600L
+    }
+
+    def "should parse multi-line g1 entry"() {
+        given:
+        GCJdk8LogFileParser parser = new GCJdk8LogFileParser()
+
+        when:
+        [
+                "2020-09-30T15:16:15.010+0200: 5.234: [GC pause (G1 Evacuation Pause) (young)",
+                "Desired survivor size 1048576 bytes, new threshold 15 (max 15)",
+                "- age   1:     123456 bytes,     123456 total",
+                ", 0.0165161 secs]",
+                "   [Parallel Time: 14.5 ms, GC Workers: 8]",
+                "      [GC Worker Start (ms): Min: 5234.1, Avg: 5234.2, Max: 5234.3, Diff: 0.2]",
+                "      [Object Copy (ms): Min: 10.1, Avg: 11.2, Max: 12.0, Diff: 1.9, Sum: 89.6]",
+                "   [Clear CT: 0.3 ms]",
+                "   [Eden: 24.0M(24.0M)->0.0B(23.0M) Survivors: 0.0B->1024.0K Heap: 24.0M(256.0M)->4096.0K(256.0M)]",
+                "2020-09-30T15:16:16.010+0200: 6.234: [GC cleanup 100M->90M(256M), 0.0012345 secs]"
+        ].each { parser.parseLine(it) }
+        parser.endCycle()
+
+        then:
+        List<GCLogCycleEntry> entries = parser.fetchData().cycleEntries
+        entries.size() == 2
+        with(entries[0]) {
+            phase == "(G1 Evacuation Pause) (young)"
+            time == 16_516_100L
+            heapBeforeGCMb == 24
+            heapAfterGCMb == 4
+            heapSizeMb == 256
+            subPhasesTime == ["Parallel Time": 14_500_000L, "|______Object Copy (ms)": 12_000_000L, "Clear CT": 300_000L]
+            bytesInAges == [1: 123_456L]
+            desiredSurvivorSize == 1_048_576L
+        }
+        with(entries[1]) {
+            phase == "Pause Cleanup"
+            time == 1_234_500L
+            heapBeforeGCMb == 100
+            heapAfterGCMb == 90
+        }
+    }
+
+    def "should recognize date stamps with offset and UTC zones"() {
+        expect:
+        GCJdk8LineScanner.startsWithDateStamp(line) == dateStamp
+
+        where:
+        line                                                           || dateStamp
+        "2020-09-30T15:16:11.010+0200: 1.234: [GC pause (G1 Evacuation" || true
+        "2020-09-30T15:16:11.010-0500: 1.234: [GC pause (G1 Evacuation" || true
+        "2020-09-30T15:16:11.010Z: 1.234: [GC pause (G1 Evacuation"     || true
+        "2020-09-30T15:16:11.010Z0200: 1.234: [GC pause"                || false
+        "2020-09-30T15:16:11.010+02: 1.234: [GC pause"                  || false
+        "   [Eden: 24.0M(24.0M)->0.0B(13.0M) Survivors: 0.0B->3072.0K"  || false
+    }
+
+    def "should convert jdk 8 sizes to megabytes"() {
+        expect:
+        GCJdk8LineScanner.toMb(thousandths, unit as char) == mb
+
+        where:
+        thousandths      | unit || mb
+        1_024_000L       | "K"  || 1
+        1_048_575_000L   | "K"  || 1024
+        4_096_000L       | "K"  || 4
+        24_000L          | "M"  || 24
+        2_500L           | "G"  || 2560
+        1_048_576_000L   | "B"  || 1
+    }
+}
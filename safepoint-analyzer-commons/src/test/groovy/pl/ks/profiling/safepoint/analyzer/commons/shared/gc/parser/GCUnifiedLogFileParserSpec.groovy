@@ -193,62 +193,63 @@ class GCUnifiedLogFileParserSpec extends Specification {
             parser.parseLine(it)
         }
         GCLogCycleEntry gcEntry = parser.fetchData().cycleEntries.head()
+        GCCycleTable table = parser.fetchData().cycleTable
 
         then:
-        gcEntry.timeStamp == 1778483.410G
+        gcEntry.timeStamp == 1_778_483_410_000_000L
         gcEntry.sequenceId == 597760
         gcEntry.phase == "Pause Young (Concurrent Start) (G1 Humongous Allocation)"
         gcEntry.aggregatedPhase == "Young collection - piggybacks"
         gcEntry.heapBeforeGCMb == 1338
         gcEntry.heapAfterGCMb == 1324
         gcEntry.heapSizeMb == 5120
-        gcEntry.timeMs == 6.363
-        phaseTimeMax(gcEntry, PRE_EVACUATE) == 0.4G
-        subphaseTimeMax(gcEntry, PRE_PREPARE_TLABS) == 0.0G
-        subphaseTimeMax(gcEntry, PRE_CHOOSE_COLLECTION_SET) == 0.0G
-        subphaseTimeMax(gcEntry, PRE_HUMONGOUS_REGISTER) == 0.2G
-        subphaseTimeMax(gcEntry, PRE_CLEAR_CLAIMED_MARKS) == 0.3G
-        phaseTimeMax(gcEntry, EVACUATE) == 2.3G
-        subphaseTimeMax(gcEntry, EVACUATE_EXT_ROOT_SCANNING) == 1.2G
-        subphaseTimeMax(gcEntry, EVACUATE_UPDATE_RS) == 1.1G
-        subphaseTimeMax(gcEntry, EVACUATE_SCAN_RS) == 0.2G
-        subphaseTimeMax(gcEntry, EVACUATE_CODE_ROOT_SCANNING) == 0.0G
-        subphaseTimeMax(gcEntry, EVACUATE_AOT_ROOT_SCANNING) == 0.0G
-        subphaseTimeMax(gcEntry, EVACUATE_OBJECT_COPY) == 0.4G
-        subphaseTimeMax(gcEntry, EVACUATE_TERMINATION) == 0.2G
-        subphaseTimeMax(gcEntry, EVACUATE_GC_WORKER_OTHER) == 0.0G
-        subphaseTimeMax(gcEntry, EVACUATE_GC_WORKER_TOTAL) == 2.2G
-        phaseTimeMax(gcEntry, POST_EVACUATE) == 1.9G
-        subphaseTimeMax(gcEntry, POST_CODE_ROOTS_FIXUP) == 0.0G
-        subphaseTimeMax(gcEntry, POST_CLEAR_CARD_TABLE) == 0.4G
-        subphaseTimeMax(gcEntry, POST_REFERENCE_PROCESSING) == 0.1G
-        subphaseTimeMax(gcEntry, POST_WEAK_PROCESSING) == 0.1G
-        subphaseTimeMax(gcEntry, POST_MERGE_PER_THREAD_STATE) == 0.0G
-        subphaseTimeMax(gcEntry, POST_CODE_ROOTS_PURGE) == 0.0G
-        subphaseTimeMax(gcEntry, POST_REDIRTY_CARDS) == 0.0G
-        subphaseTimeMax(gcEntry, POST_DERIVED_POINTER_TABLE_UPDATE) == 0.0G
-        subphaseTimeMax(gcEntry, POST_FREE_COLLECTION_SET) == 0.4G
-        subphaseTimeMax(gcEntry, POST_HUMONGOUS_RECLAIM) == 0.9G
-        subphaseTimeMax(gcEntry, POST_START_NEW_COLLECTION_SET) == 0.0G
-        subphaseTimeMax(gcEntry, POST_RESIZE_TLABS) == 0.0G
-        subphaseTimeMax(gcEntry, POST_EXPAND_HEAP) == 0.0G
-        phaseTimeMax(gcEntry, PHASE_OTHER) == 1.0G
-        gcEntry.regionsBeforeGC[REGIONS_EDEN] == 7
-        gcEntry.regionsBeforeGC[REGIONS_SURVIVOR] == 1
-        gcEntry.regionsBeforeGC[REGIONS_OLD] == 526
-        gcEntry.regionsBeforeGC[REGIONS_HUMONGOUS] == 137
-        gcEntry.regionsAfterGC[REGIONS_EDEN] == 0
-        gcEntry.regionsAfterGC[REGIONS_SURVIVOR] == 1
-        gcEntry.regionsAfterGC[REGIONS_OLD] == 526
-        gcEntry.regionsAfterGC[REGIONS_HUMONGOUS] == 136
-        gcEntry.regionsMax[REGIONS_EDEN] == 1473
-        gcEntry.regionsMax[REGIONS_SURVIVOR] == 184
-        gcEntry.regionsMax[REGIONS_OLD] == null
-        gcEntry.regionsMax[REGIONS_HUMONGOUS] == null
-        gcEntry.regionsSizeAfterGC == Collections.emptyMap()
-        gcEntry.regionsWastedAfterGC == Collections.emptyMap()
-        gcEntry.liveHumongousSizes.size() == 87
-        gcEntry.deadHumongousSizes.size() == 1
+        gcEntry.time == 6_363_000L
+        phaseTimeMax(gcEntry, PRE_EVACUATE) == 400_000L
+        subphaseTimeMax(gcEntry, PRE_PREPARE_TLABS) == 0L
+        subphaseTimeMax(gcEntry, PRE_CHOOSE_COLLECTION_SET) == 0L
+        subphaseTimeMax(gcEntry, PRE_HUMONGOUS_REGISTER) == 200_000L
+        subphaseTimeMax(gcEntry, PRE_CLEAR_CLAIMED_MARKS) == 300_000L
+        phaseTimeMax(gcEntry, EVACUATE) == 2_300_000L
+        subphaseTimeMax(gcEntry, EVACUATE_EXT_ROOT_SCANNING) == 1_200_000L
+        subphaseTimeMax(gcEntry, EVACUATE_UPDATE_RS) == 1_100_000L
+        subphaseTimeMax(gcEntry, EVACUATE_SCAN_RS) == 200_000L
+        subphaseTimeMax(gcEntry, EVACUATE_CODE_ROOT_SCANNING) == 0L
+        subphaseTimeMax(gcEntry, EVACUATE_AOT_ROOT_SCANNING) == 0L
+        subphaseTimeMax(gcEntry, EVACUATE_OBJECT_COPY) == 400_000L
+        subphaseTimeMax(gcEntry, EVACUATE_TERMINATION) == 200_000L
+        subphaseTimeMax(gcEntry, EVACUATE_GC_WORKER_OTHER) == 0L
+        subphaseTimeMax(gcEntry, EVACUATE_GC_WORKER_TOTAL) == 2_200_000L
+        phaseTimeMax(gcEntry, POST_EVACUATE) == 1_900_000L
+        subphaseTimeMax(gcEntry, POST_CODE_ROOTS_FIXUP) == 0L
+        subphaseTimeMax(gcEntry, POST_CLEAR_CARD_TABLE) == 400_000L
+        subphaseTimeMax(gcEntry, POST_REFERENCE_PROCESSING) == 100_000L
+        subphaseTimeMax(gcEntry, POST_WEAK_PROCESSING) == 100_000L
+        subphaseTimeMax(gcEntry, POST_MERGE_PER_THREAD_STATE) == 0L
+        subphaseTimeMax(gcEntry, POST_CODE_ROOTS_PURGE) == 0L
+        subphaseTimeMax(gcEntry, POST_REDIRTY_CARDS) == 0L
+        subphaseTimeMax(gcEntry, POST_DERIVED_POINTER_TABLE_UPDATE) == 0L
+        subphaseTimeMax(gcEntry, POST_FREE_COLLECTION_SET) == 400_000L
+        subphaseTimeMax(gcEntry, POST_HUMONGOUS_RECLAIM) == 900_000L
+        subphaseTimeMax(gcEntry, POST_START_NEW_COLLECTION_SET) == 0L
+        subphaseTimeMax(gcEntry, POST_RESIZE_TLABS) == 0L
+        subphaseTimeMax(gcEntry, POST_EXPAND_HEAP) == 0L
+        phaseTimeMax(gcEntry, PHASE_OTHER) == 1_000_000L
+        gcEntry.getRegionBeforeGC(table.getRegionId(REGIONS_EDEN)) == 7
+        gcEntry.getRegionBeforeGC(table.getRegionId(REGIONS_SURVIVOR)) == 1
+        gcEntry.getRegionBeforeGC(table.getRegionId(REGIONS_OLD)) == 526
+        gcEntry.getRegionBeforeGC(table.getRegionId(REGIONS_HUMONGOUS)) == 137
+        gcEntry.getRegionAfterGC(table.getRegionId(REGIONS_EDEN)) == 0
+        gcEntry.getRegionAfterGC(table.getRegionId(REGIONS_SURVIVOR)) == 1
+        gcEntry.getRegionAfterGC(table.getRegionId(REGIONS_OLD)) == 526
+        gcEntry.getRegionAfterGC(table.getRegionId(REGIONS_HUMONGOUS)) == 136
+        gcEntry.getRegionMax(table.getRegionId(REGIONS_EDEN)) == 1473
+        gcEntry.getRegionMax(table.getRegionId(REGIONS_SURVIVOR)) == 184
+        gcEntry.getRegionMax(table.getRegionId(REGIONS_OLD)) == null
+        gcEntry.getRegionMax(table.getRegionId(REGIONS_HUMONGOUS)) == null
+        !gcEntry.hasRegionsSizeAfterGC()
+        !gcEntry.hasRegionsWastedAfterGC()
+        gcEntry.liveHumongous.count == 87
+        gcEntry.deadHumongous.count == 1
         !gcEntry.genuineCollection
         gcEntry.bytesInAges[1] == 94368
         gcEntry.bytesInAges[2] == 688
@@ -0,0 +1,35 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.jit.parser
+
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Nanos
+import spock.lang.Specification
+
+class JitLogFileSpec extends Specification {
+    def "should count compilations per tier in time buckets"() {
+        given:
+        JitLogFile jitLogFile = new JitLogFile(Nanos.PER_SECOND)
+
+        when:
+        (0..<10_000).each { jitLogFile.newCompilation(it * Nanos.PER_MILLI, it % 5) }
+        jitLogFile.compilationMadeNodEntrant(10 * Nanos.PER_SECOND, 4)
+        jitLogFile.compilationMadeNodEntrant(10 * Nanos.PER_SECOND, 0)
+
+        then:
+        jitLogFile.compilationStatuses.size() == 11
+        jitLogFile.compilationStatuses[0].timeStamp == 999 * Nanos.PER_MILLI
+        jitLogFile.compilationStatuses[0].currentCount == 1000
+        jitLogFile.compilationStatuses[0].tier4CurrentCount == 200
+
+        CompilationStatus last = jitLogFile.lastStatus
+        last == jitLogFile.compilationStatuses[10]
+        last.loadedCount == 10_000
+        last.unloadedCount == 2
+        last.tier1LoadedCount == 2000
+        last.tier4CurrentCount == 1999
+        last.tier3UnloadedCount == 0
+    }
+
+    def "should have no status without compilations"() {
+        expect:
+        new JitLogFile().lastStatus == null
+    }
+}
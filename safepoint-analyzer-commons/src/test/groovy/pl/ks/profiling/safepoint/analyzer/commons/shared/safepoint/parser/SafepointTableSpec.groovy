@@ -0,0 +1,42 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.safepoint.parser
+
+import spock.lang.Specification
+
+class SafepointTableSpec extends Specification {
+    def "should keep completed safepoints as rows with shared operation names"() {
+        given:
+        SafepointLogFile safepointLogFile = new SafepointLogFile()
+
+        when:
+        (0..<300).each { id ->
+            safepointLogFile.newSafepoint(id * 1_000L, id)
+            if (id % 3 != 2) {
+                safepointLogFile.addOperationName(id % 3 == 0 ? "RevokeBias" : "Deoptimize")
+            }
+            safepointLogFile.addTimeToSafepointAndStoppedTime(1_000_000, 4_000_000 + id)
+        }
+        safepointLogFile.newSafepoint(300_000L)
+        safepointLogFile.parsingCompleted()
+        SafepointTable table = safepointLogFile.safepointTable
+
+        then:
+        table.size() == 300
+        table.operationCount == 2
+        table.getOperationId(2) == SafepointTable.NO_OPERATION
+        table.getOperationTime(4) == 3_000_004
+        safepointLogFile.safepoints.size() == 300
+
+        SafepointLogEntry entry = safepointLogFile.safepoints[3]
+        entry.sequenceId == 3
+        entry.timeStamp == 3_000
+        entry.operationName == "RevokeBias"
+        entry.applicationTime == 3
+        entry.ttsTime == 1_000_000
+        entry.stoppedTime == 4_000_003
+        safepointLogFile.safepoints[2].operationName == null
+
+        safepointLogFile.safepointOperationStats.totalCount == 300
+        safepointLogFile.safepointOperationStats.statsByNames.collectEntries { [(it.operationName): it.count] } ==
+                ["RevokeBias": 100, "Deoptimize": 100, (null): 100]
+    }
+}
@@ -13,12 +13,12 @@ class SafepointUnifiedLogFileParserTest extends Specification {
         then:
         SafepointLogEntry entry = parser.fetchData().safepoints.head()
 
-        entry.timeStamp == 0.087
+        entry.timeStamp == 87_000_000L
         entry.sequenceId == 0
         entry.operationName == "ChangeBreakpoints"
-        entry.applicationTime == 0.018420792G
-        entry.ttsTime == 0.000021958G
-        entry.stoppedTime == 0.000107250
+        entry.applicationTime == 18_420_792L
+        entry.ttsTime == 21_958L
+        entry.stoppedTime == 107_250L
         entry.completed
     }
 
@@ -31,12 +31,45 @@ class SafepointUnifiedLogFileParserTest extends Specification {
 
         then:
         SafepointLogEntry entry = parser.fetchData().safepoints.head()
-        entry.timeStamp == 5086.354G
+        entry.timeStamp == 5_086_354_000_000L
         entry.sequenceId == 0
         entry.operationName == "G1CollectForAllocation"
-        entry.applicationTime == 5.972932511G
-        entry.ttsTime == 0.000108298G
-        entry.stoppedTime == 0.113387188G
+        entry.applicationTime == 5_972_932_511L
+        entry.ttsTime == 108_298L
+        entry.stoppedTime == 113_387_188L
         entry.completed
     }
+
+    def "should decode one-line safepoints without keeping separate copies of operation names"() {
+        given:
+        SafepointOneLineDecoder decoder = new SafepointOneLineDecoder()
+        String first = "Safepoint \"Cleanup\", Time since last: 1000 ns, Reaching safepoint: 20 ns, At safepoint: 30 ns, Total: 50 ns"
+        String second = "Safepoint \"Cleanup\", Time since last: 2000 ns, Reaching safepoint: 21 ns, At safepoint: 31 ns, Total: 52 ns"
+
+        when:
+        decoder.decode(first, 0)
+        String name = decoder.operationName
+
+        then:
+        decoder.decode(second, 0)
+        decoder.operationName.is(name)
+        decoder.timeSinceLast == 2000
+        decoder.reachingSafepoint == 21
+        decoder.total == 52
+    }
+
+    def "should skip lines not in one-line safepoint format"() {
+        expect:
+        !new SafepointOneLineDecoder().decode(line, 0)
+
+        where:
+        line << [
+                "Application time: 0.1234 seconds",
+                "Entering safepoint region: G1CollectForAllocation",
+                "Safepoint \"Cleanup\", Time since last: 1000 ns",
+                "Safepoint \"Cleanup\", Time since last: 1000 ns, At safepoint: 30 ns, Total: 50 ns",
+                "Safepoint \"Cleanup",
+                ""
+        ]
+    }
 }
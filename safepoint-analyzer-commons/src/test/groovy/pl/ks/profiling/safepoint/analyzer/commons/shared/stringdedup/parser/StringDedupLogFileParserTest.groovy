@@ -64,7 +64,7 @@ class StringDedupLogFileParserTest extends Specification {
         StringDedupLogEntry parsedStats = parse(deduplicationLogs).head()
 
         then:
-        parsedStats.timeStamp == 2689.530
+        parsedStats.timeStamp == 2_689_530_000_000L
         parsedStats.initialized
         parsedStats.lastCountNew == 188
         parsedStats.lastCount == 174
@@ -0,0 +1,30 @@
+package pl.ks.profiling.safepoint.analyzer.commons.shared.thread.parser
+
+import spock.lang.Specification
+
+class ThreadLogFileSpec extends Specification {
+    def "should keep exact last status and merged snapshots of thread counts"() {
+        given:
+        ThreadLogFile threadLogFile = new ThreadLogFile(10, 4)
+
+        when:
+        (0..<80).each { threadLogFile.newThreadAdded(it) }
+        threadLogFile.threadDestroyed(95)
+
+        then:
+        threadLogFile.threadCounters.resolution == 40
+        threadLogFile.threadsStatuses.collect { [it.timeStamp, it.createdCount, it.destroyedCount] } ==
+                [[39L, 40L, 0L], [79L, 80L, 0L], [95L, 80L, 1L]]
+        with(threadLogFile.lastStatus) {
+            timeStamp == 95
+            createdCount == 80
+            destroyedCount == 1
+        }
+    }
+
+    def "should have no status without thread events"() {
+        expect:
+        new ThreadLogFile().lastStatus == null
+        new ThreadLogFile().threadsStatuses.isEmpty()
+    }
+}
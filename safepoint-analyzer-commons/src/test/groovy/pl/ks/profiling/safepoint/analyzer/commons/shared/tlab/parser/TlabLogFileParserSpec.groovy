@@ -111,7 +111,7 @@ class TlabLogFileParserSpec extends Specification {
         def summary = parseLines(lines).getTlabSummaries().head()
 
         then:
-        summary.timeStamp == 485728.328G
+        summary.timeStamp == 485_728_328_000_000L
         summary.threadCount == 86
         summary.refills == 2701
         summary.maxRefills == 265
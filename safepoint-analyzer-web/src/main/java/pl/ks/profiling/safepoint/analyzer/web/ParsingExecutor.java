@@ -16,11 +16,20 @@
 package pl.ks.profiling.safepoint.analyzer.web;
 
 import pl.ks.profiling.io.source.LogsSource;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Subsystem;
 
+import java.util.Set;
 import java.util.function.Function;
 
 public interface ParsingExecutor {
-    ParsingStatus enqueue(LogsSource logsSource, Function<String, String> resultLocationFactory);
+    ParsingStatus enqueue(LogsSource logsSource, Set<Subsystem> subsystems, Function<String, String> resultLocationFactory);
+
+    /**
+     * Enqueues parsing only when a worker can start it right away, for sources fed by the caller while they are parsed.
+     *
+     * @return status of the parsing, null when all workers are busy and nothing has been enqueued
+     */
+    ParsingStatus enqueueIfIdle(LogsSource logsSource, Set<Subsystem> subsystems, Function<String, String> resultLocationFactory);
 
     ParsingStatus getParsingStatus(String parsingId);
 }
@@ -23,10 +23,13 @@ import org.springframework.stereotype.Component;
 import pl.ks.profiling.io.source.LogsSource;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParsingProgress;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.StatsService;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Subsystem;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 @Slf4j
@@ -37,6 +40,7 @@ public class ParsingExecutorSimple implements ParsingExecutor {
     private final Cache<String, ParsingStatus> statuses;
     private final ExecutorService executor;
     private final ParsingProperties parsingProperties;
+    private final AtomicInteger unfinishedParsings = new AtomicInteger();
 
     public ParsingExecutorSimple(StatsService statsService, StatsRepository statsRepository, ParsingProperties parsingProperties) {
         this.statsService = statsService;
@@ -46,18 +50,37 @@ public class ParsingExecutorSimple implements ParsingExecutor {
         this.executor = Executors.newFixedThreadPool(parsingProperties.workerThreads, new CustomizableThreadFactory("parsing-"));
     }
 
-    public ParsingStatus enqueue(LogsSource logsSource, Function<String, String> resultLocationFactory) {
+    public ParsingStatus enqueue(LogsSource logsSource, Set<Subsystem> subsystems, Function<String, String> resultLocationFactory) {
+        unfinishedParsings.incrementAndGet();
+        return submit(logsSource, subsystems, resultLocationFactory);
+    }
+
+    public ParsingStatus enqueueIfIdle(LogsSource logsSource, Set<Subsystem> subsystems, Function<String, String> resultLocationFactory) {
+        int unfinished;
+        do {
+            unfinished = unfinishedParsings.get();
+            if (unfinished >= parsingProperties.workerThreads) {
+                return null;
+            }
+        } while (!unfinishedParsings.compareAndSet(unfinished, unfinished + 1));
+        return submit(logsSource, subsystems, resultLocationFactory);
+    }
+
+    private ParsingStatus submit(LogsSource logsSource, Set<Subsystem> subsystems, Function<String, String> resultLocationFactory) {
         String parsingId = UUID.randomUUID().toString();
         executor.submit(() -> {
             log.info("Submitting parsing {} to parser", parsingId);
             try {
                 statsService.createAllStatsUnifiedLogger(
                         logsSource,
+                        subsystems,
                         (ParsingProgress p) -> updateParsingProgress(parsingId, p),
                         (JvmLogFile f) -> storeInRepo(parsingId, f));
             } catch (Throwable t) {
                 log.error("Error while processing parsing " + parsingId, t);
                 markAsFailed(parsingId);
+            } finally {
+                unfinishedParsings.decrementAndGet();
             }
         });
         ParsingStatus parsingStatus = createParsingInitialParsingStatus(resultLocationFactory, parsingId, logsSource);
@@ -28,6 +28,7 @@ public class ParsingProperties {
     @Min(1)
     int workerThreads;
     ResultsProperties results;
+    PlainTextProperties plainText;
 }
 
 @Data
@@ -36,3 +37,16 @@ class ResultsProperties {
     @NotNull
     Duration expiration;
 }
+
+@Data
+class PlainTextProperties {
+    /**
+     * Plain text logs are saved to storage when retained. Otherwise they are streamed to the parser when a worker is
+     * free and saved to storage only while all workers are busy.
+     */
+    boolean retain;
+    /**
+     * Longest time a streamed request may wait for the parser to receive its logs.
+     */
+    Duration timeout = Duration.ofMinutes(10);
+}
@@ -18,26 +18,43 @@ package pl.ks.profiling.safepoint.analyzer.web;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import pl.ks.profiling.io.BytePipe;
 import pl.ks.profiling.io.InputUtils;
+import pl.ks.profiling.io.StorageTee;
 import pl.ks.profiling.io.StorageUtils;
+import pl.ks.profiling.io.source.InputStreamLogsSource;
+import pl.ks.profiling.io.source.LogsSource;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.ParserUtils;
+import pl.ks.profiling.safepoint.analyzer.commons.shared.Subsystem;
 import pl.ks.profiling.safepoint.analyzer.commons.shared.report.JvmLogFile;
 import pl.ks.profiling.web.commons.WelcomePage;
 
 import jakarta.servlet.http.HttpServletRequest;
-
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 
 @Slf4j
 @Controller
 @RequiredArgsConstructor
 class StatsController {
+    private static final String PLAIN_TEXT_NAME = "plain-text.log";
+    private static final int PLAIN_TEXT_PIPE_CAPACITY = 64;
+
     @Value("${safepoint.files.dir}")
     private String INPUTS_PATH;
 
@@ -70,38 +87,97 @@ class StatsController {
         model.addAttribute("enqueueUrl", enqueueUrl);
         model.addAttribute("parsingProperties", parsingProperties);
         model.addAttribute("maxFileSize", maxFileSize);
+        model.addAttribute("subsystems", List.of(Subsystem.names().split(",")));
         return "upload";
     }
 
-    @PostMapping("/enqueue")
+    @PostMapping(value = "/enqueue", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @ResponseBody
     ParsingStatus enqueue(@RequestParam("file") MultipartFile file, HttpServletRequest request) throws Exception {
         String originalFilename = file.getOriginalFilename();
         log.info("New request to enqueue file {}. Copying to persistent storage", originalFilename);
-        log.debug("Copying file {} to persistent storage.", originalFilename);
-        String savedLocation = StorageUtils.createCopy(INPUTS_PATH, originalFilename, file.getInputStream());
-        log.debug("File {} has been copied. Enqueuing.", originalFilename);
+        return copyAndEnqueue(originalFilename, file.getInputStream(), request);
+    }
+
+    @PostMapping(value = "/enqueue", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ResponseBody
+    ParsingStatus enqueueStream(@RequestParam("name") String name, HttpServletRequest request) throws Exception {
+        log.info("New request to enqueue streamed file {}. Copying to persistent storage", name);
+        return copyAndEnqueue(name, request.getInputStream(), request);
+    }
+
+    private ParsingStatus copyAndEnqueue(String originalFilename, InputStream content, HttpServletRequest request) throws IOException {
+        StorageTee storageTee = StorageUtils.startCopy(INPUTS_PATH, originalFilename);
+        if (!InputStreamLogsSource.supports(originalFilename)) {
+            log.debug("Copying file {} to persistent storage.", originalFilename);
+            storageTee.copyFrom(content, maxFileSize.toBytes());
+            log.debug("File {} has been copied. Enqueuing.", originalFilename);
+            return enqueue(InputUtils.getLogsSource(storageTee.getSavedLocation(), originalFilename, ParserUtils::getTimeStamp), request);
+        }
+        log.debug("Enqueuing file {} parsed while it is copied to persistent storage.", originalFilename);
+        ParsingStatus initialStatus = enqueue(new InputStreamLogsSource(originalFilename, storageTee.newReader()), request);
+        long copied = storageTee.copyFrom(content, maxFileSize.toBytes());
+        log.debug("File {} has been copied, {} bytes.", originalFilename, copied);
+        return initialStatus;
+    }
+
+    private ParsingStatus enqueue(LogsSource logsSource, HttpServletRequest request) {
         ParsingStatus initialStatus = parsingExecutor.enqueue(
-                InputUtils.getLogsSource(savedLocation, originalFilename, ParserUtils::getTimeStamp),
+                logsSource,
+                subsystems(request),
                 (String parsingId) -> createParsingProgressUrl(request, parsingId));
-        log.debug("File {} has received status {}", originalFilename, initialStatus);
+        log.debug("File {} has received status {}", logsSource.getName(), initialStatus);
         return initialStatus;
     }
 
-    @PostMapping("/enqueue-plain-text")
+    @PostMapping(value = "/enqueue-plain-text", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseBody
+    ParsingStatus enqueuePlainText(HttpServletRequest request) throws Exception {
+        log.info("New request to enqueue logs of length {} bytes.", request.getContentLengthLong());
+        return enqueuePlainText(request.getInputStream(), request);
+    }
+
+    @PostMapping(value = "/enqueue-plain-text", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE, MediaType.APPLICATION_FORM_URLENCODED_VALUE})
     @ResponseBody
     ParsingStatus enqueue(String text, HttpServletRequest request) throws Exception {
         log.info("New request to enqueue logs of length {} characters.", text.length());
-        log.debug("Saving text to persistent storage");
-        String savedLocation = StorageUtils.savePlainText(INPUTS_PATH, text);
-        log.debug("Enqueuing logs for parsing.");
-        ParsingStatus initialStatus = parsingExecutor.enqueue(
-                InputUtils.getLogsSource(savedLocation, "plain-text.log", ParserUtils::getTimeStamp),
+        InputStream content = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        if (isPlainTextRetained()) {
+            log.debug("Saving logs to persistent storage while they are parsed");
+            return copyAndEnqueue(PLAIN_TEXT_NAME, content, request);
+        }
+        log.debug("Enqueuing logs held in memory for parsing.");
+        return enqueue(new InputStreamLogsSource(PLAIN_TEXT_NAME, content), request);
+    }
+
+    private ParsingStatus enqueuePlainText(InputStream content, HttpServletRequest request) throws IOException {
+        if (isPlainTextRetained()) {
+            log.debug("Saving logs to persistent storage while they are parsed");
+            return copyAndEnqueue(PLAIN_TEXT_NAME, content, request);
+        }
+        BytePipe bytePipe = new BytePipe(PLAIN_TEXT_PIPE_CAPACITY, plainTextTimeout());
+        ParsingStatus initialStatus = parsingExecutor.enqueueIfIdle(
+                new InputStreamLogsSource(PLAIN_TEXT_NAME, bytePipe.getInputStream()),
+                subsystems(request),
                 (String parsingId) -> createParsingProgressUrl(request, parsingId));
-        log.debug("Logs have received status {}", initialStatus);
+        if (initialStatus == null) {
+            log.debug("All parsing workers are busy, saving logs to persistent storage until one is free.");
+            return copyAndEnqueue(PLAIN_TEXT_NAME, content, request);
+        }
+        log.debug("Logs are passed to parsing {} while they are received.", initialStatus.getParsingId());
+        long passed = bytePipe.copyFrom(content, maxFileSize.toBytes());
+        log.debug("Logs have been passed to the parser, {} bytes.", passed);
         return initialStatus;
     }
 
+    private boolean isPlainTextRetained() {
+        return parsingProperties.plainText != null && parsingProperties.plainText.retain;
+    }
+
+    private Duration plainTextTimeout() {
+        return parsingProperties.plainText != null ? parsingProperties.plainText.timeout : new PlainTextProperties().timeout;
+    }
+
     @GetMapping(value = "/parsings/{parsingId}/progress")
     String progress(Model model, @PathVariable String parsingId) {
         model.addAttribute("initialStatus", parsingExecutor.getParsingStatus(parsingId));
@@ -130,6 +206,18 @@ class StatsController {
         return "welcome";
     }
 
+    /**
+     * Optional comma separated {@code subsystems} parameter, like {@code gc,safepoint}, limits parsing to these
+     * subsystems. All of them are analysed when it is absent.
+     */
+    private static Set<Subsystem> subsystems(HttpServletRequest request) {
+        try {
+            return Subsystem.parse(request.getParameter("subsystems"));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(BAD_REQUEST, e.getMessage());
+        }
+    }
+
     private String createParsingProgressUrl(HttpServletRequest request, String parsingId) {
         return serverUrl(request) + "/parsings/" + parsingId + "/progress";
     }